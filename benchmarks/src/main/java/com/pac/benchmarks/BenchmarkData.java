@@ -0,0 +1,57 @@
+package com.pac.benchmarks;
+
+import com.pac.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Transacciones sintéticas deterministas para los benchmarks: la misma
+ * semilla produce siempre las mismas filas, de modo que los resultados de
+ * dos builds son comparables.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42;
+
+    static final String[] CATEGORIES = {
+        "groceries", "housing", "transport", "food", "transfer", "online", "other"
+    };
+
+    static final String[] DESCRIPTIONS = {
+        "Compra supermercado Mercadona", "Pago alquiler piso centro", "Uber viaje aeropuerto",
+        "Cena restaurante italiano", "Transferencia a cuenta ahorro", "Suscripcion online streaming"
+    };
+
+    private BenchmarkData() {
+        // Clase de utilidades
+    }
+
+    /**
+     * @param rows Número de transacciones
+     * @param start Fecha de la transacción más antigua
+     * @param days Días que abarcan las fechas
+     * @return Transacciones sin id, con importes entre 1,00 y 3.000,00 y un
+     *         5% marcadas como sospechosas
+     */
+    static List<Transaction> transactions(int rows, LocalDate start, int days) {
+        Random random = new Random(SEED);
+        List<Transaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction(
+                    start.plusDays(random.nextInt(days)),
+                    BigDecimal.valueOf(100 + random.nextInt(300_000), 2),
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            transaction.setSuspicious(random.nextInt(20) == 0);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,90 @@
+package com.pac.benchmarks;
+
+import com.pac.entity.Transaction;
+import com.pac.rules.RuleEngine;
+import com.pac.rules.SuspicionRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento del motor de reglas de sospecha con las reglas por defecto.
+ * 
+ * Cada operación evalúa una transacción, por lo que el resultado en ops/s
+ * con un hilo equivale a transacciones por segundo y núcleo (objetivo:
+ * más de 100.000). Ejecutar con el perfilador de memoria para comprobar que
+ * la evaluación no reserva memoria ({@code gc.alloc.rate.norm} ~ 0 B/op):
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar RuleEngineBenchmark -prof gc
+ * </pre>
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class RuleEngineBenchmark {
+    
+    private static final String[] CATEGORIES = {
+        "groceries", "housing", "transport", "food", "transfer", "online", "other"
+    };
+    
+    private static final String[] DESCRIPTIONS = {
+        "Compra supermercado Mercadona", "Pago alquiler piso centro", "Uber viaje aeropuerto",
+        "Cena restaurante italiano", "Transferencia a cuenta ahorro", "Suscripcion online streaming",
+        "Cargo por error en tarjeta", "Movimiento sospechosa revisar"
+    };
+    
+    /**
+     * Tamaño del conjunto de transacciones (potencia de 2 para indexar con máscara).
+     */
+    private static final int SIZE = 4096;
+    
+    private RuleEngine engine;
+    private Transaction[] transactions;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        engine = SuspicionRules.loadDefault();
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        transactions = new Transaction[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            transactions[i] = new Transaction(
+                    start.plusDays(random.nextInt(365)),
+                    BigDecimal.valueOf(100 + random.nextInt(300_000), 2),
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        }
+    }
+    
+    /**
+     * Evalúa una transacción y devuelve su puntuación.
+     */
+    @Benchmark
+    public int score() {
+        Transaction transaction = transactions[next];
+        next = (next + 1) & (SIZE - 1);
+        return engine.score(transaction);
+    }
+}
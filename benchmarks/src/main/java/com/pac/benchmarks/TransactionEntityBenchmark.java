@@ -0,0 +1,87 @@
+package com.pac.benchmarks;
+
+import com.pac.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métodos de negocio de la entidad {@link Transaction} que se evalúan por
+ * cada fila en la ingesta y en los listados: {@code isValid()},
+ * {@code isHighValue()} e {@code isRecent()}.
+ *
+ * Cada operación recorre el conjunto completo, así que el tiempo por fila es
+ * el resultado dividido entre {@code rows}. Los tamaños cubren un conjunto
+ * que cabe en la caché L2 y otro que no. {@code isRecent()} consulta el
+ * reloj en cada llamada; el coste de {@code LocalDate.now()} forma parte de
+ * lo que se mide.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionEntityBenchmark {
+
+    /**
+     * Transacciones evaluadas por operación.
+     */
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private Transaction[] transactions;
+
+    @Setup
+    public void setUp() {
+        transactions = BenchmarkData.transactions(rows, LocalDate.now().minusDays(90), 90)
+                .toArray(new Transaction[0]);
+    }
+
+    @Benchmark
+    public int isValid() {
+        int valid = 0;
+        for (Transaction transaction : transactions) {
+            if (transaction.isValid()) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int isHighValue() {
+        int highValue = 0;
+        for (Transaction transaction : transactions) {
+            if (transaction.isHighValue()) {
+                highValue++;
+            }
+        }
+        return highValue;
+    }
+
+    @Benchmark
+    public int isRecent() {
+        int recent = 0;
+        for (Transaction transaction : transactions) {
+            if (transaction.isRecent()) {
+                recent++;
+            }
+        }
+        return recent;
+    }
+}
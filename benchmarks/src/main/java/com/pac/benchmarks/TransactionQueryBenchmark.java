@@ -0,0 +1,260 @@
+package com.pac.benchmarks;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.CategoryRegistry;
+import com.pac.repository.CategoryRepository;
+import com.pac.repository.PageCursor;
+import com.pac.repository.TransactionFilter;
+import com.pac.repository.TransactionIdIndex;
+import com.pac.repository.TransactionRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.jpa.PersistenceProvider;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.PGConnection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas reales de {@link TransactionRepository} (JPQL y SQL nativo a
+ * través de EclipseLink) contra un PostgreSQL embebido.
+ *
+ * Al preparar cada tamaño de {@code rows} se arranca un PostgreSQL local
+ * (binarios de io.zonky.test, sin instalación), se aplican las migraciones
+ * Flyway de la aplicación, se cargan las filas con COPY a partir de
+ * {@link BenchmarkData} y se ejecuta ANALYZE. La unidad de persistencia
+ * "benchmark" usa transacciones locales y no tiene caché compartida, para
+ * que cada operación llegue a la base de datos.
+ *
+ * Mide el coste de extremo a extremo de una consulta en la aplicación
+ * (planificación, ejecución, transferencia JDBC y construcción de entidades),
+ * no el de PostgreSQL aislado: una regresión en un índice, en el JPQL o en
+ * el mapeo aparece aquí.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionQueryBenchmark {
+
+    /**
+     * Filas cargadas en fact_transactions.
+     */
+    @Param({"10000", "100000"})
+    private int rows;
+
+    /**
+     * Tamaño de página de los listados (el de la API por defecto).
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Unidad de persistencia propia: la de la aplicación es JTA y declara
+     * entidades que no se usan aquí.
+     */
+    private static final String PERSISTENCE_XML = "META-INF/benchmark-persistence.xml";
+
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+    private static final int DAYS = 3 * 365;
+
+    private EmbeddedPostgres postgres;
+    private EntityManagerFactory factory;
+    private EntityManager entityManager;
+    private TransactionRepository repository;
+    private PageCursor middle;
+    private long minId;
+    private long maxId;
+    private Random random;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        load(dataSource);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PersistenceUnitProperties.ECLIPSELINK_PERSISTENCE_XML, PERSISTENCE_XML);
+        properties.put(PersistenceUnitProperties.JDBC_URL, postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put(PersistenceUnitProperties.JDBC_USER, "postgres");
+        properties.put(PersistenceUnitProperties.JDBC_PASSWORD, "");
+        factory = new PersistenceProvider().createEntityManagerFactory("benchmark", properties);
+        entityManager = factory.createEntityManager();
+
+        CategoryRepository categoryRepository = new CategoryRepository();
+        inject(categoryRepository, "entityManager", entityManager);
+        CategoryRegistry categories = new CategoryRegistry();
+        inject(categories, "categoryRepository", categoryRepository);
+        Method init = CategoryRegistry.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(categories);
+
+        repository = new TransactionRepository();
+        inject(repository, "entityManager", entityManager);
+        inject(repository, "categories", categories);
+        inject(repository, "ids", new TransactionIdIndex()); // Sin cargar: no descarta ids
+
+        List<Transaction> page = repository.findPage(TransactionFilter.all(), null, rows / 2);
+        middle = PageCursor.after(page.get(page.size() - 1));
+        entityManager.clear();
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    /**
+     * Carga las filas con COPY, resolviendo category_id con dim_category.
+     */
+    private void load(DataSource dataSource) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            Map<String, Short> categoryIds = new HashMap<>();
+            try (ResultSet result = statement.executeQuery("SELECT name, id FROM dim_category")) {
+                while (result.next()) {
+                    categoryIds.put(result.getString(1), result.getShort(2));
+                }
+            }
+            StringBuilder copy = new StringBuilder(rows * 80);
+            for (Transaction transaction : BenchmarkData.transactions(rows, START, DAYS)) {
+                copy.append(transaction.getTransactionDate()).append('\t')
+                    .append(transaction.getAmount().toPlainString()).append('\t')
+                    .append(transaction.getDescription()).append('\t')
+                    .append(transaction.getCategory()).append('\t')
+                    .append(categoryIds.get(transaction.getCategory())).append('\t')
+                    .append(transaction.isSuspicious()).append('\n');
+            }
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY fact_transactions (transactiondate, amount, description, category, category_id, issuspicious) "
+                            + "FROM STDIN", new StringReader(copy.toString()));
+            statement.execute("ANALYZE fact_transactions");
+            try (ResultSet result = statement.executeQuery("SELECT MIN(id), MAX(id) FROM fact_transactions")) {
+                result.next();
+                minId = result.getLong(1);
+                maxId = result.getLong(2);
+            }
+        }
+    }
+
+    private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        entityManager.close();
+        factory.close();
+        postgres.close();
+    }
+
+    // ========================================================================
+    // BENCHMARKS
+    // ========================================================================
+
+    /**
+     * Búsqueda por clave primaria de un id existente.
+     */
+    @Benchmark
+    public Optional<Transaction> findById() {
+        long id = minId + (long) (random.nextDouble() * (maxId - minId + 1));
+        Optional<Transaction> result = repository.findById(id);
+        entityManager.clear();
+        return result;
+    }
+
+    /**
+     * Primera página del listado general.
+     */
+    @Benchmark
+    public List<Transaction> pageAll() {
+        return page(TransactionFilter.all(), null);
+    }
+
+    /**
+     * Página a mitad del listado: con keyset cuesta lo mismo que la primera.
+     */
+    @Benchmark
+    public List<Transaction> pageAllDeep() {
+        return page(TransactionFilter.all(), middle);
+    }
+
+    @Benchmark
+    public List<Transaction> pageCategory() {
+        return page(TransactionFilter.category("groceries"), null);
+    }
+
+    @Benchmark
+    public List<Transaction> pageSuspicious() {
+        return page(TransactionFilter.suspicious(), null);
+    }
+
+    @Benchmark
+    public List<Transaction> pageHighValue() {
+        return page(TransactionFilter.minAmount(TransactionRepository.HIGH_VALUE_THRESHOLD), null);
+    }
+
+    /**
+     * Búsqueda por descripción con ranking por similitud (pg_trgm).
+     */
+    @Benchmark
+    public List<Transaction> search() {
+        List<Transaction> result = repository.search("supermercado", PAGE_SIZE);
+        entityManager.clear();
+        return result;
+    }
+
+    @Benchmark
+    public Long countSuspicious() {
+        return repository.countSuspicious();
+    }
+
+    @Benchmark
+    public BigDecimal sumTotal() {
+        return repository.sumTotal();
+    }
+
+    @Benchmark
+    public List<Object[]> countByCategory() {
+        return repository.countByCategory();
+    }
+
+    private List<Transaction> page(TransactionFilter filter, PageCursor after) {
+        List<Transaction> result = repository.findPage(filter, after, PAGE_SIZE + 1);
+        entityManager.clear();
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+package com.pac.benchmarks;
+
+import com.pac.entity.Transaction;
+import com.pac.rest.cbor.CborDecoder;
+import com.pac.rest.cbor.CborEncoder;
+import com.pac.rest.TransactionResource.TransactionStats;
+import com.pac.rest.cbor.CborMapper;
+import com.pac.rest.stream.TransactionJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.Json;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de un listado de transacciones en los formatos de la API:
+ * JSON-B (respuestas normales), JSON-P en streaming
+ * ({@link TransactionJsonWriter}, usado por /stream) y CBOR, y de la
+ * respuesta de /stats ({@link TransactionStats}).
+ * 
+ * Cada operación serializa la lista completa en un buffer reutilizado; el
+ * tamaño de cada cuerpo se imprime al preparar el benchmark. Para comparar
+ * también la memoria reservada por operación:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar TransactionSerializationBenchmark -prof gc
+ * </pre>
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSerializationBenchmark {
+    
+    private static final String[] CATEGORIES = {
+        "groceries", "housing", "transport", "food", "transfer", "online", "other"
+    };
+    
+    private static final String[] DESCRIPTIONS = {
+        "Compra supermercado Mercadona", "Pago alquiler piso centro", "Uber viaje aeropuerto",
+        "Cena restaurante italiano", "Transferencia a cuenta ahorro", "Suscripcion online streaming"
+    };
+    
+    /**
+     * Filas del listado (el tamaño de página por defecto y el máximo).
+     */
+    @Param({"100", "1000"})
+    private int rows;
+    
+    private List<Transaction> transactions;
+    private Jsonb jsonb;
+    private JsonGeneratorFactory generators;
+    private ByteArrayOutputStream out;
+    private byte[] cbor;
+    private TransactionStats stats;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 12, 0);
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction(
+                    start.plusDays(random.nextInt(365)),
+                    BigDecimal.valueOf(100 + random.nextInt(300_000), 2),
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            transaction.setId(1_000_000L + i);
+            transaction.setSuspicious(random.nextInt(20) == 0);
+            transaction.setRiskScore(random.nextInt(20) == 0 ? 50 : 0);
+            transaction.setCreatedAt(created.plusSeconds(i));
+            transactions.add(transaction);
+        }
+        stats = new TransactionStats(12_345_678L, 617_284L,
+                new BigDecimal("18518517000.00"), new BigDecimal("1500.00"));
+        jsonb = JsonbBuilder.create();
+        generators = Json.createGeneratorFactory(Collections.emptyMap());
+        out = new ByteArrayOutputStream(rows * 256);
+        
+        int jsonbSize = jsonb().length;
+        int jsonpSize = jsonp().length;
+        cbor = cbor();
+        System.out.printf("%nrows=%d: JSON-B %d bytes, JSON-P %d bytes, CBOR %d bytes (%.0f%% of JSON-B)%n",
+                rows, jsonbSize, jsonpSize, cbor.length, 100.0 * cbor.length / jsonbSize);
+    }
+    
+    /**
+     * Serialización de las respuestas normales (JSON-B por reflexión).
+     */
+    @Benchmark
+    public byte[] jsonb() {
+        out.reset();
+        jsonb.toJson(transactions, out);
+        return out.toByteArray();
+    }
+    
+    /**
+     * Serialización de la respuesta de /stats; no depende de {@code rows}.
+     */
+    @Benchmark
+    public byte[] statsJsonb() {
+        out.reset();
+        jsonb.toJson(stats, out);
+        return out.toByteArray();
+    }
+    
+    /**
+     * Serialización JSON en streaming con {@link TransactionJsonWriter}.
+     */
+    @Benchmark
+    public byte[] jsonp() {
+        out.reset();
+        try (JsonGenerator generator = generators.createGenerator(out)) {
+            generator.writeStartArray();
+            for (Transaction transaction : transactions) {
+                TransactionJsonWriter.write(generator, transaction);
+            }
+            generator.writeEnd();
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Serialización CBOR con {@link CborMapper}.
+     */
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        out.reset();
+        CborEncoder encoder = new CborEncoder(out);
+        CborMapper.write(encoder, transactions);
+        encoder.flush();
+        return out.toByteArray();
+    }
+    
+    /**
+     * Lectura del cuerpo CBOR y conversión a transacciones.
+     */
+    @Benchmark
+    public List<Transaction> cborRead() throws IOException {
+        List<?> values = (List<?>) new CborDecoder(new ByteArrayInputStream(cbor)).readValue();
+        List<Transaction> read = new ArrayList<>(values.size());
+        for (Object value : values) {
+            read.add(CborMapper.readTransaction(value));
+        }
+        return read;
+    }
+}
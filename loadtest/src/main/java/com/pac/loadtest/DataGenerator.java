@@ -0,0 +1,505 @@
+package com.pac.loadtest;
+
+import com.pac.entity.Transaction;
+import com.pac.pipeline.ParsedRow;
+import com.pac.pipeline.RawTransactionParser;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera transacciones con la distribución de {@link DataProfile} y las carga
+ * con COPY en fact_transactions, raw_transactions o ambas.
+ *
+ * Cada línea se genera primero como CSV de raw_transactions
+ * ({@code date,amount,description}) y la fila de fact_transactions es la que
+ * produce {@link RawTransactionParser} con esa línea: categoría y marca de
+ * sospechosa coinciden con las que asignaría el pipeline.
+ *
+ * Las filas se generan en bloques de {@value #BLOCK_ROWS}; cada bloque tiene
+ * su propia semilla derivada de {@code --seed}, así que el mismo comando
+ * produce las mismas filas con cualquier número de hilos (solo cambia el
+ * orden de los ids). Cada hilo usa su conexión y confirma bloque a bloque.
+ *
+ * Los ids de fact_transactions no salen de la secuencia fila a fila: con
+ * INCREMENT BY 50 (V4) quedarían 50 veces más dispersos que los de la
+ * aplicación, y el índice de ids y las búsquedas por id medirían otra cosa.
+ * Antes de cargar se reserva un rango consecutivo en la secuencia, cada
+ * bloque copia sus ids explícitos dentro del rango y la secuencia queda
+ * después del último.
+ *
+ * Con {@code --table both} el watermark del pipeline avanza hasta el último
+ * id cargado en raw_transactions, para que la aplicación no vuelva a
+ * promover esas líneas. Con {@code --table raw} no se toca, y el pipeline
+ * las procesa como si llegaran de la ingesta.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class DataGenerator {
+
+    static final int BLOCK_ROWS = 50_000;
+
+    private static final String FACT_COPY = "COPY fact_transactions "
+            + "(id, transactiondate, amount, description, category, category_id, issuspicious, risk_score, createdat) "
+            + "FROM STDIN";
+    private static final String RAW_COPY = "COPY raw_transactions (csvline, createdat) FROM STDIN";
+    private static final String PIPELINE = "raw_to_fact";
+    private static final String FACT_SEQUENCE = "fact_transactions_id_seq";
+
+    /**
+     * Incremento de la secuencia de fact_transactions (V4), igual al tamaño
+     * de bloque de ids de la aplicación.
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private enum Target {
+        FACT, RAW, BOTH;
+
+        boolean fact() {
+            return this != RAW;
+        }
+
+        boolean raw() {
+            return this != FACT;
+        }
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final long rows;
+    private final long seed;
+    private final int threads;
+    private final Target target;
+    private final boolean truncate;
+    private final boolean deferIndexes;
+    private final DataProfile profile;
+
+    private Map<String, Short> categoryIds;
+    private long firstFactId;
+    private final AtomicLong nextBlock = new AtomicLong();
+    private final AtomicLong loadedFact = new AtomicLong();
+    private final AtomicLong loadedRaw = new AtomicLong();
+
+    DataGenerator(Options options) throws Exception {
+        url = options.get("jdbc-url", "jdbc:postgresql://localhost:5432/curso_db");
+        user = options.get("user", "curso_user");
+        password = options.get("password", System.getenv().getOrDefault("DB_PASSWORD", ""));
+        rows = options.getLong("rows", 1_000_000);
+        seed = options.getLong("seed", 42);
+        threads = options.getInt("threads", Math.min(8, Runtime.getRuntime().availableProcessors()));
+        target = Target.valueOf(options.get("table", "fact").toUpperCase());
+        truncate = options.getFlag("truncate");
+        deferIndexes = options.getFlag("defer-indexes");
+        profile = DataProfile.load(options.get("profile", null));
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        List<String> droppedIndexes = new ArrayList<>();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            if (truncate) {
+                System.out.println("Truncating fact_transactions, raw_transactions and rollups");
+                statement.execute("TRUNCATE fact_transactions, raw_transactions, "
+                        + "rollup_daily_transactions, rollup_monthly_transactions RESTART IDENTITY");
+                statement.execute("UPDATE pipeline_watermark SET last_txid = 0, last_raw_id = 0, updatedat = now()");
+            }
+            categoryIds = resolveCategories(connection);
+            if (target.fact() && rows > 0) {
+                firstFactId = reserveIds(connection, rows);
+            }
+            if (deferIndexes && target.fact()) {
+                droppedIndexes = dropIndexes(statement);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    load(blocks, start);
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            if (!droppedIndexes.isEmpty()) {
+                recreateIndexes(executor, droppedIndexes);
+            }
+            executor.shutdown();
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            if (target == Target.BOTH) {
+                statement.execute("INSERT INTO pipeline_watermark (name, last_txid, last_raw_id) "
+                        + "SELECT '" + PIPELINE + "', txid, id FROM raw_transactions ORDER BY txid DESC, id DESC LIMIT 1 "
+                        + "ON CONFLICT (name) DO UPDATE SET last_txid = EXCLUDED.last_txid, "
+                        + "last_raw_id = EXCLUDED.last_raw_id, updatedat = now()");
+            }
+            if (target.fact()) {
+                System.out.println("Rebuilding rollups");
+                rebuildRollups(statement);
+                statement.execute("ANALYZE fact_transactions");
+            }
+            if (target.raw()) {
+                statement.execute("ANALYZE raw_transactions");
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Loaded %,d fact rows and %,d raw lines in %.1f s (seed %d)%n",
+                loadedFact.get(), loadedRaw.get(), seconds, seed);
+    }
+
+    /**
+     * Bucle de un hilo: toma bloques pendientes hasta agotarlos.
+     */
+    private void load(long blocks, long start) throws SQLException {
+        StringBuilder fact = new StringBuilder(BLOCK_ROWS * 120);
+        StringBuilder raw = new StringBuilder(BLOCK_ROWS * 80);
+        try (Connection connection = connect()) {
+            PGConnection pg = connection.unwrap(PGConnection.class);
+            long block;
+            while ((block = nextBlock.getAndIncrement()) < blocks) {
+                long count = Math.min(BLOCK_ROWS, rows - block * BLOCK_ROWS);
+                fact.setLength(0);
+                raw.setLength(0);
+                generateBlock(block, count, fact, raw);
+                if (target.fact()) {
+                    copy(pg, FACT_COPY, fact);
+                    loadedFact.addAndGet(count);
+                }
+                if (target.raw()) {
+                    loadedRaw.addAndGet(copy(pg, RAW_COPY, raw));
+                }
+                long done = target.fact() ? loadedFact.get() : loadedRaw.get();
+                System.out.printf("  %,d / %,d rows (%.0f rows/s)%n",
+                        done, rows, done / ((System.nanoTime() - start) / 1e9));
+            }
+        }
+    }
+
+    /**
+     * Genera un bloque en formato de texto de COPY.
+     */
+    void generateBlock(long block, long count, StringBuilder fact, StringBuilder raw) {
+        Random random = new Random(seed * 1_000_003L + block);
+        long blockFirstId = firstFactId + block * BLOCK_ROWS;
+        for (long i = 0; i < count; i++) {
+            LocalDate date = date(random);
+            LocalDateTime createdAt = date.atStartOfDay()
+                    .plusSeconds(random.nextInt(86_400))
+                    .plusDays(random.nextInt(3));
+            boolean malformed = random.nextDouble() < profile.malformedRatio;
+            int malformedKind = random.nextInt(6);
+            String line = line(random, date);
+
+            if (malformed && target.raw()) {
+                appendRaw(raw, malformed(malformedKind, line), createdAt);
+            }
+            if (target.raw()) {
+                appendRaw(raw, line, createdAt);
+            }
+            if (target.fact()) {
+                ParsedRow parsed = RawTransactionParser.parse(line);
+                appendFact(fact, blockFirstId + i, parsed.getTransaction(), createdAt, random);
+            }
+        }
+    }
+
+    /**
+     * Fecha de la transacción: más probable cuanto más reciente
+     * ({@code recentSkew}) y con menos volumen en fin de semana.
+     */
+    private LocalDate date(Random random) {
+        while (true) {
+            int back = (int) (profile.days * Math.pow(random.nextDouble(), profile.recentSkew));
+            LocalDate date = profile.end.minusDays(Math.min(back, profile.days - 1));
+            DayOfWeek day = date.getDayOfWeek();
+            boolean weekend = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+            if (!weekend || random.nextDouble() < profile.weekendFactor) {
+                return date;
+            }
+        }
+    }
+
+    /**
+     * Línea CSV válida. Las sospechosas lo son por monto alto o por una
+     * palabra clave; las demás quedan siempre por debajo del umbral.
+     */
+    private String line(Random random, LocalDate date) {
+        DataProfile.Category category = category(random);
+        String description = category.descriptions[random.nextInt(category.descriptions.length)];
+        if (random.nextDouble() < profile.referenceRatio) {
+            description = description + " ref " + (1000 + random.nextInt(9000));
+        }
+        double threshold = Transaction.HIGH_VALUE_THRESHOLD.doubleValue();
+        long cents;
+        if (random.nextDouble() < profile.suspiciousRatio) {
+            if (random.nextDouble() < profile.highValueShare) {
+                cents = logNormalCents(random, profile.highValueMedian, profile.highValueSigma, threshold, 1_000_000);
+            } else {
+                cents = logNormalCents(random, category.median, category.sigma, 0.01, threshold - 0.01);
+                description = description + " " + profile.keywordSuffixes[random.nextInt(profile.keywordSuffixes.length)];
+            }
+        } else {
+            cents = logNormalCents(random, category.median, category.sigma, 0.01, threshold - 0.01);
+        }
+        return date + "," + BigDecimal.valueOf(cents, 2).toPlainString() + "," + description;
+    }
+
+    private DataProfile.Category category(Random random) {
+        double value = random.nextDouble();
+        double[] cumulative = profile.cumulativeWeights;
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value < cumulative[i]) {
+                return profile.categories.get(i);
+            }
+        }
+        return profile.categories.get(cumulative.length - 1);
+    }
+
+    /**
+     * Monto log-normal en céntimos dentro de [min, max]; los valores fuera
+     * del rango se vuelven a muestrear.
+     */
+    private static long logNormalCents(Random random, double median, double sigma, double min, double max) {
+        for (int attempt = 0; attempt < 16; attempt++) {
+            double value = median * Math.exp(sigma * random.nextGaussian());
+            if (value >= min && value <= max) {
+                return Math.max(1, Math.round(value * 100));
+            }
+        }
+        return Math.round(Math.min(Math.max(median, min), max) * 100);
+    }
+
+    /**
+     * Variantes de líneas corruptas vistas en la ingesta (ver transactions.csv).
+     */
+    private static String malformed(int kind, String line) {
+        String[] fields = line.split(",", 3);
+        switch (kind) {
+            case 0:
+                return fields[0] + ",," + fields[2];
+            case 1:
+                return "," + fields[1] + "," + fields[2];
+            case 2:
+                return fields[0].substring(8) + "-" + fields[0].substring(5, 7) + "-" + fields[0].substring(0, 4)
+                        + "," + fields[1] + "," + fields[2];
+            case 3:
+                return fields[0] + ",-" + fields[1] + "," + fields[2];
+            case 4:
+                return fields[0] + "," + fields[1];
+            default:
+                return fields[0] + "," + fields[1] + ",";
+        }
+    }
+
+    private static void appendRaw(StringBuilder out, String line, LocalDateTime createdAt) {
+        appendText(out, line);
+        out.append('\t').append(createdAt).append('\n');
+    }
+
+    private void appendFact(StringBuilder out, long id, Transaction transaction, LocalDateTime createdAt,
+                            Random random) {
+        int riskScore = transaction.isSuspicious() ? 50 + random.nextInt(51) : 0;
+        out.append(id).append('\t')
+           .append(transaction.getTransactionDate()).append('\t')
+           .append(transaction.getAmount().toPlainString()).append('\t');
+        appendText(out, transaction.getDescription());
+        out.append('\t').append(transaction.getCategory()).append('\t')
+           .append(categoryIds.get(transaction.getCategory())).append('\t')
+           .append(transaction.isSuspicious()).append('\t')
+           .append(riskScore).append('\t')
+           .append(createdAt).append('\n');
+    }
+
+    /**
+     * Escapa un campo para el formato de texto de COPY.
+     */
+    private static void appendText(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    /**
+     * @return Líneas copiadas
+     */
+    private static long copy(PGConnection connection, String sql, StringBuilder data) throws SQLException {
+        CopyIn copy = connection.getCopyAPI().copyIn(sql);
+        try {
+            byte[] bytes = data.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            return copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Reserva {@code count} ids consecutivos de fact_transactions y deja la
+     * secuencia detrás del último.
+     *
+     * El ALTER SEQUENCE (sin cambios) bloquea los nextval de la aplicación
+     * hasta el commit, de modo que ningún bloque de ids se concede entre la
+     * lectura de la secuencia y el setval. Un nextval devuelve el último id
+     * de su bloque, así que los ids posteriores a last_value están libres.
+     *
+     * @return Primer id reservado
+     */
+    private static long reserveIds(Connection connection, long count) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE " + FACT_SEQUENCE + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+            long first;
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT last_value, is_called FROM " + FACT_SEQUENCE)) {
+                result.next();
+                first = result.getBoolean(2) ? result.getLong(1) + 1 : result.getLong(1);
+            }
+            statement.execute("SELECT setval('" + FACT_SEQUENCE + "', " + (first + count - 1) + ")");
+            connection.commit();
+            System.out.printf("Reserved fact ids %,d - %,d%n", first, first + count - 1);
+            return first;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Da de alta en dim_category las categorías que puede producir el perfil
+     * y devuelve el diccionario nombre -> id.
+     */
+    private Map<String, Short> resolveCategories(Connection connection) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (DataProfile.Category category : profile.categories) {
+            names.add(category.name);
+        }
+        names.add("suspicious");
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO dim_category (name) VALUES (?) ON CONFLICT (name) DO NOTHING")) {
+            for (String name : names) {
+                insert.setString(1, name);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        Map<String, Short> ids = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT name, id FROM dim_category")) {
+            while (result.next()) {
+                ids.put(result.getString(1), result.getShort(2));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Elimina los índices secundarios de fact_transactions antes de la carga;
+     * reconstruirlos al final es varias veces más rápido que mantenerlos fila
+     * a fila. Las definiciones se imprimen por si la carga se interrumpe.
+     *
+     * @return Sentencias CREATE INDEX de los índices eliminados
+     */
+    private static List<String> dropIndexes(Statement statement) throws SQLException {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        try (ResultSet result = statement.executeQuery(
+                "SELECT indexname, indexdef FROM pg_indexes WHERE schemaname = current_schema() "
+                        + "AND tablename = 'fact_transactions' AND indexname NOT IN "
+                        + "(SELECT conname FROM pg_constraint WHERE conrelid = 'fact_transactions'::regclass)")) {
+            while (result.next()) {
+                indexes.put(result.getString(1), result.getString(2));
+            }
+        }
+        for (Map.Entry<String, String> index : indexes.entrySet()) {
+            System.out.println("Deferring index: " + index.getValue() + ";");
+            statement.execute("DROP INDEX " + index.getKey());
+        }
+        return new ArrayList<>(indexes.values());
+    }
+
+    private void recreateIndexes(ExecutorService executor, List<String> definitions) throws Exception {
+        System.out.printf("Recreating %d indexes%n", definitions.size());
+        List<Future<?>> builds = new ArrayList<>();
+        for (String definition : definitions) {
+            builds.add(executor.submit(() -> {
+                try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                    statement.execute("SET maintenance_work_mem = '512MB'");
+                    statement.execute(definition);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> build : builds) {
+            build.get();
+        }
+    }
+
+    /**
+     * Recalcula las tablas de agregados completas (por category_id), como la carga inicial de V6.
+     */
+    private static void rebuildRollups(Statement statement) throws SQLException {
+        statement.execute("TRUNCATE rollup_daily_transactions, rollup_monthly_transactions");
+        statement.execute("INSERT INTO rollup_daily_transactions"
+                + " (bucket, category_id, txn_count, amount_sum, amount_min, amount_max, suspicious_count)"
+                + " SELECT transactiondate, category_id, COUNT(*), SUM(amount), MIN(amount),"
+                + " MAX(amount), COUNT(*) FILTER (WHERE issuspicious)"
+                + " FROM fact_transactions GROUP BY transactiondate, category_id");
+        statement.execute("INSERT INTO rollup_monthly_transactions"
+                + " (bucket, category_id, txn_count, amount_sum, amount_min, amount_max, suspicious_count)"
+                + " SELECT CAST(date_trunc('month', bucket) AS DATE), category_id, SUM(txn_count), SUM(amount_sum),"
+                + " MIN(amount_min), MAX(amount_max), SUM(suspicious_count)"
+                + " FROM rollup_daily_transactions GROUP BY CAST(date_trunc('month', bucket) AS DATE), category_id");
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+}
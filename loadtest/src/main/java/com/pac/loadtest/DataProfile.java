@@ -0,0 +1,152 @@
+package com.pac.loadtest;
+
+import com.pac.entity.Transaction;
+import com.pac.pipeline.ParsedRow;
+import com.pac.pipeline.RawTransactionParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Distribución de los datos de producción que reproduce el generador:
+ * peso y montos por categoría, proporción de sospechosas, reparto de las
+ * fechas y líneas corruptas en raw_transactions.
+ *
+ * El perfil por defecto es {@code production-profile.properties}; con
+ * {@code --profile fichero} se usa otro con las mismas claves.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class DataProfile {
+
+    static final String DEFAULT_RESOURCE = "/production-profile.properties";
+
+    /**
+     * Categoría con su peso, mediana y dispersión del monto y descripciones.
+     */
+    static final class Category {
+        final String name;
+        final double weight;
+        final double median;
+        final double sigma;
+        final String[] descriptions;
+
+        Category(String name, double weight, double median, double sigma, String[] descriptions) {
+            this.name = name;
+            this.weight = weight;
+            this.median = median;
+            this.sigma = sigma;
+            this.descriptions = descriptions;
+        }
+    }
+
+    final int days;
+    final LocalDate end;
+    final double recentSkew;
+    final double weekendFactor;
+    final double suspiciousRatio;
+    final double highValueShare;
+    final double highValueMedian;
+    final double highValueSigma;
+    final String[] keywordSuffixes;
+    final double referenceRatio;
+    final double malformedRatio;
+    final List<Category> categories;
+
+    /**
+     * Pesos acumulados de {@link #categories}, normalizados a 1.
+     */
+    final double[] cumulativeWeights;
+
+    private DataProfile(Properties properties) {
+        days = Integer.parseInt(required(properties, "dates.days"));
+        String endValue = properties.getProperty("dates.end");
+        end = endValue == null || endValue.isEmpty() ? LocalDate.now() : LocalDate.parse(endValue);
+        recentSkew = Double.parseDouble(required(properties, "dates.recentSkew"));
+        weekendFactor = Double.parseDouble(required(properties, "dates.weekendFactor"));
+        suspiciousRatio = Double.parseDouble(required(properties, "suspicious.ratio"));
+        highValueShare = Double.parseDouble(required(properties, "suspicious.highValueShare"));
+        highValueMedian = Double.parseDouble(required(properties, "suspicious.highValueMedian"));
+        highValueSigma = Double.parseDouble(required(properties, "suspicious.highValueSigma"));
+        keywordSuffixes = required(properties, "suspicious.keywordSuffixes").split("\\|");
+        referenceRatio = Double.parseDouble(required(properties, "descriptions.referenceRatio"));
+        malformedRatio = Double.parseDouble(required(properties, "raw.malformedRatio"));
+
+        categories = new ArrayList<>();
+        double total = 0;
+        for (String name : required(properties, "categories").split(",")) {
+            String prefix = "category." + name.trim() + ".";
+            Category category = new Category(name.trim(),
+                    Double.parseDouble(required(properties, prefix + "weight")),
+                    Double.parseDouble(required(properties, prefix + "median")),
+                    Double.parseDouble(required(properties, prefix + "sigma")),
+                    required(properties, prefix + "descriptions").split("\\|"));
+            categories.add(category);
+            total += category.weight;
+        }
+        cumulativeWeights = new double[categories.size()];
+        double running = 0;
+        for (int i = 0; i < categories.size(); i++) {
+            running += categories.get(i).weight / total;
+            cumulativeWeights[i] = running;
+        }
+        cumulativeWeights[categories.size() - 1] = 1.0;
+        validate();
+    }
+
+    /**
+     * @param path Fichero del perfil, o null para el perfil por defecto
+     */
+    static DataProfile load(String path) throws IOException {
+        Properties properties = new Properties();
+        if (path == null) {
+            try (InputStream in = DataProfile.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                properties.load(in);
+            }
+        } else {
+            try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        return new DataProfile(properties);
+    }
+
+    /**
+     * Comprueba que cada descripción se clasifica en su categoría y no se
+     * marca como sospechosa; si no, los pesos del perfil no se cumplirían.
+     */
+    private void validate() {
+        if (suspiciousRatio < 0 || suspiciousRatio > 1 || highValueShare < 0 || highValueShare > 1) {
+            throw new IllegalArgumentException("Suspicious ratios must be between 0 and 1");
+        }
+        for (Category category : categories) {
+            for (String description : category.descriptions) {
+                ParsedRow row = RawTransactionParser.parse("2024-01-01,10.00," + description);
+                Transaction transaction = row.getTransaction();
+                if (!row.isAccepted() || !category.name.equals(transaction.getCategory())
+                        || transaction.isSuspicious()) {
+                    throw new IllegalArgumentException(String.format(
+                            "Description '%s' is not classified as a regular %s transaction",
+                            description, category.name));
+                }
+            }
+        }
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing profile property: " + key);
+        }
+        return value.trim();
+    }
+}
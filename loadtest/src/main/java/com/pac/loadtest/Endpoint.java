@@ -0,0 +1,127 @@
+package com.pac.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Endpoint de la API que ejercita el driver, con sus estadísticas.
+ *
+ * Los listados paginados guardan las últimas páginas siguientes recibidas
+ * ({@code X-Next-Cursor}): una fracción de las peticiones
+ * ({@code --deep-ratio}) pide una de ellas en lugar de la primera página,
+ * como hace un usuario que avanza por el listado.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class Endpoint {
+
+    /**
+     * Endpoints disponibles para {@code --mix}.
+     */
+    static final String[] NAMES = {"transactions", "suspicious", "stats", "category"};
+
+    private static final int CURSOR_SLOTS = 256;
+
+    final String name;
+    final int weight;
+    final EndpointStats stats = new EndpointStats();
+
+    private final String path;
+    private final boolean paged;
+    private final String[] categories;
+    private final int limit;
+    private final AtomicReferenceArray<String> cursors = new AtomicReferenceArray<>(CURSOR_SLOTS);
+    private final AtomicLong cursorWrites = new AtomicLong();
+
+    private Endpoint(String name, int weight, String path, boolean paged, String[] categories, int limit) {
+        this.name = name;
+        this.weight = weight;
+        this.path = path;
+        this.paged = paged;
+        this.categories = categories;
+        this.limit = limit;
+    }
+
+    /**
+     * @param mix Pesos por endpoint: {@code transactions=40,suspicious=20,...}
+     * @param categories Categorías que se reparten las peticiones de /category
+     * @param limit Tamaño de página de los listados
+     */
+    static List<Endpoint> parseMix(String mix, String[] categories, int limit) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight <= 0) {
+                continue;
+            }
+            endpoints.add(create(parts[0].trim(), weight, categories, limit));
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Empty endpoint mix: " + mix);
+        }
+        return endpoints;
+    }
+
+    private static Endpoint create(String name, int weight, String[] categories, int limit) {
+        switch (name) {
+            case "transactions":
+                return new Endpoint(name, weight, "/api/transactions", true, null, limit);
+            case "suspicious":
+                return new Endpoint(name, weight, "/api/transactions/suspicious", true, null, limit);
+            case "stats":
+                return new Endpoint(name, weight, "/api/transactions/stats", false, null, limit);
+            case "category":
+                return new Endpoint(name, weight, "/api/transactions/category/", true, categories, limit);
+            default:
+                throw new IllegalArgumentException("Unknown endpoint '" + name + "', expected one of "
+                        + String.join(", ", NAMES));
+        }
+    }
+
+    /**
+     * @return URI de la siguiente petición a este endpoint
+     */
+    URI next(URI base, Random random, double deepRatio) {
+        long written = cursorWrites.get();
+        if (paged && written > 0 && random.nextDouble() < deepRatio) {
+            String page = cursors.get(random.nextInt((int) Math.min(written, CURSOR_SLOTS)));
+            if (page != null) {
+                return base.resolve(page);
+            }
+        }
+        StringBuilder uri = new StringBuilder(path);
+        if (categories != null) {
+            uri.append(encode(categories[random.nextInt(categories.length)]));
+        }
+        if (paged) {
+            uri.append("?limit=").append(limit);
+        }
+        return base.resolve(uri.toString());
+    }
+
+    /**
+     * Guarda la página siguiente a la respondida, con el cursor
+     * {@code X-Next-Cursor} devuelto por el servidor.
+     *
+     * @param request URI de la petición respondida
+     * @param cursor Cursor de la página siguiente, o null en la última
+     */
+    void offerCursor(URI request, String cursor) {
+        if (paged && cursor != null) {
+            String page = request.getRawPath() + "?limit=" + limit + "&cursor=" + encode(cursor);
+            cursors.set((int) (cursorWrites.getAndIncrement() % CURSOR_SLOTS), page);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,96 @@
+package com.pac.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y contadores de un endpoint.
+ *
+ * Las latencias se registran en un {@link Recorder} de HdrHistogram (sin
+ * bloqueos, seguro con varios hilos); cada informe periódico toma el
+ * histograma del intervalo y lo acumula en el total. Solo las respuestas
+ * correctas (2xx y 304) entran en el histograma: un error rápido no debe
+ * mejorar los percentiles.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class EndpointStats {
+
+    /**
+     * Mayor latencia representable; las mayores se registran con este valor.
+     */
+    static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Recorder recorder = new Recorder(TimeUnit.MICROSECONDS.toNanos(1), MAX_LATENCY_NANOS, 3);
+    private final Histogram total = new Histogram(TimeUnit.MICROSECONDS.toNanos(1), MAX_LATENCY_NANOS, 3);
+    private Histogram interval;
+
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * @param latencyNanos Tiempo desde el envío previsto hasta la respuesta completa
+     * @param status Código HTTP, o 0 si la petición no obtuvo respuesta
+     * @param bodyBytes Bytes del cuerpo de la respuesta
+     */
+    void record(long latencyNanos, int status, long bodyBytes) {
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if ((status >= 200 && status < 300) || status == 304) {
+            recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+            bytes.add(bodyBytes);
+        } else {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Cierra el intervalo en curso y lo suma al total.
+     *
+     * @return Histograma del intervalo (reutilizado en la siguiente llamada)
+     */
+    synchronized Histogram nextInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    /**
+     * Descarta lo registrado hasta ahora (fin del calentamiento).
+     */
+    synchronized void reset() {
+        recorder.reset();
+        total.reset();
+        errors.reset();
+        bytes.reset();
+        statuses.clear();
+    }
+
+    synchronized Histogram total() {
+        return total;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return Respuestas por código HTTP (0 = sin respuesta)
+     */
+    Map<Integer, Long> getStatuses() {
+        Map<Integer, Long> result = new TreeMap<>();
+        statuses.forEach((status, count) -> result.put(status, count.sum()));
+        return result;
+    }
+}
@@ -0,0 +1,368 @@
+package com.pac.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Driver de carga HTTP contra una instancia local de la aplicación.
+ *
+ * Dos modelos de carga:
+ * <ul>
+ *   <li><b>closed</b>: {@code --users} usuarios concurrentes; cada uno envía
+ *       una petición, espera la respuesta y el tiempo de reflexión
+ *       ({@code --think}) y envía la siguiente. El throughput es el que el
+ *       servidor aguanta con esa concurrencia.</li>
+ *   <li><b>open</b>: llegadas a tasa fija ({@code --rate} peticiones/s,
+ *       equiespaciadas o Poisson) independientes de las respuestas, como el
+ *       tráfico real. La latencia se mide desde el instante en que la
+ *       petición debía salir, no desde que salió: si el servidor se satura,
+ *       la cola aparece en los percentiles (sin omisión coordinada).</li>
+ * </ul>
+ *
+ * Cada petición elige un endpoint según los pesos de {@code --mix}. Durante
+ * {@code --warmup} no se registra nada; después se imprime un informe por
+ * intervalo y, al terminar, los percentiles y el throughput por endpoint. Con
+ * {@code --out} el resumen se escribe además en JSON.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class LoadDriver {
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final URI base;
+    private final String model;
+    private final int users;
+    private final Duration think;
+    private final double rate;
+    private final boolean poisson;
+    private final int maxInFlight;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration reportInterval;
+    private final Duration timeout;
+    private final double deepRatio;
+    private final String out;
+    private final long seed;
+    private final List<Endpoint> endpoints;
+    private final int totalWeight;
+    private final HttpClient client;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long measureStart;
+
+    LoadDriver(Options options) {
+        base = URI.create(options.get("base-url", "http://localhost:8080"));
+        model = options.get("model", "closed");
+        users = options.getInt("users", 16);
+        think = options.getDuration("think", Duration.ZERO);
+        rate = options.getDouble("rate", 100);
+        poisson = "poisson".equals(options.get("arrivals", "uniform"));
+        maxInFlight = options.getInt("max-in-flight", 2_000);
+        duration = options.getDuration("duration", Duration.ofSeconds(60));
+        warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        reportInterval = options.getDuration("report-interval", Duration.ofSeconds(10));
+        timeout = options.getDuration("timeout", Duration.ofSeconds(30));
+        deepRatio = options.getDouble("deep-ratio", 0.2);
+        out = options.get("out", null);
+        seed = options.getLong("seed", 42);
+        endpoints = Endpoint.parseMix(
+                options.get("mix", "transactions=40,suspicious=20,stats=10,category=30"),
+                options.get("categories", "groceries,food,transport,transfer,online,housing,other").split(","),
+                options.getInt("limit", 100));
+        int weights = 0;
+        for (Endpoint endpoint : endpoints) {
+            weights += endpoint.weight;
+        }
+        totalWeight = weights;
+        if (!"closed".equals(model) && !"open".equals(model)) {
+            throw new IllegalArgumentException("--model must be closed or open");
+        }
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    void run() throws Exception {
+        System.out.printf("%s model against %s: %s, warmup %ds, measure %ds%n", model, base,
+                "closed".equals(model) ? users + " users, think " + think.toMillis() + " ms"
+                        : rate + " req/s (" + (poisson ? "poisson" : "uniform") + ")",
+                warmup.getSeconds(), duration.getSeconds());
+        long start = System.nanoTime();
+        measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.schedule(() -> endpoints.forEach(endpoint -> endpoint.stats.reset()),
+                warmup.toNanos(), TimeUnit.NANOSECONDS);
+        reporter.scheduleAtFixedRate(this::reportInterval,
+                warmup.toNanos() + reportInterval.toNanos(), reportInterval.toNanos(), TimeUnit.NANOSECONDS);
+        try {
+            if ("closed".equals(model)) {
+                runClosed(end);
+            } else {
+                runOpen(end);
+            }
+        } finally {
+            reporter.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        for (Endpoint endpoint : endpoints) {
+            endpoint.stats.nextInterval();
+        }
+        report(System.out, seconds);
+        if (out != null) {
+            writeJson(seconds);
+            System.out.println("Results written to " + out);
+        }
+    }
+
+    // ========================================================================
+    // MODELOS DE CARGA
+    // ========================================================================
+
+    private void runClosed(long end) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            Random random = new Random(seed + i);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    Endpoint endpoint = pick(random);
+                    URI uri = endpoint.next(base, random, deepRatio);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Long> response = client.send(request(uri), countingHandler());
+                        complete(endpoint, uri, sent, response, null);
+                    } catch (IOException e) {
+                        complete(endpoint, uri, sent, null, e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (!think.isZero()) {
+                        LockSupport.parkNanos(think.toNanos());
+                    }
+                }
+            }, "user-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void runOpen(long end) throws InterruptedException {
+        Random random = new Random(seed);
+        double meanInterval = 1e9 / rate;
+        long intended = System.nanoTime();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = pick(random);
+            URI uri = endpoint.next(base, random, deepRatio);
+            if (inFlight.get() >= maxInFlight) {
+                // El cliente no puede seguir la tasa: la petición se cuenta y no se envía
+                dropped.incrementAndGet();
+                endpoint.stats.record(0, 0, 0);
+            } else {
+                inFlight.incrementAndGet();
+                long sentAt = intended;
+                pending.add(client.sendAsync(request(uri), countingHandler())
+                        .whenComplete((response, error) -> {
+                            inFlight.decrementAndGet();
+                            complete(endpoint, uri, sentAt, response, error);
+                        }));
+            }
+            pending.removeIf(CompletableFuture::isDone);
+            intended += poisson ? (long) (-Math.log(1 - random.nextDouble()) * meanInterval) : (long) meanInterval;
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.out.printf("%d requests still in flight at the end%n", inFlight.get());
+        }
+    }
+
+    private Endpoint pick(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private HttpRequest request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private void complete(Endpoint endpoint, URI uri, long sentAt, HttpResponse<Long> response, Throwable error) {
+        long latency = System.nanoTime() - sentAt;
+        if (sentAt < measureStart) {
+            return; // Enviada durante el calentamiento
+        }
+        if (response == null) {
+            endpoint.stats.record(latency, 0, 0);
+            return;
+        }
+        endpoint.stats.record(latency, response.statusCode(), response.body());
+        endpoint.offerCursor(uri, response.headers().firstValue(NEXT_CURSOR_HEADER).orElse(null));
+    }
+
+    /**
+     * Consume el cuerpo contando sus bytes, sin copiarlo.
+     */
+    private static HttpResponse.BodyHandler<Long> countingHandler() {
+        return info -> HttpResponse.BodySubscribers.fromSubscriber(new CountingSubscriber(), s -> s.bytes);
+    }
+
+    private static final class CountingSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        private long bytes;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                bytes += buffer.remaining();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // El error llega al CompletableFuture de la respuesta
+        }
+
+        @Override
+        public void onComplete() {
+            // Nada que cerrar
+        }
+    }
+
+    // ========================================================================
+    // INFORMES
+    // ========================================================================
+
+    private void reportInterval() {
+        double seconds = reportInterval.toNanos() / 1e9;
+        StringBuilder line = new StringBuilder(String.format("[%4ds]", (System.nanoTime() - measureStart) / 1_000_000_000));
+        for (Endpoint endpoint : endpoints) {
+            Histogram interval = endpoint.stats.nextInterval();
+            line.append(String.format("  %s %.0f/s p99 %.1f ms", endpoint.name,
+                    interval.getTotalCount() / seconds, millis(interval.getValueAtPercentile(99))));
+        }
+        if ("open".equals(model)) {
+            line.append(String.format("  in-flight %d", inFlight.get()));
+        }
+        System.out.println(line);
+    }
+
+    private void report(PrintStream out, double seconds) {
+        out.println();
+        out.printf("%-14s %10s %8s %10s %9s %9s %9s %9s %9s %10s%n", "endpoint", "requests", "errors",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "avg bytes");
+        long requests = 0;
+        long errors = 0;
+        for (Endpoint endpoint : endpoints) {
+            Histogram total = endpoint.stats.total();
+            long count = total.getTotalCount();
+            long failed = endpoint.stats.getErrors();
+            requests += count + failed;
+            errors += failed;
+            out.printf("%-14s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %10d%n", endpoint.name, count + failed,
+                    failed, (count + failed) / seconds,
+                    millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(90)),
+                    millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue()), count == 0 ? 0 : endpoint.stats.getBytes() / count);
+            Map<Integer, Long> statuses = endpoint.stats.getStatuses();
+            if (failed > 0) {
+                out.printf("%-14s statuses %s (0 = no response)%n", "", statuses);
+            }
+        }
+        out.printf("%-14s %10d %8d %10.1f%n", "total", requests, errors, requests / seconds);
+        if (dropped.get() > 0) {
+            out.printf("%d arrivals dropped by the client (--max-in-flight %d reached)%n", dropped.get(), maxInFlight);
+        }
+    }
+
+    private void writeJson(double seconds) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+            writer.write(String.format(Locale.ROOT, "{\"model\":\"%s\",\"baseUrl\":\"%s\",\"seconds\":%.3f,", model, base, seconds));
+            if ("closed".equals(model)) {
+                writer.write(String.format(Locale.ROOT, "\"users\":%d,\"thinkMs\":%d,", users, think.toMillis()));
+            } else {
+                writer.write(String.format(Locale.ROOT, "\"rate\":%.1f,\"dropped\":%d,", rate, dropped.get()));
+            }
+            writer.write("\"endpoints\":[");
+            for (int i = 0; i < endpoints.size(); i++) {
+                Endpoint endpoint = endpoints.get(i);
+                Histogram total = endpoint.stats.total();
+                long requests = total.getTotalCount() + endpoint.stats.getErrors();
+                writer.write(String.format(Locale.ROOT, "%s{\"name\":\"%s\",\"requests\":%d,\"errors\":%d,"
+                                + "\"throughput\":%.2f,\"bytes\":%d,\"latencyMs\":{",
+                        i == 0 ? "" : ",", endpoint.name, requests, endpoint.stats.getErrors(),
+                        requests / seconds, endpoint.stats.getBytes()));
+                for (double percentile : PERCENTILES) {
+                    writer.write(String.format(Locale.ROOT, "\"p%s\":%.3f,", percentile == (long) percentile
+                            ? String.valueOf((long) percentile) : String.valueOf(percentile),
+                            millis(total.getValueAtPercentile(percentile))));
+                }
+                writer.write(String.format(Locale.ROOT, "\"max\":%.3f},\"statuses\":{", millis(total.getMaxValue())));
+                StringBuilder statuses = new StringBuilder();
+                for (Map.Entry<Integer, Long> status : endpoint.stats.getStatuses().entrySet()) {
+                    statuses.append(statuses.length() == 0 ? "" : ",")
+                            .append('"').append(status.getKey()).append("\":").append(status.getValue());
+                }
+                writer.write(statuses + "}}");
+            }
+            writer.write("]}\n");
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,54 @@
+package com.pac.loadtest;
+
+/**
+ * Punto de entrada de {@code loadtest.jar}.
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar generate --rows 10M --table both
+ * java -jar loadtest/target/loadtest.jar drive --model open --rate 500 --duration 5m
+ * </pre>
+ *
+ * Las opciones de cada comando se describen en loadtest/README.md.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class Main {
+
+    private static final String USAGE = "Usage: java -jar loadtest.jar <generate|drive> [--option value ...]";
+
+    private Main() {
+        // Clase de utilidades
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            Options options = new Options(args, 1);
+            switch (args[0]) {
+                case "generate": {
+                    DataGenerator generator = new DataGenerator(options);
+                    options.checkUnused();
+                    generator.run();
+                    break;
+                }
+                case "drive": {
+                    LoadDriver driver = new LoadDriver(options);
+                    options.checkUnused();
+                    driver.run();
+                    break;
+                }
+                default:
+                    System.err.println(USAGE);
+                    System.exit(2);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+}
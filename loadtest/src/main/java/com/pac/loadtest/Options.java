@@ -0,0 +1,117 @@
+package com.pac.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opciones de línea de comandos con la forma {@code --nombre valor} o
+ * {@code --nombre} (booleana).
+ *
+ * Las opciones que no se consultan se consideran erratas: {@link #checkUnused()}
+ * falla en lugar de ignorarlas en silencio.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Set<String> used = new HashSet<>();
+
+    Options(String[] args, int from) {
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String name = arg.substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(name, args[++i]);
+            } else {
+                values.put(name, "true");
+            }
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        used.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = get(name, null);
+        return value == null ? defaultValue : parseCount(name, value);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return Math.toIntExact(getLong(name, defaultValue));
+    }
+
+    double getDouble(String name, double defaultValue) {
+        String value = get(name, null);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    boolean getFlag(String name) {
+        return Boolean.parseBoolean(get(name, "false"));
+    }
+
+    /**
+     * Duraciones con sufijo: {@code 500ms}, {@code 30s}, {@code 5m}.
+     */
+    Duration getDuration(String name, Duration defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            default:
+                throw new IllegalArgumentException("Invalid duration for --" + name + ": " + value);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si se pasó una opción que nadie leyó
+     */
+    void checkUnused() {
+        for (String name : values.keySet()) {
+            if (!used.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+    }
+
+    /**
+     * Acepta sufijos k/M/G para los tamaños ({@code 10M} = 10.000.000).
+     */
+    private static long parseCount(String name, String value) {
+        long multiplier = 1;
+        char last = value.charAt(value.length() - 1);
+        if (last == 'k' || last == 'K') {
+            multiplier = 1_000;
+        } else if (last == 'M') {
+            multiplier = 1_000_000;
+        } else if (last == 'G') {
+            multiplier = 1_000_000_000;
+        }
+        String digits = multiplier == 1 ? value : value.substring(0, value.length() - 1);
+        try {
+            return Long.parseLong(digits) * multiplier;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for --" + name + ": " + value, e);
+        }
+    }
+}
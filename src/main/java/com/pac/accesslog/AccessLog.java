@@ -0,0 +1,261 @@
+package com.pac.accesslog;
+
+import com.pac.metrics.ApiMetrics;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Access log estructurado de la API de transacciones.
+ *
+ * Cada petición registrada se copia en una celda de un
+ * {@link AccessLogRing} preasignado y un hilo de fondo la escribe como
+ * línea JSON en un fichero rotado ({@link AccessLogWriter}). El hilo de la
+ * petición no formatea texto ni toca el disco, y si el hilo de fondo no da
+ * abasto las entradas se descartan (y se cuentan) en lugar de frenar la
+ * petición.
+ *
+ * Se registran siempre las respuestas 4xx y 5xx y las más lentas que
+ * {@code pac.accesslog.slowMillis}; del resto, una fracción aleatoria
+ * {@code pac.accesslog.sampleRate}. Propiedades de sistema:
+ * <ul>
+ *   <li>{@code pac.accesslog.enabled} (default: true)</li>
+ *   <li>{@code pac.accesslog.file} (default: {@code logs/access.jsonl} en el
+ *       directorio de la instancia)</li>
+ *   <li>{@code pac.accesslog.sampleRate}: 0-1 (default: 0.01)</li>
+ *   <li>{@code pac.accesslog.slowMillis} (default: 1000)</li>
+ *   <li>{@code pac.accesslog.bufferSize}: celdas, potencia de dos (default: 8192)</li>
+ *   <li>{@code pac.accesslog.maxFileMb} y {@code pac.accesslog.maxFiles}:
+ *       rotación (default: 100 MB, 5 ficheros)</li>
+ * </ul>
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AccessLog {
+
+    private static final Logger LOGGER = Logger.getLogger(AccessLog.class.getName());
+
+    /**
+     * Pausa del hilo de fondo cuando el buffer está vacío.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty("pac.accesslog.enabled", "true"));
+    private final double sampleRate = sampleRate(System.getProperty("pac.accesslog.sampleRate", "0.01"));
+    private final long slowNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("pac.accesslog.slowMillis", 1000));
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private AccessLogRing ring;
+    private AccessLogWriter writer;
+    private Path file;
+    private Thread drainer;
+    private volatile boolean running;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        ring = new AccessLogRing(Integer.getInteger("pac.accesslog.bufferSize", 8192));
+        if (!enabled) {
+            return;
+        }
+        file = Paths.get(System.getProperty("pac.accesslog.file", defaultFile()));
+        writer = new AccessLogWriter(file,
+                Long.getLong("pac.accesslog.maxFileMb", 100) * 1024 * 1024,
+                Integer.getInteger("pac.accesslog.maxFiles", 5));
+        running = true;
+        drainer = threadFactory.newThread(this::drainLoop);
+        drainer.setName("access-log");
+        drainer.setDaemon(true);
+        drainer.start();
+        LOGGER.info(String.format("Access log: %s (sample rate %s, slow %d ms)",
+                file, sampleRate, TimeUnit.NANOSECONDS.toMillis(slowNanos)));
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String defaultFile() {
+        String instanceRoot = System.getProperty("com.sun.aas.instanceRoot");
+        return instanceRoot == null ? "logs/access.jsonl" : instanceRoot + "/logs/access.jsonl";
+    }
+
+    private static double sampleRate(String value) {
+        double rate = Double.parseDouble(value);
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("pac.accesslog.sampleRate must be between 0 and 1: " + value);
+        }
+        return rate;
+    }
+
+    // ========================================================================
+    // REGISTRO
+    // ========================================================================
+
+    /**
+     * Decide si una respuesta se registra.
+     *
+     * @param status Código HTTP de la respuesta
+     * @param latencyNanos Tiempo hasta tener la respuesta
+     * @return Probabilidad con la que se ha elegido (1 para errores y
+     *         peticiones lentas), o 0 si no se registra
+     */
+    public double sample(int status, long latencyNanos) {
+        if (!enabled) {
+            return 0;
+        }
+        if (status >= 400 || latencyNanos >= slowNanos) {
+            return 1;
+        }
+        if (sampleRate >= 1) {
+            return 1;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate ? sampleRate : 0;
+    }
+
+    /**
+     * Encola una entrada. No bloquea: si el buffer está lleno la entrada se
+     * descarta.
+     *
+     * @param endpoint Endpoint que atendió la petición
+     * @param path Ruta de la petición, sin decodificar
+     * @param query Parámetros de la petición, sin decodificar (puede ser null)
+     * @param status Código HTTP de la respuesta
+     * @param latencyNanos Tiempo hasta tener la respuesta
+     * @param dbNanos Tiempo en el repositorio
+     * @param rows Filas de la respuesta
+     * @param bytes Bytes enviados en el cuerpo
+     * @param sampleRate Valor devuelto por {@link #sample}
+     */
+    public void record(ApiMetrics.Endpoint endpoint, String path, String query, int status,
+                       long latencyNanos, long dbNanos, int rows, long bytes, double sampleRate) {
+        if (!running) {
+            return;
+        }
+        long sequence = ring.claim();
+        if (sequence < 0) {
+            return;
+        }
+        ring.get(sequence).set(System.currentTimeMillis(), endpoint, path, query, status,
+                latencyNanos, dbNanos, rows, bytes, sampleRate);
+        ring.publish(sequence);
+    }
+
+    // ========================================================================
+    // HILO DE FONDO
+    // ========================================================================
+
+    private void drainLoop() {
+        Consumer<AccessLogEvent> handler = this::write;
+        try {
+            while (running || ring.getPending() > 0) {
+                if (ring.drain(handler) == 0) {
+                    flush();
+                    if (running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    } else {
+                        break; // Entrada reservada que ya no se publicará
+                    }
+                }
+            }
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing access log " + file, e);
+            }
+        }
+    }
+
+    private void write(AccessLogEvent event) {
+        try {
+            writer.write(event);
+            written.increment();
+        } catch (IOException e) {
+            writeErrors.increment();
+            if (writeErrors.sum() == 1) {
+                LOGGER.log(Level.WARNING, "Error writing access log " + file + ", entries are being lost", e);
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            writeErrors.increment();
+        }
+    }
+
+    // ========================================================================
+    // MÉTRICAS
+    // ========================================================================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return Entradas escritas en el fichero desde el arranque
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return Entradas descartadas por buffer lleno desde el arranque
+     */
+    public long getDropped() {
+        return ring.getDropped();
+    }
+
+    /**
+     * @return Entradas en el buffer pendientes de escribir
+     */
+    public long getPending() {
+        return ring.getPending();
+    }
+
+    /**
+     * @return Entradas perdidas por errores de escritura
+     */
+    public long getWriteErrors() {
+        return writeErrors.sum();
+    }
+}
@@ -0,0 +1,48 @@
+package com.pac.accesslog;
+
+import com.pac.metrics.ApiMetrics;
+
+/**
+ * Entrada del access log. Las instancias son las celdas del
+ * {@link AccessLogRing}: se crean al arrancar y se sobrescriben en cada
+ * vuelta, por lo que los campos son mutables y solo los escribe el hilo que
+ * ha reservado la celda.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class AccessLogEvent {
+
+    long timestampMillis;
+    ApiMetrics.Endpoint endpoint;
+    String path;
+    String query;
+    int status;
+    long latencyNanos;
+    long dbNanos;
+    int rows;
+    long bytes;
+    double sampleRate;
+
+    void set(long timestampMillis, ApiMetrics.Endpoint endpoint, String path, String query, int status,
+             long latencyNanos, long dbNanos, int rows, long bytes, double sampleRate) {
+        this.timestampMillis = timestampMillis;
+        this.endpoint = endpoint;
+        this.path = path;
+        this.query = query;
+        this.status = status;
+        this.latencyNanos = latencyNanos;
+        this.dbNanos = dbNanos;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Suelta las referencias a las cadenas de la petición una vez escrita.
+     */
+    void clear() {
+        path = null;
+        query = null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.pac.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular sin bloqueos con varios productores y un consumidor.
+ *
+ * Las celdas se crean en el constructor y se reutilizan. Un productor
+ * reserva la siguiente secuencia con un CAS, rellena la celda y la publica
+ * escribiendo la secuencia en {@code published}; el consumidor avanza
+ * mientras la celda siguiente esté publicada. Si el consumidor va
+ * {@code capacity} entradas por detrás, el productor descarta la entrada en
+ * lugar de esperar: una petición nunca se bloquea por el log.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class AccessLogRing {
+
+    private final AccessLogEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Siguiente secuencia a consumir. Solo la escribe el consumidor.
+     */
+    private volatile long consumed;
+
+    /**
+     * @param capacity Número de celdas, potencia de dos
+     */
+    AccessLogRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        slots = new AccessLogEvent[capacity];
+        published = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AccessLogEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Reserva la siguiente celda.
+     *
+     * @return Secuencia reservada, o -1 si el buffer está lleno y la entrada se descarta
+     */
+    long claim() {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return -1;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        return sequence;
+    }
+
+    /**
+     * @return Celda de una secuencia reservada, para rellenarla antes de publicarla
+     */
+    AccessLogEvent get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Hace visible al consumidor una celda ya rellena.
+     */
+    void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+    }
+
+    /**
+     * Entrega al consumidor las celdas publicadas en orden, hasta la primera
+     * que aún no lo está. Solo debe llamarlo un hilo.
+     *
+     * @param handler Recibe cada entrada; la celda se reutiliza al volver
+     * @return Entradas entregadas
+     */
+    int drain(Consumer<AccessLogEvent> handler) {
+        long next = consumed;
+        int drained = 0;
+        while (published.get((int) next & mask) == next) {
+            AccessLogEvent event = slots[(int) next & mask];
+            try {
+                handler.accept(event);
+            } finally {
+                event.clear();
+                consumed = ++next;
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return Entradas reservadas y aún no consumidas
+     */
+    long getPending() {
+        return claimed.get() - consumed;
+    }
+
+    /**
+     * @return Entradas descartadas por buffer lleno desde el arranque
+     */
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,189 @@
+package com.pac.accesslog;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escribe las entradas del access log como líneas JSON en un fichero que
+ * rota por tamaño.
+ *
+ * Cuando el fichero supera {@code maxBytes} se renombra a {@code <fichero>.1}
+ * (los anteriores pasan a {@code .2}, {@code .3}...) y se abre uno nuevo; se
+ * conservan como mucho {@code maxFiles} ficheros rotados. Solo lo usa el
+ * hilo que vacía el buffer, así que cada línea se compone en el mismo
+ * {@link StringBuilder}.
+ *
+ * Formato de cada línea:
+ * <pre>
+ * {"ts":"2024-05-01T10:15:30.123Z","endpoint":"GET /api/transactions","path":"/api/transactions",
+ *  "query":"limit=100","status":200,"latencyUs":8123,"dbUs":6020,"rows":100,"bytes":10422,"sample":0.01}
+ * </pre>
+ * {@code sample} es la probabilidad con la que se registró la petición: 1
+ * para errores y peticiones lentas, la tasa de muestreo para el resto. Los
+ * totales se estiman sumando {@code 1/sample} por línea.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class AccessLogWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final StringBuilder line = new StringBuilder(512);
+    private Writer out;
+    private long size;
+
+    /**
+     * @param file Fichero activo del log
+     * @param maxBytes Tamaño a partir del cual se rota
+     * @param maxFiles Ficheros rotados que se conservan
+     */
+    AccessLogWriter(Path file, long maxBytes, int maxFiles) {
+        if (maxBytes <= 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("Invalid access log rotation: " + maxBytes + " bytes, " + maxFiles + " files");
+        }
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Añade una entrada. Se escribe en disco al llenarse el buffer o en
+     * {@link #flush()}.
+     */
+    void write(AccessLogEvent event) throws IOException {
+        line.setLength(0);
+        format(event, line);
+        line.append('\n');
+        if (out == null) {
+            open();
+        } else if (size >= maxBytes) {
+            rotate();
+        }
+        out.append(line);
+        // Las líneas son ASCII salvo caracteres raros en la URI: basta para decidir la rotación
+        size += line.length();
+    }
+
+    /**
+     * Escribe en disco las entradas pendientes.
+     */
+    void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+        size = Files.size(file);
+    }
+
+    private void rotate() throws IOException {
+        close();
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            Files.deleteIfExists(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path source = rotated(i);
+                if (Files.exists(source)) {
+                    Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    // ========================================================================
+    // FORMATO
+    // ========================================================================
+
+    /**
+     * Compone la línea JSON de una entrada, sin el salto de línea.
+     */
+    static void format(AccessLogEvent event, StringBuilder out) {
+        out.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.timestampMillis), out);
+        out.append("\",\"endpoint\":");
+        appendString(out, event.endpoint == null ? null : event.endpoint.getRoute());
+        out.append(",\"path\":");
+        appendString(out, event.path);
+        out.append(",\"query\":");
+        appendString(out, event.query);
+        out.append(",\"status\":").append(event.status)
+           .append(",\"latencyUs\":").append(event.latencyNanos / 1000)
+           .append(",\"dbUs\":").append(event.dbNanos / 1000)
+           .append(",\"rows\":").append(event.rows)
+           .append(",\"bytes\":").append(event.bytes)
+           .append(",\"sample\":").append(event.sampleRate)
+           .append('}');
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,118 @@
+package com.pac.cache;
+
+/**
+ * Estimador aproximado de la frecuencia de acceso de las claves (count-min
+ * sketch de contadores de 4 bits), usado por {@link TinyLfuCache} para
+ * decidir qué entrada merece ocupar la memoria.
+ *
+ * Cada clave incrementa un contador en cada una de las {@value #DEPTH} filas;
+ * la frecuencia estimada es el mínimo de los cuatro. Los contadores saturan
+ * en 15 y, cada {@code 10 × ancho} incrementos, se dividen todos entre dos:
+ * la popularidad antigua se olvida y el sketch sigue los cambios de patrón.
+ *
+ * No es seguro para hilos; {@link TinyLfuCache} lo usa bajo su monitor.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class FrequencySketch {
+
+    /**
+     * Número de funciones hash (filas del count-min sketch).
+     */
+    static final int DEPTH = 4;
+
+    /**
+     * Frecuencia máxima representable.
+     */
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    /**
+     * Máscara para dividir entre dos los 16 contadores de un long a la vez.
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries Número aproximado de claves distintas a seguir
+     */
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+        this.table = new long[width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * @return Frecuencia estimada de la clave (0-15), nunca menor que la real
+     *         desde el último envejecimiento
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < DEPTH; i++) {
+            long h = position(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index(h)] >>> shift(h)) & 0xF));
+        }
+        return frequency;
+    }
+
+    /**
+     * Registra un acceso a la clave.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            long h = position(hash, i);
+            int index = index(h);
+            int shift = shift(h);
+            if (((table[index] >>> shift) & 0xF) < MAX_FREQUENCY) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Divide entre dos todas las frecuencias.
+     */
+    void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private static long position(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 32);
+    }
+
+    private int index(long h) {
+        return (int) h & mask;
+    }
+
+    /**
+     * @return Desplazamiento del contador de 4 bits dentro del long
+     */
+    private static int shift(long h) {
+        return (int) ((h >>> 40) & 0xF) << 2;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
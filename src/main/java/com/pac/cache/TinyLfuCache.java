@@ -0,0 +1,327 @@
+package com.pac.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Caché acotada por peso con la política de expulsión W-TinyLFU.
+ *
+ * Las entradas nuevas entran en una ventana LRU pequeña ({@value #WINDOW_PERCENT}%
+ * del presupuesto), que absorbe las ráfagas de claves recientes. Al salir de
+ * la ventana, una entrada solo pasa a la zona principal si su frecuencia
+ * estimada ({@link FrequencySketch}) supera a la de la víctima que tendría
+ * que desplazar; si no, se descarta. La zona principal es una LRU segmentada:
+ * las entradas llegan a "probation" y las que se vuelven a leer pasan a
+ * "protected" ({@value #PROTECTED_PERCENT}% de la zona principal), de donde
+ * solo salen degradadas de nuevo a probation.
+ *
+ * Así un recorrido de claves que se leen una sola vez (un usuario paginando
+ * todo el histórico) no expulsa los listados que el dashboard pide sin parar,
+ * como ocurriría en una LRU simple.
+ *
+ * El peso de cada entrada lo indica quien la inserta (bytes estimados). Todas
+ * las operaciones se sincronizan sobre la instancia; un llamante puede tomar
+ * el mismo monitor para combinar una comprobación propia con {@link #put}.
+ *
+ * @param <K> Tipo de la clave (equals/hashCode)
+ * @param <V> Tipo del valor
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class TinyLfuCache<K, V> {
+
+    /**
+     * Porcentaje del presupuesto reservado a la ventana de admisión.
+     */
+    static final int WINDOW_PERCENT = 1;
+
+    /**
+     * Porcentaje de la zona principal reservado al segmento protected.
+     */
+    static final int PROTECTED_PERCENT = 80;
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    /**
+     * @param maximumWeight Peso total máximo de las entradas
+     * @param expectedEntries Número aproximado de entradas que caben, para
+     *        dimensionar el estimador de frecuencias
+     * @throws IllegalArgumentException si el peso máximo no es positivo
+     */
+    public TinyLfuCache(long maximumWeight, int expectedEntries) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENT / 100;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Recupera una entrada y registra el acceso, tanto si está como si no.
+     *
+     * @param key Clave buscada
+     * @return Valor, o null si no está en la caché
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onHit(node);
+        return node.value;
+    }
+
+    /**
+     * Inserta o reemplaza una entrada. Puede expulsar otras entradas, o la
+     * propia si no supera a las existentes en frecuencia.
+     *
+     * @param key Clave
+     * @param value Valor (no null)
+     * @param weight Peso de la entrada; si supera el máximo no se guarda
+     */
+    public synchronized void put(K key, V value, long weight) {
+        if (value == null || weight < 0) {
+            throw new IllegalArgumentException("Value cannot be null and weight cannot be negative");
+        }
+        Node<K, V> existing = data.remove(key);
+        if (existing != null) {
+            existing.queue.remove(existing);
+        }
+        if (weight > maximumWeight) {
+            rejections++;
+            return;
+        }
+        Node<K, V> node = new Node<>(key, value, weight);
+        data.put(key, node);
+        window.addLast(node);
+        evict();
+    }
+
+    /**
+     * Elimina las entradas que cumplen el predicado.
+     *
+     * @param predicate Condición sobre la clave y el valor
+     * @return Número de entradas eliminadas
+     */
+    public synchronized int removeIf(BiPredicate<? super K, ? super V> predicate) {
+        int removed = 0;
+        Iterator<Node<K, V>> iterator = data.values().iterator();
+        while (iterator.hasNext()) {
+            Node<K, V> node = iterator.next();
+            if (predicate.test(node.key, node.value)) {
+                iterator.remove();
+                node.queue.remove(node);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Elimina una entrada si sigue teniendo el valor indicado.
+     *
+     * @param key Clave
+     * @param value Valor esperado (se compara por identidad)
+     * @return true si se eliminó
+     */
+    public synchronized boolean remove(K key, V value) {
+        Node<K, V> node = data.get(key);
+        if (node == null || node.value != value) {
+            return false;
+        }
+        data.remove(key);
+        node.queue.remove(node);
+        return true;
+    }
+
+    /**
+     * Copia las entradas actuales, para recorrerlas sin retener el monitor.
+     * No registra accesos.
+     *
+     * @return Pares clave-valor en el momento de la llamada
+     */
+    public synchronized List<Map.Entry<K, V>> entries() {
+        List<Map.Entry<K, V>> entries = new ArrayList<>(data.size());
+        for (Node<K, V> node : data.values()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+        }
+        return entries;
+    }
+
+    /**
+     * Vacía la caché; conserva las frecuencias y los contadores.
+     */
+    public synchronized void clear() {
+        removeIf((key, value) -> true);
+    }
+
+    // ========================================================================
+    // POLÍTICA W-TINYLFU
+    // ========================================================================
+
+    private void onHit(Node<K, V> node) {
+        if (node.queue == probation) {
+            probation.remove(node);
+            protectedQueue.addLast(node);
+            while (protectedQueue.weight > protectedMaximum) {
+                Node<K, V> demoted = protectedQueue.first();
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else {
+            node.queue.moveToLast(node);
+        }
+    }
+
+    private void evict() {
+        while (window.weight > windowMaximum) {
+            Node<K, V> candidate = window.first();
+            window.remove(candidate);
+            admit(candidate);
+        }
+    }
+
+    /**
+     * Decide si la entrada que sale de la ventana entra en la zona principal,
+     * expulsando a las víctimas menos frecuentes que ella.
+     */
+    private void admit(Node<K, V> candidate) {
+        long mainMaximum = maximumWeight - windowMaximum;
+        while (probation.weight + protectedQueue.weight + candidate.weight > mainMaximum) {
+            Node<K, V> victim = probation.first() != null ? probation.first() : protectedQueue.first();
+            if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                discard(candidate);
+                return;
+            }
+            victim.queue.remove(victim);
+            discard(victim);
+        }
+        probation.addLast(candidate);
+    }
+
+    private void discard(Node<K, V> node) {
+        data.remove(node.key);
+        evictions++;
+    }
+
+    // ========================================================================
+    // MÉTRICAS
+    // ========================================================================
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Entradas expulsadas por falta de espacio (no las eliminadas)
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Entradas no guardadas por superar el peso máximo
+     */
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    public synchronized long getWeightedSize() {
+        return window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    // ========================================================================
+    // ESTRUCTURAS INTERNAS
+    // ========================================================================
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long weight;
+        private AccessQueue<K, V> queue;
+        private Node<K, V> previous;
+        private Node<K, V> next;
+
+        Node(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Lista doblemente enlazada en orden de acceso: la primera entrada es la
+     * menos reciente.
+     */
+    private static final class AccessQueue<K, V> {
+        private final Node<K, V> head = new Node<>(null, null, 0);
+        private long weight;
+
+        AccessQueue() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        Node<K, V> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.previous = head.previous;
+            node.next = head;
+            head.previous.next = node;
+            head.previous = node;
+            node.queue = this;
+            weight += node.weight;
+        }
+
+        void remove(Node<K, V> node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            remove(node);
+            addLast(node);
+        }
+    }
+}
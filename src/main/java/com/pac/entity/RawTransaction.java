@@ -0,0 +1,114 @@
+package com.pac.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Entidad JPA de solo lectura que mapea la tabla de staging raw_transactions.
+ * 
+ * Cada fila contiene una línea CSV tal como fue importada. El pipeline de
+ * transformación la lee para promoverla a fact_transactions.
+ * 
+ * Esquema de la tabla:
+ * - id: SERIAL PRIMARY KEY
+ * - csvline: TEXT NOT NULL
+ * - createdat: TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+ * - txid: BIGINT NOT NULL DEFAULT txid_current()
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "raw_transactions")
+public class RawTransaction implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Identificador autoincremental; define el orden de llegada de las líneas.
+     */
+    @Id
+    @Column(name = "id", nullable = false, insertable = false, updatable = false)
+    private Long id;
+    
+    /**
+     * Línea CSV completa sin procesar.
+     */
+    @Column(name = "csvline", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "TEXT")
+    private String csvLine;
+    
+    /**
+     * Fecha y hora de inserción de la línea.
+     */
+    @Column(name = "createdat", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    /**
+     * Transacción de base de datos que insertó la línea.
+     */
+    @Column(name = "txid", nullable = false, insertable = false, updatable = false)
+    private Long txid;
+    
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public RawTransaction() {
+    }
+    
+    /**
+     * @param id Identificador de la línea
+     * @param csvLine Contenido de la línea CSV
+     */
+    public RawTransaction(Long id, String csvLine) {
+        this.id = id;
+        this.csvLine = csvLine;
+    }
+    
+    /**
+     * @param id Identificador de la línea
+     * @param txid Transacción que insertó la línea
+     * @param csvLine Contenido de la línea CSV
+     */
+    public RawTransaction(Long id, Long txid, String csvLine) {
+        this.id = id;
+        this.txid = txid;
+        this.csvLine = csvLine;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getCsvLine() {
+        return csvLine;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Long getTxid() {
+        return txid;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RawTransaction that = (RawTransaction) o;
+        return Objects.equals(id, that.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+    
+    @Override
+    public String toString() {
+        return "RawTransaction{id=" + id + ", csvLine='" + csvLine + "'}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.pac.entity;
 
+import javax.json.bind.annotation.JsonbTransient;
 import javax.persistence.*;
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -13,12 +14,14 @@ import java.util.Objects;
  * Esta tabla almacena transacciones procesadas y enriquecidas para análisis.
  * 
  * Esquema de la tabla:
- * - id: SERIAL PRIMARY KEY
+ * - id: SERIAL PRIMARY KEY (secuencia fact_transactions_id_seq)
  * - transactiondate: DATE NOT NULL
  * - amount: DECIMAL(12,2) NOT NULL
  * - description: TEXT NOT NULL
  * - category: VARCHAR(100) NOT NULL
+ * - category_id: SMALLINT NOT NULL (FK a dim_category)
  * - issuspicious: BOOLEAN NOT NULL DEFAULT FALSE
+ * - risk_score: SMALLINT NOT NULL DEFAULT 0
  * - createdat: TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
  * 
  * @author Sistema PAC
@@ -31,10 +34,28 @@ public class Transaction implements Serializable {
     private static final long serialVersionUID = 1L;
     
     /**
-     * Identificador único autoincremental de la transacción.
+     * Tamaño del bloque de IDs reservado en cada llamada a la secuencia.
+     * Debe coincidir con el INCREMENT BY de fact_transactions_id_seq (V4).
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    /**
+     * Monto a partir del cual una transacción se considera de alto valor.
+     */
+    public static final BigDecimal HIGH_VALUE_THRESHOLD = new BigDecimal("2000.00");
+    
+    /**
+     * Identificador único de la transacción.
+     * 
+     * Se asigna desde la secuencia de la columna SERIAL reservando bloques de
+     * {@link #ID_ALLOCATION_SIZE} valores, de forma que el ID se conoce antes
+     * del INSERT y los inserts pueden agruparse en batches JDBC (con IDENTITY
+     * cada fila requiere su propio viaje a la base de datos).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenceGenerator(name = "fact_transactions_id_gen", sequenceName = "fact_transactions_id_seq",
+                       allocationSize = ID_ALLOCATION_SIZE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fact_transactions_id_gen")
     @Column(name = "id", nullable = false)
     private Long id;
     
@@ -68,6 +89,15 @@ public class Transaction implements Serializable {
     @Column(name = "category", nullable = false, length = 100)
     private String category;
     
+    /**
+     * Clave de la categoría en dim_category. Es la columna sobre la que se
+     * filtra y agrupa; el repositorio la asigna a partir de {@link #category}
+     * antes de cada escritura. No forma parte de la representación JSON.
+     */
+    @JsonbTransient
+    @Column(name = "category_id", nullable = false)
+    private Short categoryId;
+    
     /**
      * Indicador de transacción sospechosa detectada por reglas de negocio.
      * true: requiere revisión manual
@@ -79,6 +109,13 @@ public class Transaction implements Serializable {
     @Column(name = "issuspicious", nullable = false)
     private Boolean suspicious = false;
     
+    /**
+     * Puntuación de riesgo 0-100 asignada por el motor de reglas de sospecha
+     * en cada escritura desde la aplicación.
+     */
+    @Column(name = "risk_score", nullable = false)
+    private Integer riskScore = 0;
+    
     /**
      * Timestamp de creación del registro en esta tabla.
      * Se genera automáticamente al insertar el registro.
@@ -173,6 +210,14 @@ public class Transaction implements Serializable {
         this.category = category;
     }
     
+    public Short getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Short categoryId) {
+        this.categoryId = categoryId;
+    }
+    
     /**
      * Obtiene el indicador de transacción sospechosa.
      * Nota: El nombre del getter sigue la convención Java para booleanos.
@@ -192,6 +237,14 @@ public class Transaction implements Serializable {
         this.suspicious = suspicious;
     }
     
+    public Integer getRiskScore() {
+        return riskScore;
+    }
+    
+    public void setRiskScore(Integer riskScore) {
+        this.riskScore = riskScore;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -216,6 +269,9 @@ public class Transaction implements Serializable {
         if (this.suspicious == null) {
             this.suspicious = false;
         }
+        if (this.riskScore == null) {
+            this.riskScore = 0;
+        }
     }
     
     // ========================================================================
@@ -244,6 +300,7 @@ public class Transaction implements Serializable {
                 ", description='" + description + '\'' +
                 ", category='" + category + '\'' +
                 ", suspicious=" + suspicious +
+                ", riskScore=" + riskScore +
                 ", createdAt=" + createdAt +
                 '}';
     }
@@ -252,6 +309,22 @@ public class Transaction implements Serializable {
     // MÉTODOS DE NEGOCIO (HELPERS)
     // ========================================================================
     
+    /**
+     * Crea una copia desvinculada de la transacción con los mismos valores.
+     * Útil para conservar el estado anterior de una entidad gestionada antes
+     * de modificarla.
+     * 
+     * @return Nueva instancia con los mismos valores, incluido el ID
+     */
+    public Transaction copy() {
+        Transaction copy = new Transaction(transactionDate, amount, description, category, suspicious);
+        copy.setId(id);
+        copy.setCategoryId(categoryId);
+        copy.setRiskScore(riskScore);
+        copy.setCreatedAt(createdAt);
+        return copy;
+    }
+    
     /**
      * Valida si la transacción cumple con las reglas básicas de negocio.
      * 
@@ -268,13 +341,13 @@ public class Transaction implements Serializable {
     }
     
     /**
-     * Verifica si la transacción es de alto valor (>= 2000).
+     * Verifica si la transacción es de alto valor (>= {@link #HIGH_VALUE_THRESHOLD}).
      * Las transacciones de alto valor suelen marcarse como sospechosas.
      * 
      * @return true si el monto es >= 2000, false en caso contrario
      */
     public boolean isHighValue() {
-        return amount != null && amount.compareTo(new BigDecimal("2000.00")) >= 0;
+        return amount != null && amount.compareTo(HIGH_VALUE_THRESHOLD) >= 0;
     }
     
     /**
@@ -0,0 +1,38 @@
+package com.pac.metrics;
+
+import org.eclipse.microprofile.metrics.Counter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de MicroProfile Metrics respaldado por un {@link LongAdder}: los
+ * incrementos concurrentes no compiten por la misma línea de caché.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class AdderCounter implements Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    @Override
+    public void inc() {
+        count.increment();
+    }
+
+    /**
+     * @param n Incremento, no negativo
+     */
+    @Override
+    public void inc(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Counter increment cannot be negative");
+        }
+        count.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
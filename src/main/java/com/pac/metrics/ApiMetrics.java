@@ -0,0 +1,339 @@
+package com.pac.metrics;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latencias, filas y bytes de los endpoints de transacciones y de los
+ * métodos de {@code TransactionRepository}.
+ *
+ * Los histogramas y contadores se crean al construir el bean, uno por
+ * endpoint y por método, y se registran en el registro de aplicación de
+ * MicroProfile Metrics: Payara los publica en formato Prometheus en
+ * {@code /metrics/application} (y en {@code /metrics} junto con los del
+ * servidor). Registrar una medida es indexar un array por el ordinal del
+ * enum y actualizar un {@link WindowedHistogram}, sin bloqueos ni objetos
+ * nuevos; los histogramas por defecto de MicroProfile no sirven aquí porque
+ * su reservorio reserva memoria en cada valor.
+ *
+ * Nombres publicados (las latencias se exportan en segundos):
+ * <ul>
+ *   <li>{@code application_api_request_duration_seconds{endpoint}}</li>
+ *   <li>{@code application_api_request_rows{endpoint}}</li>
+ *   <li>{@code application_api_response_size_bytes{endpoint}}</li>
+ *   <li>{@code application_api_request_errors_total{endpoint,status="4xx"|"5xx"}}</li>
+ *   <li>{@code application_repository_query_duration_seconds{method}}</li>
+ *   <li>{@code application_repository_query_rows{method}}</li>
+ *   <li>{@code application_repository_query_failures_total{method}}</li>
+ * </ul>
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ApiMetrics {
+
+    /**
+     * Endpoints de {@code TransactionResource}, identificados por el nombre
+     * del método del recurso.
+     */
+    public enum Endpoint {
+        LIST("GET /api/transactions", "getAllTransactions"),
+        SUSPICIOUS("GET /api/transactions/suspicious", "getSuspiciousTransactions"),
+        BY_ID("GET /api/transactions/{id}", "getTransactionById"),
+        CATEGORY("GET /api/transactions/category/{category}", "getTransactionsByCategory"),
+        HIGH_VALUE("GET /api/transactions/high-value", "getHighValueTransactions"),
+        RECENT("GET /api/transactions/recent", "getRecentTransactions"),
+        SEARCH("GET /api/transactions/search", "searchTransactions"),
+        SUGGEST("GET /api/transactions/suggest", "suggest"),
+        STREAM("GET /api/transactions/stream", "streamTransactions"),
+        EVENTS("GET /api/transactions/events", "streamEvents"),
+        BATCH("POST /api/transactions/batch", "ingestBatch"),
+        STATS("GET /api/transactions/stats", "getStatistics"),
+        STATS_BY_CATEGORY("GET /api/transactions/stats/by-category", "getCountByCategory"),
+        TIMESERIES("GET /api/transactions/stats/timeseries", "getTimeseries"),
+        PIVOT("GET /api/transactions/stats/pivot", "getPivot");
+
+        private static final Map<String, Endpoint> BY_METHOD = new HashMap<>();
+
+        static {
+            for (Endpoint endpoint : values()) {
+                BY_METHOD.put(endpoint.resourceMethod, endpoint);
+            }
+        }
+
+        private final String route;
+        private final String resourceMethod;
+
+        Endpoint(String route, String resourceMethod) {
+            this.route = route;
+            this.resourceMethod = resourceMethod;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        /**
+         * @param resourceMethod Nombre del método de {@code TransactionResource}
+         * @return Endpoint atendido por el método, o null si no es un endpoint medido
+         */
+        public static Endpoint forResourceMethod(String resourceMethod) {
+            return BY_METHOD.get(resourceMethod);
+        }
+    }
+
+    /**
+     * Métodos públicos de {@code TransactionRepository}. En los que
+     * devuelven un número de filas procesadas ({@code createAll} y los
+     * recorridos), ese número es el que se registra como filas.
+     */
+    public enum Query {
+        CREATE("create"),
+        CREATE_ALL("createAll", true),
+        FIND_BY_ID("findById"),
+        FIND_ALL("findAll"),
+        UPDATE("update"),
+        DELETE("delete"),
+        FIND_SUSPICIOUS("findSuspicious"),
+        FIND_BY_CATEGORY("findByCategory"),
+        FIND_BY_DATE_RANGE("findByDateRange"),
+        FIND_BY_MIN_AMOUNT("findByMinAmount"),
+        FIND_HIGH_VALUE("findHighValue"),
+        FIND_BY_DESCRIPTION_CONTAINING("findByDescriptionContaining"),
+        SEARCH("search"),
+        COUNT_DESCRIPTION_TOKENS("countDescriptionTokens"),
+        FIND_RECENT("findRecent"),
+        FIND_PAGE("findPage"),
+        FOR_EACH_MATCHING("forEachMatching", true),
+        FOR_EACH_ID("forEachId", true),
+        COUNT_INSERTED_ROWS("countInsertedRows"),
+        COUNT("count"),
+        COUNT_SUSPICIOUS("countSuspicious"),
+        SUM_TOTAL("sumTotal"),
+        AVERAGE("average"),
+        COUNT_BY_CATEGORY("countByCategory"),
+        SUM_BY_CATEGORY("sumByCategory"),
+        EXISTS("exists"),
+        CLEAR("clear"),
+        FLUSH("flush");
+
+        private static final Map<String, Query> BY_METHOD = new HashMap<>();
+
+        static {
+            for (Query query : values()) {
+                BY_METHOD.put(query.method, query);
+            }
+        }
+
+        private final String method;
+        private final boolean returnsRowCount;
+
+        Query(String method) {
+            this(method, false);
+        }
+
+        Query(String method, boolean returnsRowCount) {
+            this.method = method;
+            this.returnsRowCount = returnsRowCount;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return true si el método devuelve el número de filas que ha procesado
+         */
+        public boolean returnsRowCount() {
+            return returnsRowCount;
+        }
+
+        /**
+         * @param method Nombre del método del repositorio
+         * @return Consulta correspondiente, o null si el método no se mide
+         */
+        public static Query forMethod(String method) {
+            return BY_METHOD.get(method);
+        }
+    }
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    private MetricRegistry registry;
+
+    private final WindowedHistogram[] endpointLatency = histograms(Endpoint.values().length);
+    private final WindowedHistogram[] endpointRows = histograms(Endpoint.values().length);
+    private final WindowedHistogram[] responseBytes = histograms(Endpoint.values().length);
+    private final AdderCounter[] clientErrors = counters(Endpoint.values().length);
+    private final AdderCounter[] serverErrors = counters(Endpoint.values().length);
+
+    private final WindowedHistogram[] queryLatency = histograms(Query.values().length);
+    private final WindowedHistogram[] queryRows = histograms(Query.values().length);
+    private final AdderCounter[] queryFailures = counters(Query.values().length);
+
+    @PostConstruct
+    void register() {
+        Metadata duration = metadata("api_request_duration", MetricType.HISTOGRAM, MetricUnits.NANOSECONDS,
+                "Tiempo desde que se recibe la petición hasta que la respuesta está lista para serializar");
+        Metadata rows = metadata("api_request_rows", MetricType.HISTOGRAM, MetricUnits.NONE,
+                "Filas devueltas por petición");
+        Metadata size = metadata("api_response_size", MetricType.HISTOGRAM, MetricUnits.BYTES,
+                "Bytes del cuerpo enviado, tras la compresión");
+        Metadata errors = metadata("api_request_errors", MetricType.COUNTER, MetricUnits.NONE,
+                "Respuestas con código 4xx o 5xx");
+        for (Endpoint endpoint : Endpoint.values()) {
+            int i = endpoint.ordinal();
+            Tag tag = new Tag("endpoint", endpoint.route);
+            register(duration, endpointLatency[i], tag);
+            register(rows, endpointRows[i], tag);
+            register(size, responseBytes[i], tag);
+            register(errors, clientErrors[i], tag, new Tag("status", "4xx"));
+            register(errors, serverErrors[i], tag, new Tag("status", "5xx"));
+        }
+
+        Metadata queryDuration = metadata("repository_query_duration", MetricType.HISTOGRAM,
+                MetricUnits.NANOSECONDS, "Duración de cada llamada a TransactionRepository");
+        Metadata queryRowCount = metadata("repository_query_rows", MetricType.HISTOGRAM, MetricUnits.NONE,
+                "Filas devueltas o escritas por llamada");
+        Metadata failures = metadata("repository_query_failures", MetricType.COUNTER, MetricUnits.NONE,
+                "Llamadas terminadas con excepción");
+        for (Query query : Query.values()) {
+            int i = query.ordinal();
+            Tag tag = new Tag("method", query.method);
+            register(queryDuration, queryLatency[i], tag);
+            register(queryRowCount, queryRows[i], tag);
+            register(failures, queryFailures[i], tag);
+        }
+    }
+
+    private static Metadata metadata(String name, MetricType type, String unit, String description) {
+        return Metadata.builder().withName(name).withType(type).withUnit(unit).withDescription(description).build();
+    }
+
+    private void register(Metadata metadata, Metric metric, Tag... tags) {
+        registry.register(metadata, metric, tags);
+    }
+
+    private static WindowedHistogram[] histograms(int size) {
+        WindowedHistogram[] histograms = new WindowedHistogram[size];
+        for (int i = 0; i < size; i++) {
+            histograms[i] = new WindowedHistogram();
+        }
+        return histograms;
+    }
+
+    private static AdderCounter[] counters(int size) {
+        AdderCounter[] counters = new AdderCounter[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new AdderCounter();
+        }
+        return counters;
+    }
+
+    // ========================================================================
+    // REGISTRO
+    // ========================================================================
+
+    /**
+     * Registra una respuesta de un endpoint.
+     *
+     * @param endpoint Endpoint que atendió la petición
+     * @param latencyNanos Tiempo hasta tener la respuesta
+     * @param status Código HTTP de la respuesta
+     * @param rows Filas de la respuesta
+     */
+    public void endpoint(Endpoint endpoint, long latencyNanos, int status, int rows) {
+        int i = endpoint.ordinal();
+        endpointLatency[i].update(latencyNanos);
+        endpointRows[i].update(rows);
+        if (status >= 500) {
+            serverErrors[i].inc();
+        } else if (status >= 400) {
+            clientErrors[i].inc();
+        }
+    }
+
+    /**
+     * @param endpoint Endpoint que generó la respuesta
+     * @param bytes Bytes escritos en el cuerpo
+     */
+    public void responseBytes(Endpoint endpoint, long bytes) {
+        responseBytes[endpoint.ordinal()].update(bytes);
+    }
+
+    /**
+     * Registra una llamada al repositorio terminada con éxito.
+     *
+     * @param query Método invocado
+     * @param elapsedNanos Duración de la llamada
+     * @param rows Filas devueltas o escritas
+     */
+    public void query(Query query, long elapsedNanos, long rows) {
+        int i = query.ordinal();
+        queryLatency[i].update(elapsedNanos);
+        queryRows[i].update(rows);
+    }
+
+    /**
+     * Registra una llamada al repositorio terminada con excepción. Su
+     * duración entra en el histograma de latencia: un timeout es justo la
+     * cola que interesa ver.
+     *
+     * @param query Método invocado
+     * @param elapsedNanos Duración de la llamada
+     */
+    public void queryFailed(Query query, long elapsedNanos) {
+        int i = query.ordinal();
+        queryLatency[i].update(elapsedNanos);
+        queryFailures[i].inc();
+    }
+
+    // ========================================================================
+    // CONSULTA
+    // ========================================================================
+
+    WindowedHistogram latency(Endpoint endpoint) {
+        return endpointLatency[endpoint.ordinal()];
+    }
+
+    WindowedHistogram rows(Endpoint endpoint) {
+        return endpointRows[endpoint.ordinal()];
+    }
+
+    WindowedHistogram responseBytes(Endpoint endpoint) {
+        return responseBytes[endpoint.ordinal()];
+    }
+
+    long errors(Endpoint endpoint) {
+        return clientErrors[endpoint.ordinal()].getCount() + serverErrors[endpoint.ordinal()].getCount();
+    }
+
+    WindowedHistogram latency(Query query) {
+        return queryLatency[query.ordinal()];
+    }
+
+    WindowedHistogram rows(Query query) {
+        return queryRows[query.ordinal()];
+    }
+
+    long failures(Query query) {
+        return queryFailures[query.ordinal()].getCount();
+    }
+}
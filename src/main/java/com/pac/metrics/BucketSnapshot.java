@@ -0,0 +1,148 @@
+package com.pac.metrics;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Instantánea de un {@link WindowedHistogram}: los contadores de cada cubeta
+ * sumados sobre la ventana.
+ *
+ * Cada valor se representa con el punto medio de su cubeta, por lo que
+ * percentiles, mínimo y máximo son aproximados; la media es exacta.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class BucketSnapshot extends Snapshot {
+
+    private final long[] counts;
+    private final long total;
+    private final long sum;
+
+    /**
+     * @param counts Valores registrados por cubeta
+     * @param sum Suma exacta de los valores registrados
+     */
+    BucketSnapshot(long[] counts, long sum) {
+        this.counts = counts;
+        this.sum = sum;
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        this.total = total;
+    }
+
+    /**
+     * @param quantile Cuantil entre 0 y 1
+     * @return Valor del cuantil, 0 si la ventana está vacía
+     */
+    @Override
+    public double getValue(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException(quantile + " is not in [0..1]");
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return WindowedHistogram.midpoint(i);
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return Punto medio de cada cubeta con valores, en orden ascendente
+     */
+    @Override
+    public long[] getValues() {
+        int buckets = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                buckets++;
+            }
+        }
+        long[] values = new long[buckets];
+        int next = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                values[next++] = WindowedHistogram.midpoint(i);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return Número de valores registrados en la ventana
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getMax() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return WindowedHistogram.upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long getMin() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return WindowedHistogram.lowerBound(i);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    @Override
+    public double getStdDev() {
+        if (total < 2) {
+            return 0;
+        }
+        double mean = getMean();
+        double squares = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                double delta = WindowedHistogram.midpoint(i) - mean;
+                squares += counts[i] * delta * delta;
+            }
+        }
+        return Math.sqrt(squares / (total - 1));
+    }
+
+    /**
+     * Escribe una línea {@code <punto medio> <valores>} por cada cubeta con valores.
+     */
+    @Override
+    public void dump(OutputStream output) {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                writer.print(WindowedHistogram.midpoint(i));
+                writer.print(' ');
+                writer.println(counts[i]);
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,74 @@
+package com.pac.metrics;
+
+import javax.ejb.EJB;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.InvocationContext;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Interceptor EJB que mide cada llamada a {@code TransactionRepository}:
+ * duración, filas devueltas y excepciones. La duración se suma además al
+ * tiempo de base de datos de la petición en curso ({@link QueryTime}).
+ *
+ * Las filas se deducen del resultado: el tamaño de una colección, 0 o 1
+ * para un {@link Optional} o un booleano, el propio valor en los métodos
+ * que devuelven filas procesadas ({@link ApiMetrics.Query#returnsRowCount()})
+ * y 1 para cualquier otro resultado (un agregado o la entidad escrita).
+ *
+ * Las llamadas internas del repositorio (por ejemplo {@code findHighValue}
+ * a {@code findByMinAmount}) no pasan por el interceptor y se miden una
+ * sola vez, en el método invocado desde fuera.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class QueryMetricsInterceptor {
+
+    @EJB
+    private ApiMetrics metrics;
+
+    @AroundInvoke
+    public Object measure(InvocationContext context) throws Exception {
+        ApiMetrics.Query query = ApiMetrics.Query.forMethod(context.getMethod().getName());
+        if (query == null) {
+            return context.proceed();
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = context.proceed();
+        } catch (Exception | Error e) {
+            long elapsed = System.nanoTime() - start;
+            QueryTime.add(elapsed);
+            metrics.queryFailed(query, elapsed);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        QueryTime.add(elapsed);
+        metrics.query(query, elapsed, rows(query, result));
+        return result;
+    }
+
+    /**
+     * @return Filas que representa el resultado de la llamada
+     */
+    static long rows(ApiMetrics.Query query, Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1 : 0;
+        }
+        if (query.returnsRowCount() && result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,41 @@
+package com.pac.metrics;
+
+/**
+ * Tiempo acumulado en {@code TransactionRepository} por el hilo actual,
+ * para atribuir a cada petición su tiempo de base de datos.
+ *
+ * {@link QueryMetricsInterceptor} suma la duración de cada llamada; quien
+ * empieza a atender una petición en un hilo (el filtro de entrada, o la
+ * tarea del bulkhead que genera una respuesta asíncrona) lo pone a cero y
+ * lo lee al terminar. El acumulador es un {@code long[1]} por hilo, así que
+ * leer y sumar no reserva memoria.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class QueryTime {
+
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private QueryTime() {
+        // Clase de utilidades
+    }
+
+    /**
+     * Pone a cero el tiempo acumulado por el hilo actual.
+     */
+    public static void reset() {
+        NANOS.get()[0] = 0;
+    }
+
+    /**
+     * @return Nanosegundos en el repositorio desde el último {@link #reset()} en este hilo
+     */
+    public static long elapsedNanos() {
+        return NANOS.get()[0];
+    }
+
+    static void add(long nanos) {
+        NANOS.get()[0] += nanos;
+    }
+}
@@ -0,0 +1,210 @@
+package com.pac.metrics;
+
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Snapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Histograma de cubetas log-lineales con ventana deslizante, que registra
+ * valores sin reservar memoria.
+ *
+ * Los valores menores que {@value #SUB_BUCKETS} tienen cubeta propia; a
+ * partir de ahí cada potencia de dos se divide en {@value #SUB_BUCKETS}
+ * cubetas iguales, de modo que un percentil se devuelve con un error
+ * relativo de como máximo un 6 % (el punto medio de una cubeta del 12,5 %).
+ * Los valores mayores que {@link #MAX_VALUE} se registran como
+ * {@link #MAX_VALUE}.
+ *
+ * Los contadores de cubeta viven en un único {@link AtomicLongArray}
+ * reservado en el constructor, dividido en {@value #WINDOW_SLOTS} franjas de
+ * un minuto: registrar un valor son dos incrementos atómicos, sin bloqueos
+ * ni objetos nuevos. La primera escritura de cada minuto reutiliza la franja
+ * más antigua poniéndola a cero; las escrituras concurrentes con esa puesta
+ * a cero pueden perderse, lo que solo afecta a los percentiles de ese
+ * instante.
+ *
+ * Los percentiles, el mínimo, el máximo y la media de {@link #getSnapshot()}
+ * cubren los últimos {@value #WINDOW_SLOTS} minutos, como el reservorio con
+ * decaimiento de MicroProfile Metrics. {@link #getCount()} y
+ * {@link #getSum()} son acumulados desde el arranque, como espera
+ * Prometheus para calcular tasas.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class WindowedHistogram implements Histogram {
+
+    /**
+     * Bits de la mantisa: cada potencia de dos se divide en 2^bits cubetas.
+     */
+    static final int SUB_BUCKET_BITS = 3;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Exponente de la mayor potencia de dos representable: 2^41 - 1 ns son
+     * unos 36 minutos y 2^41 - 1 bytes, 2 TiB.
+     */
+    static final int MAX_EXPONENT = 40;
+
+    /**
+     * Mayor valor registrable.
+     */
+    public static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    /**
+     * Franjas de la ventana deslizante.
+     */
+    static final int WINDOW_SLOTS = 5;
+
+    /**
+     * Duración de cada franja.
+     */
+    static final long SLOT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LongSupplier nanoClock;
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SLOTS * BUCKETS);
+    private final AtomicLongArray slotEpochs = new AtomicLongArray(WINDOW_SLOTS);
+    private final AtomicLongArray slotSums = new AtomicLongArray(WINDOW_SLOTS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public WindowedHistogram() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Reloj monótono en nanosegundos (sustituible en tests)
+     */
+    WindowedHistogram(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        for (int slot = 0; slot < WINDOW_SLOTS; slot++) {
+            slotEpochs.set(slot, Long.MIN_VALUE);
+        }
+    }
+
+    @Override
+    public void update(int value) {
+        update((long) value);
+    }
+
+    /**
+     * Registra un valor. Los negativos se registran como 0.
+     */
+    @Override
+    public void update(long value) {
+        long clamped = value < 0 ? 0 : Math.min(value, MAX_VALUE);
+        long epoch = Math.floorDiv(nanoClock.getAsLong(), SLOT_NANOS);
+        int slot = (int) Math.floorMod(epoch, (long) WINDOW_SLOTS);
+        if (slotEpochs.get(slot) != epoch) {
+            advance(slot, epoch);
+        }
+        counts.incrementAndGet(slot * BUCKETS + bucketOf(clamped));
+        slotSums.addAndGet(slot, clamped);
+        count.increment();
+        sum.add(clamped);
+    }
+
+    /**
+     * Reutiliza la franja para el minuto {@code epoch} si aún contiene uno
+     * anterior. Solo el hilo que gana el CAS la pone a cero.
+     */
+    private void advance(int slot, long epoch) {
+        long current = slotEpochs.get(slot);
+        if (current < epoch && slotEpochs.compareAndSet(slot, current, epoch)) {
+            int base = slot * BUCKETS;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(base + i, 0);
+            }
+            slotSums.set(slot, 0);
+        }
+    }
+
+    /**
+     * @return Número de valores registrados desde el arranque
+     */
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return Suma de los valores registrados desde el arranque
+     */
+    @Override
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return Distribución de los valores de los últimos {@value #WINDOW_SLOTS} minutos
+     */
+    @Override
+    public Snapshot getSnapshot() {
+        long now = Math.floorDiv(nanoClock.getAsLong(), SLOT_NANOS);
+        long[] merged = new long[BUCKETS];
+        long windowSum = 0;
+        for (int slot = 0; slot < WINDOW_SLOTS; slot++) {
+            long epoch = slotEpochs.get(slot);
+            if (epoch <= now - WINDOW_SLOTS || epoch > now) {
+                continue;
+            }
+            int base = slot * BUCKETS;
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] += counts.get(base + i);
+            }
+            windowSum += slotSums.get(slot);
+        }
+        return new BucketSnapshot(merged, windowSum);
+    }
+
+    // ========================================================================
+    // CUBETAS
+    // ========================================================================
+
+    /**
+     * @param value Valor entre 0 y {@link #MAX_VALUE}
+     * @return Índice de la cubeta que contiene el valor
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Menor valor de la cubeta
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * @return Mayor valor de la cubeta
+     */
+    static long upperBound(int bucket) {
+        return bucket < SUB_BUCKETS ? bucket : lowerBound(bucket) + (1L << (bucket / SUB_BUCKETS - 1)) - 1;
+    }
+
+    /**
+     * @return Valor con el que se representa la cubeta: su punto medio
+     */
+    static long midpoint(int bucket) {
+        long lower = lowerBound(bucket);
+        return lower + (upperBound(bucket) - lower) / 2;
+    }
+}
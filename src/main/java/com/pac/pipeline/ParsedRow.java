@@ -0,0 +1,49 @@
+package com.pac.pipeline;
+
+import com.pac.entity.Transaction;
+
+/**
+ * Resultado de transformar una línea de raw_transactions: o bien una
+ * transacción válida, o bien el motivo de su rechazo.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class ParsedRow {
+    
+    private final Transaction transaction;
+    private final RejectReason rejectReason;
+    
+    private ParsedRow(Transaction transaction, RejectReason rejectReason) {
+        this.transaction = transaction;
+        this.rejectReason = rejectReason;
+    }
+    
+    /**
+     * @param transaction Transacción resultante
+     * @return Resultado aceptado
+     */
+    public static ParsedRow accepted(Transaction transaction) {
+        return new ParsedRow(transaction, null);
+    }
+    
+    /**
+     * @param reason Motivo del rechazo
+     * @return Resultado rechazado
+     */
+    public static ParsedRow rejected(RejectReason reason) {
+        return new ParsedRow(null, reason);
+    }
+    
+    public boolean isAccepted() {
+        return transaction != null;
+    }
+    
+    public Transaction getTransaction() {
+        return transaction;
+    }
+    
+    public RejectReason getRejectReason() {
+        return rejectReason;
+    }
+}
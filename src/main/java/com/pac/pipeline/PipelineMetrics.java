@@ -0,0 +1,109 @@
+package com.pac.pipeline;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores acumulados del pipeline raw_transactions -&gt; fact_transactions.
+ * 
+ * Los contadores son acumulativos desde el arranque de la aplicación; los
+ * valores de la última ejecución se sobrescriben en cada lote. Todos los
+ * campos admiten lectura concurrente desde el endpoint de estado.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class PipelineMetrics {
+    
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsPromoted = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[RejectReason.values().length];
+    
+    private volatile long lastBatchRows;
+    private volatile long lastBatchMillis;
+    private volatile long lastRowsPerSecond;
+    private volatile long lastEndToEndLagMillis;
+    private volatile long lastRunEpochMillis;
+    
+    public PipelineMetrics() {
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Registra un lote procesado.
+     * 
+     * @param read Líneas leídas de raw_transactions
+     * @param promoted Transacciones escritas en fact_transactions
+     * @param elapsedNanos Duración del lote (lectura, parseo y escritura)
+     * @param endToEndLagMillis Tiempo desde la ingesta de la última línea hasta su promoción
+     */
+    void recordBatch(long read, long promoted, long elapsedNanos, long endToEndLagMillis) {
+        rowsRead.add(read);
+        rowsPromoted.add(promoted);
+        lastBatchRows = read;
+        lastBatchMillis = elapsedNanos / 1_000_000;
+        lastRowsPerSecond = elapsedNanos == 0 ? read : read * 1_000_000_000L / elapsedNanos;
+        lastEndToEndLagMillis = endToEndLagMillis;
+        lastRunEpochMillis = System.currentTimeMillis();
+    }
+    
+    /**
+     * @param reason Motivo del rechazo de una línea
+     */
+    void recordRejected(RejectReason reason) {
+        rejected[reason.ordinal()].increment();
+    }
+    
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+    
+    public long getRowsPromoted() {
+        return rowsPromoted.sum();
+    }
+    
+    public long getRowsRejected() {
+        long total = 0;
+        for (LongAdder adder : rejected) {
+            total += adder.sum();
+        }
+        return total;
+    }
+    
+    /**
+     * @return Líneas rechazadas por motivo (solo motivos con rechazos)
+     */
+    public Map<RejectReason, Long> getRejectedByReason() {
+        Map<RejectReason, Long> result = new EnumMap<>(RejectReason.class);
+        for (RejectReason reason : RejectReason.values()) {
+            long count = rejected[reason.ordinal()].sum();
+            if (count > 0) {
+                result.put(reason, count);
+            }
+        }
+        return result;
+    }
+    
+    public long getLastBatchRows() {
+        return lastBatchRows;
+    }
+    
+    public long getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+    
+    public long getLastRowsPerSecond() {
+        return lastRowsPerSecond;
+    }
+    
+    public long getLastEndToEndLagMillis() {
+        return lastEndToEndLagMillis;
+    }
+    
+    public long getLastRunEpochMillis() {
+        return lastRunEpochMillis;
+    }
+}
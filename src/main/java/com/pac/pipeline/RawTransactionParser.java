@@ -0,0 +1,179 @@
+package com.pac.pipeline;
+
+import com.pac.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Transforma líneas CSV de raw_transactions en transacciones normalizadas.
+ * 
+ * Aplica las mismas reglas que el modelo dbt {@code stg_transactions}:
+ * <ul>
+ *   <li>Formato de línea: {@code date,amount,description}</li>
+ *   <li>Fechas en formato yyyy-MM-dd o yyyy/MM/dd</li>
+ *   <li>Montos numéricos positivos con hasta 2 decimales</li>
+ *   <li>Categoría asignada por palabras clave de la descripción</li>
+ *   <li>Sospechosa si es de alto valor ({@link Transaction#isHighValue()})
+ *       o la descripción contiene fraude/sospechosa/error</li>
+ * </ul>
+ * 
+ * La clase no tiene estado y es segura para uso concurrente.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class RawTransactionParser {
+    
+    private static final String HEADER_PREFIX = "date,amount,description";
+    
+    private RawTransactionParser() {
+        // Clase de utilidades
+    }
+    
+    /**
+     * @param csvLine Línea CSV sin procesar
+     * @return Transacción normalizada o motivo de rechazo
+     */
+    public static ParsedRow parse(String csvLine) {
+        if (csvLine == null || csvLine.trim().isEmpty()) {
+            return ParsedRow.rejected(RejectReason.EMPTY);
+        }
+        String line = csvLine.trim();
+        if (line.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length())) {
+            return ParsedRow.rejected(RejectReason.HEADER);
+        }
+        int firstComma = line.indexOf(',');
+        int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+        if (secondComma < 0) {
+            return ParsedRow.rejected(RejectReason.MALFORMED);
+        }
+        
+        LocalDate date = parseDate(line.substring(0, firstComma).trim());
+        if (date == null) {
+            return ParsedRow.rejected(RejectReason.INVALID_DATE);
+        }
+        BigDecimal amount = parseAmount(line.substring(firstComma + 1, secondComma).trim());
+        if (amount == null) {
+            return ParsedRow.rejected(RejectReason.INVALID_AMOUNT);
+        }
+        if (amount.signum() <= 0) {
+            return ParsedRow.rejected(RejectReason.NON_POSITIVE_AMOUNT);
+        }
+        String description = unquote(line.substring(secondComma + 1).trim());
+        if (description.isEmpty()) {
+            return ParsedRow.rejected(RejectReason.MISSING_DESCRIPTION);
+        }
+        
+        String lower = description.toLowerCase(Locale.ROOT);
+        Transaction transaction = new Transaction(date, amount, description, categorize(lower));
+        transaction.setSuspicious(transaction.isHighValue() || hasSuspiciousKeyword(lower));
+        return ParsedRow.accepted(transaction);
+    }
+    
+    /**
+     * Acepta yyyy-MM-dd y yyyy/MM/dd sin recurrir a excepciones para los
+     * formatos no soportados (caso frecuente en datos crudos).
+     */
+    static LocalDate parseDate(String value) {
+        if (value.length() != 10) {
+            return null;
+        }
+        char separator = value.charAt(4);
+        if ((separator != '-' && separator != '/') || value.charAt(7) != separator) {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Acepta dígitos con un punto decimal opcional; el valor se redondea a
+     * 2 decimales igual que el cast a DECIMAL(12,2) de dbt.
+     */
+    static BigDecimal parseAmount(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        int dot = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && dot < 0) {
+                dot = i;
+            } else if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        if (dot == 0) {
+            return null;
+        }
+        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+    
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"").trim();
+        }
+        return value;
+    }
+    
+    /**
+     * Categorización por palabras clave, en el mismo orden de prioridad que dbt.
+     */
+    static String categorize(String lowerDescription) {
+        if (lowerDescription.contains("supermercado") || lowerDescription.contains("compra")) {
+            return "groceries";
+        }
+        if (lowerDescription.contains("alquiler") || lowerDescription.contains("renta")) {
+            return "housing";
+        }
+        if (lowerDescription.contains("uber") || lowerDescription.contains("taxi")
+                || lowerDescription.contains("transporte")) {
+            return "transport";
+        }
+        if (lowerDescription.contains("restaurante") || lowerDescription.contains("cena")
+                || lowerDescription.contains("comida")) {
+            return "food";
+        }
+        if (lowerDescription.contains("transferencia") || lowerDescription.contains("pago")) {
+            return "transfer";
+        }
+        if (lowerDescription.contains("online") || lowerDescription.contains("internet")) {
+            return "online";
+        }
+        if (lowerDescription.contains("fraude") || lowerDescription.contains("sospechosa")) {
+            return "suspicious";
+        }
+        return "other";
+    }
+    
+    private static boolean hasSuspiciousKeyword(String lowerDescription) {
+        return lowerDescription.contains("fraude")
+            || lowerDescription.contains("sospechosa")
+            || lowerDescription.contains("error");
+    }
+}
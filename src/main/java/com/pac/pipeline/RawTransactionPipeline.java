@@ -0,0 +1,229 @@
+package com.pac.pipeline;
+
+import com.pac.entity.RawTransaction;
+import com.pac.entity.Transaction;
+import com.pac.repository.PipelineWatermark;
+import com.pac.repository.RawTransactionRepository;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pipeline que promueve las líneas nuevas de raw_transactions a
+ * fact_transactions dentro de la propia aplicación.
+ * 
+ * Cada pocos segundos lee las líneas posteriores al watermark persistido,
+ * las transforma en paralelo (una partición por núcleo) con
+ * {@link RawTransactionParser}, y escribe las válidas junto con el nuevo
+ * watermark en una única transacción. Así los datos llegan a la tabla de
+ * hechos en segundos, sin esperar al siguiente job batch.
+ * 
+ * El watermark es el par (txid, id) de la última línea procesada y solo se
+ * leen líneas de transacciones ya terminadas (ver
+ * {@link RawTransactionRepository#findAfter}), de modo que dos COPY
+ * concurrentes que confirman en distinto orden que el de sus ids no dejan
+ * líneas por detrás del watermark.
+ * 
+ * Configuración (propiedades de sistema):
+ * <ul>
+ *   <li>{@code pac.pipeline.enabled} (default: true)</li>
+ *   <li>{@code pac.pipeline.batchSize} líneas por lote (default: 5000)</li>
+ *   <li>{@code pac.pipeline.maxBatchesPerRun} lotes por ejecución (default: 20)</li>
+ * </ul>
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class RawTransactionPipeline {
+    
+    private static final Logger LOGGER = Logger.getLogger(RawTransactionPipeline.class.getName());
+    
+    /**
+     * Nombre del watermark en pipeline_watermark.
+     */
+    public static final String PIPELINE_NAME = "raw_to_fact";
+    
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty("pac.pipeline.enabled", "true"));
+    private final int batchSize = Integer.getInteger("pac.pipeline.batchSize", 5000);
+    private final int maxBatchesPerRun = Integer.getInteger("pac.pipeline.maxBatchesPerRun", 20);
+    
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile PipelineWatermark watermark;
+    
+    @EJB
+    private RawTransactionRepository rawRepository;
+    
+    @Resource
+    private ManagedExecutorService executor;
+    
+    /**
+     * Ejecución periódica del pipeline. Si la ejecución anterior sigue en
+     * curso, esta se omite.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/2", persistent = false)
+    public void run() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (watermark == null) {
+                watermark = rawRepository.loadWatermark(PIPELINE_NAME);
+            }
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (processBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Raw transaction pipeline run failed", e);
+            watermark = null; // Releer el watermark persistido en la siguiente ejecución
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Procesa un lote de líneas crudas.
+     * 
+     * @return Número de líneas leídas
+     */
+    int processBatch() throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        List<RawTransaction> rows = rawRepository.findAfter(watermark, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        ParsedRow[] parsed = parseInParallel(rows);
+        
+        List<Transaction> accepted = new ArrayList<>(rows.size());
+        for (ParsedRow row : parsed) {
+            if (row.isAccepted()) {
+                accepted.add(row.getTransaction());
+            } else {
+                metrics.recordRejected(row.getRejectReason());
+            }
+        }
+        
+        RawTransaction last = rows.get(rows.size() - 1);
+        long promoted;
+        try {
+            promoted = rawRepository.promote(PIPELINE_NAME, accepted, PipelineWatermark.after(last));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Batch promotion failed, retrying row by row", e);
+            promoted = promoteRowByRow(rows, parsed);
+        }
+        watermark = PipelineWatermark.after(last);
+        
+        long lagMillis = last.getCreatedAt() == null ? 0
+                : Math.max(0, Duration.between(last.getCreatedAt(), LocalDateTime.now()).toMillis());
+        metrics.recordBatch(rows.size(), promoted, System.nanoTime() - start, lagMillis);
+        return rows.size();
+    }
+    
+    /**
+     * Reparte las líneas en una partición por núcleo y las transforma en
+     * paralelo conservando el orden original.
+     */
+    private ParsedRow[] parseInParallel(List<RawTransaction> rows) throws InterruptedException, ExecutionException {
+        ParsedRow[] parsed = new ParsedRow[rows.size()];
+        int partitions = Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, rows.size() / 500));
+        int sliceSize = (rows.size() + partitions - 1) / partitions;
+        List<Future<?>> futures = new ArrayList<>(partitions);
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(rows.size(), from + sliceSize);
+            Runnable task = () -> {
+                for (int i = start; i < end; i++) {
+                    parsed[i] = RawTransactionParser.parse(rows.get(i).getCsvLine());
+                }
+            };
+            if (partitions == 1) {
+                task.run();
+            } else {
+                futures.add(executor.submit(task));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return parsed;
+    }
+    
+    /**
+     * Ruta de recuperación cuando un lote completo no puede escribirse (por
+     * ejemplo, una fila que viola una restricción de la tabla): cada fila se
+     * promueve con su propio watermark y las que fallan se contabilizan como
+     * {@link RejectReason#WRITE_FAILED}.
+     */
+    private long promoteRowByRow(List<RawTransaction> rows, ParsedRow[] parsed) {
+        long promoted = 0;
+        for (int i = 0; i < parsed.length; i++) {
+            if (!parsed[i].isAccepted()) {
+                continue;
+            }
+            try {
+                promoted += rawRepository.promote(PIPELINE_NAME, List.of(parsed[i].getTransaction()),
+                        PipelineWatermark.after(rows.get(i)));
+            } catch (RuntimeException e) {
+                metrics.recordRejected(RejectReason.WRITE_FAILED);
+                LOGGER.log(Level.FINE, "Raw row " + rows.get(i).getId() + " could not be promoted", e);
+            }
+        }
+        rawRepository.promote(PIPELINE_NAME, List.of(), PipelineWatermark.after(rows.get(rows.size() - 1)));
+        return promoted;
+    }
+    
+    // ========================================================================
+    // ESTADO
+    // ========================================================================
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    /**
+     * @return Último id de raw_transactions promovido (-1 si aún no se ha leído)
+     */
+    public long getWatermark() {
+        PipelineWatermark current = watermark;
+        return current == null ? -1 : current.getRawId();
+    }
+    
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * @return Líneas crudas pendientes de procesar (aproximado: diferencia de ids)
+     */
+    public long getLagRows() {
+        PipelineWatermark current = watermark != null ? watermark : rawRepository.loadWatermark(PIPELINE_NAME);
+        return Math.max(0, rawRepository.maxId() - current.getRawId());
+    }
+}
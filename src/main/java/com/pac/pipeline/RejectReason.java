@@ -0,0 +1,27 @@
+package com.pac.pipeline;
+
+/**
+ * Motivos por los que una línea de raw_transactions no se promueve a
+ * fact_transactions.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public enum RejectReason {
+    /** Línea de cabecera del CSV (date,amount,description). */
+    HEADER,
+    /** Línea vacía o solo con espacios. */
+    EMPTY,
+    /** La línea no tiene los tres campos esperados. */
+    MALFORMED,
+    /** Fecha ausente o en un formato no soportado. */
+    INVALID_DATE,
+    /** Monto ausente o no numérico. */
+    INVALID_AMOUNT,
+    /** Monto cero o negativo. */
+    NON_POSITIVE_AMOUNT,
+    /** Descripción ausente o vacía. */
+    MISSING_DESCRIPTION,
+    /** El lote que contenía la línea no pudo escribirse en base de datos. */
+    WRITE_FAILED
+}
@@ -0,0 +1,102 @@
+package com.pac.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diccionario inmutable y bidireccional entre nombres de categoría y sus
+ * claves enteras en dim_category.
+ *
+ * Las búsquedas no reservan memoria: los ids se guardan ya encapsulados como
+ * {@link Short} en el mapa nombre -> id, y los nombres se indexan por id en
+ * un array. Para añadir una categoría se crea un diccionario nuevo con
+ * {@link #with(short, String)}, de modo que los lectores nunca ven un estado
+ * intermedio.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class CategoryDictionary {
+
+    private static final CategoryDictionary EMPTY = new CategoryDictionary(new String[0], Collections.emptyMap());
+
+    private final String[] names;
+    private final Map<String, Short> ids;
+
+    private CategoryDictionary(String[] names, Map<String, Short> ids) {
+        this.names = names;
+        this.ids = ids;
+    }
+
+    /**
+     * @return Diccionario sin categorías
+     */
+    public static CategoryDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construye un diccionario a partir de pares (id, nombre).
+     *
+     * @param entries Mapa id -> nombre
+     * @return Diccionario con todas las entradas
+     */
+    public static CategoryDictionary of(Map<Short, String> entries) {
+        int size = 0;
+        for (Short id : entries.keySet()) {
+            size = Math.max(size, id + 1);
+        }
+        String[] names = new String[size];
+        Map<String, Short> ids = new HashMap<>(entries.size() * 2);
+        for (Map.Entry<Short, String> entry : entries.entrySet()) {
+            String name = entry.getValue().intern();
+            names[entry.getKey()] = name;
+            ids.put(name, entry.getKey());
+        }
+        return new CategoryDictionary(names, Collections.unmodifiableMap(ids));
+    }
+
+    /**
+     * @param name Nombre de la categoría
+     * @return Id de la categoría, null si no existe
+     */
+    public Short idOf(String name) {
+        return name == null ? null : ids.get(name);
+    }
+
+    /**
+     * @param id Id de la categoría
+     * @return Nombre de la categoría, null si no existe
+     */
+    public String nameOf(short id) {
+        return id >= 0 && id < names.length ? names[id] : null;
+    }
+
+    /**
+     * @return Número de categorías
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Devuelve un diccionario nuevo que incluye la categoría indicada.
+     *
+     * @param id Id de la categoría
+     * @param name Nombre de la categoría
+     * @return Este diccionario si ya contenía la entrada, o uno nuevo
+     */
+    public CategoryDictionary with(short id, String name) {
+        if (Short.valueOf(id).equals(ids.get(name))) {
+            return this;
+        }
+        String interned = name.intern();
+        String[] newNames = Arrays.copyOf(names, Math.max(names.length, id + 1));
+        newNames[id] = interned;
+        Map<String, Short> newIds = new HashMap<>(ids);
+        newIds.put(interned, id);
+        return new CategoryDictionary(newNames, Collections.unmodifiableMap(newIds));
+    }
+}
@@ -0,0 +1,146 @@
+package com.pac.repository;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tabla de categorías de la JVM: publica el {@link CategoryDictionary}
+ * vigente y registra en dim_category las categorías nuevas.
+ * 
+ * Las lecturas acceden a un diccionario inmutable a través de una
+ * referencia volátil, sin bloqueos ni consultas a la base de datos. Solo el
+ * registro de una categoría desconocida (poco frecuente) se serializa.
+ * 
+ * Los nombres de categoría llegan de los clientes ({@code POST /batch}), y
+ * dim_category solo admite 32767 ids: el número de categorías se limita a
+ * {@code pac.categories.max} y, alcanzado el límite, las categorías nuevas
+ * se rechazan.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class CategoryRegistry {
+    
+    private static final Logger LOGGER = Logger.getLogger(CategoryRegistry.class.getName());
+    
+    /**
+     * Categoría asignada a las transacciones sin categoría, igual que en V7.
+     */
+    public static final String DEFAULT_CATEGORY = "other";
+    
+    /**
+     * Longitud máxima del nombre (dim_category.name VARCHAR(100)).
+     */
+    public static final int MAX_NAME_LENGTH = 100;
+    
+    /**
+     * Número máximo de categorías registradas.
+     */
+    static final int MAX_CATEGORIES = Integer.getInteger("pac.categories.max", 1024);
+    
+    @EJB
+    private CategoryRepository categoryRepository;
+    
+    private volatile CategoryDictionary dictionary = CategoryDictionary.empty();
+    
+    /**
+     * Carga inicial. Si falla, el diccionario se recarga al encontrar la
+     * primera categoría desconocida.
+     */
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Initial category dictionary load failed, will retry on demand", e);
+        }
+    }
+    
+    private synchronized void reload() {
+        dictionary = CategoryDictionary.of(categoryRepository.findAll());
+        LOGGER.info(String.format("Category dictionary loaded with %d categories", dictionary.size()));
+    }
+    
+    /**
+     * @return Diccionario vigente
+     */
+    public CategoryDictionary dictionary() {
+        return dictionary;
+    }
+    
+    /**
+     * Busca el id de una categoría sin registrarla.
+     * 
+     * @param name Nombre de la categoría
+     * @return Id de la categoría, null si no existe
+     */
+    public Short idOf(String name) {
+        return dictionary.idOf(name);
+    }
+    
+    /**
+     * Devuelve el id de una categoría, registrándola si es nueva.
+     * 
+     * @param name Nombre de la categoría (null equivale a {@link #DEFAULT_CATEGORY})
+     * @return Id de la categoría
+     * @throws IllegalArgumentException si la categoría es nueva y su nombre no
+     *         es válido o ya se ha alcanzado el límite de categorías
+     */
+    public short idFor(String name) {
+        String category = name == null ? DEFAULT_CATEGORY : name;
+        Short id = dictionary.idOf(category);
+        if (id != null) {
+            return id;
+        }
+        if (category.trim().isEmpty() || category.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Category must have between 1 and " + MAX_NAME_LENGTH + " characters");
+        }
+        synchronized (this) {
+            id = dictionary.idOf(category);
+            if (id == null && dictionary.size() >= MAX_CATEGORIES) {
+                reload(); // Otro nodo puede haberla registrado
+                id = dictionary.idOf(category);
+                if (id == null && dictionary.size() >= MAX_CATEGORIES) {
+                    throw new IllegalArgumentException("Unknown category '" + category
+                            + "': the limit of " + MAX_CATEGORIES + " categories has been reached");
+                }
+            }
+            if (id == null) {
+                id = categoryRepository.register(category);
+                dictionary = dictionary.with(id, category);
+            }
+            return id;
+        }
+    }
+    
+    /**
+     * Devuelve el nombre de una categoría. Si el id no está en el diccionario
+     * (categoría creada por otro nodo o por un proceso externo) se recarga.
+     * 
+     * @param id Id de la categoría
+     * @return Nombre de la categoría, null si no existe
+     */
+    public String nameOf(Short id) {
+        if (id == null) {
+            return null;
+        }
+        String name = dictionary.nameOf(id);
+        if (name == null) {
+            reload();
+            name = dictionary.nameOf(id);
+        }
+        return name;
+    }
+}
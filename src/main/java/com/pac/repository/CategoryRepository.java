@@ -0,0 +1,73 @@
+package com.pac.repository;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio stateless EJB para la tabla de dimensión dim_category.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Stateless
+public class CategoryRepository {
+    
+    /**
+     * EntityManager inyectado por el contenedor.
+     */
+    @PersistenceContext(unitName = "primary")
+    private EntityManager entityManager;
+    
+    /**
+     * @return Todas las categorías como mapa id -> nombre
+     */
+    public Map<Short, String> findAll() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager
+                .createNativeQuery("SELECT id, name FROM dim_category ORDER BY id")
+                .getResultList();
+        Map<Short, String> categories = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            categories.put(((Number) row[0]).shortValue(), (String) row[1]);
+        }
+        return categories;
+    }
+    
+    /**
+     * Registra una categoría si no existe y devuelve su id.
+     * 
+     * Se ejecuta en su propia transacción: la fila de dimensión queda
+     * confirmada aunque la escritura que la necesitaba se deshaga, y así
+     * ningún otro nodo puede asignar un id distinto al mismo nombre. El id se
+     * busca antes de insertar porque INSERT ... ON CONFLICT consume un valor
+     * de la secuencia SMALLSERIAL aunque la categoría ya exista.
+     * 
+     * @param name Nombre de la categoría
+     * @return Id de la categoría
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public short register(String name) {
+        Short id = findId(name);
+        if (id != null) {
+            return id;
+        }
+        entityManager.createNativeQuery("INSERT INTO dim_category (name) VALUES (?1) ON CONFLICT (name) DO NOTHING")
+                .setParameter(1, name)
+                .executeUpdate();
+        return findId(name);
+    }
+    
+    private Short findId(String name) {
+        @SuppressWarnings("unchecked")
+        List<Number> ids = entityManager.createNativeQuery("SELECT id FROM dim_category WHERE name = ?1")
+                .setParameter(1, name)
+                .getResultList();
+        return ids.isEmpty() ? null : ids.get(0).shortValue();
+    }
+}
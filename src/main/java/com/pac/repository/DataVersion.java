@@ -0,0 +1,62 @@
+package com.pac.repository;
+
+/**
+ * Versión de un ámbito de datos de fact_transactions (toda la tabla, una
+ * categoría o un rango de fechas).
+ *
+ * El número de versión procede de un contador global que crece con cada
+ * escritura confirmada, así que dos estados distintos de un mismo ámbito
+ * nunca comparten versión. La época (instante de arranque) se incluye en el
+ * tag para que un reinicio invalide los tags emitidos antes.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class DataVersion {
+
+    private final long epoch;
+    private final long version;
+    private final long lastModifiedMillis;
+
+    DataVersion(long epoch, long version, long lastModifiedMillis) {
+        this.epoch = epoch;
+        this.version = version;
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    /**
+     * @return La más reciente de las dos versiones (del mismo arranque)
+     */
+    static DataVersion max(DataVersion a, DataVersion b) {
+        return a.version >= b.version ? a : b;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Instante de la última escritura del ámbito (o del arranque si no ha cambiado)
+     */
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    /**
+     * Valor opaco para una ETag fuerte.
+     *
+     * @param variant Parte adicional que distingue representaciones de la
+     *                misma versión (p. ej. el día actual en ventanas
+     *                relativas a hoy); puede ser null
+     * @return Tag sin comillas
+     */
+    public String tag(String variant) {
+        String tag = Long.toString(epoch, 36) + "-" + Long.toString(version, 36);
+        return variant == null ? tag : tag + "-" + variant;
+    }
+
+    @Override
+    public String toString() {
+        return tag(null);
+    }
+}
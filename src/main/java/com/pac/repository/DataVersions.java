@@ -0,0 +1,120 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+
+import javax.annotation.Priority;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.interceptor.Interceptor;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versiones de los datos de fact_transactions para las peticiones
+ * condicionales (ETag / Last-Modified).
+ *
+ * Cada {@link TransactionChangeEvent} confirmado avanza un contador global y
+ * asigna la versión nueva a toda la tabla, a las categorías y a los meses de
+ * las filas afectadas. Los endpoints acotados a una categoría o a un rango de
+ * fechas usan la versión de su ámbito, de modo que una escritura en
+ * "groceries" no invalida los listados de "housing".
+ *
+ * El observador se ejecuta después de los demás ({@link Priority}): cuando
+ * una versión nueva es visible, las estadísticas y cachés en memoria ya
+ * reflejan el cambio, y una respuesta nunca asocia datos antiguos a una
+ * versión nueva.
+ *
+ * Las escrituras hechas fuera de la aplicación (SQL manual, dbt) no avanzan
+ * las versiones.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DataVersions {
+
+    private final long epoch = System.currentTimeMillis();
+
+    /**
+     * Versión de los ámbitos que no han cambiado desde el arranque.
+     */
+    private final DataVersion initial = new DataVersion(epoch, 0, epoch);
+
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicReference<DataVersion> global = new AtomicReference<>(initial);
+    private final Map<String, DataVersion> categories = new ConcurrentHashMap<>();
+    private final NavigableMap<YearMonth, DataVersion> months = new ConcurrentSkipListMap<>();
+
+    /**
+     * Avanza la versión de los ámbitos afectados por un cambio confirmado.
+     *
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS)
+                         @Priority(Interceptor.Priority.LIBRARY_AFTER) TransactionChangeEvent event) {
+        DataVersion version = new DataVersion(epoch, counter.incrementAndGet(), System.currentTimeMillis());
+        touch(event.getPrevious(), version);
+        touch(event.getCurrent(), version);
+        global.accumulateAndGet(version, DataVersion::max);
+    }
+
+    private void touch(List<Transaction> transactions, DataVersion version) {
+        for (Transaction transaction : transactions) {
+            if (transaction.getCategory() != null) {
+                categories.merge(transaction.getCategory(), version, DataVersion::max);
+            }
+            if (transaction.getTransactionDate() != null) {
+                months.merge(YearMonth.from(transaction.getTransactionDate()), version, DataVersion::max);
+            }
+        }
+    }
+
+    /**
+     * @return Versión de toda la tabla
+     */
+    public DataVersion global() {
+        return global.get();
+    }
+
+    /**
+     * @param category Categoría
+     * @return Versión de las transacciones de la categoría
+     */
+    public DataVersion category(String category) {
+        return category == null ? global() : categories.getOrDefault(category, initial);
+    }
+
+    /**
+     * @param from Fecha inicial inclusiva (null: sin límite)
+     * @param to Fecha final inclusiva (null: sin límite)
+     * @return Versión de las transacciones con fecha en el rango
+     */
+    public DataVersion dates(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return global();
+        }
+        NavigableMap<YearMonth, DataVersion> range = months;
+        if (from != null) {
+            range = range.tailMap(YearMonth.from(from), true);
+        }
+        if (to != null) {
+            range = range.headMap(YearMonth.from(to), true);
+        }
+        DataVersion latest = initial;
+        for (DataVersion version : range.values()) {
+            latest = DataVersion.max(latest, version);
+        }
+        return latest;
+    }
+}
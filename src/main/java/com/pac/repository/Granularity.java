@@ -0,0 +1,57 @@
+package com.pac.repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Tamaño de bucket de las series temporales de transacciones.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public enum Granularity {
+
+    /** Un punto por día. */
+    DAY,
+
+    /** Un punto por semana ISO (el bucket es el lunes). */
+    WEEK,
+
+    /** Un punto por mes (el bucket es el día 1). */
+    MONTH;
+
+    /**
+     * Convierte el parámetro de consulta en una granularidad, sin distinguir
+     * mayúsculas y minúsculas.
+     *
+     * @param value Texto recibido (day, week o month)
+     * @return Granularidad correspondiente
+     * @throws IllegalArgumentException si el valor no es válido
+     */
+    public static Granularity parse(String value) {
+        if (value != null) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(value.trim())) {
+                    return granularity;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid granularity: " + value + " (expected day, week or month)");
+    }
+
+    /**
+     * @param date Fecha cualquiera
+     * @return Inicio del bucket que contiene la fecha
+     */
+    public LocalDate bucketStart(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+}
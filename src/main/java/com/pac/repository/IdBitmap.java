@@ -0,0 +1,144 @@
+package com.pac.repository;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conjunto de identificadores como mapa de bits paginado.
+ *
+ * Los ids de fact_transactions salen de una secuencia y son casi
+ * consecutivos, así que un bit por id ocupa menos que un filtro de Bloom
+ * (unos 10 bits por elemento para un 1% de falsos positivos) y la respuesta
+ * es exacta. Las páginas de {@value #PAGE_SIZE} ids se reservan al usarse
+ * por primera vez: los huecos grandes de la secuencia no ocupan memoria.
+ *
+ * Las lecturas no toman ningún bloqueo; las escrituras de bits son atómicas
+ * y solo la creación de páginas se sincroniza.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class IdBitmap {
+
+    /**
+     * Ids por página (8 KB).
+     */
+    static final int PAGE_SIZE = 1 << 16;
+
+    /**
+     * Mayor id representable; los mayores no se pueden guardar.
+     */
+    static final long MAX_ID = (1L << 40) - 1;
+
+    private static final int WORDS_PER_PAGE = PAGE_SIZE / Long.SIZE;
+
+    private volatile AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(16);
+    private final LongAdder cardinality = new LongAdder();
+    private int allocatedPages;
+
+    /**
+     * @return true si el id está en el conjunto
+     */
+    boolean contains(long id) {
+        AtomicLongArray page = page(id);
+        return page != null && (page.get(word(id)) & mask(id)) != 0;
+    }
+
+    /**
+     * Añade un id.
+     *
+     * @throws IllegalArgumentException si el id es negativo o mayor que {@link #MAX_ID}
+     */
+    void add(long id) {
+        AtomicLongArray page = page(id);
+        if (page == null) {
+            page = createPage(id);
+        }
+        int word = word(id);
+        long mask = mask(id);
+        long previous;
+        do {
+            previous = page.get(word);
+            if ((previous & mask) != 0) {
+                return;
+            }
+        } while (!page.compareAndSet(word, previous, previous | mask));
+        cardinality.increment();
+    }
+
+    /**
+     * Elimina un id si estaba.
+     */
+    void remove(long id) {
+        AtomicLongArray page = page(id);
+        if (page == null) {
+            return;
+        }
+        int word = word(id);
+        long mask = mask(id);
+        long previous;
+        do {
+            previous = page.get(word);
+            if ((previous & mask) == 0) {
+                return;
+            }
+        } while (!page.compareAndSet(word, previous, previous & ~mask));
+        cardinality.decrement();
+    }
+
+    /**
+     * @return Número de ids en el conjunto
+     */
+    long size() {
+        return cardinality.sum();
+    }
+
+    /**
+     * @return Memoria aproximada de las páginas reservadas, en bytes
+     */
+    synchronized long memoryBytes() {
+        return (long) allocatedPages * WORDS_PER_PAGE * Long.BYTES;
+    }
+
+    private AtomicLongArray page(long id) {
+        if (id < 0 || id > MAX_ID) {
+            return null;
+        }
+        AtomicReferenceArray<AtomicLongArray> current = pages;
+        int index = (int) (id >>> 16);
+        return index < current.length() ? current.get(index) : null;
+    }
+
+    private synchronized AtomicLongArray createPage(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Id out of range: " + id);
+        }
+        int index = (int) (id >>> 16);
+        AtomicReferenceArray<AtomicLongArray> current = pages;
+        if (index >= current.length()) {
+            AtomicReferenceArray<AtomicLongArray> grown =
+                    new AtomicReferenceArray<>(Math.max(index + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            pages = grown;
+            current = grown;
+        }
+        AtomicLongArray page = current.get(index);
+        if (page == null) {
+            page = new AtomicLongArray(WORDS_PER_PAGE);
+            current.set(index, page);
+            allocatedPages++;
+        }
+        return page;
+    }
+
+    private static int word(long id) {
+        return (int) (id & (PAGE_SIZE - 1)) >>> 6;
+    }
+
+    private static long mask(long id) {
+        return 1L << (id & 63);
+    }
+}
@@ -0,0 +1,142 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Cursor opaco para paginación por keyset (seek) sobre fact_transactions.
+ *
+ * Representa la última fila entregada en una página usando la clave de
+ * ordenación (transactiondate, amount, id). La siguiente página se obtiene
+ * buscando las filas estrictamente posteriores a esa clave en orden
+ * descendente, por lo que el coste de una página no depende de su profundidad.
+ *
+ * El cliente recibe el cursor como texto Base64 URL-safe y no debe
+ * interpretar su contenido.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class PageCursor implements Comparable<PageCursor> {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDate transactionDate;
+    private final BigDecimal amount;
+    private final Long id;
+
+    /**
+     * Crea un cursor a partir de los valores de la clave de ordenación.
+     *
+     * @param transactionDate Fecha de la última transacción de la página
+     * @param amount Monto de la última transacción de la página
+     * @param id Identificador de la última transacción de la página
+     * @throws IllegalArgumentException si algún componente es null
+     */
+    public PageCursor(LocalDate transactionDate, BigDecimal amount, Long id) {
+        if (transactionDate == null || amount == null || id == null) {
+            throw new IllegalArgumentException("Cursor components cannot be null");
+        }
+        this.transactionDate = transactionDate;
+        this.amount = amount;
+        this.id = id;
+    }
+
+    /**
+     * Construye el cursor que apunta justo después de la transacción indicada.
+     *
+     * @param transaction Última transacción entregada
+     * @return Cursor con la clave de ordenación de la transacción
+     */
+    public static PageCursor after(Transaction transaction) {
+        return new PageCursor(transaction.getTransactionDate(), transaction.getAmount(), transaction.getId());
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param encoded Cursor en formato Base64 URL-safe
+     * @return Cursor decodificado, o null si el texto es null o vacío
+     * @throws IllegalArgumentException si el cursor está mal formado
+     */
+    public static PageCursor decode(String encoded) {
+        if (encoded == null || encoded.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + encoded);
+            }
+            return new PageCursor(LocalDate.parse(parts[0]), new BigDecimal(parts[1]), Long.valueOf(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded, e);
+        }
+    }
+
+    /**
+     * Codifica el cursor para enviarlo al cliente.
+     *
+     * @return Cursor en formato Base64 URL-safe sin relleno
+     */
+    public String encode() {
+        String raw = transactionDate + SEPARATOR + amount.toPlainString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getTransactionDate() {
+        return transactionDate;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Compara dos claves de ordenación en orden ascendente. Los listados se
+     * recorren en orden descendente: una página posterior a este cursor
+     * contiene las filas cuya clave es menor.
+     *
+     * @param other Cursor a comparar
+     * @return Negativo, cero o positivo si este cursor es menor, igual o mayor
+     */
+    @Override
+    public int compareTo(PageCursor other) {
+        int result = transactionDate.compareTo(other.transactionDate);
+        if (result == 0) {
+            result = amount.compareTo(other.amount);
+        }
+        return result != 0 ? result : id.compareTo(other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PageCursor that = (PageCursor) o;
+        return transactionDate.equals(that.transactionDate)
+            && amount.compareTo(that.amount) == 0
+            && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(transactionDate, amount.stripTrailingZeros(), id);
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" + transactionDate + ", " + amount + ", " + id + '}';
+    }
+}
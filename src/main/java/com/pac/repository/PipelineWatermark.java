@@ -0,0 +1,69 @@
+package com.pac.repository;
+
+import com.pac.entity.RawTransaction;
+
+import java.util.Objects;
+
+/**
+ * Posición de lectura de un pipeline sobre raw_transactions.
+ *
+ * Las filas se recorren en orden (txid, id), donde txid es la transacción
+ * que insertó la fila. Un watermark representa la última fila procesada; la
+ * siguiente lectura empieza en las filas estrictamente posteriores.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class PipelineWatermark {
+
+    /**
+     * Posición inicial: anterior a cualquier fila.
+     */
+    public static final PipelineWatermark START = new PipelineWatermark(0, 0);
+
+    private final long txid;
+    private final long rawId;
+
+    /**
+     * @param txid Transacción que insertó la última fila procesada
+     * @param rawId Id de la última fila procesada
+     */
+    public PipelineWatermark(long txid, long rawId) {
+        this.txid = txid;
+        this.rawId = rawId;
+    }
+
+    /**
+     * @param row Última fila procesada
+     * @return Watermark que apunta justo después de la fila
+     */
+    public static PipelineWatermark after(RawTransaction row) {
+        return new PipelineWatermark(row.getTxid(), row.getId());
+    }
+
+    public long getTxid() {
+        return txid;
+    }
+
+    public long getRawId() {
+        return rawId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PipelineWatermark that = (PipelineWatermark) o;
+        return txid == that.txid && rawId == that.rawId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(txid, rawId);
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineWatermark{txid=" + txid + ", rawId=" + rawId + "}";
+    }
+}
@@ -0,0 +1,56 @@
+package com.pac.repository;
+
+/**
+ * Dimensiones por las que se puede pivotar fact_transactions.
+ *
+ * Cada dimensión se traduce en una expresión SQL de tipo texto cuyo orden
+ * lexicográfico coincide con el orden natural (las fechas se formatean en
+ * ISO), de modo que las etiquetas pueden ordenarse sin conocer su tipo. La
+ * categoría se agrupa por category_id y {@link TransactionPivotRepository}
+ * sustituye cada id por su nombre.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public enum PivotDimension {
+
+    CATEGORY("category_id"),
+    SUSPICIOUS("CASE WHEN issuspicious THEN 'true' ELSE 'false' END"),
+    DAY("to_char(transactiondate, 'YYYY-MM-DD')"),
+    WEEK("to_char(date_trunc('week', transactiondate), 'YYYY-MM-DD')"),
+    MONTH("to_char(transactiondate, 'YYYY-MM')"),
+    YEAR("to_char(transactiondate, 'YYYY')");
+
+    private final String expression;
+
+    PivotDimension(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * @return Expresión SQL que calcula la etiqueta de la dimensión
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Convierte el parámetro de consulta en una dimensión, sin distinguir
+     * mayúsculas y minúsculas.
+     *
+     * @param value Nombre de la dimensión
+     * @return Dimensión correspondiente
+     * @throws IllegalArgumentException si el valor no es válido
+     */
+    public static PivotDimension parse(String value) {
+        if (value != null) {
+            for (PivotDimension dimension : values()) {
+                if (dimension.name().equalsIgnoreCase(value.trim())) {
+                    return dimension;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid pivot dimension: " + value
+                + " (expected category, suspicious, day, week, month or year)");
+    }
+}
@@ -0,0 +1,49 @@
+package com.pac.repository;
+
+/**
+ * Medidas agregadas disponibles en el pivot de transacciones.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public enum PivotMeasure {
+
+    COUNT("COUNT(*)"),
+    SUM("SUM(amount)"),
+    AVG("ROUND(AVG(amount), 2)"),
+    MIN("MIN(amount)"),
+    MAX("MAX(amount)");
+
+    private final String expression;
+
+    PivotMeasure(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * @return Expresión SQL agregada de la medida
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Convierte el parámetro de consulta en una medida, sin distinguir
+     * mayúsculas y minúsculas.
+     *
+     * @param value Nombre de la medida
+     * @return Medida correspondiente
+     * @throws IllegalArgumentException si el valor no es válido
+     */
+    public static PivotMeasure parse(String value) {
+        if (value != null) {
+            for (PivotMeasure measure : values()) {
+                if (measure.name().equalsIgnoreCase(value.trim())) {
+                    return measure;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid pivot measure: " + value
+                + " (expected count, sum, avg, min or max)");
+    }
+}
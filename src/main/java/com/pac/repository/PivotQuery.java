@@ -0,0 +1,140 @@
+package com.pac.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Parámetros inmutables de una consulta pivot sobre fact_transactions.
+ *
+ * Implementa equals/hashCode para poder usarse como clave de caché.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class PivotQuery {
+
+    private final PivotDimension rows;
+    private final PivotDimension cols;
+    private final List<PivotMeasure> measures;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+
+    /**
+     * @param rows Dimensión de filas
+     * @param cols Dimensión de columnas, null para un pivot de una dimensión
+     * @param measures Medidas a calcular, en el orden de salida
+     * @param fromDate Fecha inicial inclusiva (opcional)
+     * @param toDate Fecha final inclusiva (opcional)
+     * @throws IllegalArgumentException si los parámetros no son válidos
+     */
+    public PivotQuery(PivotDimension rows, PivotDimension cols, List<PivotMeasure> measures,
+                      LocalDate fromDate, LocalDate toDate) {
+        if (rows == null) {
+            throw new IllegalArgumentException("Row dimension cannot be null");
+        }
+        if (rows == cols) {
+            throw new IllegalArgumentException("Row and column dimensions must be different");
+        }
+        if (measures == null || measures.isEmpty()) {
+            throw new IllegalArgumentException("At least one measure is required");
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        List<PivotMeasure> distinct = new ArrayList<>();
+        for (PivotMeasure measure : measures) {
+            if (!distinct.contains(measure)) {
+                distinct.add(measure);
+            }
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.measures = Collections.unmodifiableList(distinct);
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    /**
+     * Construye la consulta a partir de los parámetros de la petición.
+     *
+     * @param rows Nombre de la dimensión de filas
+     * @param cols Nombre de la dimensión de columnas (opcional)
+     * @param measures Lista de medidas separadas por comas
+     * @param fromDate Fecha inicial inclusiva (opcional)
+     * @param toDate Fecha final inclusiva (opcional)
+     * @return Consulta validada
+     * @throws IllegalArgumentException si algún parámetro no es válido
+     */
+    public static PivotQuery parse(String rows, String cols, String measures,
+                                   LocalDate fromDate, LocalDate toDate) {
+        List<PivotMeasure> parsed = new ArrayList<>();
+        if (measures != null) {
+            for (String measure : measures.split(",")) {
+                if (!measure.trim().isEmpty()) {
+                    parsed.add(PivotMeasure.parse(measure));
+                }
+            }
+        }
+        PivotDimension colDimension = cols == null || cols.trim().isEmpty() ? null : PivotDimension.parse(cols);
+        return new PivotQuery(PivotDimension.parse(rows), colDimension, parsed, fromDate, toDate);
+    }
+
+    // ========================================================================
+    // GETTERS
+    // ========================================================================
+
+    public PivotDimension getRows() {
+        return rows;
+    }
+
+    public PivotDimension getCols() {
+        return cols;
+    }
+
+    public List<PivotMeasure> getMeasures() {
+        return measures;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    // ========================================================================
+    // MÉTODOS EQUALS, HASHCODE Y TOSTRING
+    // ========================================================================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PivotQuery that = (PivotQuery) o;
+        return rows == that.rows
+            && cols == that.cols
+            && measures.equals(that.measures)
+            && Objects.equals(fromDate, that.fromDate)
+            && Objects.equals(toDate, that.toDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rows, cols, measures, fromDate, toDate);
+    }
+
+    @Override
+    public String toString() {
+        return "PivotQuery{" +
+                "rows=" + rows +
+                ", cols=" + cols +
+                ", measures=" + measures +
+                ", fromDate=" + fromDate +
+                ", toDate=" + toDate +
+                '}';
+    }
+}
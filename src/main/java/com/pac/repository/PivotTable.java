@@ -0,0 +1,98 @@
+package com.pac.repository;
+
+import java.util.List;
+
+/**
+ * Resultado compacto de una consulta pivot.
+ *
+ * Las etiquetas de filas y columnas se envían una sola vez y los valores se
+ * organizan como matriz: {@code cells[i][j]} contiene las medidas (en el
+ * orden de {@link #getMeasures()}) de la fila {@code rows[i]} y la columna
+ * {@code cols[j]}, o null si no hay transacciones en esa combinación. Los
+ * subtotales de fila y columna y el total general se calculan en la misma
+ * consulta.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class PivotTable {
+
+    private final String rowDimension;
+    private final String colDimension;
+    private final List<String> measures;
+    private final List<String> rows;
+    private final List<String> cols;
+    private final Number[][][] cells;
+    private final Number[][] rowTotals;
+    private final Number[][] colTotals;
+    private final Number[] grandTotal;
+    private final long computedAt;
+
+    public PivotTable(String rowDimension, String colDimension, List<String> measures,
+                      List<String> rows, List<String> cols, Number[][][] cells,
+                      Number[][] rowTotals, Number[][] colTotals, Number[] grandTotal, long computedAt) {
+        this.rowDimension = rowDimension;
+        this.colDimension = colDimension;
+        this.measures = measures;
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+        this.rowTotals = rowTotals;
+        this.colTotals = colTotals;
+        this.grandTotal = grandTotal;
+        this.computedAt = computedAt;
+    }
+
+    public String getRowDimension() {
+        return rowDimension;
+    }
+
+    /**
+     * @return Dimensión de columnas, null en un pivot de una dimensión
+     */
+    public String getColDimension() {
+        return colDimension;
+    }
+
+    public List<String> getMeasures() {
+        return measures;
+    }
+
+    public List<String> getRows() {
+        return rows;
+    }
+
+    public List<String> getCols() {
+        return cols;
+    }
+
+    public Number[][][] getCells() {
+        return cells;
+    }
+
+    /**
+     * @return Subtotales por fila (todas las columnas)
+     */
+    public Number[][] getRowTotals() {
+        return rowTotals;
+    }
+
+    /**
+     * @return Subtotales por columna (todas las filas)
+     */
+    public Number[][] getColTotals() {
+        return colTotals;
+    }
+
+    public Number[] getGrandTotal() {
+        return grandTotal;
+    }
+
+    /**
+     * @return Instante de cálculo (epoch millis), útil para saber si el
+     *         resultado proviene de la caché
+     */
+    public long getComputedAt() {
+        return computedAt;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pac.repository;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las consultas idénticas que llegan a la vez ("single flight").
+ * 
+ * La primera petición con una clave ejecuta la consulta; las que llegan
+ * mientras está en curso esperan a ese mismo resultado en lugar de lanzar
+ * otra. En cuanto termina, la clave se libera y la siguiente petición vuelve
+ * a consultar: no es una caché, solo elimina el trabajo duplicado de las
+ * ráfagas (varias pestañas del dashboard cargando a la vez).
+ * 
+ * La clave debe incluir la versión de los datos ({@link DataVersions}) que
+ * usa la respuesta, o un contador que avance antes que ella como la
+ * generación de {@link TransactionQueryCache}: una petición que ya ha visto
+ * una escritura confirmada no se une a una consulta que empezó antes de ella.
+ * 
+ * El resultado se comparte entre todas las peticiones y no se debe
+ * modificar.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class QueryCoalescer {
+    
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    
+    /**
+     * Ejecuta la consulta o se une a la que ya está en curso con la misma clave.
+     * 
+     * @param key Clave con la consulta y todos sus parámetros (equals/hashCode)
+     * @param query Consulta a ejecutar si no hay ninguna en curso
+     * @return Resultado de la consulta, compartido con las peticiones agrupadas
+     * @throws RuntimeException la excepción de la consulta, también en las
+     *         peticiones agrupadas
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> query) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        executions.increment();
+        try {
+            T result = query.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    /**
+     * @return Consultas ejecutadas desde el arranque
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+    
+    /**
+     * @return Peticiones que reutilizaron una consulta en curso
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+    
+    /**
+     * @return Consultas en curso en este momento
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
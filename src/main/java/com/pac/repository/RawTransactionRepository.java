@@ -0,0 +1,212 @@
+package com.pac.repository;
+
+import com.pac.entity.RawTransaction;
+import com.pac.entity.Transaction;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Repositorio stateless EJB para la tabla de staging raw_transactions y el
+ * watermark de los pipelines que la consumen.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Stateless
+public class RawTransactionRepository {
+    
+    /**
+     * Sentencia COPY en formato texto: una línea del fichero = una fila con
+     * la línea completa en csvline.
+     */
+    private static final String COPY_SQL = "COPY raw_transactions (csvline) FROM STDIN";
+    
+    /**
+     * Tamaño de los buffers de lectura y escritura del COPY.
+     */
+    public static final int COPY_BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * DataSource del pool de conexiones, usado para acceder a la API COPY de PgJDBC.
+     */
+    @Resource(lookup = "jdbc/financialPool")
+    private DataSource dataSource;
+    
+    /**
+     * EntityManager inyectado por el contenedor.
+     */
+    @PersistenceContext(unitName = "primary")
+    private EntityManager entityManager;
+    
+    /**
+     * Repositorio de transacciones usado para escribir las filas promovidas.
+     */
+    @EJB
+    private TransactionRepository transactionRepository;
+    
+    /**
+     * Recupera las líneas crudas posteriores a un watermark, en orden
+     * (txid, id).
+     * 
+     * Solo devuelve líneas insertadas por transacciones anteriores al xmin
+     * de la instantánea de la consulta: esas transacciones ya han terminado,
+     * así que ninguna línea con un (txid, id) menor puede aparecer después.
+     * Las líneas de un COPY que sigue en curso, o que confirmó mientras otra
+     * transacción más antigua seguía abierta, esperan a la siguiente lectura
+     * en lugar de quedar por detrás del watermark.
+     * 
+     * @param after Última línea ya procesada
+     * @param limit Número máximo de líneas a devolver
+     * @return Lista de líneas con (txid, id) &gt; after ordenadas por (txid, id)
+     */
+    @SuppressWarnings("unchecked")
+    public List<RawTransaction> findAfter(PipelineWatermark after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String sql = "SELECT * FROM raw_transactions WHERE (txid, id) > (?1, ?2) "
+                + "AND txid < txid_snapshot_xmin(txid_current_snapshot()) ORDER BY txid, id LIMIT ?3";
+        return entityManager.createNativeQuery(sql, RawTransaction.class)
+                .setParameter(1, after.getTxid())
+                .setParameter(2, after.getRawId())
+                .setParameter(3, limit)
+                .getResultList();
+    }
+    
+    /**
+     * Carga líneas CSV en raw_transactions usando el protocolo COPY de
+     * PostgreSQL a través del {@code CopyManager} de PgJDBC.
+     * 
+     * El contenido se lee y se envía al servidor en bloques de tamaño fijo,
+     * sin acumular el fichero en memoria. Cada línea de entrada se guarda
+     * completa en csvline: las barras invertidas y los tabuladores se escapan
+     * para el formato texto de COPY y los retornos de carro se descartan.
+     * 
+     * Se ejecuta fuera de la transacción JTA: el COPY es atómico por sí mismo
+     * y así una carga larga no está sujeta al timeout de la transacción.
+     * 
+     * @param csv Contenido CSV sin comprimir
+     * @return Número de filas insertadas
+     * @throws SQLException si PostgreSQL rechaza el COPY
+     * @throws IOException si falla la lectura del contenido
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public long copyFrom(InputStream csv) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                byte[] in = new byte[COPY_BUFFER_SIZE];
+                byte[] out = new byte[COPY_BUFFER_SIZE * 2];
+                int read;
+                while ((read = csv.read(in)) != -1) {
+                    int length = escapeForCopyText(in, read, out);
+                    copyIn.writeToCopy(out, 0, length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Escapa un bloque de bytes para el formato texto de COPY con una única
+     * columna. El buffer de salida debe tener al menos el doble de tamaño.
+     * 
+     * @return Número de bytes escritos en {@code out}
+     */
+    static int escapeForCopyText(byte[] in, int length, byte[] out) {
+        int o = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = in[i];
+            switch (b) {
+                case '\\':
+                    out[o++] = '\\';
+                    out[o++] = '\\';
+                    break;
+                case '\t':
+                    out[o++] = '\\';
+                    out[o++] = 't';
+                    break;
+                case '\r':
+                    break;
+                default:
+                    out[o++] = b;
+            }
+        }
+        return o;
+    }
+    
+    /**
+     * @return Mayor id presente en raw_transactions, 0 si está vacía
+     */
+    public long maxId() {
+        String jpql = "SELECT COALESCE(MAX(r.id), 0) FROM RawTransaction r";
+        return entityManager.createQuery(jpql, Number.class).getSingleResult().longValue();
+    }
+    
+    /**
+     * Lee el watermark persistido de un pipeline.
+     * 
+     * @param pipeline Nombre del pipeline
+     * @return Última línea procesada, {@link PipelineWatermark#START} si el pipeline no tiene watermark
+     */
+    public PipelineWatermark loadWatermark(String pipeline) {
+        List<?> result = entityManager
+                .createNativeQuery("SELECT last_txid, last_raw_id FROM pipeline_watermark WHERE name = ?1")
+                .setParameter(1, pipeline)
+                .getResultList();
+        if (result.isEmpty()) {
+            return PipelineWatermark.START;
+        }
+        Object[] row = (Object[]) result.get(0);
+        return new PipelineWatermark(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+    
+    /**
+     * Escribe las transacciones de un lote y avanza el watermark en la misma
+     * transacción JTA: o se confirman ambas cosas o ninguna.
+     * 
+     * @param pipeline Nombre del pipeline
+     * @param transactions Transacciones válidas del lote (puede estar vacía)
+     * @param newWatermark Última línea cruda del lote
+     * @return Número de transacciones escritas
+     */
+    public int promote(String pipeline, List<Transaction> transactions, PipelineWatermark newWatermark) {
+        int written = transactions.isEmpty() ? 0 : transactionRepository.createAll(transactions);
+        int updated = entityManager
+                .createNativeQuery("UPDATE pipeline_watermark SET last_txid = ?1, last_raw_id = ?2, "
+                        + "updatedat = CURRENT_TIMESTAMP WHERE name = ?3")
+                .setParameter(1, newWatermark.getTxid())
+                .setParameter(2, newWatermark.getRawId())
+                .setParameter(3, pipeline)
+                .executeUpdate();
+        if (updated == 0) {
+            entityManager
+                    .createNativeQuery("INSERT INTO pipeline_watermark (name, last_txid, last_raw_id) "
+                            + "VALUES (?1, ?2, ?3)")
+                    .setParameter(1, pipeline)
+                    .setParameter(2, newWatermark.getTxid())
+                    .setParameter(3, newWatermark.getRawId())
+                    .executeUpdate();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,57 @@
+package com.pac.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agregado de transacciones de un bucket de una serie temporal.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class TimeseriesPoint {
+
+    private final LocalDate bucket;
+    private final long count;
+    private final BigDecimal totalAmount;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final long suspiciousCount;
+
+    public TimeseriesPoint(LocalDate bucket, long count, BigDecimal totalAmount,
+                           BigDecimal minAmount, BigDecimal maxAmount, long suspiciousCount) {
+        this.bucket = bucket;
+        this.count = count;
+        this.totalAmount = totalAmount;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.suspiciousCount = suspiciousCount;
+    }
+
+    /**
+     * @return Inicio del bucket (día, lunes de la semana o día 1 del mes)
+     */
+    public LocalDate getBucket() {
+        return bucket;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public long getSuspiciousCount() {
+        return suspiciousCount;
+    }
+}
@@ -0,0 +1,103 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * Evento CDI emitido por {@link TransactionRepository} en cada escritura
+ * sobre fact_transactions.
+ * 
+ * Los componentes que mantienen estado derivado (estadísticas, índices,
+ * cachés...) lo observan con
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)} para aplicar el
+ * cambio solo cuando la transacción JTA se ha confirmado.
+ * 
+ * Las escrituras en bloque generan un único evento con todas las filas,
+ * marcado con {@link #isBulk()}.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class TransactionChangeEvent {
+    
+    /**
+     * Tipo de escritura.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+    
+    private final Type type;
+    private final List<Transaction> previous;
+    private final List<Transaction> current;
+    private final boolean bulk;
+    
+    private TransactionChangeEvent(Type type, List<Transaction> previous, List<Transaction> current, boolean bulk) {
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+        this.bulk = bulk;
+    }
+    
+    /**
+     * @param created Transacciones insertadas
+     * @return Evento de creación
+     */
+    public static TransactionChangeEvent created(List<Transaction> created) {
+        return new TransactionChangeEvent(Type.CREATED, List.of(), List.copyOf(created), false);
+    }
+    
+    /**
+     * @param created Transacciones insertadas por una carga en bloque
+     * @return Evento de creación marcado como carga en bloque
+     */
+    public static TransactionChangeEvent createdInBulk(List<Transaction> created) {
+        return new TransactionChangeEvent(Type.CREATED, List.of(), List.copyOf(created), true);
+    }
+    
+    /**
+     * @param previous Estado anterior de la transacción
+     * @param current Estado nuevo de la transacción
+     * @return Evento de actualización
+     */
+    public static TransactionChangeEvent updated(Transaction previous, Transaction current) {
+        return new TransactionChangeEvent(Type.UPDATED, List.of(previous), List.of(current), false);
+    }
+    
+    /**
+     * @param deleted Transacción eliminada (estado previo al borrado)
+     * @return Evento de borrado
+     */
+    public static TransactionChangeEvent deleted(Transaction deleted) {
+        return new TransactionChangeEvent(Type.DELETED, List.of(deleted), List.of(), false);
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    /**
+     * @return Estado anterior de las filas afectadas (UPDATED y DELETED)
+     */
+    public List<Transaction> getPrevious() {
+        return previous;
+    }
+    
+    /**
+     * @return Estado nuevo de las filas afectadas (CREATED y UPDATED)
+     */
+    public List<Transaction> getCurrent() {
+        return current;
+    }
+    
+    /**
+     * @return true si las filas proceden de una carga en bloque
+     *         ({@code POST /batch} o el pipeline de ingesta)
+     */
+    public boolean isBulk() {
+        return bulk;
+    }
+}
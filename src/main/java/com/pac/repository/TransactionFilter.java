@@ -0,0 +1,206 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Criterio de filtrado inmutable para las consultas de listado de transacciones.
+ *
+ * Cada endpoint de listado (todas, sospechosas, por categoría, alto valor,
+ * recientes) se expresa como un filtro, de modo que el repositorio puede
+ * aplicar el mismo mecanismo de paginación a todos ellos.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class TransactionFilter {
+
+    private static final TransactionFilter ALL = new TransactionFilter(false, null, null, null, null);
+
+    private final boolean suspiciousOnly;
+    private final String category;
+    private final BigDecimal minAmount;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+
+    private TransactionFilter(boolean suspiciousOnly, String category, BigDecimal minAmount,
+                              LocalDate fromDate, LocalDate toDate) {
+        this.suspiciousOnly = suspiciousOnly;
+        this.category = category;
+        this.minAmount = minAmount;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    // ========================================================================
+    // FACTORÍAS
+    // ========================================================================
+
+    /**
+     * @return Filtro sin restricciones
+     */
+    public static TransactionFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @return Filtro de transacciones marcadas como sospechosas
+     */
+    public static TransactionFilter suspicious() {
+        return new TransactionFilter(true, null, null, null, null);
+    }
+
+    /**
+     * @param category Categoría exacta a filtrar
+     * @return Filtro por categoría
+     * @throws IllegalArgumentException si la categoría es null o vacía
+     */
+    public static TransactionFilter category(String category) {
+        if (category == null || category.trim().isEmpty()) {
+            throw new IllegalArgumentException("Category cannot be empty");
+        }
+        return new TransactionFilter(false, category, null, null, null);
+    }
+
+    /**
+     * @param minAmount Monto mínimo (inclusivo)
+     * @return Filtro por monto mínimo
+     * @throws IllegalArgumentException si el monto es null
+     */
+    public static TransactionFilter minAmount(BigDecimal minAmount) {
+        if (minAmount == null) {
+            throw new IllegalArgumentException("Minimum amount cannot be null");
+        }
+        return new TransactionFilter(false, null, minAmount, null, null);
+    }
+
+    /**
+     * @param fromDate Fecha inicial (inclusiva)
+     * @return Filtro de transacciones desde la fecha indicada
+     * @throws IllegalArgumentException si la fecha es null
+     */
+    public static TransactionFilter since(LocalDate fromDate) {
+        if (fromDate == null) {
+            throw new IllegalArgumentException("Start date cannot be null");
+        }
+        return new TransactionFilter(false, null, null, fromDate, null);
+    }
+
+    /**
+     * @param fromDate Fecha inicial (inclusiva)
+     * @param toDate Fecha final (inclusiva)
+     * @return Filtro por rango de fechas
+     * @throws IllegalArgumentException si alguna fecha es null
+     */
+    public static TransactionFilter dateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        return new TransactionFilter(false, null, null, fromDate, toDate);
+    }
+
+    /**
+     * Combina varios criterios en un único filtro. Los valores null (o una
+     * categoría vacía) se interpretan como "sin restricción".
+     *
+     * @param suspiciousOnly true para limitar a transacciones sospechosas
+     * @param category Categoría exacta a filtrar
+     * @param minAmount Monto mínimo (inclusivo)
+     * @param fromDate Fecha inicial (inclusiva)
+     * @param toDate Fecha final (inclusiva)
+     * @return Filtro con todos los criterios indicados
+     * @throws IllegalArgumentException si el rango de fechas está invertido
+     */
+    public static TransactionFilter of(boolean suspiciousOnly, String category, BigDecimal minAmount,
+                                       LocalDate fromDate, LocalDate toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        String normalizedCategory = category == null || category.trim().isEmpty() ? null : category;
+        return new TransactionFilter(suspiciousOnly, normalizedCategory, minAmount, fromDate, toDate);
+    }
+
+    // ========================================================================
+    // GETTERS
+    // ========================================================================
+
+    public boolean isSuspiciousOnly() {
+        return suspiciousOnly;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Evalúa el filtro sobre una transacción en memoria, con las mismas
+     * condiciones que aplica el repositorio en la consulta.
+     *
+     * @param transaction Transacción a comprobar
+     * @return true si la transacción aparecería en un listado con este filtro
+     */
+    public boolean matches(Transaction transaction) {
+        if (suspiciousOnly && !Boolean.TRUE.equals(transaction.isSuspicious())) {
+            return false;
+        }
+        if (category != null && !category.equals(transaction.getCategory())) {
+            return false;
+        }
+        BigDecimal amount = transaction.getAmount();
+        if (minAmount != null && (amount == null || amount.compareTo(minAmount) < 0)) {
+            return false;
+        }
+        LocalDate date = transaction.getTransactionDate();
+        if (fromDate != null && (date == null || date.isBefore(fromDate))) {
+            return false;
+        }
+        return toDate == null || (date != null && !date.isAfter(toDate));
+    }
+
+    // ========================================================================
+    // MÉTODOS EQUALS, HASHCODE Y TOSTRING
+    // ========================================================================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TransactionFilter that = (TransactionFilter) o;
+        return suspiciousOnly == that.suspiciousOnly
+            && Objects.equals(category, that.category)
+            && Objects.equals(minAmount, that.minAmount)
+            && Objects.equals(fromDate, that.fromDate)
+            && Objects.equals(toDate, that.toDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(suspiciousOnly, category, minAmount, fromDate, toDate);
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionFilter{" +
+                "suspiciousOnly=" + suspiciousOnly +
+                ", category='" + category + '\'' +
+                ", minAmount=" + minAmount +
+                ", fromDate=" + fromDate +
+                ", toDate=" + toDate +
+                '}';
+    }
+}
@@ -0,0 +1,332 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Índice en memoria de los ids existentes en fact_transactions, consultado
+ * por {@link TransactionRepository#findById} y {@link TransactionRepository#exists}
+ * antes de ir a la base de datos.
+ *
+ * Los scrapers y los enlaces antiguos del frontend piden continuamente ids
+ * que no existen; cada uno costaba un viaje a PostgreSQL. Con el índice, un
+ * id ausente se descarta en memoria y solo los ids presentes llegan a la
+ * base de datos.
+ *
+ * El índice es un {@link IdBitmap} que se carga en segundo plano al arrancar
+ * y se mantiene con cada {@link TransactionChangeEvent} confirmado: las
+ * altas añaden su id y las bajas lo quitan en el momento, sin esperar a una
+ * reconstrucción. Una reconstrucción horaria desde la base de datos recoge
+ * las filas escritas fuera de esta instancia.
+ *
+ * Las filas insertadas por otra instancia o fuera de la aplicación no
+ * generan eventos y pueden tener un id menor que el mayor conocido (la
+ * secuencia reparte bloques de ids). Para no descartarlas, cada
+ * {@value #CHECK_SECONDS} segundos se compara el contador de inserciones de
+ * PostgreSQL ({@link TransactionRepository#countInsertedRows}) con las altas
+ * que ha aplicado el índice desde su carga: si la base de datos ha recibido
+ * más, se cuentan las filas de la tabla: si hay más que ids en el índice,
+ * el índice queda obsoleto y deja de descartar ids hasta la siguiente
+ * reconstrucción. Con varias instancias escribiendo el índice pasa a estar
+ * obsoleto casi siempre y todas las búsquedas van a la base de datos.
+ *
+ * El contador de PostgreSQL también suma las filas de transacciones que se
+ * deshicieron, como los lotes de {@code createAll} que fallan y se
+ * reintentan fila a fila. Si el recuento de filas no supera al índice, la
+ * diferencia se atribuye a esas escrituras locales deshechas y se incorpora
+ * a la referencia del contador, sin marcar el índice. Un borrado externo
+ * entre dos comprobaciones puede ocultar una inserción externa del mismo
+ * intervalo; los falsos positivos que deja el borrado sí se contabilizan.
+ *
+ * Mientras no se ha cargado, si está obsoleto o si el id es mayor que el
+ * mayor conocido, la respuesta es "puede existir" y se consulta la base de
+ * datos. Queda una ventana conocida de falsos negativos: un id insertado
+ * desde fuera puede descartarse durante el intervalo de comprobación más el
+ * retraso con que PostgreSQL publica sus estadísticas (unos segundos). Los
+ * falsos positivos (ids que el índice da por presentes y la base de datos no
+ * encuentra) se cuentan para vigilar la deriva.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TransactionIdIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(TransactionIdIndex.class.getName());
+
+    /**
+     * Intervalo de comprobación de inserciones externas, en segundos.
+     */
+    static final int CHECK_SECONDS = 10;
+
+    @EJB
+    private TransactionRepository transactionRepository;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private volatile IdBitmap ids;
+
+    /**
+     * Índice en construcción, que también recibe los cambios confirmados
+     * durante la carga.
+     */
+    private IdBitmap building;
+
+    private final AtomicLong highestId = new AtomicLong();
+
+    /**
+     * Contador de inserciones de PostgreSQL al empezar la carga del índice
+     * vigente, y altas aplicadas a él desde entonces.
+     */
+    private long insertedAtLoad;
+    private long appliedInserts;
+
+    /**
+     * Lo mismo para el índice en construcción.
+     */
+    private long buildingInsertedAtLoad;
+    private long buildingAppliedInserts;
+
+    /**
+     * true si la base de datos ha recibido inserciones que el índice no ha visto.
+     */
+    private volatile boolean stale;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        executor.submit(this::rebuild);
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos. Las consultas se siguen
+     * respondiendo con el índice anterior hasta que termina la carga.
+     */
+    @Schedule(hour = "*", minute = "50", persistent = false)
+    public void rebuild() {
+        IdBitmap fresh = new IdBitmap();
+        synchronized (this) {
+            if (building != null) {
+                return; // Ya hay una carga en curso
+            }
+            building = fresh;
+        }
+        try {
+            long start = System.nanoTime();
+            long inserted = transactionRepository.countInsertedRows();
+            synchronized (this) {
+                buildingInsertedAtLoad = inserted;
+                buildingAppliedInserts = 0;
+            }
+            AtomicLong highest = new AtomicLong();
+            transactionRepository.forEachId(id -> {
+                fresh.add(id);
+                if (id > highest.get()) {
+                    highest.set(id);
+                }
+            });
+            synchronized (this) {
+                ids = fresh;
+                building = null;
+                insertedAtLoad = buildingInsertedAtLoad;
+                appliedInserts = buildingAppliedInserts;
+                stale = false; // Lo que se escribiera durante la carga lo detecta la siguiente comprobación
+                highestId.accumulateAndGet(highest.get(), Math::max);
+            }
+            LOGGER.info(String.format("Transaction id index built with %d ids (%d KB) in %d ms",
+                    fresh.size(), fresh.memoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                building = null;
+            }
+            LOGGER.log(Level.WARNING, "Transaction id index build failed", e);
+        }
+    }
+
+    /**
+     * Aplica un cambio confirmado al índice vigente y al que se está
+     * construyendo.
+     *
+     * @param event Cambio emitido por el repositorio
+     */
+    public synchronized void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        if (event.getType() == TransactionChangeEvent.Type.DELETED) {
+            for (Transaction transaction : event.getPrevious()) {
+                apply(transaction.getId(), false);
+            }
+        } else {
+            for (Transaction transaction : event.getCurrent()) {
+                apply(transaction.getId(), true);
+            }
+            if (event.getType() == TransactionChangeEvent.Type.CREATED) {
+                appliedInserts += event.getCurrent().size();
+                buildingAppliedInserts += event.getCurrent().size();
+            }
+        }
+    }
+
+    /**
+     * Marca el índice como obsoleto si PostgreSQL ha recibido más
+     * inserciones de las que el índice ha aplicado desde su carga y la tabla
+     * tiene más filas que el índice. Las inserciones sobrantes sin filas
+     * nuevas son de transacciones deshechas y se descuentan del contador.
+     * Una vez marcado, el índice sigue así hasta la reconstrucción sin volver
+     * a contar las filas.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/" + CHECK_SECONDS, persistent = false)
+    public void checkExternalInserts() {
+        IdBitmap current = ids;
+        if (current == null) {
+            return;
+        }
+        long inserted = transactionRepository.countInsertedRows();
+        long unexplained;
+        synchronized (this) {
+            // Sin estadísticas, o reiniciadas desde la carga: no se puede saber
+            if (inserted < 0 || insertedAtLoad < 0 || inserted < insertedAtLoad) {
+                unexplained = Long.MAX_VALUE;
+            } else {
+                unexplained = inserted - insertedAtLoad - appliedInserts;
+            }
+        }
+        boolean external;
+        if (unexplained <= 0) {
+            external = false;
+        } else if (unexplained == Long.MAX_VALUE || stale) {
+            external = true;
+        } else {
+            long rows = transactionRepository.count();
+            synchronized (this) {
+                if (ids != current) {
+                    return; // Reconstruido mientras se contaba
+                }
+                external = rows > current.size();
+                if (!external) {
+                    insertedAtLoad += unexplained; // Filas de escrituras locales deshechas
+                }
+            }
+        }
+        if (external && !stale) {
+            LOGGER.info("Rows inserted outside this instance; transaction id index bypassed until the next rebuild");
+        }
+        stale = external;
+    }
+
+    private void apply(Long id, boolean present) {
+        if (id == null || id < 0 || id > IdBitmap.MAX_ID) {
+            return;
+        }
+        for (IdBitmap target : new IdBitmap[]{ids, building}) {
+            if (target == null) {
+                continue;
+            }
+            if (present) {
+                target.add(id);
+            } else {
+                target.remove(id);
+            }
+        }
+        if (present) {
+            highestId.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    /**
+     * @param id Identificador buscado
+     * @return false si la transacción seguro que no existe; true si puede
+     *         existir y hay que consultar la base de datos
+     */
+    public boolean mightContain(long id) {
+        IdBitmap current = ids;
+        if (current == null || stale || id > highestId.get()) {
+            return true;
+        }
+        if (current.contains(id)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Registra que un id dado por presente no estaba en la base de datos.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    // ========================================================================
+    // MÉTRICAS
+    // ========================================================================
+
+    /**
+     * @return true cuando el índice se ha cargado y ya descarta ids
+     */
+    public boolean isReady() {
+        return ids != null;
+    }
+
+    /**
+     * @return true si hay inserciones externas que el índice no ha visto y
+     *         no descarta ids hasta la siguiente reconstrucción
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return Número de ids en el índice
+     */
+    public long getSize() {
+        IdBitmap current = ids;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * @return Memoria aproximada del índice, en bytes
+     */
+    public long getMemoryBytes() {
+        IdBitmap current = ids;
+        return current == null ? 0 : current.memoryBytes();
+    }
+
+    /**
+     * @return Búsquedas resueltas en memoria como inexistentes
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return Fracción de ids inexistentes que el índice no pudo descartar (0-1)
+     */
+    public double getFalsePositiveRate() {
+        long positives = falsePositives.sum();
+        long total = positives + rejected.sum();
+        return total == 0 ? 0 : (double) positives / total;
+    }
+}
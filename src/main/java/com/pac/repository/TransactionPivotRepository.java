@@ -0,0 +1,194 @@
+package com.pac.repository;
+
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Repositorio stateless EJB para consultas pivot sobre fact_transactions.
+ * 
+ * Todas las celdas, los subtotales por fila y por columna y el total general
+ * se obtienen en una única pasada sobre la tabla con
+ * {@code GROUP BY GROUPING SETS}; la función {@code GROUPING()} indica a qué
+ * nivel de agregación pertenece cada fila del resultado.
+ * 
+ * La dimensión categoría agrupa por category_id; los ids del resultado se
+ * traducen a nombres con {@link CategoryRegistry}.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Stateless
+public class TransactionPivotRepository {
+    
+    /**
+     * EntityManager inyectado por el contenedor.
+     */
+    @PersistenceContext(unitName = "primary")
+    private EntityManager entityManager;
+    
+    /**
+     * Diccionario de categorías para etiquetar la dimensión categoría.
+     */
+    @EJB
+    private CategoryRegistry categories;
+    
+    /**
+     * Ejecuta la consulta pivot y construye la matriz de resultados.
+     * 
+     * @param pivot Parámetros de la consulta
+     * @return Tabla pivot con celdas, subtotales y total general
+     */
+    public PivotTable pivot(PivotQuery pivot) {
+        Query query = entityManager.createNativeQuery(buildSql(pivot));
+        int parameter = 1;
+        if (pivot.getFromDate() != null) {
+            query.setParameter(parameter++, Date.valueOf(pivot.getFromDate()));
+        }
+        if (pivot.getToDate() != null) {
+            query.setParameter(parameter, Date.valueOf(pivot.getToDate()));
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = query.getResultList();
+        if (pivot.getRows() == PivotDimension.CATEGORY || pivot.getCols() == PivotDimension.CATEGORY) {
+            for (Object[] row : result) {
+                if (pivot.getRows() == PivotDimension.CATEGORY) {
+                    row[0] = categoryName(row[0]);
+                }
+                if (pivot.getCols() == PivotDimension.CATEGORY) {
+                    row[1] = categoryName(row[1]);
+                }
+            }
+        }
+        return toTable(pivot, result);
+    }
+    
+    /**
+     * @return Nombre de la categoría, o el id como texto si no está en dim_category
+     */
+    private String categoryName(Object id) {
+        if (id == null) {
+            return null; // Fila de subtotal
+        }
+        short categoryId = ((Number) id).shortValue();
+        String name = categories.nameOf(categoryId);
+        return name != null ? name : String.valueOf(categoryId);
+    }
+    
+    /**
+     * Genera la sentencia SQL. Cada fila del resultado tiene la forma
+     * {@code [fila, columna, grouping(fila), grouping(columna), medidas...]}.
+     * 
+     * Las expresiones proceden de los enums de dimensión y medida, nunca de
+     * la entrada del cliente.
+     */
+    static String buildSql(PivotQuery pivot) {
+        String rowExpr = pivot.getRows().getExpression();
+        String colExpr = pivot.getCols() == null ? null : pivot.getCols().getExpression();
+        
+        StringBuilder sql = new StringBuilder("SELECT ").append(rowExpr).append(", ");
+        if (colExpr == null) {
+            sql.append("CAST(NULL AS TEXT), GROUPING(").append(rowExpr).append("), 1");
+        } else {
+            sql.append(colExpr).append(", GROUPING(").append(rowExpr).append("), GROUPING(")
+               .append(colExpr).append(")");
+        }
+        for (PivotMeasure measure : pivot.getMeasures()) {
+            sql.append(", ").append(measure.getExpression());
+        }
+        sql.append(" FROM fact_transactions");
+        
+        List<String> conditions = new ArrayList<>();
+        int parameter = 1;
+        if (pivot.getFromDate() != null) {
+            conditions.add("transactiondate >= ?" + parameter++);
+        }
+        if (pivot.getToDate() != null) {
+            conditions.add("transactiondate <= ?" + parameter);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        
+        sql.append(" GROUP BY GROUPING SETS (");
+        if (colExpr == null) {
+            sql.append("(").append(rowExpr).append("), ()");
+        } else {
+            sql.append("(").append(rowExpr).append(", ").append(colExpr).append("), (")
+               .append(rowExpr).append("), (").append(colExpr).append("), ()");
+        }
+        return sql.append(")").toString();
+    }
+    
+    /**
+     * Reparte las filas del resultado entre celdas, subtotales y total general.
+     */
+    static PivotTable toTable(PivotQuery pivot, List<Object[]> result) {
+        int measureCount = pivot.getMeasures().size();
+        TreeSet<String> rowLabels = new TreeSet<>();
+        TreeSet<String> colLabels = new TreeSet<>();
+        for (Object[] row : result) {
+            boolean rowGrouped = ((Number) row[2]).intValue() == 1;
+            boolean colGrouped = ((Number) row[3]).intValue() == 1;
+            if (!rowGrouped) {
+                rowLabels.add((String) row[0]);
+            }
+            if (!colGrouped) {
+                colLabels.add((String) row[1]);
+            }
+        }
+        List<String> rows = new ArrayList<>(rowLabels);
+        List<String> cols = new ArrayList<>(colLabels);
+        Map<String, Integer> rowIndex = indexOf(rows);
+        Map<String, Integer> colIndex = indexOf(cols);
+        
+        Number[][][] cells = new Number[rows.size()][cols.size()][];
+        Number[][] rowTotals = new Number[rows.size()][];
+        Number[][] colTotals = new Number[cols.size()][];
+        Number[] grandTotal = new Number[measureCount];
+        for (Object[] row : result) {
+            boolean rowGrouped = ((Number) row[2]).intValue() == 1;
+            boolean colGrouped = ((Number) row[3]).intValue() == 1;
+            Number[] values = new Number[measureCount];
+            for (int m = 0; m < measureCount; m++) {
+                values[m] = (Number) row[4 + m];
+            }
+            if (!rowGrouped && !colGrouped) {
+                cells[rowIndex.get((String) row[0])][colIndex.get((String) row[1])] = values;
+            } else if (!rowGrouped) {
+                rowTotals[rowIndex.get((String) row[0])] = values;
+            } else if (!colGrouped) {
+                colTotals[colIndex.get((String) row[1])] = values;
+            } else {
+                grandTotal = values;
+            }
+        }
+        
+        List<String> measures = new ArrayList<>(measureCount);
+        for (PivotMeasure measure : pivot.getMeasures()) {
+            measures.add(measure.name().toLowerCase(Locale.ROOT));
+        }
+        return new PivotTable(
+                pivot.getRows().name().toLowerCase(Locale.ROOT),
+                pivot.getCols() == null ? null : pivot.getCols().name().toLowerCase(Locale.ROOT),
+                measures, rows, cols, cells, rowTotals, colTotals, grandTotal,
+                System.currentTimeMillis());
+    }
+    
+    private static Map<String, Integer> indexOf(List<String> labels) {
+        Map<String, Integer> index = new HashMap<>(labels.size() * 2);
+        for (int i = 0; i < labels.size(); i++) {
+            index.put(labels.get(i), i);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,341 @@
+package com.pac.repository;
+
+import com.pac.cache.TinyLfuCache;
+import com.pac.entity.Transaction;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de las consultas de listado y búsqueda de
+ * {@link TransactionRepository}, delante de PostgreSQL.
+ *
+ * La caché L2 de EclipseLink solo guarda entidades por id; cada página de
+ * {@link TransactionRepository#findPage} o cada búsqueda volvía a la base de
+ * datos. Aquí se guarda la lista de filas de cada consulta con un
+ * presupuesto de memoria ({@code pac.queryCache.maxBytes}, 64 MB por
+ * defecto) y expulsión W-TinyLFU ({@link TinyLfuCache}).
+ *
+ * Las escrituras invalidan solo las entradas que la fila cambiada puede
+ * alterar (se comprueban la versión anterior y la nueva):
+ * <ul>
+ *   <li>Páginas: la fila cumple el {@link TransactionFilter} (categoría,
+ *       rango de fechas, monto mínimo, sospechosa) y su clave de ordenación
+ *       cae dentro del tramo que cubre la página, entre el cursor y la
+ *       última fila leída. Una inserción en marzo no invalida las páginas
+ *       de junio del mismo listado.</li>
+ *   <li>Búsquedas: la descripción de la fila cumple el mismo patrón LIKE
+ *       que {@link TransactionRepository#search}.</li>
+ * </ul>
+ *
+ * Las escrituras de más de {@code pac.queryCache.maxRowsPerChange} filas
+ * (100 por defecto, el mismo límite con que {@code TransactionEventHub}
+ * resume los eventos) vacían la caché entera: comprobar cada entrada contra
+ * cada fila de un lote grande costaría más que volver a leer. Las
+ * comprobaciones se hacen sobre una copia de las entradas, sin retener el
+ * monitor de la caché, de modo que las lecturas no esperan a la invalidación.
+ *
+ * Una consulta que se solapa con una escritura devuelve su resultado pero
+ * no lo guarda (contador de generación, como {@link com.pac.stats.PivotCache}).
+ * La invalidación se ejecuta antes de que {@link DataVersions} publique la
+ * versión nueva, así que una respuesta servida desde la caché nunca es más
+ * antigua que su ETag. Las consultas idénticas simultáneas que fallan en la
+ * caché se agrupan con {@link QueryCoalescer}.
+ *
+ * Las escrituras hechas fuera de la aplicación (SQL manual, dbt) no
+ * invalidan la caché.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class TransactionQueryCache {
+
+    /**
+     * Memoria máxima estimada de los resultados guardados, en bytes.
+     */
+    static final long MAX_BYTES = Long.getLong("pac.queryCache.maxBytes", 64L * 1024 * 1024);
+
+    /**
+     * Tamaño estimado de una transacción en memoria, sin sus textos.
+     */
+    static final int TRANSACTION_BYTES = 240;
+
+    /**
+     * Tamaño estimado de una entrada vacía (clave, nodo y lista).
+     */
+    static final int ENTRY_BYTES = 200;
+
+    /**
+     * Filas cambiadas a partir de las cuales una escritura vacía la caché.
+     */
+    static final int MAX_ROWS_PER_CHANGE = Integer.getInteger("pac.queryCache.maxRowsPerChange", 100);
+
+    @EJB
+    private QueryCoalescer coalescer;
+
+    private final TinyLfuCache<QueryKey, List<Transaction>> cache =
+            new TinyLfuCache<>(MAX_BYTES, (int) Math.min(Integer.MAX_VALUE, MAX_BYTES / 8192));
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Recupera una página de un listado.
+     *
+     * @param filter Filtro del listado
+     * @param after Cursor de la página (null para la primera)
+     * @param limit Filas que se leen
+     * @param query Consulta a ejecutar si la página no está en la caché
+     * @return Filas de la página, compartidas y no modificables
+     */
+    public List<Transaction> page(TransactionFilter filter, PageCursor after, int limit,
+                                  Supplier<List<Transaction>> query) {
+        return get(new PageKey(filter, after, limit), query);
+    }
+
+    /**
+     * Recupera el resultado de una búsqueda por descripción.
+     *
+     * @param term Término de búsqueda
+     * @param limit Número máximo de resultados
+     * @param query Consulta a ejecutar si la búsqueda no está en la caché
+     * @return Transacciones encontradas, compartidas y no modificables
+     */
+    public List<Transaction> search(String term, int limit, Supplier<List<Transaction>> query) {
+        return get(new SearchKey(term, limit), query);
+    }
+
+    private List<Transaction> get(QueryKey key, Supplier<List<Transaction>> query) {
+        List<Transaction> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long observed = generation.get();
+        List<Transaction> result = Collections.unmodifiableList(
+                coalescer.execute(Arrays.asList(key, observed), query));
+        synchronized (cache) {
+            if (generation.get() == observed) {
+                cache.put(key, result, weigh(result));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Elimina las entradas que el cambio confirmado puede haber alterado.
+     *
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        generation.incrementAndGet();
+        if (event.getPrevious().size() + event.getCurrent().size() > MAX_ROWS_PER_CHANGE) {
+            invalidations.addAndGet(cache.removeIf((key, rows) -> true));
+            return;
+        }
+        List<ChangedRow> changed = new ArrayList<>(event.getPrevious().size() + event.getCurrent().size());
+        for (Transaction transaction : event.getPrevious()) {
+            changed.add(new ChangedRow(transaction));
+        }
+        for (Transaction transaction : event.getCurrent()) {
+            changed.add(new ChangedRow(transaction));
+        }
+        // Las consultas leídas antes del incremento ya no se guardan, así que
+        // la copia contiene todas las entradas que pueden haber quedado viejas.
+        int removed = 0;
+        for (Map.Entry<QueryKey, List<Transaction>> entry : cache.entries()) {
+            if (affects(entry.getKey(), entry.getValue(), changed) && cache.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        invalidations.addAndGet(removed);
+    }
+
+    private static boolean affects(QueryKey key, List<Transaction> rows, List<ChangedRow> changed) {
+        for (ChangedRow row : changed) {
+            if (key.isAffectedBy(row, rows)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Memoria estimada que ocupa el resultado en la caché
+     */
+    static long weigh(List<Transaction> rows) {
+        long bytes = ENTRY_BYTES;
+        for (Transaction transaction : rows) {
+            bytes += TRANSACTION_BYTES + 2L * (length(transaction.getDescription()) + length(transaction.getCategory()));
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // ========================================================================
+    // MÉTRICAS
+    // ========================================================================
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * @return Entradas expulsadas por el presupuesto de memoria
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * @return Entradas eliminadas por escrituras
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public int getEntries() {
+        return cache.size();
+    }
+
+    public long getWeightedSize() {
+        return cache.getWeightedSize();
+    }
+
+    public long getMaximumWeight() {
+        return cache.getMaximumWeight();
+    }
+
+    // ========================================================================
+    // CLAVES
+    // ========================================================================
+
+    /**
+     * Fila cambiada con su descripción normalizada una sola vez por evento,
+     * en lugar de una vez por cada búsqueda guardada.
+     */
+    private static final class ChangedRow {
+        private final Transaction transaction;
+        private final String description;
+
+        ChangedRow(Transaction transaction) {
+            this.transaction = transaction;
+            this.description = transaction.getDescription() == null
+                    ? null : transaction.getDescription().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Consulta guardada, capaz de decidir si una fila cambiada altera su
+     * resultado.
+     */
+    private interface QueryKey {
+
+        /**
+         * @param row Fila cambiada (versión anterior o nueva)
+         * @param rows Resultado guardado para la consulta
+         * @return true si el resultado puede haber cambiado
+         */
+        boolean isAffectedBy(ChangedRow row, List<Transaction> rows);
+    }
+
+    private static final class PageKey implements QueryKey {
+        private final TransactionFilter filter;
+        private final PageCursor after;
+        private final int limit;
+
+        PageKey(TransactionFilter filter, PageCursor after, int limit) {
+            this.filter = filter;
+            this.after = after;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean isAffectedBy(ChangedRow row, List<Transaction> rows) {
+            Transaction transaction = row.transaction;
+            if (!filter.matches(transaction)) {
+                return false;
+            }
+            if (transaction.getTransactionDate() == null || transaction.getAmount() == null
+                    || transaction.getId() == null) {
+                return true;
+            }
+            PageCursor position = PageCursor.after(transaction);
+            if (after != null && position.compareTo(after) >= 0) {
+                return false; // Pertenece a una página anterior
+            }
+            return rows.size() < limit || position.compareTo(PageCursor.after(rows.get(rows.size() - 1))) >= 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PageKey that = (PageKey) o;
+            return limit == that.limit && filter.equals(that.filter) && Objects.equals(after, that.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, after, limit);
+        }
+    }
+
+    private static final class SearchKey implements QueryKey {
+        private final String term;
+        private final int limit;
+
+        SearchKey(String term, int limit) {
+            this.term = term.trim().toLowerCase(Locale.ROOT);
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean isAffectedBy(ChangedRow row, List<Transaction> rows) {
+            String description = row.description;
+            if (description == null) {
+                return false;
+            }
+            return term.length() < TransactionRepository.MIN_TRIGRAM_TERM_LENGTH
+                    ? description.startsWith(term)
+                    : description.contains(term);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SearchKey that = (SearchKey) o;
+            return limit == that.limit && term.equals(that.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(term, limit);
+        }
+    }
+}
@@ -1,15 +1,37 @@
 package com.pac.repository;
 
 import com.pac.entity.Transaction;
+import com.pac.metrics.QueryMetricsInterceptor;
+import com.pac.rules.RuleEngine;
+import com.pac.rules.SuspicionRules;
 
+import javax.annotation.Resource;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.interceptor.Interceptors;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * Repositorio stateless EJB para gestionar operaciones de persistencia de Transaction.
@@ -17,12 +39,58 @@ import java.util.Optional;
  * Este repositorio proporciona métodos CRUD y consultas especializadas para
  * la entidad Transaction usando JPA/JPQL.
  * 
+ * La duración, las filas y los errores de cada método se publican como
+ * métricas mediante {@link QueryMetricsInterceptor}.
+ * 
  * @author Sistema PAC
  * @version 1.0.0
  */
 @Stateless
+@Interceptors(QueryMetricsInterceptor.class)
 public class TransactionRepository {
     
+    /**
+     * Umbral a partir del cual una transacción se considera de alto valor.
+     */
+    public static final BigDecimal HIGH_VALUE_THRESHOLD = Transaction.HIGH_VALUE_THRESHOLD;
+    
+    /**
+     * Orden estable usado por la paginación por keyset.
+     * Debe coincidir con la clave del cursor (transactiondate, amount, id).
+     */
+    private static final String KEYSET_ORDER =
+            " ORDER BY t.transactionDate DESC, t.amount DESC, t.id DESC";
+    
+    /**
+     * Mismo orden que {@link #KEYSET_ORDER}, en SQL.
+     */
+    private static final String KEYSET_SQL_ORDER = " ORDER BY transactiondate DESC, amount DESC, id DESC";
+    
+    /**
+     * Columnas de fact_transactions en el orden que lee {@link #mapRow}.
+     */
+    private static final String STREAM_COLUMNS =
+            "id, transactiondate, amount, description, category, category_id, issuspicious, risk_score, createdat";
+    
+    /**
+     * Filas que el driver trae por cada viaje al servidor en modo streaming.
+     * PostgreSQL solo usa un cursor de servidor si el fetch size es positivo
+     * y la conexión no está en autocommit.
+     */
+    static final int STREAM_FETCH_SIZE = 500;
+    
+    /**
+     * Id usado al filtrar por una categoría que no existe en dim_category:
+     * no coincide con ninguna fila.
+     */
+    private static final short UNKNOWN_CATEGORY_ID = -1;
+    
+    /**
+     * Longitud mínima de un término para buscarlo por subcadena con el
+     * índice de trigramas; los más cortos se buscan por prefijo.
+     */
+    static final int MIN_TRIGRAM_TERM_LENGTH = 3;
+    
     /**
      * EntityManager inyectado por el contenedor.
      * Gestiona el contexto de persistencia definido en persistence.xml
@@ -30,6 +98,38 @@ public class TransactionRepository {
     @PersistenceContext(unitName = "primary")
     private EntityManager entityManager;
     
+    /**
+     * DataSource del pool de conexiones, usado para los recorridos con
+     * cursor de servidor.
+     */
+    @Resource(lookup = "jdbc/financialPool")
+    private DataSource dataSource;
+    
+    /**
+     * Evento de cambio emitido en cada escritura, para los componentes que
+     * mantienen estado derivado de fact_transactions.
+     */
+    @Inject
+    private Event<TransactionChangeEvent> changeEvents;
+    
+    /**
+     * Diccionario de categorías: los filtros y agrupaciones usan category_id.
+     */
+    @EJB
+    private CategoryRegistry categories;
+    
+    /**
+     * Reglas de sospecha evaluadas en cada escritura.
+     */
+    @EJB
+    private SuspicionRules suspicionRules;
+    
+    /**
+     * Ids existentes, para descartar en memoria los que no existen.
+     */
+    @EJB
+    private TransactionIdIndex ids;
+    
     // ========================================================================
     // MÉTODOS CRUD BÁSICOS
     // ========================================================================
@@ -37,6 +137,13 @@ public class TransactionRepository {
     /**
      * Persiste una nueva transacción en la base de datos.
      * 
+     * Antes de escribirla se evalúan las reglas de sospecha, que asignan la
+     * puntuación de riesgo y, si alcanza el umbral, la marca de sospechosa.
+     * El detector de frecuencia suma su puntuación si la categoría o la
+     * descripción se repiten demasiado en poco tiempo; la transacción se
+     * registra en él cuando se confirma la escritura
+     * ({@link SuspicionRules#onChange}).
+     * 
      * @param transaction Entidad Transaction a persistir
      * @return La transacción persistida con el ID generado
      * @throws IllegalArgumentException si la transacción es null o no es válida
@@ -48,22 +155,72 @@ public class TransactionRepository {
         if (!transaction.isValid()) {
             throw new IllegalArgumentException("Transaction data is not valid");
         }
+        transaction.setCategoryId(categories.idFor(transaction.getCategory()));
+        suspicionRules.engine().apply(transaction, suspicionRules.velocity().score(transaction));
         entityManager.persist(transaction);
         entityManager.flush(); // Forzar escritura para obtener el ID
+        changeEvents.fire(TransactionChangeEvent.created(List.of(transaction)));
         return transaction;
     }
     
+    /**
+     * Persiste un bloque de transacciones en una única transacción JTA.
+     * 
+     * Los IDs se obtienen de la secuencia por bloques y EclipseLink agrupa los
+     * INSERT en batches JDBC, de modo que el bloque completo se escribe con
+     * unos pocos viajes a la base de datos. Tras el flush se limpia el
+     * contexto de persistencia para que la memoria no crezca con el número de
+     * bloques procesados.
+     * 
+     * Las transacciones deben haberse validado previamente; si alguna no es
+     * válida se rechaza el bloque completo antes de escribir nada.
+     * 
+     * Los bloques no pasan por el detector de frecuencia: son cargas
+     * masivas cuyo ritmo de llegada refleja el del proceso de carga, no el
+     * de los movimientos.
+     * 
+     * @param transactions Transacciones a persistir
+     * @return Número de transacciones persistidas
+     * @throws IllegalArgumentException si la lista es null o contiene transacciones no válidas
+     */
+    public int createAll(List<Transaction> transactions) {
+        if (transactions == null) {
+            throw new IllegalArgumentException("Transactions cannot be null");
+        }
+        for (Transaction transaction : transactions) {
+            if (transaction == null || !transaction.isValid()) {
+                throw new IllegalArgumentException("Transaction data is not valid");
+            }
+        }
+        RuleEngine engine = suspicionRules.engine();
+        for (Transaction transaction : transactions) {
+            transaction.setCategoryId(categories.idFor(transaction.getCategory()));
+            engine.apply(transaction);
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        changeEvents.fire(TransactionChangeEvent.createdInBulk(transactions));
+        return transactions.size();
+    }
+    
     /**
      * Busca una transacción por su identificador único.
      * 
+     * Los ids que {@link TransactionIdIndex} descarta no se consultan en la
+     * base de datos.
+     * 
      * @param id Identificador de la transacción
      * @return Optional con la transacción si existe, Optional.empty() si no
      */
     public Optional<Transaction> findById(Long id) {
-        if (id == null) {
+        if (id == null || !ids.mightContain(id)) {
             return Optional.empty();
         }
         Transaction transaction = entityManager.find(Transaction.class, id);
+        if (transaction == null) {
+            ids.recordFalsePositive();
+        }
         return Optional.ofNullable(transaction);
     }
     
@@ -80,7 +237,9 @@ public class TransactionRepository {
     }
     
     /**
-     * Actualiza una transacción existente.
+     * Actualiza una transacción existente, reevaluando las reglas de sospecha.
+     * La marca de sospecha puesta por las reglas se retira si la transacción
+     * deja de cumplirlas (ver {@link RuleEngine#reapply}).
      * 
      * @param transaction Transacción con los datos actualizados
      * @return La transacción actualizada
@@ -90,7 +249,15 @@ public class TransactionRepository {
         if (transaction == null || transaction.getId() == null) {
             throw new IllegalArgumentException("Transaction and ID cannot be null for update");
         }
-        return entityManager.merge(transaction);
+        transaction.setCategoryId(categories.idFor(transaction.getCategory()));
+        Transaction existing = entityManager.find(Transaction.class, transaction.getId());
+        Transaction previous = existing == null ? null : existing.copy();
+        suspicionRules.engine().reapply(transaction, previous);
+        Transaction merged = entityManager.merge(transaction);
+        changeEvents.fire(previous == null
+                ? TransactionChangeEvent.created(List.of(merged))
+                : TransactionChangeEvent.updated(previous, merged));
+        return merged;
     }
     
     /**
@@ -103,6 +270,7 @@ public class TransactionRepository {
         Optional<Transaction> transaction = findById(id);
         if (transaction.isPresent()) {
             entityManager.remove(transaction.get());
+            changeEvents.fire(TransactionChangeEvent.deleted(transaction.get()));
             return true;
         }
         return false;
@@ -135,10 +303,14 @@ public class TransactionRepository {
         if (category == null || category.trim().isEmpty()) {
             return List.of();
         }
-        String jpql = "SELECT t FROM Transaction t WHERE t.category = :category " +
+        Short categoryId = categories.idOf(category);
+        if (categoryId == null) {
+            return List.of();
+        }
+        String jpql = "SELECT t FROM Transaction t WHERE t.categoryId = :categoryId " +
                      "ORDER BY t.transactionDate DESC";
         TypedQuery<Transaction> query = entityManager.createQuery(jpql, Transaction.class);
-        query.setParameter("category", category);
+        query.setParameter("categoryId", categoryId);
         return query.getResultList();
     }
     
@@ -188,12 +360,16 @@ public class TransactionRepository {
      * @return Lista de transacciones de alto valor
      */
     public List<Transaction> findHighValue() {
-        return findByMinAmount(new BigDecimal("2000.00"));
+        return findByMinAmount(HIGH_VALUE_THRESHOLD);
     }
     
     /**
      * Busca transacciones por descripción (búsqueda parcial case-insensitive).
      * 
+     * La condición LOWER(description) LIKE se resuelve con el índice GiST de
+     * trigramas de V12, que sustituye al GIN de V8. Para búsquedas
+     * interactivas usar {@link #search}, que limita y ordena el resultado.
+     * 
      * @param searchTerm Término de búsqueda en la descripción
      * @return Lista de transacciones que contienen el término en la descripción
      */
@@ -209,6 +385,67 @@ public class TransactionRepository {
         return query.getResultList();
     }
     
+    /**
+     * Búsqueda de texto en la descripción con ranking por similitud.
+     * 
+     * Los términos de {@value #MIN_TRIGRAM_TERM_LENGTH} o más caracteres se
+     * buscan como subcadena y los más cortos como prefijo. Las coincidencias
+     * se ordenan por distancia de trigramas al término ({@code <->}, es decir
+     * por similitud descendente) y después por fecha descendente: con el
+     * índice GiST de trigramas PostgreSQL las recorre de la más a la menos
+     * similar y se detiene en el límite, sin truncar antes un subconjunto
+     * arbitrario.
+     * 
+     * @param term Término de búsqueda (sin distinguir mayúsculas)
+     * @param limit Número máximo de resultados
+     * @return Transacciones más similares al término
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    public List<Transaction> search(String term, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (term == null || term.trim().isEmpty()) {
+            return List.of();
+        }
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        String escaped = escapeLike(normalized);
+        String pattern = normalized.length() < MIN_TRIGRAM_TERM_LENGTH ? escaped + "%" : "%" + escaped + "%";
+        String sql = "SELECT * FROM fact_transactions WHERE lower(description) LIKE ?1 ESCAPE '\\' " +
+                     "ORDER BY lower(description) <-> ?2, transactiondate DESC, id DESC LIMIT ?3";
+        Query query = entityManager.createNativeQuery(sql, Transaction.class);
+        query.setParameter(1, pattern);
+        query.setParameter(2, normalized);
+        query.setParameter(3, limit);
+        @SuppressWarnings("unchecked")
+        List<Transaction> result = query.getResultList();
+        return result;
+    }
+    
+    /**
+     * Cuenta las apariciones de cada token de las descripciones, con una
+     * única consulta agregada en la base de datos. La división en tokens
+     * (minúsculas, separación por caracteres no alfanuméricos, longitud 2-50)
+     * equivale a la del índice de autocompletado.
+     * 
+     * @return Lista de arrays [token, count]
+     */
+    public List<Object[]> countDescriptionTokens() {
+        String sql = "SELECT token, COUNT(*) FROM fact_transactions, " +
+                     "regexp_split_to_table(lower(description), '[^[:alnum:]]+') AS token " +
+                     "WHERE length(token) BETWEEN 2 AND 50 GROUP BY token";
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = entityManager.createNativeQuery(sql).getResultList();
+        return result;
+    }
+    
+    /**
+     * Escapa los comodines de LIKE para que el término se busque literalmente.
+     */
+    static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
     /**
      * Recupera transacciones recientes (últimos N días).
      * 
@@ -228,6 +465,257 @@ public class TransactionRepository {
         return query.getResultList();
     }
     
+    // ========================================================================
+    // PAGINACIÓN POR KEYSET
+    // ========================================================================
+    
+    /**
+     * Recupera una página de transacciones usando paginación por keyset (seek).
+     * 
+     * En lugar de OFFSET, la consulta continúa a partir de la clave
+     * (transactiondate, amount, id) de la última fila entregada, de forma que
+     * el índice de ordenación permite posicionarse directamente y el coste es
+     * el mismo en la primera página que en la página 10.000.
+     * 
+     * @param filter Filtro a aplicar (sospechosas, categoría, monto, fechas)
+     * @param after Cursor de la última fila de la página anterior, null para la primera
+     * @param limit Número máximo de filas a devolver
+     * @return Lista de como máximo {@code limit} transacciones en orden descendente
+     * @throws IllegalArgumentException si el filtro es null o el límite no es positivo
+     */
+    public List<Transaction> findPage(TransactionFilter filter, PageCursor after, int limit) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Transaction t WHERE 1 = 1");
+        appendFilter(jpql, filter);
+        if (after != null) {
+            // El primer predicado acota el rango del índice por fecha;
+            // el segundo desempata dentro de la misma fecha por monto e id.
+            jpql.append(" AND t.transactionDate <= :cursorDate")
+                .append(" AND (t.transactionDate < :cursorDate")
+                .append(" OR t.amount < :cursorAmount")
+                .append(" OR (t.amount = :cursorAmount AND t.id < :cursorId))");
+        }
+        jpql.append(KEYSET_ORDER);
+        
+        TypedQuery<Transaction> query = entityManager.createQuery(jpql.toString(), Transaction.class);
+        bindFilter(query, filter);
+        if (after != null) {
+            query.setParameter("cursorDate", after.getTransactionDate());
+            query.setParameter("cursorAmount", after.getAmount());
+            query.setParameter("cursorId", after.getId());
+        }
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+    
+    /**
+     * Añade a la consulta JPQL los predicados correspondientes al filtro.
+     */
+    private static void appendFilter(StringBuilder jpql, TransactionFilter filter) {
+        if (filter.isSuspiciousOnly()) {
+            jpql.append(" AND t.suspicious = true");
+        }
+        if (filter.getCategory() != null) {
+            jpql.append(" AND t.categoryId = :categoryId");
+        }
+        if (filter.getMinAmount() != null) {
+            jpql.append(" AND t.amount >= :minAmount");
+        }
+        if (filter.getFromDate() != null) {
+            jpql.append(" AND t.transactionDate >= :fromDate");
+        }
+        if (filter.getToDate() != null) {
+            jpql.append(" AND t.transactionDate <= :toDate");
+        }
+    }
+    
+    /**
+     * Asigna a la consulta los parámetros declarados por {@link #appendFilter}.
+     */
+    private void bindFilter(TypedQuery<?> query, TransactionFilter filter) {
+        if (filter.getCategory() != null) {
+            Short categoryId = categories.idOf(filter.getCategory());
+            query.setParameter("categoryId", categoryId == null ? UNKNOWN_CATEGORY_ID : categoryId);
+        }
+        if (filter.getMinAmount() != null) {
+            query.setParameter("minAmount", filter.getMinAmount());
+        }
+        if (filter.getFromDate() != null) {
+            query.setParameter("fromDate", filter.getFromDate());
+        }
+        if (filter.getToDate() != null) {
+            query.setParameter("toDate", filter.getToDate());
+        }
+    }
+    
+    // ========================================================================
+    // STREAMING
+    // ========================================================================
+    
+    /**
+     * Recorre todas las transacciones que cumplen el filtro sin materializar
+     * el resultado completo en memoria.
+     * 
+     * La consulta se lee por JDBC con un cursor de servidor de PostgreSQL
+     * ({@value #STREAM_FETCH_SIZE} filas por viaje) y cada fila se convierte
+     * en una Transaction desvinculada que no pasa por el contexto de
+     * persistencia, de forma que la memoria usada es constante
+     * independientemente del número de filas. No se usa
+     * {@code getResultStream()}: en EclipseLink 2.7 equivale a
+     * {@code getResultList().stream()} y carga el resultado completo.
+     * 
+     * El método debe invocarse desde el hilo que consume las filas: la
+     * conexión (y con ella el cursor) permanece abierta mientras dura el
+     * recorrido.
+     * 
+     * @param filter Filtro a aplicar
+     * @param action Acción invocada para cada transacción, en orden de keyset
+     * @return Número de transacciones procesadas
+     * @throws IllegalArgumentException si el filtro o la acción son null
+     * @throws PersistenceException si falla la consulta
+     */
+    public long forEachMatching(TransactionFilter filter, Consumer<Transaction> action) {
+        if (filter == null || action == null) {
+            throw new IllegalArgumentException("Filter and action cannot be null");
+        }
+        StringBuilder sql = new StringBuilder("SELECT " + STREAM_COLUMNS + " FROM fact_transactions WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        appendSqlFilter(sql, parameters, filter);
+        sql.append(KEYSET_SQL_ORDER);
+        return scan(sql.toString(), parameters, row -> action.accept(mapRow(row)));
+    }
+    
+    /**
+     * Equivalente SQL de {@link #appendFilter} y {@link #bindFilter}: añade
+     * los predicados del filtro y sus parámetros posicionales.
+     */
+    private void appendSqlFilter(StringBuilder sql, List<Object> parameters, TransactionFilter filter) {
+        if (filter.isSuspiciousOnly()) {
+            sql.append(" AND issuspicious = true");
+        }
+        if (filter.getCategory() != null) {
+            Short categoryId = categories.idOf(filter.getCategory());
+            sql.append(" AND category_id = ?");
+            parameters.add(categoryId == null ? UNKNOWN_CATEGORY_ID : categoryId);
+        }
+        if (filter.getMinAmount() != null) {
+            sql.append(" AND amount >= ?");
+            parameters.add(filter.getMinAmount());
+        }
+        if (filter.getFromDate() != null) {
+            sql.append(" AND transactiondate >= ?");
+            parameters.add(filter.getFromDate());
+        }
+        if (filter.getToDate() != null) {
+            sql.append(" AND transactiondate <= ?");
+            parameters.add(filter.getToDate());
+        }
+    }
+    
+    /**
+     * Construye una transacción desvinculada a partir de una fila con las
+     * columnas de {@link #STREAM_COLUMNS}.
+     */
+    static Transaction mapRow(ResultSet row) throws SQLException {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.getLong(1));
+        transaction.setTransactionDate(row.getObject(2, LocalDate.class));
+        transaction.setAmount(row.getBigDecimal(3));
+        transaction.setDescription(row.getString(4));
+        transaction.setCategory(row.getString(5));
+        transaction.setCategoryId(row.getShort(6));
+        transaction.setSuspicious(row.getBoolean(7));
+        transaction.setRiskScore(row.getInt(8));
+        transaction.setCreatedAt(row.getObject(9, LocalDateTime.class));
+        return transaction;
+    }
+    
+    /**
+     * Procesa una fila del cursor.
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(ResultSet row) throws SQLException;
+    }
+    
+    /**
+     * Ejecuta una consulta con un cursor de servidor y entrega cada fila al
+     * manejador sin acumularlas.
+     * 
+     * Dentro de JTA la conexión ya está fuera de autocommit; si no lo está
+     * (fuera de una transacción), se desactiva mientras dura el recorrido,
+     * porque con autocommit PgJDBC ignora el fetch size y lee todas las filas.
+     * 
+     * @return Número de filas procesadas
+     */
+    private long scan(String sql, List<Object> parameters, RowHandler handler) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(STREAM_FETCH_SIZE);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                long count = 0;
+                try (ResultSet row = statement.executeQuery()) {
+                    while (row.next()) {
+                        handler.accept(row);
+                        count++;
+                    }
+                }
+                return count;
+            } finally {
+                if (autoCommit) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Error scanning fact_transactions", e);
+        }
+    }
+    
+    /**
+     * Recorre los ids de todas las transacciones sin materializarlos en una
+     * lista, con el mismo cursor de servidor que {@link #forEachMatching}.
+     * 
+     * Se ejecuta fuera de la transacción JTA: el recorrido completo puede
+     * durar minutos y no debe estar sujeto a su timeout.
+     * 
+     * @param action Acción invocada para cada id, sin orden definido
+     * @return Número de ids recorridos
+     * @throws PersistenceException si falla la consulta
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public long forEachId(LongConsumer action) {
+        return scan("SELECT id FROM fact_transactions", List.of(), row -> action.accept(row.getLong(1)));
+    }
+    
+    /**
+     * Filas insertadas en fact_transactions por cualquier sesión, según el
+     * contador acumulado de las estadísticas de PostgreSQL
+     * ({@code pg_stat_user_tables.n_tup_ins}). Incluye las inserciones de
+     * transacciones abortadas y se actualiza con un retraso de segundos.
+     * 
+     * @return Filas insertadas desde el último reinicio de estadísticas, o -1
+     *         si no están disponibles
+     */
+    public long countInsertedRows() {
+        List<?> result = entityManager
+                .createNativeQuery("SELECT n_tup_ins FROM pg_stat_user_tables "
+                        + "WHERE relid = 'fact_transactions'::regclass")
+                .getResultList();
+        return result.isEmpty() || result.get(0) == null ? -1 : ((Number) result.get(0)).longValue();
+    }
+    
     // ========================================================================
     // MÉTODOS DE AGREGACIÓN Y ESTADÍSTICAS
     // ========================================================================
@@ -282,11 +770,11 @@ public class TransactionRepository {
      * @return Lista de arrays [categoría, count] con el conteo por categoría
      */
     public List<Object[]> countByCategory() {
-        String jpql = "SELECT t.category, COUNT(t) FROM Transaction t " +
-                     "GROUP BY t.category " +
+        String jpql = "SELECT t.categoryId, COUNT(t) FROM Transaction t " +
+                     "GROUP BY t.categoryId " +
                      "ORDER BY COUNT(t) DESC";
         TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
-        return query.getResultList();
+        return withCategoryNames(query.getResultList());
     }
     
     /**
@@ -295,11 +783,22 @@ public class TransactionRepository {
      * @return Lista de arrays [categoría, sum] con el total por categoría
      */
     public List<Object[]> sumByCategory() {
-        String jpql = "SELECT t.category, SUM(t.amount) FROM Transaction t " +
-                     "GROUP BY t.category " +
+        String jpql = "SELECT t.categoryId, SUM(t.amount) FROM Transaction t " +
+                     "GROUP BY t.categoryId " +
                      "ORDER BY SUM(t.amount) DESC";
         TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
-        return query.getResultList();
+        return withCategoryNames(query.getResultList());
+    }
+    
+    /**
+     * Sustituye el id de categoría de la primera columna por su nombre.
+     */
+    private List<Object[]> withCategoryNames(List<Object[]> rows) {
+        List<Object[]> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new Object[]{categories.nameOf((Short) row[0]), row[1]});
+        }
+        return result;
     }
     
     // ========================================================================
@@ -307,19 +806,24 @@ public class TransactionRepository {
     // ========================================================================
     
     /**
-     * Verifica si existe una transacción con el ID especificado.
+     * Verifica si existe una transacción con el ID especificado. Los ids que
+     * {@link TransactionIdIndex} descarta no se consultan en la base de datos.
      * 
      * @param id Identificador a verificar
      * @return true si existe, false en caso contrario
      */
     public boolean exists(Long id) {
-        if (id == null) {
+        if (id == null || !ids.mightContain(id)) {
             return false;
         }
         String jpql = "SELECT COUNT(t) FROM Transaction t WHERE t.id = :id";
         TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
         query.setParameter("id", id);
-        return query.getSingleResult() > 0;
+        boolean exists = query.getSingleResult() > 0;
+        if (!exists) {
+            ids.recordFalsePositive();
+        }
+        return exists;
     }
     
     /**
@@ -0,0 +1,188 @@
+package com.pac.repository;
+
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio stateless EJB para las tablas de rollup temporal
+ * (rollup_daily_transactions y rollup_monthly_transactions).
+ * 
+ * Las series se leen siempre de los rollups, nunca de fact_transactions: el
+ * coste de una consulta depende del número de buckets del rango, no del
+ * número de transacciones.
+ * 
+ * Los rollups se agrupan y filtran por category_id; los nombres de categoría
+ * se resuelven con {@link CategoryRegistry}.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Stateless
+public class TransactionRollupRepository {
+    
+    /**
+     * Expresión de bucket de la tabla diaria para cada granularidad.
+     */
+    private static final String DAY_BUCKET = "bucket";
+    private static final String WEEK_BUCKET = "CAST(date_trunc('week', bucket) AS DATE)";
+    
+    private static final String SERIES_COLUMNS =
+            "SUM(txn_count), SUM(amount_sum), MIN(amount_min), MAX(amount_max), SUM(suspicious_count)";
+    
+    /**
+     * EntityManager inyectado por el contenedor.
+     */
+    @PersistenceContext(unitName = "primary")
+    private EntityManager entityManager;
+    
+    /**
+     * Diccionario de categorías para resolver el filtro por nombre.
+     */
+    @EJB
+    private CategoryRegistry categories;
+    
+    // ========================================================================
+    // CONSULTA DE SERIES
+    // ========================================================================
+    
+    /**
+     * Recupera la serie temporal agregada de un rango de fechas.
+     * 
+     * Los buckets sin transacciones no aparecen en el resultado. El rango se
+     * amplía a buckets completos para que el primero y el último no cubran
+     * solo una parte: con granularidad semanal a semanas ISO completas (de
+     * lunes a domingo) y con granularidad mensual a meses completos, ya que
+     * el rollup mensual no conserva el detalle por día.
+     * 
+     * @param granularity Tamaño del bucket
+     * @param from Fecha inicial inclusiva
+     * @param to Fecha final inclusiva
+     * @param category Categoría a filtrar, null para todas
+     * @return Puntos de la serie ordenados por bucket ascendente
+     * @throws IllegalArgumentException si el rango no es válido
+     */
+    public List<TimeseriesPoint> findSeries(Granularity granularity, LocalDate from, LocalDate to, String category) {
+        if (granularity == null || from == null || to == null) {
+            throw new IllegalArgumentException("Granularity, start date and end date cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        Short categoryId = null;
+        if (category != null) {
+            categoryId = categories.idOf(category);
+            if (categoryId == null) {
+                return List.of(); // Categoría inexistente: ningún bucket
+            }
+        }
+        String table = "rollup_daily_transactions";
+        String bucket = DAY_BUCKET;
+        if (granularity == Granularity.WEEK) {
+            bucket = WEEK_BUCKET;
+            from = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            to = to.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        } else if (granularity == Granularity.MONTH) {
+            table = "rollup_monthly_transactions";
+            from = from.withDayOfMonth(1);
+            to = to.withDayOfMonth(1);
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT ").append(bucket).append(", ").append(SERIES_COLUMNS)
+                .append(" FROM ").append(table)
+                .append(" WHERE bucket BETWEEN ?1 AND ?2");
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?3");
+        }
+        sql.append(" GROUP BY 1 ORDER BY 1");
+        
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.setParameter(1, Date.valueOf(from));
+        query.setParameter(2, Date.valueOf(to));
+        if (categoryId != null) {
+            query.setParameter(3, categoryId);
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<TimeseriesPoint> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            points.add(new TimeseriesPoint(
+                    toLocalDate(row[0]),
+                    ((Number) row[1]).longValue(),
+                    (BigDecimal) row[2],
+                    (BigDecimal) row[3],
+                    (BigDecimal) row[4],
+                    ((Number) row[5]).longValue()));
+        }
+        return points;
+    }
+    
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date ? ((Date) value).toLocalDate() : (LocalDate) value;
+    }
+    
+    // ========================================================================
+    // MANTENIMIENTO
+    // ========================================================================
+    
+    /**
+     * Recalcula los rollups diarios de un rango de días a partir de
+     * fact_transactions, y los rollups mensuales de los meses que lo contienen.
+     * 
+     * Recalcular (en lugar de sumar deltas) mantiene correctos el mínimo y el
+     * máximo tras actualizaciones y borrados. El coste es proporcional a las
+     * transacciones del rango, que usa el índice por fecha.
+     * 
+     * @param from Primer día a recalcular
+     * @param to Último día a recalcular
+     * @return Número de filas de rollup diario escritas
+     */
+    public int refresh(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        Date dayFrom = Date.valueOf(from);
+        Date dayTo = Date.valueOf(to);
+        entityManager.createNativeQuery("DELETE FROM rollup_daily_transactions WHERE bucket BETWEEN ?1 AND ?2")
+                .setParameter(1, dayFrom)
+                .setParameter(2, dayTo)
+                .executeUpdate();
+        int written = entityManager.createNativeQuery(
+                "INSERT INTO rollup_daily_transactions"
+                + " (bucket, category_id, txn_count, amount_sum, amount_min, amount_max, suspicious_count)"
+                + " SELECT transactiondate, category_id, COUNT(*), SUM(amount), MIN(amount),"
+                + " MAX(amount), COUNT(*) FILTER (WHERE issuspicious)"
+                + " FROM fact_transactions WHERE transactiondate BETWEEN ?1 AND ?2"
+                + " GROUP BY transactiondate, category_id")
+                .setParameter(1, dayFrom)
+                .setParameter(2, dayTo)
+                .executeUpdate();
+        
+        Date monthFrom = Date.valueOf(from.withDayOfMonth(1));
+        Date monthTo = Date.valueOf(to.withDayOfMonth(to.lengthOfMonth()));
+        entityManager.createNativeQuery("DELETE FROM rollup_monthly_transactions WHERE bucket BETWEEN ?1 AND ?2")
+                .setParameter(1, monthFrom)
+                .setParameter(2, monthTo)
+                .executeUpdate();
+        entityManager.createNativeQuery(
+                "INSERT INTO rollup_monthly_transactions"
+                + " (bucket, category_id, txn_count, amount_sum, amount_min, amount_max, suspicious_count)"
+                + " SELECT CAST(date_trunc('month', bucket) AS DATE), category_id, " + SERIES_COLUMNS
+                + " FROM rollup_daily_transactions WHERE bucket BETWEEN ?1 AND ?2"
+                + " GROUP BY CAST(date_trunc('month', bucket) AS DATE), category_id")
+                .setParameter(1, monthFrom)
+                .setParameter(2, monthTo)
+                .executeUpdate();
+        return written;
+    }
+}
@@ -0,0 +1,358 @@
+package com.pac.rest;
+
+import com.pac.accesslog.AccessLog;
+import com.pac.repository.QueryCoalescer;
+import com.pac.repository.TransactionIdIndex;
+import com.pac.repository.TransactionQueryCache;
+import com.pac.rest.async.Bulkhead;
+import com.pac.rest.async.Bulkheads;
+
+import javax.ejb.EJB;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recurso REST JAX-RS con las métricas de ejecución de la API.
+ * 
+ * Base URL: /api/metrics
+ * 
+ * Las latencias, filas y bytes por endpoint y por método del repositorio
+ * se publican aparte, en formato Prometheus, en {@code /metrics/application}
+ * (ver {@link com.pac.metrics.ApiMetrics}).
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Path("/metrics")
+@Produces(MediaType.APPLICATION_JSON)
+public class MetricsResource {
+    
+    @EJB
+    private QueryCoalescer coalescer;
+    
+    @EJB
+    private Bulkheads bulkheads;
+    
+    @EJB
+    private TransactionQueryCache queryCache;
+    
+    @EJB
+    private TransactionIdIndex idIndex;
+    
+    @EJB
+    private AccessLog accessLog;
+    
+    /**
+     * Recupera los contadores de la caché de consultas, del índice de ids,
+     * de agrupación de consultas y del access log, y la ocupación de los
+     * bulkheads.
+     * 
+     * GET /api/metrics
+     * 
+     * @return Response con las métricas
+     */
+    @GET
+    public Response getMetrics() {
+        return Response.ok(new Metrics(queryCache, idIndex, coalescer, accessLog, bulkheads)).build();
+    }
+    
+    // ========================================================================
+    // CLASES INTERNAS PARA LAS MÉTRICAS
+    // ========================================================================
+    
+    /**
+     * Instantánea de las métricas.
+     */
+    public static class Metrics {
+        private final QueryCacheMetrics queryCache;
+        private final IdIndexMetrics idIndex;
+        private final CoalescingMetrics coalescing;
+        private final AccessLogMetrics accessLog;
+        private final List<BulkheadMetrics> bulkheads = new ArrayList<>();
+        
+        Metrics(TransactionQueryCache queryCache, TransactionIdIndex idIndex,
+                QueryCoalescer coalescer, AccessLog accessLog, Bulkheads bulkheads) {
+            this.queryCache = new QueryCacheMetrics(queryCache);
+            this.idIndex = new IdIndexMetrics(idIndex);
+            this.coalescing = new CoalescingMetrics(coalescer);
+            this.accessLog = new AccessLogMetrics(accessLog);
+            for (Bulkhead bulkhead : bulkheads.all()) {
+                this.bulkheads.add(new BulkheadMetrics(bulkhead));
+            }
+        }
+        
+        public QueryCacheMetrics getQueryCache() {
+            return queryCache;
+        }
+        
+        public IdIndexMetrics getIdIndex() {
+            return idIndex;
+        }
+        
+        public CoalescingMetrics getCoalescing() {
+            return coalescing;
+        }
+        
+        public AccessLogMetrics getAccessLog() {
+            return accessLog;
+        }
+        
+        public List<BulkheadMetrics> getBulkheads() {
+            return bulkheads;
+        }
+    }
+    
+    /**
+     * Aciertos, fallos y ocupación de la caché de consultas.
+     */
+    public static class QueryCacheMetrics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int entries;
+        private final long weightedSize;
+        private final long maximumWeight;
+        
+        QueryCacheMetrics(TransactionQueryCache queryCache) {
+            this.hits = queryCache.getHits();
+            this.misses = queryCache.getMisses();
+            this.evictions = queryCache.getEvictions();
+            this.invalidations = queryCache.getInvalidations();
+            this.entries = queryCache.getEntries();
+            this.weightedSize = queryCache.getWeightedSize();
+            this.maximumWeight = queryCache.getMaximumWeight();
+        }
+        
+        public long getHits() {
+            return hits;
+        }
+        
+        public long getMisses() {
+            return misses;
+        }
+        
+        /**
+         * @return Fracción de consultas servidas desde la caché (0-1)
+         */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+        
+        /**
+         * @return Fracción de consultas que fueron a la base de datos (0-1)
+         */
+        public double getMissRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) misses / total;
+        }
+        
+        public long getEvictions() {
+            return evictions;
+        }
+        
+        public long getInvalidations() {
+            return invalidations;
+        }
+        
+        public int getEntries() {
+            return entries;
+        }
+        
+        /**
+         * @return Memoria estimada ocupada, en bytes
+         */
+        public long getWeightedSize() {
+            return weightedSize;
+        }
+        
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+    }
+    
+    /**
+     * Estado y eficacia del índice de ids existentes.
+     */
+    public static class IdIndexMetrics {
+        private final boolean ready;
+        private final boolean stale;
+        private final long size;
+        private final long memoryBytes;
+        private final long rejected;
+        private final long falsePositives;
+        private final double falsePositiveRate;
+        
+        IdIndexMetrics(TransactionIdIndex idIndex) {
+            this.ready = idIndex.isReady();
+            this.stale = idIndex.isStale();
+            this.size = idIndex.getSize();
+            this.memoryBytes = idIndex.getMemoryBytes();
+            this.rejected = idIndex.getRejected();
+            this.falsePositives = idIndex.getFalsePositives();
+            this.falsePositiveRate = idIndex.getFalsePositiveRate();
+        }
+        
+        public boolean isReady() {
+            return ready;
+        }
+        
+        /**
+         * @return true si el índice no descarta ids por haber inserciones externas
+         */
+        public boolean isStale() {
+            return stale;
+        }
+        
+        public long getSize() {
+            return size;
+        }
+        
+        public long getMemoryBytes() {
+            return memoryBytes;
+        }
+        
+        /**
+         * @return Búsquedas de ids inexistentes resueltas sin base de datos
+         */
+        public long getRejected() {
+            return rejected;
+        }
+        
+        public long getFalsePositives() {
+            return falsePositives;
+        }
+        
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+    }
+    
+    /**
+     * Consultas ejecutadas frente a peticiones que reutilizaron una en curso.
+     */
+    public static class CoalescingMetrics {
+        private final long executions;
+        private final long coalesced;
+        private final int inFlight;
+        
+        CoalescingMetrics(QueryCoalescer coalescer) {
+            this.executions = coalescer.getExecutions();
+            this.coalesced = coalescer.getCoalesced();
+            this.inFlight = coalescer.getInFlight();
+        }
+        
+        public long getExecutions() {
+            return executions;
+        }
+        
+        public long getCoalesced() {
+            return coalesced;
+        }
+        
+        public int getInFlight() {
+            return inFlight;
+        }
+        
+        /**
+         * @return Fracción de peticiones servidas por una consulta ajena (0-1)
+         */
+        public double getCoalescedRatio() {
+            long total = executions + coalesced;
+            return total == 0 ? 0 : (double) coalesced / total;
+        }
+    }
+    
+    /**
+     * Entradas escritas y perdidas del access log.
+     */
+    public static class AccessLogMetrics {
+        private final boolean enabled;
+        private final double sampleRate;
+        private final long written;
+        private final long pending;
+        private final long dropped;
+        private final long writeErrors;
+        
+        AccessLogMetrics(AccessLog accessLog) {
+            this.enabled = accessLog.isEnabled();
+            this.sampleRate = accessLog.getSampleRate();
+            this.written = accessLog.getWritten();
+            this.pending = accessLog.getPending();
+            this.dropped = accessLog.getDropped();
+            this.writeErrors = accessLog.getWriteErrors();
+        }
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public double getSampleRate() {
+            return sampleRate;
+        }
+        
+        public long getWritten() {
+            return written;
+        }
+        
+        public long getPending() {
+            return pending;
+        }
+        
+        /**
+         * @return Entradas descartadas porque el buffer estaba lleno
+         */
+        public long getDropped() {
+            return dropped;
+        }
+        
+        public long getWriteErrors() {
+            return writeErrors;
+        }
+    }
+    
+    /**
+     * Ocupación de un bulkhead.
+     */
+    public static class BulkheadMetrics {
+        private final String name;
+        private final int active;
+        private final int queued;
+        private final long completed;
+        private final long rejected;
+        
+        BulkheadMetrics(Bulkhead bulkhead) {
+            this.name = bulkhead.getName();
+            this.active = bulkhead.getActive();
+            this.queued = bulkhead.getQueued();
+            this.completed = bulkhead.getCompleted();
+            this.rejected = bulkhead.getRejected();
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getActive() {
+            return active;
+        }
+        
+        public int getQueued() {
+            return queued;
+        }
+        
+        public long getCompleted() {
+            return completed;
+        }
+        
+        public long getRejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.pac.rest;
+
+import com.pac.pipeline.PipelineMetrics;
+import com.pac.pipeline.RawTransactionPipeline;
+import com.pac.pipeline.RejectReason;
+
+import javax.ejb.EJB;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Recurso REST JAX-RS para consultar el estado del pipeline
+ * raw_transactions -&gt; fact_transactions.
+ * 
+ * Base URL: /api/pipeline
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Path("/pipeline")
+@Produces(MediaType.APPLICATION_JSON)
+public class PipelineResource {
+    
+    private static final Logger LOGGER = Logger.getLogger(PipelineResource.class.getName());
+    
+    @EJB
+    private RawTransactionPipeline pipeline;
+    
+    /**
+     * Recupera el estado, el throughput, el retraso y los rechazos del pipeline.
+     * 
+     * GET /api/pipeline/status
+     * 
+     * @return Response con el estado del pipeline
+     */
+    @GET
+    @Path("/status")
+    public Response getStatus() {
+        try {
+            return Response.ok(new PipelineStatus(pipeline)).build();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error fetching pipeline status", e);
+            return Response.serverError()
+                    .entity(new TransactionResource.ErrorResponse("Error retrieving pipeline status: " + e.getMessage()))
+                    .build();
+        }
+    }
+    
+    // ========================================================================
+    // CLASE INTERNA PARA EL ESTADO
+    // ========================================================================
+    
+    /**
+     * Instantánea del estado del pipeline.
+     */
+    public static class PipelineStatus {
+        private final boolean enabled;
+        private final boolean running;
+        private final long watermark;
+        private final long lagRows;
+        private final long rowsRead;
+        private final long rowsPromoted;
+        private final long rowsRejected;
+        private final Map<String, Long> rejectedByReason = new LinkedHashMap<>();
+        private final long lastBatchRows;
+        private final long lastBatchMillis;
+        private final long lastRowsPerSecond;
+        private final long lastEndToEndLagMillis;
+        private final long lastRunEpochMillis;
+        
+        PipelineStatus(RawTransactionPipeline pipeline) {
+            PipelineMetrics metrics = pipeline.getMetrics();
+            this.enabled = pipeline.isEnabled();
+            this.running = pipeline.isRunning();
+            this.watermark = pipeline.getWatermark();
+            this.lagRows = pipeline.getLagRows();
+            this.rowsRead = metrics.getRowsRead();
+            this.rowsPromoted = metrics.getRowsPromoted();
+            this.rowsRejected = metrics.getRowsRejected();
+            for (Map.Entry<RejectReason, Long> entry : metrics.getRejectedByReason().entrySet()) {
+                rejectedByReason.put(entry.getKey().name(), entry.getValue());
+            }
+            this.lastBatchRows = metrics.getLastBatchRows();
+            this.lastBatchMillis = metrics.getLastBatchMillis();
+            this.lastRowsPerSecond = metrics.getLastRowsPerSecond();
+            this.lastEndToEndLagMillis = metrics.getLastEndToEndLagMillis();
+            this.lastRunEpochMillis = metrics.getLastRunEpochMillis();
+        }
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public boolean isRunning() {
+            return running;
+        }
+        
+        public long getWatermark() {
+            return watermark;
+        }
+        
+        public long getLagRows() {
+            return lagRows;
+        }
+        
+        public long getRowsRead() {
+            return rowsRead;
+        }
+        
+        public long getRowsPromoted() {
+            return rowsPromoted;
+        }
+        
+        public long getRowsRejected() {
+            return rowsRejected;
+        }
+        
+        public Map<String, Long> getRejectedByReason() {
+            return rejectedByReason;
+        }
+        
+        public long getLastBatchRows() {
+            return lastBatchRows;
+        }
+        
+        public long getLastBatchMillis() {
+            return lastBatchMillis;
+        }
+        
+        public long getLastRowsPerSecond() {
+            return lastRowsPerSecond;
+        }
+        
+        public long getLastEndToEndLagMillis() {
+            return lastEndToEndLagMillis;
+        }
+        
+        public long getLastRunEpochMillis() {
+            return lastRunEpochMillis;
+        }
+    }
+}
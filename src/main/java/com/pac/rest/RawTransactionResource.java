@@ -0,0 +1,170 @@
+package com.pac.rest;
+
+import com.pac.repository.RawTransactionRepository;
+
+import javax.ejb.EJB;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Recurso REST JAX-RS para cargar ficheros CSV en la tabla de staging
+ * raw_transactions.
+ * 
+ * Base URL: /api/raw-transactions
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Path("/raw-transactions")
+@Produces(MediaType.APPLICATION_JSON)
+public class RawTransactionResource {
+    
+    private static final Logger LOGGER = Logger.getLogger(RawTransactionResource.class.getName());
+    
+    /**
+     * Bytes mágicos de la cabecera GZIP.
+     */
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    
+    @EJB
+    private RawTransactionRepository rawTransactionRepository;
+    
+    /**
+     * Carga un fichero CSV (plano o comprimido con gzip) en raw_transactions.
+     * 
+     * POST /api/raw-transactions/upload
+     * Content-Type: text/csv, text/plain, application/gzip o application/octet-stream
+     * 
+     * El cuerpo se envía en streaming al protocolo COPY de PostgreSQL: la
+     * memoria usada es constante sea cual sea el tamaño del fichero. La
+     * compresión gzip se detecta por la cabecera del propio contenido. Cada
+     * línea (incluida la cabecera del CSV) se guarda como una fila; el
+     * pipeline de transformación descarta después las que no son válidas.
+     * 
+     * @param body Cuerpo de la petición
+     * @return Response con filas cargadas, bytes recibidos y tiempo empleado
+     *         Status 200 si éxito
+     *         Status 400 si el contenido no puede leerse o PostgreSQL lo rechaza
+     */
+    @POST
+    @Path("/upload")
+    @Consumes({"text/csv", MediaType.TEXT_PLAIN, "application/gzip", MediaType.APPLICATION_OCTET_STREAM})
+    public Response upload(InputStream body) {
+        long start = System.nanoTime();
+        CountingInputStream counted = new CountingInputStream(body);
+        try {
+            BufferedInputStream buffered = new BufferedInputStream(counted, RawTransactionRepository.COPY_BUFFER_SIZE);
+            boolean compressed = isGzip(buffered);
+            InputStream csv = compressed
+                    ? new GZIPInputStream(buffered, RawTransactionRepository.COPY_BUFFER_SIZE)
+                    : buffered;
+            long rows = rawTransactionRepository.copyFrom(csv);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            LOGGER.info(String.format("Loaded %d raw rows (%d bytes%s) in %d ms",
+                    rows, counted.getCount(), compressed ? ", gzip" : "", elapsedMillis));
+            return Response.ok(new UploadResult(rows, counted.getCount(), compressed, elapsedMillis)).build();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error loading raw transactions", e);
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new TransactionResource.ErrorResponse("Error loading raw transactions: " + e.getMessage()))
+                    .build();
+        }
+    }
+    
+    /**
+     * Comprueba sin consumirlos si los primeros bytes son la cabecera GZIP.
+     */
+    private static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2;
+    }
+    
+    /**
+     * InputStream que cuenta los bytes leídos del cuerpo original.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+    
+    // ========================================================================
+    // CLASE INTERNA PARA EL RESULTADO
+    // ========================================================================
+    
+    /**
+     * Resultado de una carga de CSV.
+     */
+    public static class UploadResult {
+        private final long rowsLoaded;
+        private final long bytesReceived;
+        private final boolean compressed;
+        private final long elapsedMillis;
+        
+        public UploadResult(long rowsLoaded, long bytesReceived, boolean compressed, long elapsedMillis) {
+            this.rowsLoaded = rowsLoaded;
+            this.bytesReceived = bytesReceived;
+            this.compressed = compressed;
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        public long getRowsLoaded() {
+            return rowsLoaded;
+        }
+        
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+        
+        public boolean isCompressed() {
+            return compressed;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        public long getRowsPerSecond() {
+            return elapsedMillis == 0 ? rowsLoaded : rowsLoaded * 1000 / elapsedMillis;
+        }
+    }
+}
@@ -1,13 +1,53 @@
 package com.pac.rest;
 
 import com.pac.entity.Transaction;
+import com.pac.metrics.QueryTime;
+import com.pac.repository.DataVersion;
+import com.pac.repository.DataVersions;
+import com.pac.repository.Granularity;
+import com.pac.repository.PageCursor;
+import com.pac.repository.PivotQuery;
+import com.pac.repository.TransactionFilter;
+import com.pac.repository.TransactionQueryCache;
 import com.pac.repository.TransactionRepository;
+import com.pac.repository.TransactionRollupRepository;
+import com.pac.rest.async.Bulkhead;
+import com.pac.rest.async.Bulkheads;
+import com.pac.rest.cbor.CborMapper;
+import com.pac.rest.ingest.BatchIngestResult;
+import com.pac.rest.ingest.BatchIngestor;
+import com.pac.rest.filter.ContentEncoding;
+import com.pac.rest.sse.TransactionEventHub;
+import com.pac.rest.stream.TransactionColumns;
+import com.pac.rest.stream.TransactionStreamingOutput;
+import com.pac.search.DescriptionSuggester;
+import com.pac.stats.PivotCache;
+import com.pac.stats.TransactionStatistics;
 
 import javax.ejb.EJB;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,73 +60,205 @@ import java.util.logging.Logger;
  * Base URL: /api/transactions
  * CORS habilitado para: http://localhost:5173
  * 
+ * Los endpoints de listado están paginados por keyset: aceptan los parámetros
+ * {@code cursor} y {@code limit} y, si hay más resultados, devuelven la
+ * siguiente página en la cabecera {@code Link} (rel="next") y el cursor
+ * opaco en {@code X-Next-Cursor}. El cuerpo sigue siendo un array JSON.
+ * 
+ * Con {@code layout=columnar} los listados paginados devuelven un objeto con
+ * un array por propiedad ({@code {"id": [...], "amount": [...]}}), limitado a
+ * las propiedades de {@code columns} si se indica, y admiten páginas de hasta
+ * {@value #MAX_COLUMNAR_PAGE_SIZE} filas para alimentar gráficos.
+ * 
+ * Los listados y las estadísticas son peticiones condicionales: devuelven
+ * {@code ETag} y {@code Last-Modified} según la versión de los datos que
+ * consultan y responden 304 a {@code If-None-Match}/{@code If-Modified-Since}
+ * sin acceder al repositorio si los datos no han cambiado.
+ * 
+ * Todos los endpoints (salvo {@code /stream} y {@code /events}) responden
+ * también en CBOR ({@code Accept: application/cbor}), con los importes como
+ * enteros escalados y las fechas como días desde la época. JSON sigue siendo
+ * el formato por defecto cuando el cliente acepta ambos.
+ * 
+ * Las consultas son asíncronas: el hilo HTTP se libera y la respuesta se
+ * genera en el bulkhead de su familia ({@link Bulkheads}: consultas
+ * puntuales, listados o agregados). Cuando un bulkhead está lleno se
+ * responde 503 con {@code Retry-After} sin esperar, de modo que una ráfaga
+ * de consultas caras no retrasa las búsquedas por id. La ingesta batch sigue
+ * siendo síncrona porque lee el cuerpo de la petición en streaming.
+ * 
+ * Las peticiones no se registran en el log del servidor (solo los errores
+ * internos): sus métricas y el access log estructurado los genera
+ * {@link com.pac.rest.filter.EndpointMetricsFilter} fuera de los endpoints.
+ * 
  * @author Sistema PAC
  * @version 1.0.0
  */
 @Path("/transactions")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CborMapper.APPLICATION_CBOR + ";qs=0.9"})
+@Consumes({MediaType.APPLICATION_JSON, CborMapper.APPLICATION_CBOR})
 public class TransactionResource {
     
     private static final Logger LOGGER = Logger.getLogger(TransactionResource.class.getName());
     
+    /**
+     * Tamaño de página por defecto de los endpoints de listado.
+     */
+    static final String DEFAULT_PAGE_SIZE = "100";
+    
+    /**
+     * Tamaño máximo de página permitido.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+    
+    /**
+     * Tamaño máximo de página en formato columnar.
+     */
+    static final int MAX_COLUMNAR_PAGE_SIZE = 100000;
+    
+    /**
+     * Valor del parámetro {@code layout} para el formato columnar.
+     */
+    static final String LAYOUT_COLUMNAR = "columnar";
+    
+    /**
+     * Cabecera con el cursor opaco de la siguiente página.
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
+    /**
+     * Tipo de contenido NDJSON (un objeto JSON por línea).
+     */
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    
+    /**
+     * Tamaño máximo de bloque permitido en la ingesta batch.
+     */
+    static final int MAX_BATCH_CHUNK_SIZE = 10000;
+    
+    /**
+     * Segundos que se indican en Retry-After al rechazar por saturación.
+     */
+    static final int RETRY_AFTER_SECONDS = 1;
+    
+    /**
+     * Número máximo de resultados de la búsqueda por texto.
+     */
+    static final int MAX_SEARCH_LIMIT = 100;
+    
     /**
      * Repositorio de transacciones inyectado por el contenedor EJB.
      */
     @EJB
     private TransactionRepository transactionRepository;
     
+    /**
+     * Estadísticas mantenidas en memoria de forma incremental.
+     */
+    @EJB
+    private TransactionStatistics statistics;
+    
+    /**
+     * Repositorio de rollups temporales para las series del dashboard.
+     */
+    @EJB
+    private TransactionRollupRepository rollupRepository;
+    
+    /**
+     * Caché de resultados pivot.
+     */
+    @EJB
+    private PivotCache pivotCache;
+    
+    /**
+     * Índice de autocompletado de descripciones en memoria.
+     */
+    @EJB
+    private DescriptionSuggester suggester;
+    
+    /**
+     * Difusión SSE de transacciones nuevas y alertas.
+     */
+    @EJB
+    private TransactionEventHub eventHub;
+    
+    /**
+     * Grupos de hilos acotados por familia de endpoints.
+     */
+    @EJB
+    private Bulkheads bulkheads;
+    
+    /**
+     * Caché de resultados de los listados y búsquedas.
+     */
+    @EJB
+    private TransactionQueryCache queryCache;
+    
+    /**
+     * Versiones de los datos para las peticiones condicionales.
+     */
+    @EJB
+    private DataVersions dataVersions;
+    
+    /**
+     * Petición en curso, para evaluar las precondiciones HTTP.
+     */
+    @Context
+    private Request request;
+    
+    /**
+     * Cabeceras de la petición, para elegir la representación de la respuesta.
+     */
+    @Context
+    private HttpHeaders headers;
+    
     // ========================================================================
     // ENDPOINTS PRINCIPALES
     // ========================================================================
     
     /**
-     * Recupera todas las transacciones.
+     * Recupera una página de transacciones.
      * 
-     * GET /api/transactions
+     * GET /api/transactions?cursor={cursor}&limit=100
      * 
-     * @return Response con lista de todas las transacciones en JSON
+     * @param cursor Cursor opaco de la página anterior (opcional)
+     * @param limit Tamaño de página (1-1000, hasta 100000 con layout=columnar; default: 100)
+     * @param uriInfo Información de la URI para construir el enlace next
+     * @param async Respuesta asíncrona, que recibe la página de transacciones en JSON
      *         Status 200 si éxito
+     *         Status 400 si el cursor o el límite no son válidos
      *         Status 500 si error del servidor
      */
     @GET
-    public Response getAllTransactions() {
-        try {
-            LOGGER.info("Fetching all transactions");
-            List<Transaction> transactions = transactionRepository.findAll();
-            LOGGER.info(String.format("Found %d transactions", transactions.size()));
-            return Response.ok(transactions).build();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error fetching all transactions", e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving transactions: " + e.getMessage()))
-                    .build();
-        }
+    public void getAllTransactions(@QueryParam("cursor") String cursor,
+                                   @QueryParam("limit") @DefaultValue(DEFAULT_PAGE_SIZE) int limit,
+                                   @Context UriInfo uriInfo,
+                                   @Suspended AsyncResponse async) {
+        conditional(async, bulkheads.scan(), dataVersions.global(), null,
+                () -> pageResponse(TransactionFilter.all(), cursor, limit, uriInfo, "transactions"));
     }
     
     /**
      * Recupera solo las transacciones marcadas como sospechosas.
      * 
-     * GET /api/transactions/suspicious
+     * GET /api/transactions/suspicious?cursor={cursor}&limit=100
      * 
-     * @return Response con lista de transacciones sospechosas en JSON
+     * @param cursor Cursor opaco de la página anterior (opcional)
+     * @param limit Tamaño de página (1-1000, hasta 100000 con layout=columnar; default: 100)
+     * @param uriInfo Información de la URI para construir el enlace next
+     * @param async Respuesta asíncrona, que recibe la página de transacciones sospechosas en JSON
      *         Status 200 si éxito
+     *         Status 400 si el cursor o el límite no son válidos
      *         Status 500 si error del servidor
      */
     @GET
     @Path("/suspicious")
-    public Response getSuspiciousTransactions() {
-        try {
-            LOGGER.info("Fetching suspicious transactions");
-            List<Transaction> suspiciousTransactions = transactionRepository.findSuspicious();
-            LOGGER.info(String.format("Found %d suspicious transactions", suspiciousTransactions.size()));
-            return Response.ok(suspiciousTransactions).build();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error fetching suspicious transactions", e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving suspicious transactions: " + e.getMessage()))
-                    .build();
-        }
+    public void getSuspiciousTransactions(@QueryParam("cursor") String cursor,
+                                          @QueryParam("limit") @DefaultValue(DEFAULT_PAGE_SIZE) int limit,
+                                          @Context UriInfo uriInfo,
+                                          @Suspended AsyncResponse async) {
+        conditional(async, bulkheads.scan(), dataVersions.global(), null,
+                () -> pageResponse(TransactionFilter.suspicious(), cursor, limit, uriInfo, "suspicious transactions"));
     }
     
     // ========================================================================
@@ -99,98 +271,511 @@ public class TransactionResource {
      * GET /api/transactions/{id}
      * 
      * @param id Identificador de la transacción
-     * @return Response con la transacción si existe
+     * @param async Respuesta asíncrona, que recibe la transacción si existe
      *         Status 200 si encontrada
      *         Status 404 si no existe
      *         Status 500 si error del servidor
      */
     @GET
     @Path("/{id}")
-    public Response getTransactionById(@PathParam("id") Long id) {
-        try {
-            LOGGER.info(String.format("Fetching transaction with ID: %d", id));
-            return transactionRepository.findById(id)
-                    .map(transaction -> Response.ok(transaction).build())
-                    .orElse(Response.status(Response.Status.NOT_FOUND)
-                            .entity(new ErrorResponse("Transaction not found with ID: " + id))
-                            .build());
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, String.format("Error fetching transaction ID: %d", id), e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving transaction: " + e.getMessage()))
-                    .build();
-        }
+    public void getTransactionById(@PathParam("id") Long id, @Suspended AsyncResponse async) {
+        conditional(async, bulkheads.lookup(), dataVersions.global(), null, () -> {
+            try {
+                return transactionRepository.findById(id)
+                        .map(transaction -> Response.ok(transaction).build())
+                        .orElse(Response.status(Response.Status.NOT_FOUND)
+                                .entity(new ErrorResponse("Transaction not found with ID: " + id))
+                                .build());
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, String.format("Error fetching transaction ID: %d", id), e);
+                return Response.serverError()
+                        .entity(new ErrorResponse("Error retrieving transaction: " + e.getMessage()))
+                        .build();
+            }
+        });
     }
     
     /**
      * Recupera transacciones filtradas por categoría.
      * 
-     * GET /api/transactions/category/{category}
+     * GET /api/transactions/category/{category}?cursor={cursor}&limit=100
      * 
      * @param category Categoría a filtrar (groceries, housing, transport, etc.)
-     * @return Response con lista de transacciones de la categoría
+     * @param cursor Cursor opaco de la página anterior (opcional)
+     * @param limit Tamaño de página (1-1000, hasta 100000 con layout=columnar; default: 100)
+     * @param uriInfo Información de la URI para construir el enlace next
+     * @param async Respuesta asíncrona, que recibe la página de transacciones de la categoría
      */
     @GET
     @Path("/category/{category}")
-    public Response getTransactionsByCategory(@PathParam("category") String category) {
-        try {
-            LOGGER.info(String.format("Fetching transactions for category: %s", category));
-            List<Transaction> transactions = transactionRepository.findByCategory(category);
-            LOGGER.info(String.format("Found %d transactions for category %s", transactions.size(), category));
-            return Response.ok(transactions).build();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, String.format("Error fetching transactions for category: %s", category), e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving transactions by category: " + e.getMessage()))
-                    .build();
+    public void getTransactionsByCategory(@PathParam("category") String category,
+                                          @QueryParam("cursor") String cursor,
+                                          @QueryParam("limit") @DefaultValue(DEFAULT_PAGE_SIZE) int limit,
+                                          @Context UriInfo uriInfo,
+                                          @Suspended AsyncResponse async) {
+        if (category == null || category.trim().isEmpty()) {
+            async.resume(Response.ok(List.of()).build());
+            return;
         }
+        conditional(async, bulkheads.scan(), dataVersions.category(category), null,
+                () -> pageResponse(TransactionFilter.category(category), cursor, limit, uriInfo,
+                        "transactions for category " + category));
     }
     
     /**
      * Recupera transacciones de alto valor (>= 2000).
      * 
-     * GET /api/transactions/high-value
+     * GET /api/transactions/high-value?cursor={cursor}&limit=100
      * 
-     * @return Response con lista de transacciones de alto valor
+     * @param cursor Cursor opaco de la página anterior (opcional)
+     * @param limit Tamaño de página (1-1000, hasta 100000 con layout=columnar; default: 100)
+     * @param uriInfo Información de la URI para construir el enlace next
+     * @param async Respuesta asíncrona, que recibe la página de transacciones de alto valor
      */
     @GET
     @Path("/high-value")
-    public Response getHighValueTransactions() {
-        try {
-            LOGGER.info("Fetching high value transactions");
-            List<Transaction> transactions = transactionRepository.findHighValue();
-            LOGGER.info(String.format("Found %d high value transactions", transactions.size()));
-            return Response.ok(transactions).build();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error fetching high value transactions", e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving high value transactions: " + e.getMessage()))
-                    .build();
-        }
+    public void getHighValueTransactions(@QueryParam("cursor") String cursor,
+                                         @QueryParam("limit") @DefaultValue(DEFAULT_PAGE_SIZE) int limit,
+                                         @Context UriInfo uriInfo,
+                                         @Suspended AsyncResponse async) {
+        conditional(async, bulkheads.scan(), dataVersions.global(), null,
+                () -> pageResponse(TransactionFilter.minAmount(TransactionRepository.HIGH_VALUE_THRESHOLD),
+                        cursor, limit, uriInfo, "high value transactions"));
     }
     
     /**
      * Recupera transacciones recientes (últimos N días).
      * 
-     * GET /api/transactions/recent?days=30
+     * GET /api/transactions/recent?days=30&cursor={cursor}&limit=100
      * 
      * @param days Número de días hacia atrás (default: 30)
-     * @return Response con lista de transacciones recientes
+     * @param cursor Cursor opaco de la página anterior (opcional)
+     * @param limit Tamaño de página (1-1000, hasta 100000 con layout=columnar; default: 100)
+     * @param uriInfo Información de la URI para construir el enlace next
+     * @param async Respuesta asíncrona, que recibe la página de transacciones recientes
      */
     @GET
     @Path("/recent")
-    public Response getRecentTransactions(@QueryParam("days") @DefaultValue("30") int days) {
+    public void getRecentTransactions(@QueryParam("days") @DefaultValue("30") int days,
+                                      @QueryParam("cursor") String cursor,
+                                      @QueryParam("limit") @DefaultValue(DEFAULT_PAGE_SIZE) int limit,
+                                      @Context UriInfo uriInfo,
+                                      @Suspended AsyncResponse async) {
+        if (days <= 0) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Days must be positive"))
+                    .build());
+            return;
+        }
+        // La ventana se desplaza cada día: el día de hoy forma parte del tag
+        LocalDate since = LocalDate.now().minusDays(days);
+        conditional(async, bulkheads.scan(), dataVersions.dates(since, null), Long.toString(since.toEpochDay(), 36),
+                () -> pageResponse(TransactionFilter.since(since), cursor, limit, uriInfo, "recent transactions"));
+    }
+    
+    /**
+     * Busca transacciones por texto en la descripción, ordenadas por
+     * similitud con el término.
+     * 
+     * GET /api/transactions/search?q=amazon&limit=20
+     * 
+     * Pensado para el cuadro de búsqueda del frontend: usa el índice de
+     * trigramas y devuelve como mucho {@code limit} resultados.
+     * 
+     * @param q Término de búsqueda (sin distinguir mayúsculas)
+     * @param limit Número máximo de resultados (1-100, default: 20)
+     * @param async Respuesta asíncrona, que recibe la lista de transacciones
+     *         Status 400 si el término está vacío o el límite no es válido
+     */
+    @GET
+    @Path("/search")
+    public void searchTransactions(@QueryParam("q") String q,
+                                   @QueryParam("limit") @DefaultValue("20") int limit,
+                                   @Suspended AsyncResponse async) {
+        if (q == null || q.trim().isEmpty()) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Search term cannot be empty"))
+                    .build());
+            return;
+        }
+        if (limit <= 0 || limit > MAX_SEARCH_LIMIT) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Limit must be between 1 and " + MAX_SEARCH_LIMIT))
+                    .build());
+            return;
+        }
+        conditional(async, bulkheads.scan(), dataVersions.global(), null, () -> {
+            try {
+                List<Transaction> results = queryCache.search(q, limit,
+                        () -> transactionRepository.search(q, limit));
+                return Response.ok(results).build();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error searching transactions", e);
+                return Response.serverError()
+                        .entity(new ErrorResponse("Error searching transactions: " + e.getMessage()))
+                        .build();
+            }
+        });
+    }
+    
+    /**
+     * Sugiere completaciones del texto escrito en el cuadro de búsqueda.
+     * 
+     * GET /api/transactions/suggest?prefix=amaz&limit=10
+     * 
+     * Se responde desde el índice de prefijos en memoria, sin acceder a la
+     * base de datos.
+     * 
+     * @param prefix Texto escrito por el usuario; se completa la última palabra
+     * @param limit Número máximo de sugerencias (1-50, default: 10)
+     * @param async Respuesta asíncrona, que recibe la lista de sugerencias [{text, count}]
+     *         Status 400 si el límite no es válido
+     */
+    @GET
+    @Path("/suggest")
+    public void suggest(@QueryParam("prefix") String prefix,
+                        @QueryParam("limit") @DefaultValue("10") int limit,
+                        @Suspended AsyncResponse async) {
+        submit(async, bulkheads.lookup(), () -> {
+            try {
+                return Response.ok(suggester.suggest(prefix, limit)).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(new ErrorResponse(e.getMessage()))
+                        .build();
+            }
+        });
+    }
+    
+    /**
+     * Exporta en streaming todas las transacciones que cumplen el filtro.
+     * 
+     * GET /api/transactions/stream?from=2024-01-01&to=2024-12-31&category=food
+     *     &suspicious=true&minAmount=2000
+     * 
+     * A diferencia de los endpoints paginados, devuelve el resultado completo
+     * en una única respuesta, pero lo emite fila a fila desde el cursor de
+     * base de datos: la memoria usada es la misma para 100 que para 5M filas.
+     * 
+     * @param from Fecha inicial inclusiva (yyyy-MM-dd, opcional)
+     * @param to Fecha final inclusiva (yyyy-MM-dd, opcional)
+     * @param category Categoría a filtrar (opcional)
+     * @param suspicious true para exportar solo sospechosas (default: false)
+     * @param minAmount Monto mínimo inclusivo (opcional)
+     * @param async Respuesta asíncrona, que recibe el array JSON en streaming
+     *         Status 400 si los parámetros no son válidos
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void streamTransactions(@QueryParam("from") String from,
+                                   @QueryParam("to") String to,
+                                   @QueryParam("category") String category,
+                                   @QueryParam("suspicious") @DefaultValue("false") boolean suspicious,
+                                   @QueryParam("minAmount") BigDecimal minAmount,
+                                   @Suspended AsyncResponse async) {
+        TransactionFilter filter;
+        try {
+            filter = TransactionFilter.of(suspicious, category, minAmount, parseDate(from), parseDate(to));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build());
+            return;
+        }
+        // La respuesta se escribe en el hilo que reanuda: la exportación ocupa el bulkhead mientras dura
+        submit(async, bulkheads.scan(), () -> Response.ok(new TransactionStreamingOutput(transactionRepository, filter)).build());
+    }
+    
+    /**
+     * Suscripción a las transacciones nuevas y a las alertas de sospecha.
+     * 
+     * GET /api/transactions/events
+     * Accept: text/event-stream
+     * 
+     * Emite un evento {@code transaction} por cada transacción creada y un
+     * evento {@code suspicious} por cada alerta, en cuanto se confirma la
+     * escritura. Al reconectar, el navegador envía la cabecera
+     * {@code Last-Event-ID} y recibe los eventos que se perdió; si ya no
+     * están disponibles recibe {@code resync} y debe recargar los listados.
+     * 
+     * @param sink Conexión SSE del cliente
+     * @param sse Factoría de eventos SSE
+     * @param lastEventId Último id recibido por el cliente (opcional)
+     */
+    @GET
+    @Path("/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamEvents(@Context SseEventSink sink,
+                             @Context Sse sse,
+                             @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+        eventHub.subscribe(sink, sse, lastEventId);
+    }
+    
+    /**
+     * Convierte un parámetro de fecha opcional en formato ISO (yyyy-MM-dd).
+     */
+    private static LocalDate parseDate(String value) {
+        return value == null || value.trim().isEmpty() ? null : LocalDate.parse(value.trim());
+    }
+    
+    // ========================================================================
+    // PETICIONES CONDICIONALES
+    // ========================================================================
+    
+    /**
+     * Las respuestas condicionales se pueden guardar pero se revalidan
+     * siempre, para que el navegador no sirva datos obsoletos por heurística.
+     */
+    private static final CacheControl REVALIDATE;
+    
+    static {
+        REVALIDATE = new CacheControl();
+        REVALIDATE.setNoCache(true);
+        REVALIDATE.setNoTransform(false);
+    }
+    
+    /**
+     * Cabeceras de la petición que determinan la representación de la respuesta.
+     */
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+    
+    /**
+     * Responde 304 si el cliente ya tiene la versión actual de los datos y,
+     * si no, genera la respuesta en el bulkhead y le añade ETag y
+     * Last-Modified.
+     * 
+     * Las precondiciones se evalúan en el hilo de la petición, antes de
+     * encolar: una revalidación sin cambios no ocupa el bulkhead.
+     * 
+     * La versión se lee antes de consultar los datos: si una escritura se
+     * confirma entre medias, la respuesta lleva la versión anterior y el
+     * cliente la volverá a pedir, pero nunca asocia datos antiguos a una
+     * versión nueva.
+     * 
+     * El tag distingue la representación (JSON o CBOR) y la compresión
+     * negociada por {@link com.pac.rest.filter.CompressionInterceptor}, y las
+     * respuestas llevan {@code Vary: Accept, Accept-Encoding}, de modo que
+     * una caché intermedia no entrega un cuerpo a un cliente que pidió otro.
+     * 
+     * @param async Respuesta asíncrona de la petición
+     * @param bulkhead Bulkhead de la familia del endpoint
+     * @param version Versión de los datos que consulta el endpoint
+     * @param variant Parte adicional del tag (opcional)
+     * @param response Genera la respuesta completa
+     */
+    private void conditional(AsyncResponse async, Bulkhead bulkhead, DataVersion version, String variant,
+                             Supplier<Response> response) {
+        if (prefersCbor()) {
+            variant = variant == null ? "cbor" : variant + "-cbor";
+        }
+        String encoding = ContentEncoding.negotiate(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding != null) {
+            variant = variant == null ? encoding : variant + "-" + encoding;
+        }
+        EntityTag tag = new EntityTag(version.tag(variant));
+        Date lastModified = new Date(version.getLastModifiedMillis());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(lastModified, tag);
+        if (notModified != null) {
+            async.resume(notModified.tag(tag).lastModified(lastModified).cacheControl(REVALIDATE)
+                    .header(HttpHeaders.VARY, VARY).build());
+            return;
+        }
+        submit(async, bulkhead, () -> {
+            Response full = response.get();
+            if (full.getStatus() != Response.Status.OK.getStatusCode()) {
+                return full;
+            }
+            return Response.fromResponse(full).tag(tag).lastModified(lastModified).cacheControl(REVALIDATE)
+                    .header(HttpHeaders.VARY, VARY).build();
+        });
+    }
+    
+    /**
+     * @return true si la respuesta se va a negociar en CBOR: el tipo aceptado
+     *         con más preferencia que encaja con JSON o CBOR es CBOR explícito
+     *         (los comodines se resuelven a JSON)
+     */
+    private boolean prefersCbor() {
+        for (MediaType type : headers.getAcceptableMediaTypes()) {
+            if (!type.isWildcardSubtype() && type.isCompatible(CborMapper.APPLICATION_CBOR_TYPE)) {
+                return true;
+            }
+            if (type.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return false;
+            }
+        }
+        return false;
+    }
+    
+    // ========================================================================
+    // EJECUCIÓN ASÍNCRONA
+    // ========================================================================
+    
+    /**
+     * Genera la respuesta en un hilo del bulkhead y libera el hilo HTTP.
+     * 
+     * Si el bulkhead está lleno se responde 503 con {@code Retry-After} de
+     * inmediato. Si la petición espera más de
+     * {@link Bulkheads#TIMEOUT_SECONDS} se responde 503 y, si aún no había
+     * empezado, la consulta ya no se ejecuta.
+     * 
+     * Solo se puede usar estado de la petición ({@code request},
+     * {@code headers}) antes de llamar a este método: la respuesta se genera
+     * en otro hilo.
+     * 
+     * @param async Respuesta asíncrona de la petición
+     * @param bulkhead Bulkhead de la familia del endpoint
+     * @param response Genera la respuesta completa
+     */
+    private void submit(AsyncResponse async, Bulkhead bulkhead, Supplier<Response> response) {
+        async.setTimeoutHandler(timedOut -> timedOut.resume(unavailable(bulkhead, "timed out")));
+        async.setTimeout(Bulkheads.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        boolean accepted = bulkhead.submit(() -> {
+            if (!async.isSuspended()) {
+                return; // Respondida por timeout o cancelada
+            }
+            try {
+                QueryTime.reset();
+                async.resume(response.get());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Error processing request in bulkhead " + bulkhead.getName(), e);
+                async.resume(Response.serverError()
+                        .entity(new ErrorResponse("Internal error: " + e.getMessage()))
+                        .build());
+            }
+        });
+        if (!accepted) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Bulkhead " + bulkhead.getName() + " is full, rejecting request");
+            }
+            async.resume(unavailable(bulkhead, "is full"));
+        }
+    }
+    
+    private static Response unavailable(Bulkhead bulkhead, String reason) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .entity(new ErrorResponse("Server busy: " + bulkhead.getName() + " bulkhead " + reason))
+                .build();
+    }
+    
+    // ========================================================================
+    // SOPORTE DE PAGINACIÓN
+    // ========================================================================
+    
+    /**
+     * Ejecuta una consulta paginada y construye la respuesta con los enlaces
+     * de navegación.
+     * 
+     * Se solicita una fila más que el límite para saber si existe una página
+     * siguiente sin necesidad de un COUNT adicional. Las páginas se sirven
+     * desde {@link TransactionQueryCache} mientras ninguna escritura las altere.
+     * 
+     * Los parámetros {@code layout} y {@code columns} se leen de la URI: son
+     * comunes a todos los listados y el enlace next los conserva.
+     * 
+     * @param filter Filtro del endpoint
+     * @param cursor Cursor recibido del cliente (puede ser null)
+     * @param limit Tamaño de página solicitado
+     * @param uriInfo URI de la petición para construir el enlace next
+     * @param label Descripción del listado para los mensajes de error
+     * @return Response 200 con la página, 400 si los parámetros no son válidos
+     */
+    private Response pageResponse(TransactionFilter filter, String cursor, int limit,
+                                  UriInfo uriInfo, String label) {
+        String layout = uriInfo.getQueryParameters().getFirst("layout");
+        boolean columnar = LAYOUT_COLUMNAR.equals(layout);
+        if (layout != null && !columnar && !"rows".equals(layout)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Layout must be 'rows' or 'columnar'"))
+                    .build();
+        }
+        int maxLimit = columnar ? MAX_COLUMNAR_PAGE_SIZE : MAX_PAGE_SIZE;
+        if (limit < 1 || limit > maxLimit) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Limit must be between 1 and " + maxLimit))
+                    .build();
+        }
         try {
-            LOGGER.info(String.format("Fetching transactions from last %d days", days));
-            List<Transaction> transactions = transactionRepository.findRecent(days);
-            LOGGER.info(String.format("Found %d recent transactions", transactions.size()));
-            return Response.ok(transactions).build();
+            Set<TransactionColumns.Column> columns = columnar
+                    ? TransactionColumns.parseColumns(uriInfo.getQueryParameters().getFirst("columns"))
+                    : null;
+            PageCursor after = PageCursor.decode(cursor);
+            List<Transaction> rows = queryCache.page(filter, after, limit + 1,
+                    () -> transactionRepository.findPage(filter, after, limit + 1));
+            boolean hasNext = rows.size() > limit;
+            List<Transaction> page = hasNext ? rows.subList(0, limit) : rows;
+            
+            Response.ResponseBuilder builder = Response.ok(columnar ? new TransactionColumns(page, columns) : page);
+            if (hasNext) {
+                String nextCursor = PageCursor.after(page.get(limit - 1)).encode();
+                builder.header(NEXT_CURSOR_HEADER, nextCursor)
+                       .link(uriInfo.getRequestUriBuilder()
+                               .replaceQueryParam("cursor", nextCursor)
+                               .replaceQueryParam("limit", limit)
+                               .build(), "next");
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, String.format("Error fetching recent transactions (%d days)", days), e);
+            LOGGER.log(Level.SEVERE, "Error fetching " + label, e);
             return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving recent transactions: " + e.getMessage()))
+                    .entity(new ErrorResponse("Error retrieving " + label + ": " + e.getMessage()))
+                    .build();
+        }
+    }
+    
+    // ========================================================================
+    // ENDPOINTS DE ESCRITURA
+    // ========================================================================
+    
+    /**
+     * Ingesta masiva de transacciones.
+     * 
+     * POST /api/transactions/batch?chunkSize=1000
+     * Content-Type: application/json (array), application/x-ndjson o
+     *               application/cbor (array de mapas)
+     * 
+     * El cuerpo se procesa de forma incremental y se escribe en bloques de
+     * {@code chunkSize} filas con inserts batch JDBC. Cada bloque se confirma
+     * en su propia transacción; si falla, sus filas se reintentan una a una.
+     * Las filas no válidas o que no se pueden escribir se reportan una a una
+     * en el resultado sin detener la carga.
+     * 
+     * @param contentType Tipo de contenido del cuerpo
+     * @param chunkSize Filas por bloque (1-10000, default: 1000)
+     * @param body Cuerpo de la petición
+     * @return Response con el resultado de la ingesta
+     *         Status 200 si el cuerpo se leyó completo
+     *         Status 400 si el cuerpo está mal formado o chunkSize no es válido
+     *                    (las filas de bloques ya escritos permanecen confirmadas)
+     */
+    @POST
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON, CborMapper.APPLICATION_CBOR})
+    public Response ingestBatch(@HeaderParam("Content-Type") String contentType,
+                                @QueryParam("chunkSize") @DefaultValue("1000") int chunkSize,
+                                InputStream body) {
+        if (chunkSize < 1 || chunkSize > MAX_BATCH_CHUNK_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Chunk size must be between 1 and " + MAX_BATCH_CHUNK_SIZE))
                     .build();
         }
+        BatchIngestor ingestor = new BatchIngestor(transactionRepository, chunkSize);
+        BatchIngestResult result;
+        if (contentType != null && contentType.startsWith(APPLICATION_NDJSON)) {
+            result = ingestor.ingestNdjson(body);
+        } else if (contentType != null && contentType.startsWith(CborMapper.APPLICATION_CBOR)) {
+            result = ingestor.ingestCbor(body);
+        } else {
+            result = ingestor.ingestJsonArray(body);
+        }
+        Response.Status status = result.getError() == null ? Response.Status.OK : Response.Status.BAD_REQUEST;
+        return Response.status(status).entity(result).build();
     }
     
     // ========================================================================
@@ -202,26 +787,29 @@ public class TransactionResource {
      * 
      * GET /api/transactions/stats
      * 
-     * @return Response con objeto de estadísticas
+     * Los valores se leen de {@link TransactionStatistics}, que los mantiene
+     * actualizados en memoria, por lo que no se consulta la base de datos.
+     * 
+     * @param async Respuesta asíncrona, que recibe objeto de estadísticas
      */
     @GET
     @Path("/stats")
-    public Response getStatistics() {
-        try {
-            LOGGER.info("Fetching transaction statistics");
-            TransactionStats stats = new TransactionStats(
-                    transactionRepository.count(),
-                    transactionRepository.countSuspicious(),
-                    transactionRepository.sumTotal(),
-                    transactionRepository.average()
-            );
-            return Response.ok(stats).build();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error fetching statistics", e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving statistics: " + e.getMessage()))
-                    .build();
-        }
+    public void getStatistics(@Suspended AsyncResponse async) {
+        conditional(async, bulkheads.aggregate(), dataVersions.global(), null, () -> {
+            try {
+                return Response.ok(new TransactionStats(
+                        statistics.getCount(),
+                        statistics.getSuspiciousCount(),
+                        statistics.getTotalAmount(),
+                        statistics.getAverageAmount()
+                )).build();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error fetching statistics", e);
+                return Response.serverError()
+                        .entity(new ErrorResponse("Error retrieving statistics: " + e.getMessage()))
+                        .build();
+            }
+        });
     }
     
     /**
@@ -229,21 +817,131 @@ public class TransactionResource {
      * 
      * GET /api/transactions/stats/by-category
      * 
-     * @return Response con lista de objetos [categoría, count]
+     * @param async Respuesta asíncrona, que recibe lista de objetos [categoría, count] ordenada por count
      */
     @GET
     @Path("/stats/by-category")
-    public Response getCountByCategory() {
+    public void getCountByCategory(@Suspended AsyncResponse async) {
+        conditional(async, bulkheads.aggregate(), dataVersions.global(), null, () -> {
+            try {
+                List<Object[]> stats = new ArrayList<>();
+                for (TransactionStatistics.CategoryTotal total : statistics.getByCategory()) {
+                    stats.add(new Object[]{total.getCategory(), total.getCount()});
+                }
+                return Response.ok(stats).build();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error fetching count by category", e);
+                return Response.serverError()
+                        .entity(new ErrorResponse("Error retrieving category statistics: " + e.getMessage()))
+                        .build();
+            }
+        });
+    }
+    
+    /**
+     * Recupera la serie temporal de conteo, suma, mínimo, máximo y sospechosas
+     * por bucket.
+     * 
+     * GET /api/transactions/stats/timeseries?granularity=month&from=2020-01-01&to=2024-12-31
+     *     &category=food
+     * 
+     * Se sirve desde las tablas de rollup, por lo que el tiempo de respuesta
+     * depende del número de buckets y no del volumen de transacciones. Los
+     * buckets sin transacciones se omiten. Con week y month el rango se amplía
+     * a semanas ISO y meses completos.
+     * 
+     * @param granularity day, week o month (default: day)
+     * @param from Fecha inicial inclusiva (yyyy-MM-dd, default: un año antes de to)
+     * @param to Fecha final inclusiva (yyyy-MM-dd, default: hoy)
+     * @param category Categoría a filtrar (opcional)
+     * @param async Respuesta asíncrona, que recibe la lista de puntos ordenada por bucket
+     *         Status 400 si los parámetros no son válidos
+     */
+    @GET
+    @Path("/stats/timeseries")
+    public void getTimeseries(@QueryParam("granularity") @DefaultValue("day") String granularity,
+                              @QueryParam("from") String from,
+                              @QueryParam("to") String to,
+                              @QueryParam("category") String category,
+                              @Suspended AsyncResponse async) {
+        Granularity bucket;
+        LocalDate fromDate;
+        LocalDate toDate;
         try {
-            LOGGER.info("Fetching transaction count by category");
-            List<Object[]> stats = transactionRepository.countByCategory();
-            return Response.ok(stats).build();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error fetching count by category", e);
-            return Response.serverError()
-                    .entity(new ErrorResponse("Error retrieving category statistics: " + e.getMessage()))
-                    .build();
+            bucket = Granularity.parse(granularity);
+            toDate = to == null || to.trim().isEmpty() ? LocalDate.now() : parseDate(to);
+            fromDate = from == null || from.trim().isEmpty() ? toDate.minusYears(1) : parseDate(from);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build());
+            return;
+        }
+        String categoryFilter = category == null || category.trim().isEmpty() ? null : category;
+        submit(async, bulkheads.aggregate(), () -> {
+            try {
+                return Response.ok(rollupRepository.findSeries(bucket, fromDate, toDate, categoryFilter)).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(new ErrorResponse(e.getMessage()))
+                        .build();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error fetching timeseries", e);
+                return Response.serverError()
+                        .entity(new ErrorResponse("Error retrieving timeseries: " + e.getMessage()))
+                        .build();
+            }
+        });
+    }
+    
+    /**
+     * Recupera una tabla pivot con celdas, subtotales y total general.
+     * 
+     * GET /api/transactions/stats/pivot?rows=category&cols=month&measures=count,sum,avg
+     *     &from=2024-01-01&to=2024-12-31
+     * 
+     * Dimensiones: category, suspicious, day, week, month, year.
+     * Medidas: count, sum, avg, min, max.
+     * 
+     * Todos los niveles de agregación se calculan en una sola pasada
+     * (GROUPING SETS) y el resultado se cachea por conjunto de parámetros
+     * hasta el siguiente cambio confirmado.
+     * 
+     * @param rows Dimensión de filas (default: category)
+     * @param cols Dimensión de columnas (opcional)
+     * @param measures Medidas separadas por comas (default: count)
+     * @param from Fecha inicial inclusiva (yyyy-MM-dd, opcional)
+     * @param to Fecha final inclusiva (yyyy-MM-dd, opcional)
+     * @param async Respuesta asíncrona, que recibe la tabla pivot
+     *         Status 400 si los parámetros no son válidos
+     */
+    @GET
+    @Path("/stats/pivot")
+    public void getPivot(@QueryParam("rows") @DefaultValue("category") String rows,
+                         @QueryParam("cols") String cols,
+                         @QueryParam("measures") @DefaultValue("count") String measures,
+                         @QueryParam("from") String from,
+                         @QueryParam("to") String to,
+                         @Suspended AsyncResponse async) {
+        PivotQuery query;
+        try {
+            query = PivotQuery.parse(rows, cols, measures, parseDate(from), parseDate(to));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build());
+            return;
         }
+        conditional(async, bulkheads.aggregate(), dataVersions.dates(query.getFromDate(), query.getToDate()), null, () -> {
+            try {
+                return Response.ok(pivotCache.get(query)).build();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error fetching pivot", e);
+                return Response.serverError()
+                        .entity(new ErrorResponse("Error retrieving pivot: " + e.getMessage()))
+                        .build();
+            }
+        });
     }
     
     // ========================================================================
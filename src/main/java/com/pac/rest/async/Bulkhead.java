@@ -0,0 +1,99 @@
+package com.pac.rest.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grupo de hilos acotado para una familia de endpoints.
+ * 
+ * Como mucho {@code concurrency} tareas se ejecutan a la vez y otras
+ * {@code queueSize} esperan; las siguientes se rechazan de inmediato, sin
+ * bloquear al llamante. Cada familia tiene su propio bulkhead, de modo que
+ * una ráfaga de consultas caras solo llena su propia cola.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class Bulkhead {
+    
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    
+    /**
+     * @param name Nombre de la familia de endpoints (para logs y métricas)
+     * @param concurrency Tareas en ejecución simultánea
+     * @param queueSize Tareas en espera antes de rechazar
+     * @param threadFactory Factoría de hilos (gestionados por el contenedor)
+     */
+    public Bulkhead(String name, int concurrency, int queueSize, ThreadFactory threadFactory) {
+        if (concurrency <= 0 || queueSize < 0) {
+            throw new IllegalArgumentException("Invalid bulkhead size for " + name);
+        }
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                queueSize == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueSize),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Encola una tarea si hay sitio.
+     * 
+     * @param task Tarea a ejecutar
+     * @return false si el bulkhead está lleno y la tarea se ha rechazado
+     */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return Tareas en ejecución
+     */
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+    
+    /**
+     * @return Tareas en espera
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * @return Tareas rechazadas desde el arranque
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+    
+    /**
+     * @return Tareas terminadas desde el arranque (aproximado)
+     */
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+    
+    /**
+     * Deja de aceptar tareas; las que están en curso terminan.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
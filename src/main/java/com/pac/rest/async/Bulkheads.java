@@ -0,0 +1,83 @@
+package com.pac.rest.async;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import java.util.List;
+
+/**
+ * Bulkheads de los endpoints de transacciones, uno por familia:
+ * <ul>
+ *   <li>{@code lookup}: consultas puntuales y por índice (/{id}, /suggest)</li>
+ *   <li>{@code scan}: listados paginados, búsqueda y exportación</li>
+ *   <li>{@code aggregate}: estadísticas, series y pivots</li>
+ * </ul>
+ * 
+ * El tamaño de cada uno se configura con las propiedades de sistema
+ * {@code pac.bulkhead.<familia>.concurrency} y
+ * {@code pac.bulkhead.<familia>.queue}. Los hilos se crean con la
+ * {@link ManagedThreadFactory} del servidor, por lo que las tareas pueden
+ * llamar a EJBs y usar JPA como un hilo de petición.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class Bulkheads {
+    
+    /**
+     * Segundos que una petición puede esperar en cola o en ejecución antes
+     * de responder 503.
+     */
+    public static final long TIMEOUT_SECONDS = Long.getLong("pac.bulkhead.timeoutSeconds", 30);
+    
+    @Resource
+    private ManagedThreadFactory threadFactory;
+    
+    private Bulkhead lookup;
+    private Bulkhead scan;
+    private Bulkhead aggregate;
+    
+    @PostConstruct
+    void init() {
+        lookup = create("lookup", 16, 256);
+        scan = create("scan", 8, 64);
+        aggregate = create("aggregate", 4, 32);
+    }
+    
+    private Bulkhead create(String name, int concurrency, int queue) {
+        return new Bulkhead(name,
+                Integer.getInteger("pac.bulkhead." + name + ".concurrency", concurrency),
+                Integer.getInteger("pac.bulkhead." + name + ".queue", queue),
+                threadFactory);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        all().forEach(Bulkhead::shutdown);
+    }
+    
+    public Bulkhead lookup() {
+        return lookup;
+    }
+    
+    public Bulkhead scan() {
+        return scan;
+    }
+    
+    public Bulkhead aggregate() {
+        return aggregate;
+    }
+    
+    /**
+     * @return Todos los bulkheads, para métricas
+     */
+    public List<Bulkhead> all() {
+        return List.of(lookup, scan, aggregate);
+    }
+}
@@ -0,0 +1,348 @@
+package com.pac.rest.cbor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.pac.rest.cbor.CborEncoder.*;
+
+/**
+ * Decodificador CBOR (RFC 8949) que convierte cada valor en objetos Java:
+ * {@link Long}/{@link BigInteger}, {@link Double}, {@link String},
+ * {@code byte[]}, {@link Boolean}, null, {@link List} y {@link Map}.
+ *
+ * Reconoce las fracciones decimales (tag 4, como {@link BigDecimal}), los
+ * bignums (tags 2 y 3) y las fechas en días (tag 100) o como texto
+ * (tag 1004), que se devuelven como {@link LocalDate}. Los demás tags se
+ * ignoran y se devuelve el valor etiquetado.
+ *
+ * Para poder leer cuerpos grandes fila a fila, los arrays de primer nivel
+ * se pueden recorrer con {@link #readArrayHeader()} y {@link #readBreak()}.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class CborDecoder {
+
+    /**
+     * Profundidad máxima de anidamiento aceptada.
+     */
+    static final int MAX_DEPTH = 64;
+
+    /**
+     * Longitud máxima de una cadena o de un bloque de bytes.
+     */
+    static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Capacidad inicial máxima reservada a partir de una longitud declarada.
+     */
+    private static final int MAX_PREALLOCATION = 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+
+    public CborDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Lee la cabecera de un array.
+     *
+     * @return Número de elementos, o -1 si el array es de longitud indefinida
+     * @throws IOException si el siguiente valor no es un array
+     */
+    public long readArrayHeader() throws IOException {
+        int initial = readByte();
+        if (initial >>> 5 != MAJOR_ARRAY) {
+            throw new IOException("Malformed CBOR: expected an array");
+        }
+        return (initial & 31) == 31 ? -1 : size(readArgument(initial));
+    }
+
+    /**
+     * Consume la marca de fin de un array indefinido si es lo siguiente.
+     *
+     * @return true si se ha consumido la marca de fin
+     */
+    public boolean readBreak() throws IOException {
+        if (peekByte() == BREAK) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true si se ha llegado al final de la entrada
+     */
+    public boolean isEnd() throws IOException {
+        return position >= limit && !fill();
+    }
+
+    /**
+     * Lee el siguiente valor completo.
+     */
+    public Object readValue() throws IOException {
+        return readValue(0);
+    }
+
+    private Object readValue(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Malformed CBOR: nesting deeper than " + MAX_DEPTH);
+        }
+        int initial = readByte();
+        int major = initial >>> 5;
+        int info = initial & 31;
+        if (info == 31) {
+            return readIndefinite(major, depth);
+        }
+        switch (major) {
+            case MAJOR_UNSIGNED: {
+                long value = readArgument(initial);
+                return value >= 0 ? Long.valueOf(value) : unsigned(value);
+            }
+            case MAJOR_NEGATIVE: {
+                long value = readArgument(initial);
+                return value >= 0 ? Long.valueOf(-1 - value) : unsigned(value).negate().subtract(BigInteger.ONE);
+            }
+            case MAJOR_BYTES:
+                return readBytes(length(readArgument(initial)));
+            case MAJOR_TEXT:
+                return new String(readBytes(length(readArgument(initial))), StandardCharsets.UTF_8);
+            case MAJOR_ARRAY: {
+                long size = size(readArgument(initial));
+                List<Object> list = new ArrayList<>((int) Math.min(size, MAX_PREALLOCATION));
+                for (long i = 0; i < size; i++) {
+                    list.add(readValue(depth + 1));
+                }
+                return list;
+            }
+            case MAJOR_MAP: {
+                long size = size(readArgument(initial));
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (long i = 0; i < size; i++) {
+                    map.put(String.valueOf(readValue(depth + 1)), readValue(depth + 1));
+                }
+                return map;
+            }
+            case MAJOR_TAG:
+                return readTagged(readArgument(initial), depth);
+            default:
+                return readSimple(initial);
+        }
+    }
+
+    private Object readIndefinite(int major, int depth) throws IOException {
+        switch (major) {
+            case MAJOR_BYTES:
+            case MAJOR_TEXT: {
+                ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+                while (!readBreak()) {
+                    Object chunk = readValue(depth + 1);
+                    byte[] bytes = chunk instanceof byte[] ? (byte[]) chunk
+                            : chunk instanceof String ? ((String) chunk).getBytes(StandardCharsets.UTF_8) : null;
+                    if (bytes == null || chunks.size() + bytes.length > MAX_STRING_LENGTH) {
+                        throw new IOException("Malformed CBOR: invalid string chunk");
+                    }
+                    chunks.write(bytes);
+                }
+                byte[] all = chunks.toByteArray();
+                return major == MAJOR_BYTES ? all : new String(all, StandardCharsets.UTF_8);
+            }
+            case MAJOR_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                while (!readBreak()) {
+                    list.add(readValue(depth + 1));
+                }
+                return list;
+            }
+            case MAJOR_MAP: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (!readBreak()) {
+                    map.put(String.valueOf(readValue(depth + 1)), readValue(depth + 1));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Malformed CBOR: unexpected break or indefinite length");
+        }
+    }
+
+    private Object readTagged(long tag, int depth) throws IOException {
+        Object value = readValue(depth + 1);
+        try {
+            if (tag == TAG_POSITIVE_BIGNUM && value instanceof byte[]) {
+                return new BigInteger(1, (byte[]) value);
+            }
+            if (tag == TAG_NEGATIVE_BIGNUM && value instanceof byte[]) {
+                return new BigInteger(1, (byte[]) value).negate().subtract(BigInteger.ONE);
+            }
+            if (tag == TAG_DECIMAL_FRACTION && value instanceof List && ((List<?>) value).size() == 2) {
+                Object exponent = ((List<?>) value).get(0);
+                Object mantissa = ((List<?>) value).get(1);
+                if (exponent instanceof Long && Math.abs((Long) exponent) <= 1000) {
+                    return new BigDecimal(toBigInteger(mantissa), -((Long) exponent).intValue());
+                }
+                throw new IOException("Malformed CBOR: invalid decimal fraction");
+            }
+            if (tag == TAG_EPOCH_DAYS && value instanceof Long) {
+                return LocalDate.ofEpochDay((Long) value);
+            }
+            if (tag == TAG_FULL_DATE && value instanceof String) {
+                return LocalDate.parse((String) value);
+            }
+        } catch (DateTimeException e) {
+            throw new IOException("Malformed CBOR: invalid date", e);
+        }
+        return value;
+    }
+
+    private static BigInteger toBigInteger(Object value) throws IOException {
+        if (value instanceof Long) {
+            return BigInteger.valueOf((Long) value);
+        }
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        }
+        throw new IOException("Malformed CBOR: invalid decimal mantissa");
+    }
+
+    private Object readSimple(int initial) throws IOException {
+        switch (initial) {
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case NULL:
+            case UNDEFINED:
+                return null;
+            case FLOAT16:
+                return halfToDouble((int) readFixed(2));
+            case FLOAT32:
+                return (double) Float.intBitsToFloat((int) readFixed(4));
+            case FLOAT64:
+                return Double.longBitsToDouble(readFixed(8));
+            default:
+                throw new IOException(String.format("Malformed CBOR: unsupported simple value 0x%02x", initial));
+        }
+    }
+
+    private static double halfToDouble(int half) {
+        int exponent = (half >>> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        double value;
+        if (exponent == 0) {
+            value = mantissa * Math.pow(2, -24);
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        } else {
+            value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private static BigInteger unsigned(long value) {
+        return new BigInteger(Long.toUnsignedString(value));
+    }
+
+    private static long size(long size) throws IOException {
+        if (size < 0) {
+            throw new IOException("Malformed CBOR: collection too large");
+        }
+        return size;
+    }
+
+    private static int length(long length) throws IOException {
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Malformed CBOR: string too long");
+        }
+        return (int) length;
+    }
+
+    // ========================================================================
+    // LECTURA DE BAJO NIVEL
+    // ========================================================================
+
+    /**
+     * @return Argumento de la cabecera; los valores mayores que
+     *         {@link Long#MAX_VALUE} se devuelven negativos (sin signo)
+     */
+    private long readArgument(int initial) throws IOException {
+        int info = initial & 31;
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+            case 24:
+                return readFixed(1);
+            case 25:
+                return readFixed(2);
+            case 26:
+                return readFixed(4);
+            case 27:
+                return readFixed(8);
+            default:
+                throw new IOException("Malformed CBOR: reserved additional information " + info);
+        }
+    }
+
+    private long readFixed(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            if (position >= limit && !fill()) {
+                throw new EOFException("Malformed CBOR: unexpected end of input");
+            }
+            int n = Math.min(length - read, limit - position);
+            System.arraycopy(buffer, position, bytes, read, n);
+            position += n;
+            read += n;
+        }
+        return bytes;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit && !fill()) {
+            throw new EOFException("Malformed CBOR: unexpected end of input");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private int peekByte() throws IOException {
+        if (position >= limit && !fill()) {
+            throw new EOFException("Malformed CBOR: unexpected end of input");
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
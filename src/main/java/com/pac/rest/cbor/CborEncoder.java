@@ -0,0 +1,231 @@
+package com.pac.rest.cbor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Codificador CBOR (RFC 8949) sobre un {@link OutputStream}, con buffer
+ * propio para no escribir byte a byte en el stream de la respuesta.
+ *
+ * Además de los tipos básicos codifica:
+ * <ul>
+ *   <li>{@link BigDecimal} como fracción decimal (tag 4): {@code [exponente, mantisa]},
+ *       es decir, un entero escalado. 150.50 se escribe como {@code 4([-2, 15050])}.</li>
+ *   <li>{@link LocalDate} como días desde 1970-01-01 (tag 100, RFC 8943).</li>
+ * </ul>
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class CborEncoder {
+
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+    static final int MAJOR_SIMPLE = 7;
+
+    static final int TAG_POSITIVE_BIGNUM = 2;
+    static final int TAG_NEGATIVE_BIGNUM = 3;
+    static final int TAG_DECIMAL_FRACTION = 4;
+    static final int TAG_EPOCH_DAYS = 100;
+    static final int TAG_FULL_DATE = 1004;
+
+    static final int FALSE = 0xF4;
+    static final int TRUE = 0xF5;
+    static final int NULL = 0xF6;
+    static final int UNDEFINED = 0xF7;
+    static final int FLOAT16 = 0xF9;
+    static final int FLOAT32 = 0xFA;
+    static final int FLOAT64 = 0xFB;
+    static final int BREAK = 0xFF;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    public CborEncoder(OutputStream out) {
+        this.out = out;
+    }
+
+    public CborEncoder writeArrayHeader(int size) throws IOException {
+        return writeHead(MAJOR_ARRAY, size);
+    }
+
+    public CborEncoder writeMapHeader(int size) throws IOException {
+        return writeHead(MAJOR_MAP, size);
+    }
+
+    /**
+     * Inicia un array de longitud indefinida; se cierra con {@link #writeBreak()}.
+     */
+    public CborEncoder writeStartArray() throws IOException {
+        return writeByte((MAJOR_ARRAY << 5) | 31);
+    }
+
+    public CborEncoder writeBreak() throws IOException {
+        return writeByte(BREAK);
+    }
+
+    public CborEncoder writeLong(long value) throws IOException {
+        return value >= 0 ? writeHead(MAJOR_UNSIGNED, value) : writeHead(MAJOR_NEGATIVE, -1 - value);
+    }
+
+    public CborEncoder writeBoolean(boolean value) throws IOException {
+        return writeByte(value ? TRUE : FALSE);
+    }
+
+    public CborEncoder writeNull() throws IOException {
+        return writeByte(NULL);
+    }
+
+    public CborEncoder writeDouble(double value) throws IOException {
+        writeByte(FLOAT64);
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (bits >>> shift));
+        }
+        return this;
+    }
+
+    public CborEncoder writeString(String value) throws IOException {
+        if (value == null) {
+            return writeNull();
+        }
+        int length = value.length();
+        if (length < 24 && isAscii(value)) {
+            // Caso frecuente (nombres de campo, categorías): sin pasar por byte[]
+            ensure(1 + length);
+            buffer[position++] = (byte) ((MAJOR_TEXT << 5) | length);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, utf8.length);
+        return writeBytes(utf8);
+    }
+
+    /**
+     * Escribe un importe como fracción decimal (tag 4).
+     */
+    public CborEncoder writeDecimal(BigDecimal value) throws IOException {
+        if (value == null) {
+            return writeNull();
+        }
+        writeHead(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+        writeArrayHeader(2);
+        writeLong(-(long) value.scale());
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            return writeLong(unscaled.longValue());
+        }
+        boolean negative = unscaled.signum() < 0;
+        BigInteger magnitude = negative ? unscaled.negate().subtract(BigInteger.ONE) : unscaled;
+        byte[] bytes = magnitude.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length); // Byte de signo
+        }
+        writeHead(MAJOR_TAG, negative ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        writeHead(MAJOR_BYTES, bytes.length);
+        return writeBytes(bytes);
+    }
+
+    /**
+     * Escribe una fecha como días desde la época (tag 100).
+     */
+    public CborEncoder writeDate(LocalDate value) throws IOException {
+        if (value == null) {
+            return writeNull();
+        }
+        writeHead(MAJOR_TAG, TAG_EPOCH_DAYS);
+        return writeLong(value.toEpochDay());
+    }
+
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    // ========================================================================
+    // CODIFICACIÓN DE BAJO NIVEL
+    // ========================================================================
+
+    private CborEncoder writeHead(int major, long value) throws IOException {
+        int type = major << 5;
+        ensure(9);
+        if (value < 24) {
+            buffer[position++] = (byte) (type | value);
+        } else if (value <= 0xFF) {
+            buffer[position++] = (byte) (type | 24);
+            buffer[position++] = (byte) value;
+        } else if (value <= 0xFFFF) {
+            buffer[position++] = (byte) (type | 25);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        } else if (value <= 0xFFFFFFFFL) {
+            buffer[position++] = (byte) (type | 26);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        } else {
+            buffer[position++] = (byte) (type | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+        return this;
+    }
+
+    private CborEncoder writeByte(int value) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    private CborEncoder writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > BUFFER_SIZE) {
+            flushBuffer();
+            out.write(bytes);
+            return this;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
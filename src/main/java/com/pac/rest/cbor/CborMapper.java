@@ -0,0 +1,303 @@
+package com.pac.rest.cbor;
+
+import com.pac.entity.Transaction;
+import com.pac.rest.stream.TransactionColumns;
+
+import javax.json.bind.annotation.JsonbTransient;
+import javax.ws.rs.core.MediaType;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convierte las respuestas de la API en CBOR con los mismos nombres de
+ * propiedad que produce JSON-B, de modo que el cliente recibe la misma
+ * estructura en ambos formatos.
+ *
+ * Las transacciones, que dominan el tamaño de los listados, se escriben con
+ * un serializador específico equivalente a
+ * {@link com.pac.rest.stream.TransactionJsonWriter}. El resto de objetos se
+ * recorren por sus getters (propiedades ordenadas por nombre y sin los
+ * valores null, como JSON-B), con la introspección cacheada por clase.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class CborMapper {
+
+    /**
+     * Tipo de contenido CBOR (RFC 8949).
+     */
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    /**
+     * Tipo de contenido CBOR como {@link MediaType}.
+     */
+    public static final MediaType APPLICATION_CBOR_TYPE = new MediaType("application", "cbor");
+
+    private static final ClassValue<Property[]> PROPERTIES = new ClassValue<Property[]>() {
+        @Override
+        protected Property[] computeValue(Class<?> type) {
+            return introspect(type);
+        }
+    };
+
+    private CborMapper() {
+        // Clase de utilidades
+    }
+
+    /**
+     * Escribe un valor cualquiera de la API.
+     *
+     * @param encoder Codificador de destino
+     * @param value Valor a escribir (puede ser null)
+     */
+    public static void write(CborEncoder encoder, Object value) throws IOException {
+        if (value == null) {
+            encoder.writeNull();
+        } else if (value instanceof Transaction) {
+            writeTransaction(encoder, (Transaction) value);
+        } else if (value instanceof String) {
+            encoder.writeString((String) value);
+        } else if (value instanceof TransactionColumns) {
+            writeColumns(encoder, (TransactionColumns) value);
+        } else if (value instanceof BigDecimal) {
+            encoder.writeDecimal((BigDecimal) value);
+        } else if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            encoder.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            encoder.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigInteger) {
+            encoder.writeDecimal(new BigDecimal((BigInteger) value));
+        } else if (value instanceof Boolean) {
+            encoder.writeBoolean((Boolean) value);
+        } else if (value instanceof LocalDate) {
+            encoder.writeDate((LocalDate) value);
+        } else if (value instanceof TemporalAccessor || value instanceof Character || value instanceof Enum) {
+            encoder.writeString(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            encoder.writeArrayHeader(collection.size());
+            for (Object element : collection) {
+                write(encoder, element);
+            }
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            encoder.writeArrayHeader(length);
+            for (int i = 0; i < length; i++) {
+                write(encoder, Array.get(value, i));
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            encoder.writeMapHeader(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                encoder.writeString(String.valueOf(entry.getKey()));
+                write(encoder, entry.getValue());
+            }
+        } else {
+            writeBean(encoder, value);
+        }
+    }
+
+    /**
+     * Escribe una transacción con las mismas propiedades que
+     * {@link com.pac.rest.stream.TransactionJsonWriter}.
+     */
+    public static void writeTransaction(CborEncoder encoder, Transaction transaction) throws IOException {
+        encoder.writeMapHeader(transaction.getId() == null ? 7 : 8);
+        if (transaction.getId() != null) {
+            encoder.writeString("id").writeLong(transaction.getId());
+        }
+        encoder.writeString("transactionDate").writeDate(transaction.getTransactionDate());
+        encoder.writeString("amount").writeDecimal(transaction.getAmount());
+        encoder.writeString("description").writeString(transaction.getDescription());
+        encoder.writeString("category").writeString(transaction.getCategory());
+        encoder.writeString("suspicious").writeBoolean(Boolean.TRUE.equals(transaction.isSuspicious()));
+        encoder.writeString("riskScore").writeLong(transaction.getRiskScore() == null ? 0 : transaction.getRiskScore());
+        encoder.writeString("createdAt").writeString(
+                transaction.getCreatedAt() == null ? null : transaction.getCreatedAt().toString());
+    }
+
+    /**
+     * Escribe una página columnar: un mapa de arrays, uno por columna.
+     */
+    public static void writeColumns(CborEncoder encoder, TransactionColumns columns) throws IOException {
+        encoder.writeMapHeader(columns.getColumns().size());
+        for (TransactionColumns.Column column : columns.getColumns()) {
+            encoder.writeString(column.getProperty());
+            encoder.writeArrayHeader(columns.getRows().size());
+            for (Transaction transaction : columns.getRows()) {
+                write(encoder, TransactionColumns.value(column, transaction));
+            }
+        }
+    }
+
+    /**
+     * Construye una transacción a partir de un objeto CBOR decodificado, con
+     * las mismas reglas que {@link com.pac.rest.ingest.TransactionRowParser}.
+     * 
+     * {@code transactionDate} admite días (tag 100), fecha en texto (tag 1004
+     * o sin etiqueta); {@code amount} admite fracción decimal, número o texto.
+     *
+     * @param value Valor leído con {@link CborDecoder#readValue()}
+     * @return Transacción validada con {@link Transaction#isValid()}
+     * @throws IllegalArgumentException si falta algún campo, tiene un tipo
+     *         incorrecto o la transacción resultante no es válida
+     */
+    public static Transaction readTransaction(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Row must be a CBOR map");
+        }
+        Map<?, ?> row = (Map<?, ?>) value;
+        Transaction transaction = new Transaction(
+                toDate(row.get("transactionDate")),
+                toAmount(row.get("amount")),
+                optionalString(row, "description"),
+                optionalString(row, "category"));
+        Object suspicious = row.get("suspicious");
+        if (suspicious != null) {
+            if (!(suspicious instanceof Boolean)) {
+                throw new IllegalArgumentException("Field 'suspicious' must be a boolean");
+            }
+            transaction.setSuspicious((Boolean) suspicious);
+        }
+        if (!transaction.isValid()) {
+            throw new IllegalArgumentException("Transaction data is not valid");
+        }
+        return transaction;
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Field 'transactionDate' is required");
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof String) {
+            try {
+                return LocalDate.parse((String) value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid transactionDate: " + value, e);
+            }
+        }
+        throw new IllegalArgumentException("Field 'transactionDate' must be a date");
+    }
+
+    private static BigDecimal toAmount(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Field 'amount' is required");
+        }
+        try {
+            if (value instanceof BigDecimal) {
+                return (BigDecimal) value;
+            }
+            if (value instanceof Long || value instanceof BigInteger) {
+                return new BigDecimal(value.toString());
+            }
+            if (value instanceof Double) {
+                return BigDecimal.valueOf((Double) value);
+            }
+            if (value instanceof String) {
+                return new BigDecimal(((String) value).trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value, e);
+        }
+        throw new IllegalArgumentException("Field 'amount' must be a number");
+    }
+
+    private static String optionalString(Map<?, ?> row, String field) {
+        Object value = row.get(field);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static void writeBean(CborEncoder encoder, Object bean) throws IOException {
+        Property[] properties = PROPERTIES.get(bean.getClass());
+        Object[] values = new Object[properties.length];
+        int present = 0;
+        for (int i = 0; i < properties.length; i++) {
+            values[i] = properties[i].get(bean);
+            if (values[i] != null) {
+                present++;
+            }
+        }
+        encoder.writeMapHeader(present);
+        for (int i = 0; i < properties.length; i++) {
+            if (values[i] != null) {
+                encoder.writeString(properties[i].name);
+                write(encoder, values[i]);
+            }
+        }
+    }
+
+    private static Property[] introspect(Class<?> type) {
+        try {
+            List<Property> properties = new ArrayList<>();
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                Method getter = descriptor.getReadMethod();
+                if (getter == null || getter.isAnnotationPresent(JsonbTransient.class)
+                        || isTransientField(type, descriptor.getName())) {
+                    continue;
+                }
+                properties.add(new Property(descriptor.getName(), getter));
+            }
+            properties.sort(Comparator.comparing(property -> property.name));
+            return properties.toArray(new Property[0]);
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("Cannot introspect " + type.getName(), e);
+        }
+    }
+
+    private static boolean isTransientField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            Field field = Arrays.stream(c.getDeclaredFields())
+                    .filter(f -> f.getName().equals(name))
+                    .findFirst()
+                    .orElse(null);
+            if (field != null) {
+                return field.isAnnotationPresent(JsonbTransient.class);
+            }
+        }
+        return false;
+    }
+
+    private static final class Property {
+
+        private final String name;
+        private final Method getter;
+
+        Property(String name, Method getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        Object get(Object bean) throws IOException {
+            try {
+                return getter.invoke(bean);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IOException("Cannot read property " + name + " of " + bean.getClass().getName(), e);
+            }
+        }
+    }
+}
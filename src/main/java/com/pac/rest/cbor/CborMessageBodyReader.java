@@ -0,0 +1,69 @@
+package com.pac.rest.cbor;
+
+import com.pac.entity.Transaction;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lee cuerpos {@code application/cbor} con una transacción (mapa) o una
+ * lista de transacciones (array), con los mismos nombres de campo que JSON.
+ * 
+ * Los importes se aceptan como fracción decimal, entero, double o texto y
+ * las fechas como días (tag 100) o texto ISO. Un cuerpo mal formado o una
+ * transacción no válida se responden con 400.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Provider
+@Consumes(CborMapper.APPLICATION_CBOR)
+public class CborMessageBodyReader implements MessageBodyReader<Object> {
+    
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Transaction.class.equals(type)
+                || (type.isAssignableFrom(List.class) && Collection.class.isAssignableFrom(type)
+                    && isTransactionCollection(genericType));
+    }
+    
+    private static boolean isTransactionCollection(Type genericType) {
+        return genericType instanceof ParameterizedType
+                && ((ParameterizedType) genericType).getActualTypeArguments()[0] == Transaction.class;
+    }
+    
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations,
+                           MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
+                           InputStream entityStream) throws IOException {
+        try {
+            Object value = new CborDecoder(entityStream).readValue();
+            if (Transaction.class.equals(type)) {
+                return CborMapper.readTransaction(value);
+            }
+            if (!(value instanceof List)) {
+                throw new IllegalArgumentException("Request body must be a CBOR array");
+            }
+            List<?> rows = (List<?>) value;
+            List<Transaction> transactions = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                transactions.add(CborMapper.readTransaction(row));
+            }
+            return transactions;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.pac.rest.cbor;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Escribe las respuestas de la API en CBOR cuando el cliente lo pide con
+ * {@code Accept: application/cbor}.
+ * 
+ * Los importes se envían como enteros escalados (fracción decimal, tag 4) y
+ * las fechas como días desde la época (tag 100), sin pasar por texto.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Provider
+@Produces(CborMapper.APPLICATION_CBOR)
+public class CborMessageBodyWriter implements MessageBodyWriter<Object> {
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return !StreamingOutput.class.isAssignableFrom(type);
+    }
+    
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        CborEncoder encoder = new CborEncoder(entityStream);
+        CborMapper.write(encoder, entity);
+        encoder.flush();
+    }
+}
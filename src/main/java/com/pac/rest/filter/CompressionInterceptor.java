@@ -0,0 +1,130 @@
+package com.pac.rest.filter;
+
+import com.pac.rest.cbor.CborMapper;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime con gzip o deflate las respuestas JSON y CBOR cuando el cliente
+ * lo admite ({@code Accept-Encoding}).
+ * 
+ * Se usa el nivel de compresión más rápido: las respuestas se generan en
+ * cada petición y, en JSON, el nivel 1 ya reduce el tamaño varias veces con
+ * una fracción del coste de CPU del nivel por defecto. El stream comprimido
+ * se vacía con sync flush, de modo que las respuestas en streaming
+ * ({@code /stream}) siguen llegando al cliente por partes.
+ * 
+ * Los eventos SSE no se comprimen: cada evento debe llegar en cuanto se
+ * emite.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Provider
+public class CompressionInterceptor implements WriterInterceptor {
+    
+    /**
+     * Nivel de compresión de gzip y deflate.
+     */
+    static final int LEVEL = Deflater.BEST_SPEED;
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    @Context
+    private HttpHeaders requestHeaders;
+    
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        String encoding = isCompressible(context.getMediaType()) && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                ? ContentEncoding.negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING))
+                : null;
+        if (encoding == null) {
+            context.proceed();
+            return;
+        }
+        headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        if (!varies(headers)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        
+        // El contenedor cierra el stream de la respuesta; aquí solo se termina la compresión
+        OutputStream response = new FilterOutputStream(context.getOutputStream()) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        try (DeflaterOutputStream compressed = ContentEncoding.GZIP.equals(encoding)
+                ? new FastGzipOutputStream(response)
+                : new FastDeflaterOutputStream(response)) {
+            context.setOutputStream(compressed);
+            context.proceed();
+        }
+    }
+    
+    private static boolean isCompressible(MediaType type) {
+        return type != null && !type.isWildcardSubtype()
+                && (type.isCompatible(MediaType.APPLICATION_JSON_TYPE) || type.isCompatible(CborMapper.APPLICATION_CBOR_TYPE));
+    }
+    
+    private static boolean varies(MultivaluedMap<String, Object> headers) {
+        if (headers.get(HttpHeaders.VARY) == null) {
+            return false;
+        }
+        for (Object value : headers.get(HttpHeaders.VARY)) {
+            if (String.valueOf(value).toLowerCase().contains("accept-encoding")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * gzip con sync flush y el nivel {@link #LEVEL}.
+     */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE, true);
+            def.setLevel(LEVEL);
+        }
+    }
+    
+    /**
+     * deflate (formato zlib) con sync flush y el nivel {@link #LEVEL}.
+     */
+    private static final class FastDeflaterOutputStream extends DeflaterOutputStream {
+        
+        FastDeflaterOutputStream(OutputStream out) {
+            super(out, new Deflater(LEVEL), BUFFER_SIZE, true);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.pac.rest.filter;
+
+/**
+ * Negociación de la compresión de las respuestas a partir de la cabecera
+ * {@code Accept-Encoding}.
+ * 
+ * Se prefiere gzip sobre deflate; las codificaciones con {@code q=0} se
+ * consideran rechazadas y {@code *} acepta gzip.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class ContentEncoding {
+    
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    
+    private ContentEncoding() {
+        // Clase de utilidades
+    }
+    
+    /**
+     * @param acceptEncoding Valor de la cabecera Accept-Encoding (puede ser null)
+     * @return "gzip", "deflate" o null si la respuesta no se debe comprimir
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        float gzip = -1;
+        float deflate = -1;
+        float any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            float q = quality(tokens);
+            if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+                gzip = q;
+            } else if (DEFLATE.equals(coding)) {
+                deflate = q;
+            } else if ("*".equals(coding)) {
+                any = q;
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+    
+    private static float quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String parameter = tokens[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -57,12 +57,13 @@ public class CorsFilter implements ContainerResponseFilter {
         // Headers personalizados permitidos en las peticiones
         responseContext.getHeaders().add(
                 "Access-Control-Allow-Headers",
-                "origin, content-type, accept, authorization, x-requested-with");
+                "origin, content-type, accept, authorization, x-requested-with, last-event-id, "
+                + "if-none-match, if-modified-since");
         
         // Headers que el cliente puede leer en la respuesta
         responseContext.getHeaders().add(
                 "Access-Control-Expose-Headers",
-                "location, content-disposition");
+                "location, content-disposition, link, x-next-cursor, etag, last-modified, retry-after");
         
         // Tiempo de caché de la respuesta preflight (24 horas)
         responseContext.getHeaders().add(
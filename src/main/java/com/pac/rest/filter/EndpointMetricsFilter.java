@@ -0,0 +1,267 @@
+package com.pac.rest.filter;
+
+import com.pac.accesslog.AccessLog;
+import com.pac.metrics.ApiMetrics;
+import com.pac.metrics.QueryTime;
+import com.pac.rest.TransactionResource;
+import com.pac.rest.ingest.BatchIngestResult;
+import com.pac.rest.stream.TransactionColumns;
+
+import javax.annotation.Priority;
+import javax.ejb.EJB;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Collection;
+
+/**
+ * Mide cada petición a {@link TransactionResource} y la registra en
+ * {@link ApiMetrics}: latencia, código de respuesta, filas y bytes enviados.
+ * Las peticiones que {@link AccessLog} elige (errores, lentas y una muestra
+ * del resto) se registran además en el access log, con la ruta, los
+ * parámetros y el tiempo de base de datos ({@link QueryTime}).
+ *
+ * La latencia va desde que JAX-RS ha resuelto el método del recurso hasta
+ * que la respuesta está lista (el filtro de respuesta se ejecuta al
+ * reanudar una respuesta asíncrona): incluye la espera en el bulkhead y
+ * la consulta, pero no la serialización, cuyo coste se refleja en los
+ * bytes. Las filas se cuentan en la entidad: el tamaño de la lista o de la
+ * página columnar, las insertadas en la ingesta batch, 0 en los errores y en
+ * las respuestas sin cuerpo o en streaming, y 1 en el resto.
+ *
+ * Los bytes se cuentan en el stream de la respuesta. El interceptor tiene
+ * más prioridad que {@link CompressionInterceptor}, así que envuelve al
+ * stream comprimido y cuenta los bytes que salen por la red. El stream
+ * contador se reutiliza por hilo. Los eventos SSE no se cuentan: la
+ * conexión no tiene un tamaño de respuesta.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class EndpointMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    /**
+     * Propiedad de la petición con el endpoint medido.
+     */
+    static final String ENDPOINT_PROPERTY = "pac.metrics.endpoint";
+
+    /**
+     * Propiedad de la petición con el {@link System#nanoTime()} inicial.
+     */
+    static final String START_PROPERTY = "pac.metrics.start";
+
+    /**
+     * Propiedad de la petición con la entrada del access log pendiente de
+     * los bytes enviados.
+     */
+    static final String ACCESS_LOG_PROPERTY = "pac.accesslog.entry";
+
+    private static final ThreadLocal<CountingOutputStream> COUNTING_STREAMS =
+            ThreadLocal.withInitial(CountingOutputStream::new);
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @EJB
+    private ApiMetrics metrics;
+
+    @EJB
+    private AccessLog accessLog;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null || resourceInfo.getResourceClass() != TransactionResource.class) {
+            return;
+        }
+        ApiMetrics.Endpoint endpoint = ApiMetrics.Endpoint.forResourceMethod(method.getName());
+        if (endpoint != null) {
+            request.setProperty(ENDPOINT_PROPERTY, endpoint);
+            request.setProperty(START_PROPERTY, System.nanoTime());
+            QueryTime.reset();
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object property = request.getProperty(ENDPOINT_PROPERTY);
+        if (!(property instanceof ApiMetrics.Endpoint)) {
+            return;
+        }
+        ApiMetrics.Endpoint endpoint = (ApiMetrics.Endpoint) property;
+        long latency = System.nanoTime() - (Long) request.getProperty(START_PROPERTY);
+        int status = response.getStatus();
+        int rows = status >= 400 ? 0 : rows(response.getEntity());
+        metrics.endpoint(endpoint, latency, status, rows);
+
+        double sample = accessLog.sample(status, latency);
+        if (sample == 0) {
+            return;
+        }
+        URI uri = request.getUriInfo().getRequestUri();
+        PendingEntry entry = new PendingEntry(endpoint, uri.getRawPath(), uri.getRawQuery(), status,
+                latency, QueryTime.elapsedNanos(), rows, sample);
+        if (response.hasEntity() && !isEventStream(response.getMediaType())) {
+            // Se completa con los bytes al escribir la entidad
+            request.setProperty(ACCESS_LOG_PROPERTY, entry);
+        } else {
+            entry.record(accessLog, 0);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object endpoint = context.getProperty(ENDPOINT_PROPERTY);
+        if (!(endpoint instanceof ApiMetrics.Endpoint) || isEventStream(context.getMediaType())) {
+            context.proceed();
+            return;
+        }
+        CountingOutputStream counting = COUNTING_STREAMS.get();
+        if (counting.isInUse()) {
+            counting = new CountingOutputStream();
+        }
+        OutputStream original = context.getOutputStream();
+        counting.wrap(original);
+        context.setOutputStream(counting);
+        long dbBefore = QueryTime.elapsedNanos();
+        try {
+            context.proceed();
+        } finally {
+            // El contenedor cierra el stream que quede en el contexto: se le devuelve el suyo
+            context.setOutputStream(original);
+            long bytes = counting.release();
+            metrics.responseBytes((ApiMetrics.Endpoint) endpoint, bytes);
+            Object entry = context.getProperty(ACCESS_LOG_PROPERTY);
+            if (entry instanceof PendingEntry) {
+                // En /stream las consultas se ejecutan mientras se escribe
+                ((PendingEntry) entry).addDbNanos(QueryTime.elapsedNanos() - dbBefore);
+                ((PendingEntry) entry).record(accessLog, bytes);
+            }
+        }
+    }
+
+    private static boolean isEventStream(MediaType type) {
+        return type != null && MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(type);
+    }
+
+    /**
+     * @return Filas de la entidad de una respuesta correcta
+     */
+    static int rows(Object entity) {
+        if (entity == null) {
+            return 0;
+        }
+        if (entity instanceof Collection) {
+            return ((Collection<?>) entity).size();
+        }
+        if (entity instanceof TransactionColumns) {
+            return ((TransactionColumns) entity).getRows().size();
+        }
+        if (entity instanceof BatchIngestResult) {
+            return (int) ((BatchIngestResult) entity).getInserted();
+        }
+        if (entity instanceof StreamingOutput) {
+            return 0;
+        }
+        return 1;
+    }
+
+    /**
+     * Entrada del access log a la espera de los bytes del cuerpo. Solo se
+     * crea para las peticiones que se registran.
+     */
+    private static final class PendingEntry {
+
+        private final ApiMetrics.Endpoint endpoint;
+        private final String path;
+        private final String query;
+        private final int status;
+        private final long latencyNanos;
+        private final int rows;
+        private final double sampleRate;
+        private long dbNanos;
+
+        PendingEntry(ApiMetrics.Endpoint endpoint, String path, String query, int status,
+                     long latencyNanos, long dbNanos, int rows, double sampleRate) {
+            this.endpoint = endpoint;
+            this.path = path;
+            this.query = query;
+            this.status = status;
+            this.latencyNanos = latencyNanos;
+            this.dbNanos = dbNanos;
+            this.rows = rows;
+            this.sampleRate = sampleRate;
+        }
+
+        void addDbNanos(long nanos) {
+            dbNanos += nanos;
+        }
+
+        void record(AccessLog accessLog, long bytes) {
+            accessLog.record(endpoint, path, query, status, latencyNanos, dbNanos, rows, bytes, sampleRate);
+        }
+    }
+
+    /**
+     * Stream que cuenta los bytes que pasan hacia el stream envuelto.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private OutputStream out;
+        private long count;
+
+        void wrap(OutputStream out) {
+            this.out = out;
+            this.count = 0;
+        }
+
+        boolean isInUse() {
+            return out != null;
+        }
+
+        /**
+         * @return Bytes contados desde {@link #wrap}
+         */
+        long release() {
+            out = null;
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
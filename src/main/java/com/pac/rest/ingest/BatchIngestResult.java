@@ -0,0 +1,116 @@
+package com.pac.rest.ingest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una ingesta batch de transacciones.
+ * 
+ * Incluye los contadores globales y el detalle de las filas rechazadas
+ * (limitado a {@link #MAX_REPORTED_ERRORS} para que una carga masiva con
+ * errores sistemáticos no genere una respuesta de tamaño ilimitado).
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class BatchIngestResult {
+    
+    /**
+     * Número máximo de errores de fila incluidos en la respuesta.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private long received;
+    private long inserted;
+    private long rejected;
+    private long elapsedMillis;
+    private boolean errorsTruncated;
+    private String error;
+    private final List<RowError> errors = new ArrayList<>();
+    
+    void rowReceived() {
+        received++;
+    }
+    
+    void rowsInserted(int count) {
+        inserted += count;
+    }
+    
+    void rowRejected(long row, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+    
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    void setError(String error) {
+        this.error = error;
+    }
+    
+    public long getReceived() {
+        return received;
+    }
+    
+    public long getInserted() {
+        return inserted;
+    }
+    
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    /**
+     * @return Filas por segundo insertadas durante la ingesta
+     */
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? inserted : inserted * 1000 / elapsedMillis;
+    }
+    
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+    
+    /**
+     * @return Error que interrumpió la lectura del cuerpo (JSON mal formado),
+     *         o null si el cuerpo se procesó completo
+     */
+    public String getError() {
+        return error;
+    }
+    
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+    
+    /**
+     * Error asociado a una fila concreta (numeradas desde 1).
+     */
+    public static class RowError {
+        private final long row;
+        private final String message;
+        
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+        
+        public long getRow() {
+            return row;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+}
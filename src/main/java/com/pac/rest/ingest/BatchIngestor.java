@@ -0,0 +1,220 @@
+package com.pac.rest.ingest;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionRepository;
+import com.pac.rest.cbor.CborDecoder;
+import com.pac.rest.cbor.CborMapper;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.stream.JsonParser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ingesta incremental de transacciones desde un cuerpo JSON array, NDJSON o
+ * CBOR array.
+ * 
+ * El cuerpo se lee fila a fila sin cargarlo completo en memoria. Cada fila se
+ * valida de forma individual y las válidas se acumulan en bloques de
+ * {@code chunkSize} que se escriben con {@link TransactionRepository#createAll}
+ * (una transacción JTA y un batch JDBC por bloque). Si un bloque falla se
+ * reintenta fila a fila, cada una en su propia transacción, de modo que solo
+ * se rechazan las filas que fallan, cada una con su causa.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class BatchIngestor {
+    
+    private static final Logger LOGGER = Logger.getLogger(BatchIngestor.class.getName());
+    
+    private final TransactionRepository repository;
+    private final int chunkSize;
+    
+    private final List<Transaction> chunk;
+    private final List<Long> chunkRows;
+    private BatchIngestResult result;
+    
+    /**
+     * @param repository Repositorio usado para persistir los bloques
+     * @param chunkSize Número de filas por bloque
+     */
+    public BatchIngestor(TransactionRepository repository, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.repository = repository;
+        this.chunkSize = chunkSize;
+        this.chunk = new ArrayList<>(chunkSize);
+        this.chunkRows = new ArrayList<>(chunkSize);
+    }
+    
+    /**
+     * Ingesta un cuerpo con formato JSON array: {@code [ {...}, {...} ]}.
+     * 
+     * @param body Cuerpo de la petición
+     * @return Resultado de la ingesta
+     */
+    public BatchIngestResult ingestJsonArray(InputStream body) {
+        long start = System.nanoTime();
+        result = new BatchIngestResult();
+        try (JsonParser parser = Json.createParser(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                throw new JsonException("Request body must be a JSON array");
+            }
+            while (parser.hasNext()) {
+                JsonParser.Event event = parser.next();
+                if (event == JsonParser.Event.END_ARRAY) {
+                    break;
+                }
+                result.rowReceived();
+                long row = result.getReceived();
+                if (event == JsonParser.Event.START_OBJECT) {
+                    accept(row, parser.getObject());
+                } else {
+                    if (event == JsonParser.Event.START_ARRAY) {
+                        parser.getArray();
+                    }
+                    result.rowRejected(row, "Row must be a JSON object");
+                }
+            }
+        } catch (JsonException e) {
+            result.setError("Malformed request body: " + e.getMessage());
+        }
+        return finish(start);
+    }
+    
+    /**
+     * Ingesta un cuerpo NDJSON: un objeto JSON por línea.
+     * Las líneas vacías se ignoran.
+     * 
+     * @param body Cuerpo de la petición
+     * @return Resultado de la ingesta
+     */
+    public BatchIngestResult ingestNdjson(InputStream body) {
+        long start = System.nanoTime();
+        result = new BatchIngestResult();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                result.rowReceived();
+                long row = result.getReceived();
+                try (JsonReader jsonReader = Json.createReader(new StringReader(line))) {
+                    accept(row, jsonReader.readObject());
+                } catch (JsonException e) {
+                    result.rowRejected(row, "Malformed JSON line: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            result.setError("Error reading request body: " + e.getMessage());
+        }
+        return finish(start);
+    }
+    
+    /**
+     * Ingesta un cuerpo CBOR: un array (de longitud definida o indefinida)
+     * de mapas con los mismos campos que el formato JSON.
+     * 
+     * @param body Cuerpo de la petición
+     * @return Resultado de la ingesta
+     */
+    public BatchIngestResult ingestCbor(InputStream body) {
+        long start = System.nanoTime();
+        result = new BatchIngestResult();
+        try {
+            CborDecoder decoder = new CborDecoder(body);
+            long size = decoder.readArrayHeader();
+            for (long i = 0; size < 0 ? !decoder.readBreak() : i < size; i++) {
+                Object value = decoder.readValue();
+                result.rowReceived();
+                long row = result.getReceived();
+                try {
+                    add(row, CborMapper.readTransaction(value));
+                } catch (IllegalArgumentException e) {
+                    result.rowRejected(row, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            result.setError("Malformed request body: " + e.getMessage());
+        }
+        return finish(start);
+    }
+    
+    private void accept(long row, JsonObject object) {
+        Transaction transaction;
+        try {
+            transaction = TransactionRowParser.parse(object);
+        } catch (IllegalArgumentException e) {
+            result.rowRejected(row, e.getMessage());
+            return;
+        }
+        add(row, transaction);
+    }
+    
+    private void add(long row, Transaction transaction) {
+        chunk.add(transaction);
+        chunkRows.add(row);
+        if (chunk.size() >= chunkSize) {
+            writeChunk();
+        }
+    }
+    
+    private void writeChunk() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            result.rowsInserted(repository.createAll(chunk));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, String.format("Batch chunk of %d rows failed, retrying row by row", chunk.size()), e);
+            writeRowByRow();
+        } finally {
+            chunk.clear();
+            chunkRows.clear();
+        }
+    }
+    
+    /**
+     * Ruta de recuperación cuando un bloque completo no puede escribirse:
+     * cada fila se escribe en su propia transacción y las que fallan se
+     * rechazan con su propio error.
+     */
+    private void writeRowByRow() {
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                result.rowsInserted(repository.createAll(List.of(chunk.get(i))));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Batch row " + chunkRows.get(i) + " could not be inserted", e);
+                result.rowRejected(chunkRows.get(i), "Insert failed: " + rootMessage(e));
+            }
+        }
+    }
+    
+    private BatchIngestResult finish(long start) {
+        writeChunk();
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+    
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
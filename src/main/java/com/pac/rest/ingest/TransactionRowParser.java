@@ -0,0 +1,99 @@
+package com.pac.rest.ingest;
+
+import com.pac.entity.Transaction;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Convierte una fila JSON de la ingesta batch en una entidad {@link Transaction}.
+ * 
+ * Formato esperado de cada fila:
+ * <pre>
+ * {"transactionDate": "2024-01-15", "amount": 150.50,
+ *  "description": "Compra Supermercado", "category": "groceries",
+ *  "suspicious": false}
+ * </pre>
+ * El campo {@code amount} admite número o texto; {@code suspicious} es opcional.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class TransactionRowParser {
+    
+    private TransactionRowParser() {
+        // Clase de utilidades
+    }
+    
+    /**
+     * @param row Objeto JSON de la fila
+     * @return Transacción construida y validada con {@link Transaction#isValid()}
+     * @throws IllegalArgumentException si falta algún campo, tiene un tipo
+     *         incorrecto o la transacción resultante no es válida
+     */
+    public static Transaction parse(JsonObject row) {
+        Transaction transaction = new Transaction(
+                parseDate(row),
+                parseAmount(row),
+                optionalString(row, "description"),
+                optionalString(row, "category"));
+        JsonValue suspicious = row.get("suspicious");
+        if (suspicious != null && suspicious.getValueType() != JsonValue.ValueType.NULL) {
+            if (suspicious != JsonValue.TRUE && suspicious != JsonValue.FALSE) {
+                throw new IllegalArgumentException("Field 'suspicious' must be a boolean");
+            }
+            transaction.setSuspicious(suspicious == JsonValue.TRUE);
+        }
+        if (!transaction.isValid()) {
+            throw new IllegalArgumentException("Transaction data is not valid");
+        }
+        return transaction;
+    }
+    
+    private static LocalDate parseDate(JsonObject row) {
+        String value = optionalString(row, "transactionDate");
+        if (value == null) {
+            throw new IllegalArgumentException("Field 'transactionDate' is required");
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid transactionDate: " + value, e);
+        }
+    }
+    
+    private static BigDecimal parseAmount(JsonObject row) {
+        JsonValue value = row.get("amount");
+        if (value == null || value.getValueType() == JsonValue.ValueType.NULL) {
+            throw new IllegalArgumentException("Field 'amount' is required");
+        }
+        try {
+            switch (value.getValueType()) {
+                case NUMBER:
+                    return ((JsonNumber) value).bigDecimalValue();
+                case STRING:
+                    return new BigDecimal(((JsonString) value).getString().trim());
+                default:
+                    throw new IllegalArgumentException("Field 'amount' must be a number");
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value, e);
+        }
+    }
+    
+    private static String optionalString(JsonObject row, String field) {
+        JsonValue value = row.get(field);
+        if (value == null || value.getValueType() == JsonValue.ValueType.NULL) {
+            return null;
+        }
+        if (value.getValueType() != JsonValue.ValueType.STRING) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return ((JsonString) value).getString();
+    }
+}
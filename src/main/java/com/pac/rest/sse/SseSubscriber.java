@@ -0,0 +1,131 @@
+package com.pac.rest.sse;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Conexión SSE de un cliente con su buffer de salida acotado.
+ *
+ * Los publicadores solo encolan ({@link #offer}) y nunca esperan a la red:
+ * el envío lo hace una única tarea por suscriptor en el executor, que vacía
+ * la cola y termina. Si la cola está llena el cliente no está leyendo al
+ * ritmo de los eventos y el broker lo desconecta. Un envío que no se
+ * completa en {@code sendTimeoutMillis} también cierra la conexión, para que
+ * un cliente que dejó de leer no retenga un hilo del executor.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class SseSubscriber implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(SseSubscriber.class.getName());
+
+    private final SseEventSink sink;
+    private final Sse sse;
+    private final Executor executor;
+    private final long sendTimeoutMillis;
+    private final BlockingQueue<StreamEvent> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    SseSubscriber(SseEventSink sink, Sse sse, int bufferSize, long sendTimeoutMillis, Executor executor) {
+        this.sink = sink;
+        this.sse = sse;
+        this.executor = executor;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /**
+     * Encola un evento para este cliente sin bloquear.
+     *
+     * @return false si la conexión está cerrada o el buffer está lleno
+     */
+    boolean offer(StreamEvent event) {
+        if (isClosed() || !queue.offer(event)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                close();
+            }
+        }
+    }
+
+    /**
+     * Envía los eventos encolados. Como mucho hay una ejecución en curso por
+     * suscriptor, de modo que el orden de los eventos se conserva.
+     */
+    @Override
+    public void run() {
+        try {
+            StreamEvent event;
+            while (!closed && (event = queue.poll()) != null) {
+                sink.send(toOutbound(event)).toCompletableFuture().get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            LOGGER.log(Level.FINE, "SSE send timed out after {0} ms", sendTimeoutMillis);
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        } catch (ExecutionException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "SSE client disconnected", e);
+            close();
+        } finally {
+            scheduled.set(false);
+        }
+        if (!closed && !queue.isEmpty()) {
+            schedule(); // Eventos encolados mientras se liberaba la tarea
+        }
+    }
+
+    private OutboundSseEvent toOutbound(StreamEvent event) {
+        if (event.getName() == null) {
+            return sse.newEventBuilder().comment("keep-alive").build();
+        }
+        return sse.newEventBuilder()
+                .id(event.getId())
+                .name(event.getName())
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(String.class, event.getData())
+                .build();
+    }
+
+    boolean isClosed() {
+        return closed || sink.isClosed();
+    }
+
+    /**
+     * Cierra la conexión y descarta los eventos pendientes.
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+        try {
+            sink.close();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Error closing SSE sink", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pac.rest.sse;
+
+/**
+ * Evento ya serializado que se reparte a los suscriptores SSE.
+ *
+ * El cuerpo JSON se genera una sola vez al publicar, no una vez por
+ * suscriptor.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class StreamEvent {
+
+    /**
+     * Comentario SSE sin id ni datos, usado como keep-alive.
+     */
+    static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null);
+
+    private final String id;
+    private final String name;
+    private final String data;
+
+    StreamEvent(String id, String name, String data) {
+        this.id = id;
+        this.name = name;
+        this.data = data;
+    }
+
+    /**
+     * @return Id SSE del evento, con el prefijo de la ejecución que lo emitió
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * @return Nombre del evento SSE, o null para un comentario keep-alive
+     */
+    String getName() {
+        return name;
+    }
+
+    String getData() {
+        return data;
+    }
+}
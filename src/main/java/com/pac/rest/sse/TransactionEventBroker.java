@@ -0,0 +1,194 @@
+package com.pac.rest.sse;
+
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reparte eventos SSE a los clientes conectados y conserva los últimos para
+ * reanudar conexiones.
+ *
+ * Cada evento recibe un id creciente y se guarda en un buffer circular de
+ * {@code replaySize} posiciones. El id SSE lleva como prefijo el instante de
+ * arranque del broker ({@code <epoch>-<id>}, ambos en base 36), igual que
+ * los tags de {@link com.pac.repository.DataVersion}, porque el contador
+ * vuelve a empezar en cada despliegue. Un cliente que reconecta con la
+ * cabecera {@code Last-Event-ID} recibe los eventos posteriores a ese id; si
+ * ya no están en el buffer, o el id es de otra ejecución de la aplicación o
+ * no se reconoce, recibe un evento {@value #RESYNC} y debe recargar los
+ * listados.
+ *
+ * Política con clientes lentos: cada suscriptor tiene un buffer de
+ * {@code bufferSize} eventos; si se llena, se cierra su conexión en lugar de
+ * retener memoria o frenar a los demás. El EventSource del navegador
+ * reconecta solo y recupera lo perdido con {@code Last-Event-ID}. Lo mismo
+ * ocurre si un envío tarda más de {@code sendTimeoutMillis}.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class TransactionEventBroker {
+
+    /**
+     * Evento que pide al cliente recargar los datos porque no se pueden
+     * reenviar los eventos perdidos.
+     */
+    public static final String RESYNC = "resync";
+
+    /**
+     * Prefijo de los ids emitidos por esta ejecución.
+     */
+    private final String epoch;
+
+    private final StreamEvent[] replay;
+    private final int bufferSize;
+    private final long sendTimeoutMillis;
+    private final Executor executor;
+    private final Set<SseSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder droppedSubscribers = new LongAdder();
+
+    /**
+     * Id del último evento publicado. Protegido por el monitor del broker,
+     * que también serializa el reparto para que todos los clientes reciban
+     * los eventos en orden de id.
+     */
+    private long lastId;
+
+    /**
+     * @param replaySize Eventos conservados para reanudar conexiones
+     * @param bufferSize Eventos pendientes de envío permitidos por cliente
+     * @param sendTimeoutMillis Espera máxima por cada envío antes de desconectar al cliente
+     * @param executor Executor en el que se envían los eventos
+     */
+    public TransactionEventBroker(int replaySize, int bufferSize, long sendTimeoutMillis, Executor executor) {
+        this(replaySize, bufferSize, sendTimeoutMillis, executor, System.currentTimeMillis());
+    }
+
+    /**
+     * @param replaySize Eventos conservados para reanudar conexiones
+     * @param bufferSize Eventos pendientes de envío permitidos por cliente
+     * @param sendTimeoutMillis Espera máxima por cada envío antes de desconectar al cliente
+     * @param executor Executor en el que se envían los eventos
+     * @param epoch Instante de arranque que distingue los ids de esta ejecución
+     */
+    TransactionEventBroker(int replaySize, int bufferSize, long sendTimeoutMillis, Executor executor, long epoch) {
+        if (replaySize <= 0 || bufferSize <= 0 || sendTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Replay and buffer sizes and send timeout must be positive");
+        }
+        this.epoch = Long.toString(epoch, 36);
+        this.replay = new StreamEvent[replaySize];
+        this.bufferSize = bufferSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.executor = executor;
+    }
+
+    /**
+     * Publica un evento a todos los clientes conectados.
+     *
+     * No bloquea: solo encola el evento en el buffer de cada cliente.
+     *
+     * @param name Nombre del evento SSE
+     * @param json Cuerpo JSON del evento
+     * @return Id SSE asignado al evento
+     */
+    public synchronized String publish(String name, String json) {
+        StreamEvent event = new StreamEvent(eventId(++lastId), name, json);
+        replay[(int) (lastId % replay.length)] = event;
+        deliver(event);
+        return event.getId();
+    }
+
+    /**
+     * Registra un cliente nuevo.
+     *
+     * @param sink Conexión SSE del cliente
+     * @param sse Factoría de eventos SSE
+     * @param lastEventId Valor de la cabecera Last-Event-ID, o null si es una conexión nueva
+     */
+    public synchronized void subscribe(SseEventSink sink, Sse sse, String lastEventId) {
+        SseSubscriber subscriber = new SseSubscriber(sink, sse, bufferSize, sendTimeoutMillis, executor);
+        if (lastEventId != null && !lastEventId.trim().isEmpty()) {
+            long resumeFrom = sequenceOf(lastEventId.trim());
+            long oldest = Math.max(1, lastId - replay.length + 1);
+            long missed = lastId - resumeFrom;
+            if (resumeFrom < 0 || resumeFrom > lastId || resumeFrom + 1 < oldest || missed > bufferSize) {
+                String id = eventId(lastId);
+                subscriber.offer(new StreamEvent(id, RESYNC, "{\"lastEventId\":\"" + id + "\"}"));
+            } else {
+                for (long id = resumeFrom + 1; id <= lastId; id++) {
+                    subscriber.offer(replay[(int) (id % replay.length)]);
+                }
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    private String eventId(long id) {
+        return epoch + "-" + Long.toString(id, 36);
+    }
+
+    /**
+     * @param eventId Id SSE recibido del cliente
+     * @return Posición del evento en esta ejecución, o -1 si el id es de
+     *         otra ejecución o no tiene el formato esperado
+     */
+    private long sequenceOf(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash != epoch.length() || !eventId.startsWith(epoch)) {
+            return -1;
+        }
+        try {
+            long id = Long.parseLong(eventId.substring(dash + 1), 36);
+            return id < 0 ? -1 : id;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Envía un comentario keep-alive a todos los clientes y descarta las
+     * conexiones cerradas.
+     */
+    public synchronized void heartbeat() {
+        deliver(StreamEvent.HEARTBEAT);
+    }
+
+    private void deliver(StreamEvent event) {
+        Iterator<SseSubscriber> it = subscribers.iterator();
+        while (it.hasNext()) {
+            SseSubscriber subscriber = it.next();
+            if (subscriber.isClosed()) {
+                it.remove();
+            } else if (!subscriber.offer(event)) {
+                it.remove();
+                subscriber.close();
+                droppedSubscribers.increment();
+            }
+        }
+    }
+
+    /**
+     * @return Clientes conectados
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return Clientes desconectados por no leer al ritmo de los eventos
+     */
+    public long getDroppedSubscribers() {
+        return droppedSubscribers.sum();
+    }
+
+    /**
+     * @return Id SSE del último evento publicado
+     */
+    public synchronized String getLastEventId() {
+        return eventId(lastId);
+    }
+}
@@ -0,0 +1,158 @@
+package com.pac.rest.sse;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.rest.stream.TransactionJsonWriter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.io.StringWriter;
+
+/**
+ * Publica por SSE las transacciones creadas y las alertas de sospecha en
+ * cuanto se confirma su escritura.
+ *
+ * Eventos emitidos:
+ * <ul>
+ *   <li>{@value #TRANSACTION}: transacción creada (cuerpo: la transacción)</li>
+ *   <li>{@value #SUSPICIOUS}: transacción creada como sospechosa o que pasa a
+ *       serlo al actualizarse (cuerpo: la transacción)</li>
+ *   <li>{@value #BULK}: escritura en bloque de más de
+ *       {@value #MAX_ROWS_PER_CHANGE} filas, resumida en un único evento con
+ *       {@code created} y {@code suspicious}; el cliente debe recargar</li>
+ *   <li>{@value TransactionEventBroker#RESYNC}: no se pueden reenviar los
+ *       eventos perdidos desde {@code Last-Event-ID}; el cliente debe recargar</li>
+ * </ul>
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TransactionEventHub {
+
+    public static final String TRANSACTION = "transaction";
+    public static final String SUSPICIOUS = "suspicious";
+    public static final String BULK = "bulk";
+
+    /**
+     * Filas a partir de las cuales una escritura se publica resumida.
+     */
+    static final int MAX_ROWS_PER_CHANGE = 100;
+
+    /**
+     * Eventos conservados para reanudar conexiones con Last-Event-ID.
+     */
+    static final int REPLAY_SIZE = Integer.getInteger("pac.events.replaySize", 4096);
+
+    /**
+     * Eventos pendientes permitidos por cliente antes de desconectarlo.
+     */
+    static final int SUBSCRIBER_BUFFER = Integer.getInteger("pac.events.bufferSize", 1024);
+
+    /**
+     * Milisegundos que puede tardar un envío antes de desconectar al cliente.
+     */
+    static final long SEND_TIMEOUT_MILLIS = Long.getLong("pac.events.sendTimeoutMillis", 30_000L);
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private TransactionEventBroker broker;
+
+    @PostConstruct
+    void init() {
+        broker = new TransactionEventBroker(REPLAY_SIZE, SUBSCRIBER_BUFFER, SEND_TIMEOUT_MILLIS, executor);
+    }
+
+    /**
+     * Publica un cambio confirmado sobre fact_transactions.
+     *
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                if (event.getCurrent().size() > MAX_ROWS_PER_CHANGE) {
+                    publishBulk(event);
+                    return;
+                }
+                for (Transaction transaction : event.getCurrent()) {
+                    String json = toJson(transaction);
+                    broker.publish(TRANSACTION, json);
+                    if (Boolean.TRUE.equals(transaction.isSuspicious())) {
+                        broker.publish(SUSPICIOUS, json);
+                    }
+                }
+                break;
+            case UPDATED:
+                Transaction current = event.getCurrent().get(0);
+                if (Boolean.TRUE.equals(current.isSuspicious())
+                        && !Boolean.TRUE.equals(event.getPrevious().get(0).isSuspicious())) {
+                    broker.publish(SUSPICIOUS, toJson(current));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void publishBulk(TransactionChangeEvent event) {
+        long suspicious = event.getCurrent().stream()
+                .filter(t -> Boolean.TRUE.equals(t.isSuspicious()))
+                .count();
+        broker.publish(BULK, Json.createObjectBuilder()
+                .add("created", event.getCurrent().size())
+                .add("suspicious", suspicious)
+                .build()
+                .toString());
+    }
+
+    private static String toJson(Transaction transaction) {
+        StringWriter json = new StringWriter(256);
+        try (JsonGenerator generator = Json.createGenerator(json)) {
+            TransactionJsonWriter.write(generator, transaction);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Keep-alive periódico: mantiene abiertas las conexiones a través de
+     * proxies y detecta los clientes que se han ido.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/15", persistent = false)
+    public void heartbeat() {
+        broker.heartbeat();
+    }
+
+    /**
+     * Registra un cliente SSE.
+     *
+     * @param sink Conexión SSE del cliente
+     * @param sse Factoría de eventos SSE
+     * @param lastEventId Valor de la cabecera Last-Event-ID, o null
+     */
+    public void subscribe(SseEventSink sink, Sse sse, String lastEventId) {
+        broker.subscribe(sink, sse, lastEventId);
+    }
+
+    /**
+     * @return Clientes conectados
+     */
+    public int getSubscriberCount() {
+        return broker.getSubscriberCount();
+    }
+}
@@ -0,0 +1,134 @@
+package com.pac.rest.stream;
+
+import com.pac.entity.Transaction;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Página de transacciones en formato columnar: un array por propiedad en
+ * lugar de un objeto por fila.
+ * 
+ * <pre>
+ * { "id": [1, 2], "transactionDate": ["2024-01-15", "2024-01-16"], "amount": [150.50, 20.00] }
+ * </pre>
+ * 
+ * Los nombres de propiedad aparecen una vez por respuesta en lugar de una
+ * vez por fila, y el cliente puede pasar cada array directamente a una
+ * librería de gráficos. Se escribe con {@link TransactionColumnsWriter} (JSON)
+ * o {@link com.pac.rest.cbor.CborMapper} (CBOR).
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class TransactionColumns {
+    
+    /**
+     * Columnas disponibles, con el mismo nombre que la propiedad JSON.
+     */
+    public enum Column {
+        ID("id"),
+        TRANSACTION_DATE("transactionDate"),
+        AMOUNT("amount"),
+        DESCRIPTION("description"),
+        CATEGORY("category"),
+        SUSPICIOUS("suspicious"),
+        RISK_SCORE("riskScore"),
+        CREATED_AT("createdAt");
+        
+        private final String property;
+        
+        Column(String property) {
+            this.property = property;
+        }
+        
+        public String getProperty() {
+            return property;
+        }
+    }
+    
+    private final List<Transaction> rows;
+    private final Set<Column> columns;
+    
+    /**
+     * @param rows Transacciones de la página
+     * @param columns Columnas a incluir, en el orden de {@link Column}
+     */
+    public TransactionColumns(List<Transaction> rows, Set<Column> columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+    
+    /**
+     * Interpreta el parámetro {@code columns}: nombres de propiedad separados
+     * por comas. Sin valor se incluyen todas las columnas.
+     * 
+     * @param spec Lista de columnas (p. ej. "transactionDate,amount")
+     * @return Columnas solicitadas
+     * @throws IllegalArgumentException si alguna columna no existe
+     */
+    public static Set<Column> parseColumns(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return Collections.unmodifiableSet(EnumSet.allOf(Column.class));
+        }
+        EnumSet<Column> columns = EnumSet.noneOf(Column.class);
+        for (String name : spec.split(",")) {
+            String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            Column column = null;
+            for (Column candidate : Column.values()) {
+                if (candidate.property.equals(property)) {
+                    column = candidate;
+                    break;
+                }
+            }
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown column: " + property);
+            }
+            columns.add(column);
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column is required");
+        }
+        return Collections.unmodifiableSet(columns);
+    }
+    
+    public List<Transaction> getRows() {
+        return rows;
+    }
+    
+    public Set<Column> getColumns() {
+        return columns;
+    }
+    
+    /**
+     * @return Valor de la columna para una transacción, con los mismos tipos y
+     *         valores por defecto que {@link TransactionJsonWriter}
+     */
+    public static Object value(Column column, Transaction transaction) {
+        switch (column) {
+            case ID:
+                return transaction.getId();
+            case TRANSACTION_DATE:
+                return transaction.getTransactionDate();
+            case AMOUNT:
+                return transaction.getAmount();
+            case DESCRIPTION:
+                return transaction.getDescription();
+            case CATEGORY:
+                return transaction.getCategory();
+            case SUSPICIOUS:
+                return Boolean.TRUE.equals(transaction.isSuspicious());
+            case RISK_SCORE:
+                return transaction.getRiskScore() == null ? 0 : transaction.getRiskScore();
+            case CREATED_AT:
+                return transaction.getCreatedAt() == null ? null : transaction.getCreatedAt().toString();
+            default:
+                throw new IllegalStateException("Unsupported column " + column);
+        }
+    }
+}
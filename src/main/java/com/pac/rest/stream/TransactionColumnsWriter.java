@@ -0,0 +1,88 @@
+package com.pac.rest.stream;
+
+import com.pac.entity.Transaction;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Escribe {@link TransactionColumns} como objeto JSON de arrays, columna a
+ * columna y sin construir estructuras intermedias.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class TransactionColumnsWriter implements MessageBodyWriter<TransactionColumns> {
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return TransactionColumns.class.equals(type);
+    }
+    
+    @Override
+    public void writeTo(TransactionColumns columns, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        // El contenedor cierra el stream de la respuesta; el generador solo lo vacía
+        try (JsonGenerator generator = Json.createGenerator(new FilterOutputStream(entityStream) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        })) {
+            write(generator, columns);
+        }
+    }
+    
+    /**
+     * Escribe las columnas como un objeto JSON.
+     * 
+     * @param generator Generador JSON de destino
+     * @param columns Página columnar
+     */
+    public static void write(JsonGenerator generator, TransactionColumns columns) {
+        generator.writeStartObject();
+        for (TransactionColumns.Column column : columns.getColumns()) {
+            generator.writeStartArray(column.getProperty());
+            for (Transaction transaction : columns.getRows()) {
+                Object value = TransactionColumns.value(column, transaction);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long) {
+                    generator.write((Long) value);
+                } else if (value instanceof Integer) {
+                    generator.write((Integer) value);
+                } else if (value instanceof BigDecimal) {
+                    generator.write((BigDecimal) value);
+                } else if (value instanceof Boolean) {
+                    generator.write((Boolean) value);
+                } else if (value instanceof LocalDate) {
+                    generator.write(value.toString());
+                } else {
+                    generator.write((String) value);
+                }
+            }
+            generator.writeEnd();
+        }
+        generator.writeEnd();
+    }
+}
@@ -0,0 +1,57 @@
+package com.pac.rest.stream;
+
+import com.pac.entity.Transaction;
+
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Serializador incremental de transacciones sobre un {@link JsonGenerator}.
+ * 
+ * Escribe cada transacción con los mismos nombres de propiedad que produce
+ * JSON-B para la entidad, de modo que los clientes reciben el mismo formato
+ * tanto en las respuestas normales como en las respuestas en streaming.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class TransactionJsonWriter {
+    
+    private TransactionJsonWriter() {
+        // Clase de utilidades
+    }
+    
+    /**
+     * Escribe una transacción como objeto JSON.
+     * 
+     * @param generator Generador JSON de destino
+     * @param transaction Transacción a serializar
+     */
+    public static void write(JsonGenerator generator, Transaction transaction) {
+        generator.writeStartObject();
+        if (transaction.getId() != null) {
+            generator.write("id", transaction.getId());
+        }
+        writeNullable(generator, "transactionDate",
+                transaction.getTransactionDate() == null ? null : transaction.getTransactionDate().toString());
+        if (transaction.getAmount() != null) {
+            generator.write("amount", transaction.getAmount());
+        } else {
+            generator.writeNull("amount");
+        }
+        writeNullable(generator, "description", transaction.getDescription());
+        writeNullable(generator, "category", transaction.getCategory());
+        generator.write("suspicious", Boolean.TRUE.equals(transaction.isSuspicious()));
+        generator.write("riskScore", transaction.getRiskScore() == null ? 0 : transaction.getRiskScore());
+        writeNullable(generator, "createdAt",
+                transaction.getCreatedAt() == null ? null : transaction.getCreatedAt().toString());
+        generator.writeEnd();
+    }
+    
+    private static void writeNullable(JsonGenerator generator, String name, String value) {
+        if (value == null) {
+            generator.writeNull(name);
+        } else {
+            generator.write(name, value);
+        }
+    }
+}
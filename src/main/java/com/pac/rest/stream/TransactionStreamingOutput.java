@@ -0,0 +1,63 @@
+package com.pac.rest.stream;
+
+import com.pac.repository.TransactionFilter;
+import com.pac.repository.TransactionRepository;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+/**
+ * Respuesta JAX-RS que emite un array JSON de transacciones a medida que se
+ * leen del cursor de base de datos.
+ * 
+ * La consulta se ejecuta dentro de {@link #write(OutputStream)}, es decir,
+ * cuando el contenedor ya está escribiendo la respuesta. Cada fila se
+ * serializa directamente sobre el stream de salida y se descarta, por lo que
+ * ni la lista de entidades ni el cuerpo completo llegan a existir en memoria.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class TransactionStreamingOutput implements StreamingOutput {
+    
+    private static final Logger LOGGER = Logger.getLogger(TransactionStreamingOutput.class.getName());
+    
+    /**
+     * Número de filas tras el cual se fuerza el envío de lo acumulado al
+     * cliente, para que empiece a recibir datos sin esperar al final.
+     */
+    static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private final TransactionRepository repository;
+    private final TransactionFilter filter;
+    
+    /**
+     * @param repository Repositorio usado para recorrer las transacciones
+     * @param filter Filtro de la consulta
+     */
+    public TransactionStreamingOutput(TransactionRepository repository, TransactionFilter filter) {
+        this.repository = repository;
+        this.filter = filter;
+    }
+    
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        try (JsonGenerator generator = Json.createGenerator(output)) {
+            generator.writeStartArray();
+            long[] written = {0};
+            repository.forEachMatching(filter, transaction -> {
+                TransactionJsonWriter.write(generator, transaction);
+                if (++written[0] % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            });
+            generator.writeEnd();
+            LOGGER.fine(() -> String.format("Streamed %d transactions for %s", written[0], filter));
+        }
+    }
+}
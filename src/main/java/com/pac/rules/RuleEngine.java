@@ -0,0 +1,254 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Motor de reglas de sospecha compilado e inmutable.
+ *
+ * La puntuación de riesgo de una transacción es la suma de las puntuaciones
+ * de las reglas que cumple, limitada a {@value #MAX_SCORE}. Al crearla, la
+ * transacción se marca como sospechosa si la puntuación alcanza el umbral, y
+ * una marca que ya traiga (manual o del pipeline) se conserva. Al
+ * actualizarla ({@link #reapply}) la marca puesta por las reglas se vuelve a
+ * calcular con la puntuación nueva, y solo se conserva la marca manual.
+ *
+ * La evaluación recorre un array de reglas sin reservar memoria y es segura
+ * para uso concurrente.
+ *
+ * Formato de configuración (JSON):
+ * <pre>
+ * {
+ *   "threshold": 50,
+ *   "rules": [
+ *     {"name": "large-transfer", "score": 30, "categories": ["transfer"], "minAmount": "1000.00"},
+ *     {"name": "keyword", "score": 60, "descriptionContains": ["fraude"]},
+ *     {"name": "weekend", "score": 25, "daysOfWeek": ["SATURDAY", "SUNDAY"],
+ *      "fromDate": "2024-01-01", "toDate": "2024-12-31", "maxAmount": "9999.99"}
+ *   ]
+ * }
+ * </pre>
+ *
+ * El mismo documento puede incluir una sección {@code "velocity"} con las
+ * reglas de frecuencia, que compila {@link VelocityDetector}.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class RuleEngine {
+
+    /**
+     * Puntuación máxima de riesgo.
+     */
+    public static final int MAX_SCORE = 100;
+
+    /**
+     * Motor sin reglas: puntuación 0 para todas las transacciones.
+     */
+    public static final RuleEngine NONE = new RuleEngine(List.of(), MAX_SCORE);
+
+    private final SuspicionRule[] rules;
+    private final int threshold;
+
+    /**
+     * @param rules Reglas compiladas, evaluadas en orden
+     * @param threshold Puntuación a partir de la cual la transacción es sospechosa
+     * @throws IllegalArgumentException si el umbral no está entre 1 y 100
+     */
+    public RuleEngine(List<SuspicionRule> rules, int threshold) {
+        if (threshold <= 0 || threshold > MAX_SCORE) {
+            throw new IllegalArgumentException("Threshold must be between 1 and " + MAX_SCORE);
+        }
+        this.rules = rules.toArray(new SuspicionRule[0]);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compila una configuración JSON de reglas.
+     *
+     * @param json Contenido JSON con el formato descrito en la clase
+     * @return Motor compilado
+     * @throws IllegalArgumentException si la configuración no es válida
+     */
+    public static RuleEngine parse(InputStream json) {
+        return compile(readConfig(json));
+    }
+
+    /**
+     * Compila las reglas de una configuración ya leída.
+     *
+     * @param config Objeto JSON con el formato descrito en la clase
+     * @return Motor compilado
+     * @throws IllegalArgumentException si la configuración no es válida
+     */
+    public static RuleEngine compile(JsonObject config) {
+        try {
+            List<SuspicionRule> rules = new ArrayList<>();
+            for (JsonValue value : config.getJsonArray("rules")) {
+                rules.add(parseRule((JsonObject) value));
+            }
+            return new RuleEngine(rules, config.getInt("threshold"));
+        } catch (NullPointerException | ClassCastException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid rule configuration: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lee un documento JSON de configuración de reglas.
+     *
+     * @param json Contenido JSON
+     * @return Objeto raíz del documento
+     * @throws IllegalArgumentException si no es un objeto JSON válido
+     */
+    public static JsonObject readConfig(InputStream json) {
+        try (JsonReader reader = Json.createReader(json)) {
+            return reader.readObject();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid rule configuration: " + e.getMessage(), e);
+        }
+    }
+
+    private static SuspicionRule parseRule(JsonObject rule) {
+        Set<DayOfWeek> days = new LinkedHashSet<>();
+        for (String day : strings(rule, "daysOfWeek")) {
+            days.add(DayOfWeek.valueOf(day.toUpperCase(Locale.ROOT)));
+        }
+        return new SuspicionRule(
+                rule.getString("name"),
+                rule.getInt("score"),
+                amount(rule, "minAmount"),
+                amount(rule, "maxAmount"),
+                strings(rule, "categories"),
+                strings(rule, "descriptionContains"),
+                days,
+                rule.containsKey("fromDate") ? LocalDate.parse(rule.getString("fromDate")) : null,
+                rule.containsKey("toDate") ? LocalDate.parse(rule.getString("toDate")) : null);
+    }
+
+    private static BigDecimal amount(JsonObject rule, String key) {
+        if (!rule.containsKey(key)) {
+            return null;
+        }
+        JsonValue value = rule.get(key);
+        return value.getValueType() == JsonValue.ValueType.STRING
+                ? new BigDecimal(((JsonString) value).getString())
+                : rule.getJsonNumber(key).bigDecimalValue();
+    }
+
+    private static Set<String> strings(JsonObject rule, String key) {
+        Set<String> values = new LinkedHashSet<>();
+        JsonArray array = rule.getJsonArray(key);
+        if (array != null) {
+            for (JsonValue value : array) {
+                values.add(((JsonString) value).getString());
+            }
+        }
+        return values;
+    }
+
+    // ========================================================================
+    // EVALUACIÓN
+    // ========================================================================
+
+    /**
+     * Calcula la puntuación de riesgo de una transacción.
+     *
+     * @param transaction Transacción a evaluar
+     * @return Puntuación entre 0 y {@value #MAX_SCORE}
+     */
+    public int score(Transaction transaction) {
+        LocalDate date = transaction.getTransactionDate();
+        BigDecimal amount = transaction.getAmount();
+        String category = transaction.getCategory();
+        String description = transaction.getDescription();
+        int score = 0;
+        for (SuspicionRule rule : rules) {
+            if (rule.matches(date, amount, category, description)) {
+                score += rule.getScore();
+                if (score >= MAX_SCORE) {
+                    return MAX_SCORE;
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Asigna a la transacción su puntuación de riesgo y la marca como
+     * sospechosa si alcanza el umbral.
+     *
+     * @param transaction Transacción a evaluar
+     */
+    public void apply(Transaction transaction) {
+        apply(transaction, 0);
+    }
+
+    /**
+     * Como {@link #apply(Transaction)}, sumando a la puntuación de las reglas
+     * la aportada por otros detectores (p. ej. {@link VelocityDetector}).
+     *
+     * @param transaction Transacción a evaluar
+     * @param extraScore Puntuación adicional, no negativa
+     */
+    public void apply(Transaction transaction, int extraScore) {
+        int score = Math.min(MAX_SCORE, score(transaction) + extraScore);
+        transaction.setRiskScore(score);
+        if (score >= threshold) {
+            transaction.setSuspicious(true);
+        }
+    }
+
+    /**
+     * Reevalúa una transacción que se actualiza.
+     *
+     * La marca de la versión anterior cuenta como manual si su puntuación no
+     * alcanzaba el umbral: esa marca se conserva mientras la petición la
+     * mantenga. Si la había puesto el motor, la marca que llega en la
+     * petición se considera un eco de ella y se vuelve a calcular con la
+     * puntuación nueva. Una marca que la petición añade sobre una versión no
+     * sospechosa también es manual.
+     *
+     * @param transaction Transacción con los datos nuevos
+     * @param previous Versión almacenada, o null si no existe
+     */
+    public void reapply(Transaction transaction, Transaction previous) {
+        boolean requested = Boolean.TRUE.equals(transaction.isSuspicious());
+        boolean flaggedByRules = previous != null
+                && Boolean.TRUE.equals(previous.isSuspicious())
+                && previous.getRiskScore() != null
+                && previous.getRiskScore() >= threshold;
+        int score = score(transaction);
+        transaction.setRiskScore(score);
+        transaction.setSuspicious(score >= threshold || (requested && !flaggedByRules));
+    }
+
+    /**
+     * @return Puntuación a partir de la cual una transacción es sospechosa
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return Número de reglas
+     */
+    public int size() {
+        return rules.length;
+    }
+}
@@ -0,0 +1,146 @@
+package com.pac.rules;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Regla de sospecha compilada: un conjunto de condiciones que deben
+ * cumplirse todas y la puntuación que aporta la regla si se cumplen.
+ *
+ * Las condiciones omitidas (null o vacías) no restringen. La evaluación no
+ * reserva memoria: los montos se comparan con {@link BigDecimal#compareTo},
+ * las palabras clave se buscan con {@link String#regionMatches} sin pasar la
+ * descripción a minúsculas y los días de la semana se comprueban con una
+ * máscara de bits.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class SuspicionRule {
+
+    private final String name;
+    private final int score;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final String[] categories;
+    private final String[] keywords;
+    private final int dayMask;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+
+    /**
+     * @param name Nombre de la regla (para logs y diagnóstico)
+     * @param score Puntuación que aporta la regla (1-100)
+     * @param minAmount Monto mínimo inclusivo (opcional)
+     * @param maxAmount Monto máximo inclusivo (opcional)
+     * @param categories Categorías a las que se aplica (opcional)
+     * @param keywords Palabras clave; basta con que la descripción contenga
+     *                 una, sin distinguir mayúsculas (opcional)
+     * @param daysOfWeek Días de la semana en que se aplica (opcional)
+     * @param fromDate Fecha inicial inclusiva (opcional)
+     * @param toDate Fecha final inclusiva (opcional)
+     * @throws IllegalArgumentException si la regla no es válida
+     */
+    public SuspicionRule(String name, int score, BigDecimal minAmount, BigDecimal maxAmount,
+                         Set<String> categories, Set<String> keywords, Set<DayOfWeek> daysOfWeek,
+                         LocalDate fromDate, LocalDate toDate) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rule name cannot be empty");
+        }
+        if (score <= 0 || score > RuleEngine.MAX_SCORE) {
+            throw new IllegalArgumentException("Rule " + name + ": score must be between 1 and " + RuleEngine.MAX_SCORE);
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new IllegalArgumentException("Rule " + name + ": minAmount must not be greater than maxAmount");
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Rule " + name + ": fromDate must not be after toDate");
+        }
+        this.name = name;
+        this.score = score;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.categories = categories == null || categories.isEmpty() ? null : categories.toArray(new String[0]);
+        if (keywords == null || keywords.isEmpty()) {
+            this.keywords = null;
+        } else {
+            this.keywords = new String[keywords.size()];
+            int i = 0;
+            for (String keyword : keywords) {
+                if (keyword == null || keyword.isEmpty()) {
+                    throw new IllegalArgumentException("Rule " + name + ": keywords cannot be empty");
+                }
+                this.keywords[i++] = keyword.toLowerCase(Locale.ROOT);
+            }
+        }
+        int mask = 0;
+        if (daysOfWeek != null) {
+            for (DayOfWeek day : daysOfWeek) {
+                mask |= 1 << day.ordinal();
+            }
+        }
+        this.dayMask = mask;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    /**
+     * @return true si la transacción cumple todas las condiciones de la regla
+     */
+    boolean matches(LocalDate date, BigDecimal amount, String category, String description) {
+        if (minAmount != null && (amount == null || amount.compareTo(minAmount) < 0)) {
+            return false;
+        }
+        if (maxAmount != null && (amount == null || amount.compareTo(maxAmount) > 0)) {
+            return false;
+        }
+        if (categories != null && !contains(categories, category)) {
+            return false;
+        }
+        if (dayMask != 0 && (date == null || (dayMask & (1 << date.getDayOfWeek().ordinal())) == 0)) {
+            return false;
+        }
+        if (fromDate != null && (date == null || date.isBefore(fromDate))) {
+            return false;
+        }
+        if (toDate != null && (date == null || date.isAfter(toDate))) {
+            return false;
+        }
+        return keywords == null || containsAnyIgnoreCase(description, keywords);
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String candidate : values) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAnyIgnoreCase(String text, String[] keywords) {
+        if (text == null) {
+            return false;
+        }
+        for (String keyword : keywords) {
+            int last = text.length() - keyword.length();
+            for (int i = 0; i <= last; i++) {
+                if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
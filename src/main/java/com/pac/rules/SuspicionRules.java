@@ -0,0 +1,134 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publica el {@link RuleEngine} y el {@link VelocityDetector} configurados
+ * para la aplicación.
+ * 
+ * Las reglas se leen en el arranque del fichero indicado en la propiedad de
+ * sistema {@code pac.rules.file} o, si no se indica, del recurso
+ * {@value #DEFAULT_RULES} incluido en la aplicación. Si el fichero externo
+ * no es válido se usan las reglas por defecto.
+ * 
+ * Las transacciones creadas una a una se registran en el detector de
+ * frecuencia cuando se confirma su escritura; las cargas en bloque no se
+ * registran.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SuspicionRules {
+    
+    private static final Logger LOGGER = Logger.getLogger(SuspicionRules.class.getName());
+    
+    /**
+     * Recurso de classpath con las reglas por defecto.
+     */
+    public static final String DEFAULT_RULES = "suspicious-rules.json";
+    
+    private volatile RuleEngine engine = RuleEngine.NONE;
+    
+    private volatile VelocityDetector velocity = VelocityDetector.NONE;
+    
+    @PostConstruct
+    void init() {
+        String file = System.getProperty("pac.rules.file");
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(Paths.get(file))) {
+                load(RuleEngine.readConfig(in));
+                LOGGER.info(String.format("Loaded %d suspicion rules and %d velocity rules from %s",
+                        engine.size(), velocity.size(), file));
+                return;
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.log(Level.SEVERE, "Invalid rule file " + file + ", using default rules", e);
+            }
+        }
+        load(readDefault());
+        LOGGER.info(String.format("Loaded %d default suspicion rules and %d velocity rules",
+                engine.size(), velocity.size()));
+    }
+    
+    private void load(JsonObject config) {
+        RuleEngine compiledEngine = RuleEngine.compile(config);
+        VelocityDetector compiledVelocity = VelocityDetector.compile(config);
+        engine = compiledEngine;
+        velocity = compiledVelocity;
+    }
+    
+    /**
+     * Registra en el detector de frecuencia las transacciones creadas una a
+     * una, tras confirmarse la escritura.
+     * 
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        if (event.getType() != TransactionChangeEvent.Type.CREATED || event.isBulk()) {
+            return;
+        }
+        VelocityDetector current = velocity;
+        for (Transaction transaction : event.getCurrent()) {
+            current.record(transaction);
+        }
+    }
+    
+    /**
+     * @return Motor con las reglas incluidas en la aplicación
+     * @throws IllegalStateException si el recurso no existe o no es válido
+     */
+    public static RuleEngine loadDefault() {
+        return RuleEngine.compile(readDefault());
+    }
+    
+    /**
+     * @return Detector con las reglas de frecuencia incluidas en la aplicación
+     * @throws IllegalStateException si el recurso no existe o no es válido
+     */
+    public static VelocityDetector loadDefaultVelocity() {
+        return VelocityDetector.compile(readDefault());
+    }
+    
+    private static JsonObject readDefault() {
+        try (InputStream in = SuspicionRules.class.getClassLoader().getResourceAsStream(DEFAULT_RULES)) {
+            if (in == null) {
+                throw new IllegalStateException("Rule resource not found: " + DEFAULT_RULES);
+            }
+            return RuleEngine.readConfig(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read rule resource " + DEFAULT_RULES, e);
+        }
+    }
+    
+    /**
+     * @return Motor de reglas vigente
+     */
+    public RuleEngine engine() {
+        return engine;
+    }
+    
+    /**
+     * @return Detector de frecuencia vigente
+     */
+    public VelocityDetector velocity() {
+        return velocity;
+    }
+}
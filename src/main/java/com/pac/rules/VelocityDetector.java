@@ -0,0 +1,184 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Detector de frecuencia: muchas transacciones (o mucho importe) con la
+ * misma categoría o descripción en poco tiempo.
+ *
+ * A diferencia de {@link RuleEngine}, que evalúa cada transacción por
+ * separado, mantiene estado: cada transacción registrada se cuenta en las
+ * ventanas deslizantes de sus claves. El tiempo de referencia es el de
+ * llegada a la aplicación, no la fecha de la transacción. Es seguro para
+ * escritores concurrentes y no usa bloqueos.
+ *
+ * La puntuación de una transacción nueva se calcula con {@link #score}
+ * antes de escribirla, y la transacción solo se registra con
+ * {@link #record} cuando la escritura se ha confirmado, para que las
+ * escrituras deshechas no cuenten en las ventanas.
+ *
+ * Formato de configuración: sección {@code "velocity"} del documento de
+ * reglas.
+ * <pre>
+ * "velocity": [
+ *   {"name": "category-burst", "score": 50, "key": "category", "window": "PT10M",
+ *    "buckets": 10, "maxCount": 20, "maxKeys": 1024},
+ *   {"name": "repeated-description", "score": 50, "key": "description", "window": "P1D",
+ *    "buckets": 24, "maxCount": 10, "maxAmount": "5000.00"}
+ * ]
+ * </pre>
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class VelocityDetector {
+
+    /**
+     * Intervalos por ventana si la regla no indica {@code buckets}.
+     */
+    static final int DEFAULT_BUCKETS = 10;
+
+    /**
+     * Claves seguidas por regla si no se indica {@code maxKeys}.
+     */
+    static final int DEFAULT_MAX_KEYS = 16384;
+
+    /**
+     * Detector sin reglas: no registra nada.
+     */
+    public static final VelocityDetector NONE = new VelocityDetector(List.of());
+
+    private final VelocityRule[] rules;
+
+    /**
+     * @param rules Reglas de frecuencia
+     */
+    public VelocityDetector(List<VelocityRule> rules) {
+        this.rules = rules.toArray(new VelocityRule[0]);
+    }
+
+    /**
+     * Compila la sección {@code "velocity"} de una configuración de reglas.
+     *
+     * @param config Documento de reglas
+     * @return Detector compilado; {@link #NONE} si no hay sección
+     * @throws IllegalArgumentException si la configuración no es válida
+     */
+    public static VelocityDetector compile(JsonObject config) {
+        JsonArray velocity = config.getJsonArray("velocity");
+        if (velocity == null || velocity.isEmpty()) {
+            return NONE;
+        }
+        try {
+            List<VelocityRule> rules = new ArrayList<>();
+            for (JsonValue value : velocity) {
+                rules.add(parseRule((JsonObject) value));
+            }
+            return new VelocityDetector(rules);
+        } catch (NullPointerException | ClassCastException | DateTimeException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid velocity configuration: " + e.getMessage(), e);
+        }
+    }
+
+    private static VelocityRule parseRule(JsonObject rule) {
+        return new VelocityRule(
+                rule.getString("name"),
+                rule.getInt("score"),
+                VelocityKey.valueOf(rule.getString("key").toUpperCase(Locale.ROOT)),
+                Duration.parse(rule.getString("window")),
+                rule.getInt("buckets", DEFAULT_BUCKETS),
+                rule.getJsonNumber("maxCount") == null ? 0 : rule.getJsonNumber("maxCount").longValueExact(),
+                rule.containsKey("maxAmount") ? cents(rule.get("maxAmount")) : 0,
+                rule.getInt("maxKeys", DEFAULT_MAX_KEYS));
+    }
+
+    private static long cents(JsonValue value) {
+        BigDecimal amount = value.getValueType() == JsonValue.ValueType.STRING
+                ? new BigDecimal(((JsonString) value).getString())
+                : new BigDecimal(value.toString());
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Calcula la puntuación que obtendría una transacción nueva en el
+     * instante actual, sin registrarla.
+     *
+     * @param transaction Transacción válida que se va a crear
+     * @return Puntuación de las reglas cuyos límites superaría, hasta {@value RuleEngine#MAX_SCORE}
+     */
+    public int score(Transaction transaction) {
+        return score(transaction, System.currentTimeMillis());
+    }
+
+    /**
+     * Calcula la puntuación que obtendría una transacción nueva en el
+     * instante indicado, sin registrarla.
+     *
+     * @param transaction Transacción válida que se va a crear
+     * @param nowMillis Instante de llegada en milisegundos
+     * @return Puntuación de las reglas cuyos límites superaría, hasta {@value RuleEngine#MAX_SCORE}
+     */
+    public int score(Transaction transaction, long nowMillis) {
+        if (rules.length == 0) {
+            return 0;
+        }
+        long cents = cents(transaction);
+        int score = 0;
+        for (VelocityRule rule : rules) {
+            score += rule.score(rule.getKey().of(transaction), cents, nowMillis);
+        }
+        return Math.min(score, RuleEngine.MAX_SCORE);
+    }
+
+    /**
+     * Registra una transacción nueva en el instante actual.
+     *
+     * @param transaction Transacción válida recién creada
+     * @return Puntuación de las reglas cuyos límites se superan, hasta {@value RuleEngine#MAX_SCORE}
+     */
+    public int record(Transaction transaction) {
+        return record(transaction, System.currentTimeMillis());
+    }
+
+    /**
+     * Registra una transacción nueva en el instante indicado.
+     *
+     * @param transaction Transacción válida recién creada
+     * @param nowMillis Instante de llegada en milisegundos
+     * @return Puntuación de las reglas cuyos límites se superan, hasta {@value RuleEngine#MAX_SCORE}
+     */
+    public int record(Transaction transaction, long nowMillis) {
+        if (rules.length == 0) {
+            return 0;
+        }
+        long cents = cents(transaction);
+        int score = 0;
+        for (VelocityRule rule : rules) {
+            score += rule.record(rule.getKey().of(transaction), cents, nowMillis);
+        }
+        return Math.min(score, RuleEngine.MAX_SCORE);
+    }
+
+    private static long cents(Transaction transaction) {
+        BigDecimal amount = transaction.getAmount();
+        return amount == null ? 0 : Math.max(0, amount.movePointRight(2).longValue());
+    }
+
+    /**
+     * @return Número de reglas
+     */
+    public int size() {
+        return rules.length;
+    }
+}
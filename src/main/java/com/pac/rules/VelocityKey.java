@@ -0,0 +1,59 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+
+/**
+ * Atributo de la transacción por el que agrupa una regla de frecuencia.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public enum VelocityKey {
+
+    /**
+     * Categoría de la transacción.
+     */
+    CATEGORY {
+        @Override
+        String of(Transaction transaction) {
+            return transaction.getCategory();
+        }
+    },
+
+    /**
+     * Descripción normalizada: en minúsculas y sin dígitos ni signos, para que
+     * "Uber 12/03 ref 8812" y "UBER ref 9120" cuenten como la misma.
+     */
+    DESCRIPTION {
+        @Override
+        String of(Transaction transaction) {
+            return normalize(transaction.getDescription());
+        }
+    };
+
+    /**
+     * @return Clave de la transacción, o null si no tiene valor para este atributo
+     */
+    abstract String of(Transaction transaction);
+
+    static String normalize(String description) {
+        if (description == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(description.length());
+        boolean space = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isLetter(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.length() == 0 ? null : normalized.toString();
+    }
+}
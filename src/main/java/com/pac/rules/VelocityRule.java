@@ -0,0 +1,184 @@
+package com.pac.rules;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Regla de frecuencia: cuenta por clave los eventos y la suma de montos en
+ * una ventana deslizante y aporta su puntuación cuando alguno supera su
+ * límite.
+ *
+ * Las ventanas de cada clave se guardan en una tabla de tamaño fijo con
+ * direccionamiento abierto (hasta {@value #PROBES} posiciones por clave),
+ * de modo que la memoria está acotada por {@code maxKeys} aunque lleguen
+ * millones de claves distintas. Si las posiciones de una clave nueva están
+ * ocupadas se desaloja la ventana con la actividad más antigua. La tabla se
+ * actualiza con CAS, sin bloqueos.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class VelocityRule {
+
+    /**
+     * Posiciones de la tabla en que se busca cada clave.
+     */
+    static final int PROBES = 4;
+
+    private final String name;
+    private final int score;
+    private final VelocityKey key;
+    private final long bucketMillis;
+    private final int buckets;
+    private final long maxCount;
+    private final long maxCents;
+    private final AtomicReferenceArray<VelocityWindow> table;
+    private final int mask;
+
+    /**
+     * @param name Nombre de la regla (para logs y diagnóstico)
+     * @param score Puntuación que aporta la regla (1-100)
+     * @param key Atributo por el que se agrupa
+     * @param window Duración de la ventana deslizante
+     * @param buckets Número de intervalos en que se divide la ventana
+     * @param maxCount Eventos permitidos en la ventana; 0 si no se limita
+     * @param maxCents Suma de montos permitida en la ventana, en céntimos; 0 si no se limita
+     * @param maxKeys Claves que se siguen a la vez (se redondea a potencia de 2)
+     * @throws IllegalArgumentException si la regla no es válida
+     */
+    public VelocityRule(String name, int score, VelocityKey key, Duration window, int buckets,
+                        long maxCount, long maxCents, int maxKeys) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rule name cannot be empty");
+        }
+        if (score <= 0 || score > RuleEngine.MAX_SCORE) {
+            throw new IllegalArgumentException("Rule " + name + ": score must be between 1 and " + RuleEngine.MAX_SCORE);
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Rule " + name + ": key cannot be null");
+        }
+        if (buckets <= 0 || window == null || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Rule " + name + ": window must span at least one millisecond per bucket");
+        }
+        if (maxCount < 0 || maxCents < 0 || (maxCount == 0 && maxCents == 0)) {
+            throw new IllegalArgumentException("Rule " + name + ": maxCount or maxAmount must be positive");
+        }
+        if (maxKeys <= 0 || maxKeys > (1 << 30)) {
+            throw new IllegalArgumentException("Rule " + name + ": maxKeys must be between 1 and " + (1 << 30));
+        }
+        this.name = name;
+        this.score = score;
+        this.key = key;
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+        this.maxCount = maxCount;
+        this.maxCents = maxCents;
+        int capacity = Integer.highestOneBit(maxKeys);
+        capacity = capacity < maxKeys ? capacity << 1 : capacity;
+        this.table = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Registra un evento y comprueba los límites de la ventana de su clave.
+     *
+     * @param keyValue Clave del evento; si es null no se registra
+     * @param cents Monto en céntimos
+     * @param nowMillis Instante del evento
+     * @return La puntuación de la regla si se supera algún límite, 0 si no
+     */
+    int record(String keyValue, long cents, long nowMillis) {
+        if (keyValue == null) {
+            return 0;
+        }
+        long bucket = nowMillis / bucketMillis;
+        VelocityWindow window = windowFor(keyValue, bucket);
+        window.add(bucket, cents);
+        if (maxCount > 0 && window.count(bucket) > maxCount) {
+            return score;
+        }
+        return maxCents > 0 && window.sum(bucket) > maxCents ? score : 0;
+    }
+
+    /**
+     * Comprueba si un evento superaría los límites de la ventana de su
+     * clave, sin registrarlo.
+     *
+     * @param keyValue Clave del evento; si es null no puntúa
+     * @param cents Monto en céntimos
+     * @param nowMillis Instante del evento
+     * @return La puntuación de la regla si el evento supera algún límite, 0 si no
+     */
+    int score(String keyValue, long cents, long nowMillis) {
+        if (keyValue == null) {
+            return 0;
+        }
+        long bucket = nowMillis / bucketMillis;
+        VelocityWindow window = find(keyValue);
+        long count = window == null ? 0 : window.count(bucket);
+        long sum = window == null ? 0 : window.sum(bucket);
+        if (maxCount > 0 && count + 1 > maxCount) {
+            return score;
+        }
+        return maxCents > 0 && sum + cents > maxCents ? score : 0;
+    }
+
+    private VelocityWindow find(String keyValue) {
+        int hash = keyValue.hashCode();
+        int start = (hash ^ (hash >>> 16)) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            VelocityWindow window = table.get((start + i) & mask);
+            if (window != null && window.getKey().equals(keyValue)) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    private VelocityWindow windowFor(String keyValue, long bucket) {
+        int hash = keyValue.hashCode();
+        int start = (hash ^ (hash >>> 16)) & mask;
+        while (true) {
+            int victim = -1;
+            long oldest = Long.MAX_VALUE;
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (start + i) & mask;
+                VelocityWindow window = table.get(slot);
+                if (window == null) {
+                    VelocityWindow created = new VelocityWindow(keyValue, buckets, bucket);
+                    if (table.compareAndSet(slot, null, created)) {
+                        return created;
+                    }
+                    window = table.get(slot);
+                }
+                if (window.getKey().equals(keyValue)) {
+                    return window;
+                }
+                if (window.getLastBucket() < oldest) {
+                    oldest = window.getLastBucket();
+                    victim = slot;
+                }
+            }
+            VelocityWindow current = table.get(victim);
+            if (current != null && current.getLastBucket() == oldest) {
+                VelocityWindow created = new VelocityWindow(keyValue, buckets, bucket);
+                if (table.compareAndSet(victim, current, created)) {
+                    return created;
+                }
+            }
+            // Otro hilo ha modificado la tabla: volver a buscar.
+        }
+    }
+
+    VelocityKey getKey() {
+        return key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
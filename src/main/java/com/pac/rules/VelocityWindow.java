@@ -0,0 +1,120 @@
+package com.pac.rules;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ventana deslizante de una clave: buffer circular de contadores por
+ * intervalo de tiempo (bucket), actualizado sin bloqueos.
+ *
+ * Cada posición del buffer guarda en un único {@code long} el número de
+ * bucket al que pertenece (24 bits bajos) y el valor acumulado (40 bits), de
+ * modo que rotar un bucket caducado y sumarle el evento es una sola
+ * operación CAS. Número de eventos y suma de montos usan buffers separados,
+ * cada uno exacto por sí mismo.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+final class VelocityWindow {
+
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long TAG_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+    /**
+     * Mitad del espacio de números de bucket: una distancia modular menor
+     * indica que el bucket guardado es posterior al del evento.
+     */
+    private static final long HALF_TAG_SPACE = (TAG_MASK + 1) / 2;
+
+    private final String key;
+    private final int buckets;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray sums;
+
+    /**
+     * Último bucket en que se registró un evento; se usa para elegir qué
+     * ventana desalojar. Las escrituras concurrentes pueden perderse sin
+     * consecuencias: solo orienta el desalojo.
+     */
+    private volatile long lastBucket;
+
+    VelocityWindow(String key, int buckets, long bucket) {
+        this.key = key;
+        this.buckets = buckets;
+        this.counts = new AtomicLongArray(buckets);
+        this.sums = new AtomicLongArray(buckets);
+        this.lastBucket = bucket;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    long getLastBucket() {
+        return lastBucket;
+    }
+
+    /**
+     * Registra un evento en el bucket indicado.
+     *
+     * @param bucket Número de bucket (tiempo / duración del bucket)
+     * @param cents Monto del evento en céntimos
+     */
+    void add(long bucket, long cents) {
+        int slot = (int) Math.floorMod(bucket, (long) buckets);
+        long tag = bucket & TAG_MASK;
+        add(counts, slot, tag, 1);
+        add(sums, slot, tag, cents);
+        if (bucket > lastBucket) {
+            lastBucket = bucket;
+        }
+    }
+
+    /**
+     * @return Eventos registrados en los {@code buckets} buckets que terminan en {@code bucket}
+     */
+    long count(long bucket) {
+        return total(counts, bucket);
+    }
+
+    /**
+     * @return Suma en céntimos de los eventos de la ventana que termina en {@code bucket}
+     */
+    long sum(long bucket) {
+        return total(sums, bucket);
+    }
+
+    private void add(AtomicLongArray values, int slot, long tag, long delta) {
+        while (true) {
+            long current = values.get(slot);
+            long currentTag = current >>> VALUE_BITS;
+            long next;
+            if (currentTag == tag) {
+                next = (tag << VALUE_BITS) | Math.min(VALUE_MASK, (current & VALUE_MASK) + delta);
+            } else if (current != 0 && ((currentTag - tag) & TAG_MASK) < HALF_TAG_SPACE) {
+                // La posición ya pertenece a un bucket posterior (otro hilo
+                // la rotó o el evento llega con una hora atrasada): el
+                // evento ha caído fuera de la ventana.
+                return;
+            } else {
+                next = (tag << VALUE_BITS) | Math.min(VALUE_MASK, delta);
+            }
+            if (values.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private long total(AtomicLongArray values, long bucket) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long b = bucket - i;
+            long value = values.get((int) Math.floorMod(b, (long) buckets));
+            if ((value >>> VALUE_BITS) == (b & TAG_MASK)) {
+                total += value & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,252 @@
+package com.pac.search;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Autocompletado de descripciones servido desde memoria.
+ * 
+ * Mantiene un {@link PrefixIndex} con los tokens distintos de las
+ * descripciones de fact_transactions y su frecuencia. Se construye en
+ * segundo plano al arrancar, con una única consulta agregada, y hasta que
+ * termina la carga las consultas devuelven una lista vacía. Después se
+ * actualiza con cada {@link TransactionChangeEvent} confirmado: las
+ * frecuencias de los tokens conocidos se ajustan en sitio y los tokens nuevos
+ * se acumulan en un mapa pendiente. Cada 30 segundos, si ha habido cambios,
+ * se construye un índice nuevo que incorpora los pendientes y recalcula el
+ * top-k de los prefijos cortos. Una reconstrucción horaria desde la base de
+ * datos corrige la deriva.
+ * 
+ * Las consultas no acceden a la base de datos.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DescriptionSuggester {
+    
+    private static final Logger LOGGER = Logger.getLogger(DescriptionSuggester.class.getName());
+    
+    @EJB
+    private TransactionRepository transactionRepository;
+    
+    @Resource
+    private ManagedExecutorService executor;
+    
+    private volatile PrefixIndex index = PrefixIndex.empty();
+    
+    /**
+     * true cuando el índice se ha cargado desde la base de datos.
+     */
+    private volatile boolean ready;
+    
+    /**
+     * true si las frecuencias del índice vigente han cambiado en sitio desde
+     * que se construyó, y su top-k precalculado puede estar desactualizado.
+     */
+    private volatile boolean changed;
+    
+    /**
+     * Tokens que no están en el índice vigente, con su frecuencia acumulada,
+     * ordenados para localizar las completaciones de un prefijo como rango.
+     */
+    private volatile ConcurrentSkipListMap<String, Integer> pending = new ConcurrentSkipListMap<>();
+    
+    /**
+     * Cambios recibidos desde que empezó la reconstrucción en curso, o null
+     * si no hay ninguna. La consulta agregada puede no verlos, así que se
+     * suman a sus resultados.
+     */
+    private Map<String, Integer> journal;
+    
+    /**
+     * Serializa la aplicación de cambios con la instalación del índice
+     * reconstruido, para que ningún cambio quede fuera de los dos.
+     */
+    private final Object swapLock = new Object();
+    
+    @PostConstruct
+    void init() {
+        executor.submit(this::rebuild);
+    }
+    
+    /**
+     * Reconstruye el índice desde la base de datos. Las consultas se siguen
+     * respondiendo con el índice anterior hasta que termina la carga.
+     * 
+     * Los cambios que llegan mientras se ejecuta la consulta se anotan aparte
+     * y se suman a sus resultados; los anteriores ya están en la consulta.
+     */
+    @Schedule(hour = "*", minute = "40", persistent = false)
+    public synchronized void rebuild() {
+        Map<String, Integer> changes = new HashMap<>();
+        synchronized (swapLock) {
+            journal = changes;
+        }
+        try {
+            long start = System.nanoTime();
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (Object[] row : transactionRepository.countDescriptionTokens()) {
+                frequencies.put((String) row[0], ((Number) row[1]).intValue());
+            }
+            synchronized (swapLock) {
+                journal = null;
+                changes.forEach((token, count) -> frequencies.merge(token, count, Integer::sum));
+                pending = new ConcurrentSkipListMap<>();
+                changed = false;
+                index = PrefixIndex.build(frequencies);
+                ready = true;
+            }
+            LOGGER.info(String.format("Suggest index built with %d tokens in %d ms",
+                    index.size(), (System.nanoTime() - start) / 1_000_000));
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                journal = null;
+            }
+            LOGGER.log(Level.WARNING, "Suggest index build failed", e);
+        }
+    }
+    
+    /**
+     * Incorpora los tokens pendientes y las frecuencias actualizadas en sitio
+     * en un índice nuevo, que vuelve a calcular el top-k de los prefijos
+     * cortos.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/30", persistent = false)
+    public void mergePending() {
+        if (!ready || (pending.isEmpty() && !changed)) {
+            return;
+        }
+        synchronized (swapLock) {
+            Map<String, Integer> frequencies = index.toMap();
+            pending.forEach((token, count) -> frequencies.merge(token, count, Integer::sum));
+            pending = new ConcurrentSkipListMap<>();
+            changed = false;
+            index = PrefixIndex.build(frequencies);
+        }
+    }
+    
+    // ========================================================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ========================================================================
+    
+    /**
+     * Aplica un cambio confirmado sobre fact_transactions.
+     * 
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        for (Transaction previous : event.getPrevious()) {
+            apply(previous.getDescription(), -1);
+        }
+        for (Transaction transaction : event.getCurrent()) {
+            apply(transaction.getDescription(), 1);
+        }
+    }
+    
+    private void apply(String description, int delta) {
+        List<String> tokens = PrefixIndex.tokenize(description);
+        synchronized (swapLock) {
+            PrefixIndex current = index;
+            for (String token : tokens) {
+                if (journal != null) {
+                    journal.merge(token, delta, Integer::sum);
+                }
+                if (current.add(token, delta)) {
+                    changed = true;
+                } else {
+                    pending.merge(token, delta, Integer::sum);
+                }
+            }
+        }
+    }
+    
+    // ========================================================================
+    // CONSULTA
+    // ========================================================================
+    
+    /**
+     * Devuelve las completaciones más frecuentes del último token del texto.
+     * 
+     * Las palabras anteriores se conservan: "amazon pri" puede completarse
+     * como "amazon prime".
+     * 
+     * @param prefix Texto escrito por el usuario
+     * @param limit Número máximo de sugerencias (1-{@value PrefixIndex#MAX_SUGGESTIONS})
+     * @return Sugerencias ordenadas por frecuencia descendente
+     * @throws IllegalArgumentException si el límite no es válido
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (limit <= 0 || limit > PrefixIndex.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + PrefixIndex.MAX_SUGGESTIONS);
+        }
+        if (prefix == null || !ready) {
+            return List.of();
+        }
+        int split = prefix.length();
+        while (split > 0 && Character.isLetterOrDigit(prefix.charAt(split - 1))) {
+            split--;
+        }
+        String head = prefix.substring(0, split);
+        String last = prefix.substring(split).toLowerCase(Locale.ROOT);
+        if (last.isEmpty()) {
+            return List.of();
+        }
+        
+        PrefixIndex current = index;
+        PrefixIndex.TopK topK = new PrefixIndex.TopK(limit);
+        current.collect(last, topK);
+        List<Suggestion> result = new ArrayList<>(limit);
+        for (int i = 0; i < topK.size(); i++) {
+            result.add(new Suggestion(head + current.tokenAt(topK.indexAt(i)), topK.valueAt(i)));
+        }
+        
+        boolean added = false;
+        ConcurrentNavigableMap<String, Integer> matches = pending.subMap(last, true, last + Character.MAX_VALUE, true);
+        for (Map.Entry<String, Integer> entry : matches.entrySet()) {
+            if (entry.getValue() > 0) {
+                result.add(new Suggestion(head + entry.getKey(), entry.getValue()));
+                added = true;
+            }
+        }
+        if (added) {
+            result.sort(Comparator.comparingLong(Suggestion::getCount).reversed());
+            if (result.size() > limit) {
+                result = new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * @return true cuando el índice se ha cargado y ya devuelve sugerencias
+     */
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,241 @@
+package com.pac.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Índice de prefijos compacto sobre los tokens de las descripciones.
+ *
+ * Los tokens distintos se guardan en un array ordenado con sus frecuencias
+ * en un array paralelo: las completaciones de un prefijo forman un rango
+ * contiguo que se localiza por búsqueda binaria. Para los prefijos de hasta
+ * {@value #PRECOMPUTED_PREFIX_LENGTH} caracteres, cuyo rango puede abarcar
+ * miles de tokens, el top-{@value #MAX_SUGGESTIONS} se calcula al construir
+ * el índice.
+ *
+ * El conjunto de tokens es inmutable; solo las frecuencias de los tokens
+ * existentes se actualizan en sitio, de forma atómica. Los tokens nuevos se
+ * incorporan construyendo un índice nuevo.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public final class PrefixIndex {
+
+    /**
+     * Número máximo de sugerencias que se pueden pedir.
+     */
+    public static final int MAX_SUGGESTIONS = 50;
+
+    /**
+     * Longitud máxima de los prefijos con top-k precalculado.
+     */
+    static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_TOKEN_LENGTH = 50;
+
+    private static final PrefixIndex EMPTY = build(Map.of());
+
+    private final String[] tokens;
+    private final AtomicIntegerArray counts;
+    private final Map<String, int[]> precomputed;
+
+    private PrefixIndex(String[] tokens, AtomicIntegerArray counts, Map<String, int[]> precomputed) {
+        this.tokens = tokens;
+        this.counts = counts;
+        this.precomputed = precomputed;
+    }
+
+    /**
+     * @return Índice sin tokens
+     */
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construye el índice a partir de las frecuencias de cada token.
+     *
+     * @param frequencies Mapa token normalizado -> frecuencia
+     * @return Índice nuevo
+     */
+    public static PrefixIndex build(Map<String, Integer> frequencies) {
+        String[] tokens = new String[frequencies.size()];
+        int n = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            if (entry.getValue() > 0) {
+                tokens[n++] = entry.getKey();
+            }
+        }
+        tokens = Arrays.copyOf(tokens, n);
+        Arrays.sort(tokens);
+        AtomicIntegerArray counts = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            counts.set(i, frequencies.get(tokens[i]));
+        }
+
+        Map<String, TopK> tops = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            for (int length = 1; length <= PRECOMPUTED_PREFIX_LENGTH && length <= tokens[i].length(); length++) {
+                tops.computeIfAbsent(tokens[i].substring(0, length), key -> new TopK(MAX_SUGGESTIONS))
+                    .offer(i, counts.get(i));
+            }
+        }
+        Map<String, int[]> precomputed = new HashMap<>(tops.size() * 2);
+        for (Map.Entry<String, TopK> entry : tops.entrySet()) {
+            precomputed.put(entry.getKey(), entry.getValue().indexes());
+        }
+        return new PrefixIndex(tokens, counts, precomputed);
+    }
+
+    /**
+     * Divide un texto en tokens normalizados (minúsculas, solo letras y
+     * dígitos, entre {@value #MIN_TOKEN_LENGTH} y {@value #MAX_TOKEN_LENGTH}
+     * caracteres).
+     *
+     * @param text Texto a dividir (puede ser null)
+     * @return Lista de tokens, con repeticiones
+     */
+    public static List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TOKEN_LENGTH && length <= MAX_TOKEN_LENGTH) {
+                    result.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Suma un incremento a la frecuencia de un token existente.
+     *
+     * @param token Token normalizado
+     * @param delta Incremento (negativo para restar)
+     * @return true si el token existe en el índice, false si no
+     */
+    public boolean add(String token, int delta) {
+        int index = Arrays.binarySearch(tokens, token);
+        if (index < 0) {
+            return false;
+        }
+        counts.addAndGet(index, delta);
+        return true;
+    }
+
+    /**
+     * @param token Token normalizado
+     * @return Frecuencia del token, 0 si no existe
+     */
+    public int count(String token) {
+        int index = Arrays.binarySearch(tokens, token);
+        return index < 0 ? 0 : counts.get(index);
+    }
+
+    /**
+     * Añade al acumulador las completaciones del prefijo.
+     *
+     * @param prefix Prefijo normalizado (no vacío)
+     * @param topK Acumulador de los mejores resultados
+     */
+    void collect(String prefix, TopK topK) {
+        int[] candidates = precomputed.get(prefix);
+        if (candidates != null) {
+            for (int index : candidates) {
+                topK.offer(index, counts.get(index));
+            }
+            return;
+        }
+        int from = Arrays.binarySearch(tokens, prefix);
+        for (int i = from < 0 ? -from - 1 : from; i < tokens.length && tokens[i].startsWith(prefix); i++) {
+            topK.offer(i, counts.get(i));
+        }
+    }
+
+    /**
+     * @param index Posición del token
+     * @return Token en la posición indicada
+     */
+    String tokenAt(int index) {
+        return tokens[index];
+    }
+
+    /**
+     * @return Número de tokens distintos
+     */
+    public int size() {
+        return tokens.length;
+    }
+
+    /**
+     * @return Frecuencias actuales como mapa token -> frecuencia
+     */
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new HashMap<>(tokens.length * 2);
+        for (int i = 0; i < tokens.length; i++) {
+            map.put(tokens[i], counts.get(i));
+        }
+        return map;
+    }
+
+    /**
+     * Acumulador de los k elementos de mayor frecuencia. Con k pequeño una
+     * inserción ordenada en array es más rápida que un heap.
+     */
+    static final class TopK {
+        private final int[] indexes;
+        private final int[] values;
+        private int size;
+
+        TopK(int k) {
+            this.indexes = new int[k];
+            this.values = new int[k];
+        }
+
+        void offer(int index, int value) {
+            if (value <= 0 || (size == indexes.length && value <= values[size - 1])) {
+                return;
+            }
+            int position = size == indexes.length ? size - 1 : size++;
+            while (position > 0 && values[position - 1] < value) {
+                indexes[position] = indexes[position - 1];
+                values[position] = values[position - 1];
+                position--;
+            }
+            indexes[position] = index;
+            values[position] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int indexAt(int position) {
+            return indexes[position];
+        }
+
+        int valueAt(int position) {
+            return values[position];
+        }
+
+        int[] indexes() {
+            return Arrays.copyOf(indexes, size);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pac.search;
+
+/**
+ * Sugerencia de autocompletado: texto completado y frecuencia del token en
+ * las descripciones de fact_transactions.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+public class Suggestion {
+
+    private final String text;
+    private final long count;
+
+    public Suggestion(String text, long count) {
+        this.text = text;
+        this.count = count;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,99 @@
+package com.pac.stats;
+
+import com.pac.repository.PivotQuery;
+import com.pac.repository.PivotTable;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionPivotRepository;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de resultados pivot indexada por el conjunto de parámetros.
+ * 
+ * Cualquier cambio confirmado sobre fact_transactions invalida todas las
+ * entradas; además cada entrada caduca tras un TTL para acotar la
+ * antigüedad frente a escrituras externas a la aplicación. Un resultado
+ * calculado mientras se produce una invalidación no se guarda, para no
+ * reintroducir datos obsoletos.
+ * 
+ * Configuración (propiedades de sistema):
+ * <ul>
+ *   <li>{@code pac.pivot.cacheTtlSeconds} (default: 300)</li>
+ *   <li>{@code pac.pivot.cacheMaxEntries} (default: 256)</li>
+ * </ul>
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PivotCache {
+    
+    private final long ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("pac.pivot.cacheTtlSeconds", 300));
+    private final int maxEntries = Integer.getInteger("pac.pivot.cacheMaxEntries", 256);
+    
+    private final ConcurrentHashMap<PivotQuery, Entry> entries = new ConcurrentHashMap<>();
+    
+    /**
+     * Se incrementa en cada invalidación.
+     */
+    private final AtomicLong generation = new AtomicLong();
+    
+    @EJB
+    private TransactionPivotRepository pivotRepository;
+    
+    /**
+     * Devuelve el pivot solicitado desde la caché o, si no está o ha
+     * caducado, lo calcula y lo guarda.
+     * 
+     * @param query Parámetros del pivot
+     * @return Tabla pivot
+     */
+    public PivotTable get(PivotQuery query) {
+        long now = System.nanoTime();
+        Entry cached = entries.get(query);
+        if (cached != null && now - cached.createdNanos < ttlNanos) {
+            return cached.table;
+        }
+        long startGeneration = generation.get();
+        PivotTable table = pivotRepository.pivot(query);
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> now - entry.createdNanos >= ttlNanos);
+        }
+        if (entries.size() < maxEntries && generation.get() == startGeneration) {
+            entries.put(query, new Entry(table, now));
+        }
+        return table;
+    }
+    
+    /**
+     * Invalida la caché tras un cambio confirmado.
+     * 
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+    
+    /**
+     * Resultado cacheado con su instante de cálculo.
+     */
+    private static final class Entry {
+        final PivotTable table;
+        final long createdNanos;
+        
+        Entry(PivotTable table, long createdNanos) {
+            this.table = table;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.pac.stats;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionRollupRepository;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mantiene actualizados los rollups temporales de fact_transactions.
+ * 
+ * Cada {@link TransactionChangeEvent} confirmado marca como pendientes los
+ * días de las transacciones afectadas (el estado anterior y el nuevo). Cada
+ * pocos segundos los días pendientes se agrupan en rangos contiguos y se
+ * recalculan, de modo que una ráfaga de escrituras sobre el mismo día se
+ * resuelve con un único recálculo.
+ * 
+ * Una reconciliación nocturna recalcula los últimos días completos para
+ * recoger filas escritas fuera de la aplicación (dbt, SQL manual).
+ * 
+ * Configuración (propiedades de sistema):
+ * <ul>
+ *   <li>{@code pac.rollup.reconcileDays} días recalculados por la
+ *       reconciliación nocturna (default: 40)</li>
+ * </ul>
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class RollupMaintainer {
+    
+    private static final Logger LOGGER = Logger.getLogger(RollupMaintainer.class.getName());
+    
+    private final int reconcileDays = Integer.getInteger("pac.rollup.reconcileDays", 40);
+    
+    /**
+     * Días con cambios confirmados pendientes de recalcular.
+     */
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Evita que dos recálculos del mismo rango se ejecuten a la vez.
+     */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    
+    @EJB
+    private TransactionRollupRepository rollupRepository;
+    
+    /**
+     * Marca como pendientes los días afectados por un cambio confirmado.
+     * 
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        markDirty(event.getPrevious());
+        markDirty(event.getCurrent());
+    }
+    
+    private void markDirty(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (transaction.getTransactionDate() != null) {
+                dirtyDays.add(transaction.getTransactionDate());
+            }
+        }
+    }
+    
+    /**
+     * Recalcula los días pendientes. Si hay un recálculo en curso, esta
+     * ejecución se omite y los días quedan para la siguiente.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/5", persistent = false)
+    public void flush() {
+        if (dirtyDays.isEmpty() || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            TreeSet<LocalDate> days = new TreeSet<>();
+            for (LocalDate day : dirtyDays) {
+                if (dirtyDays.remove(day)) {
+                    days.add(day);
+                }
+            }
+            for (LocalDate[] range : contiguousRanges(days)) {
+                try {
+                    rollupRepository.refresh(range[0], range[1]);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, String.format("Rollup refresh failed for %s..%s, will retry",
+                            range[0], range[1]), e);
+                    dirtyDays.addAll(days.subSet(range[0], true, range[1], true));
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    /**
+     * Recalcula los últimos días completos para corregir la deriva.
+     */
+    @Schedule(hour = "3", minute = "15", persistent = false)
+    public void reconcile() {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(reconcileDays);
+        refreshLock.lock();
+        try {
+            int rows = rollupRepository.refresh(from, to);
+            LOGGER.info(String.format("Rollups reconciled for %s..%s: %d daily rows", from, to, rows));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Rollup reconciliation failed", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    /**
+     * Agrupa días ordenados en rangos [inicio, fin] de días consecutivos.
+     */
+    static List<LocalDate[]> contiguousRanges(TreeSet<LocalDate> days) {
+        List<LocalDate[]> ranges = new ArrayList<>();
+        LocalDate start = null;
+        LocalDate end = null;
+        for (LocalDate day : days) {
+            if (start != null && day.equals(end.plusDays(1))) {
+                end = day;
+                continue;
+            }
+            if (start != null) {
+                ranges.add(new LocalDate[]{start, end});
+            }
+            start = day;
+            end = day;
+        }
+        if (start != null) {
+            ranges.add(new LocalDate[]{start, end});
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,270 @@
+package com.pac.stats;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionRepository;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estadísticas de fact_transactions mantenidas en memoria de forma incremental.
+ * 
+ * Los totales se cargan una vez desde la base de datos y después se
+ * actualizan con cada {@link TransactionChangeEvent} confirmado, usando
+ * contadores {@link LongAdder} sin contención entre escritores. Los montos se
+ * acumulan en céntimos (escala 2 de la columna amount) para evitar
+ * aritmética BigDecimal en el camino de escritura.
+ * 
+ * Una reconciliación periódica recalcula los totales contra la base de datos
+ * y corrige cualquier deriva (por ejemplo, filas escritas por procesos
+ * externos como dbt o por SQL manual).
+ * 
+ * La lectura de las estadísticas es O(1) respecto al tamaño de la tabla y no
+ * accede a la base de datos.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TransactionStatistics {
+    
+    private static final Logger LOGGER = Logger.getLogger(TransactionStatistics.class.getName());
+    
+    @EJB
+    private TransactionRepository transactionRepository;
+    
+    /**
+     * Totales vigentes. La reconciliación los sustituye de forma atómica.
+     */
+    private volatile Totals totals;
+    
+    /**
+     * Carga inicial. Si la base de datos no está disponible en el arranque,
+     * la carga se reintenta en la primera lectura.
+     */
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Initial statistics load failed, will retry on first read", e);
+        }
+    }
+    
+    /**
+     * Recalcula los totales contra la base de datos y sustituye los vigentes.
+     * 
+     * Los cambios confirmados mientras se ejecuta la recarga pueden quedar
+     * contados dos veces o ninguna; la siguiente reconciliación lo corrige.
+     */
+    @Schedule(hour = "*", minute = "*/10", persistent = false)
+    public void reconcile() {
+        try {
+            Totals previous = totals;
+            reload();
+            if (previous != null && previous.count.sum() != totals.count.sum()) {
+                LOGGER.info(String.format("Statistics reconciled: count drift %d",
+                        totals.count.sum() - previous.count.sum()));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Statistics reconciliation failed", e);
+        }
+    }
+    
+    private void reload() {
+        Totals loaded = new Totals();
+        loaded.count.add(transactionRepository.count());
+        loaded.suspicious.add(transactionRepository.countSuspicious());
+        loaded.sumCents.add(toCents(transactionRepository.sumTotal()));
+        for (Object[] row : transactionRepository.countByCategory()) {
+            loaded.category((String) row[0]).count.add(((Number) row[1]).longValue());
+        }
+        for (Object[] row : transactionRepository.sumByCategory()) {
+            loaded.category((String) row[0]).sumCents.add(toCents((BigDecimal) row[1]));
+        }
+        totals = loaded;
+    }
+    
+    private Totals current() {
+        Totals current = totals;
+        if (current == null) {
+            synchronized (this) {
+                if (totals == null) {
+                    reload();
+                }
+                current = totals;
+            }
+        }
+        return current;
+    }
+    
+    // ========================================================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ========================================================================
+    
+    /**
+     * Aplica un cambio confirmado sobre fact_transactions.
+     * 
+     * @param event Cambio emitido por el repositorio
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionChangeEvent event) {
+        Totals current = totals;
+        if (current == null) {
+            return; // Se cargará completo en la primera lectura
+        }
+        for (Transaction previous : event.getPrevious()) {
+            current.apply(previous, -1);
+        }
+        for (Transaction transaction : event.getCurrent()) {
+            current.apply(transaction, 1);
+        }
+    }
+    
+    // ========================================================================
+    // LECTURA
+    // ========================================================================
+    
+    /**
+     * @return Número total de transacciones
+     */
+    public long getCount() {
+        return current().count.sum();
+    }
+    
+    /**
+     * @return Número de transacciones sospechosas
+     */
+    public long getSuspiciousCount() {
+        return current().suspicious.sum();
+    }
+    
+    /**
+     * @return Suma total de montos
+     */
+    public BigDecimal getTotalAmount() {
+        return BigDecimal.valueOf(current().sumCents.sum(), 2);
+    }
+    
+    /**
+     * @return Monto promedio, 0 si no hay transacciones
+     */
+    public BigDecimal getAverageAmount() {
+        Totals current = current();
+        long count = current.count.sum();
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(current.sumCents.sum(), 2)
+                .divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * Conteo y suma por categoría, ordenado por conteo descendente.
+     * Las categorías sin transacciones se omiten.
+     * 
+     * @return Lista de estadísticas por categoría
+     */
+    public List<CategoryTotal> getByCategory() {
+        List<CategoryTotal> result = new ArrayList<>();
+        for (Map.Entry<String, CategoryCounters> entry : current().categories.entrySet()) {
+            long count = entry.getValue().count.sum();
+            if (count > 0) {
+                result.add(new CategoryTotal(entry.getKey(), count,
+                        BigDecimal.valueOf(entry.getValue().sumCents.sum(), 2)));
+            }
+        }
+        result.sort(Comparator.comparingLong(CategoryTotal::getCount).reversed());
+        return result;
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+    
+    // ========================================================================
+    // ESTRUCTURAS INTERNAS
+    // ========================================================================
+    
+    /**
+     * Conjunto de contadores globales y por categoría.
+     */
+    private static final class Totals {
+        final LongAdder count = new LongAdder();
+        final LongAdder suspicious = new LongAdder();
+        final LongAdder sumCents = new LongAdder();
+        final ConcurrentHashMap<String, CategoryCounters> categories = new ConcurrentHashMap<>();
+        
+        CategoryCounters category(String name) {
+            return categories.computeIfAbsent(name, key -> new CategoryCounters());
+        }
+        
+        void apply(Transaction transaction, int sign) {
+            long cents = sign * toCents(transaction.getAmount());
+            count.add(sign);
+            sumCents.add(cents);
+            if (Boolean.TRUE.equals(transaction.isSuspicious())) {
+                suspicious.add(sign);
+            }
+            if (transaction.getCategory() != null) {
+                CategoryCounters counters = category(transaction.getCategory());
+                counters.count.add(sign);
+                counters.sumCents.add(cents);
+            }
+        }
+    }
+    
+    /**
+     * Contadores de una categoría.
+     */
+    private static final class CategoryCounters {
+        final LongAdder count = new LongAdder();
+        final LongAdder sumCents = new LongAdder();
+    }
+    
+    /**
+     * Totales de una categoría en un instante dado.
+     */
+    public static final class CategoryTotal {
+        private final String category;
+        private final long count;
+        private final BigDecimal totalAmount;
+        
+        public CategoryTotal(String category, long count, BigDecimal totalAmount) {
+            this.category = category;
+            this.count = count;
+            this.totalAmount = totalAmount;
+        }
+        
+        public String getCategory() {
+            return category;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+    }
+}
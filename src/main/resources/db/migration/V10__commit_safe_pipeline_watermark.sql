@@ -0,0 +1,26 @@
+-- ============================================================================
+-- MIGRACIÓN V10: Watermark del pipeline seguro frente a commits desordenados
+-- ============================================================================
+-- Propósito: Los ids de raw_transactions se asignan al insertar, no al
+-- confirmar. Con dos COPY concurrentes, el que confirma primero puede tener
+-- ids mayores que el otro, y un watermark "id > último" saltaría las filas
+-- del segundo. Cada fila guarda ahora el id de la transacción que la insertó
+-- (txid) y el pipeline solo lee filas de transacciones anteriores al xmin de
+-- su instantánea, que ya están confirmadas o abortadas. El watermark pasa a
+-- ser el par (txid, id) de la última fila procesada.
+
+-- El valor por defecto se evalúa al insertar: las filas existentes reciben
+-- el txid de esta migración.
+ALTER TABLE raw_transactions ADD COLUMN IF NOT EXISTS txid BIGINT NOT NULL DEFAULT txid_current();
+
+CREATE INDEX IF NOT EXISTS idx_raw_transactions_txid_id ON raw_transactions (txid, id);
+
+COMMENT ON COLUMN raw_transactions.txid IS 'Id de la transacción que insertó la fila (txid_current())';
+
+ALTER TABLE pipeline_watermark ADD COLUMN IF NOT EXISTS last_txid BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN pipeline_watermark.last_txid IS 'txid de la última fila de raw_transactions procesada';
+
+-- Las filas existentes comparten el txid de esta migración, así que el par
+-- (txid de la migración, last_raw_id) conserva la posición de cada pipeline.
+UPDATE pipeline_watermark SET last_txid = txid_current();
@@ -0,0 +1,58 @@
+-- ============================================================================
+-- MIGRACIÓN V11: Rollups por clave de categoría
+-- ============================================================================
+-- Propósito: Completar V7 en las tablas de rollup. El recálculo agrupaba
+-- fact_transactions por el texto de categoría, cuyos índices eliminó V7, y
+-- las series filtraban por ese texto. Los rollups guardan ahora category_id
+-- y la aplicación resuelve los nombres con dim_category (CategoryRegistry).
+
+-- Categorías de los rollups que no estén aún en la dimensión
+INSERT INTO dim_category (name)
+SELECT category FROM rollup_daily_transactions
+UNION
+SELECT category FROM rollup_monthly_transactions
+ON CONFLICT (name) DO NOTHING;
+
+-- ============================================================================
+-- TABLA: rollup_daily_transactions
+-- ============================================================================
+ALTER TABLE rollup_daily_transactions ADD COLUMN IF NOT EXISTS category_id SMALLINT;
+
+UPDATE rollup_daily_transactions r
+SET category_id = d.id
+FROM dim_category d
+WHERE d.name = r.category;
+
+ALTER TABLE rollup_daily_transactions ALTER COLUMN category_id SET NOT NULL;
+ALTER TABLE rollup_daily_transactions DROP CONSTRAINT rollup_daily_transactions_pkey;
+ALTER TABLE rollup_daily_transactions ADD PRIMARY KEY (bucket, category_id);
+ALTER TABLE rollup_daily_transactions
+    ADD CONSTRAINT fk_rollup_daily_category FOREIGN KEY (category_id) REFERENCES dim_category (id);
+DROP INDEX IF EXISTS idx_rollup_daily_category;
+ALTER TABLE rollup_daily_transactions DROP COLUMN category;
+
+CREATE INDEX IF NOT EXISTS idx_rollup_daily_category_id ON rollup_daily_transactions (category_id, bucket);
+
+COMMENT ON COLUMN rollup_daily_transactions.category_id IS 'Clave de la categoría en dim_category';
+
+-- ============================================================================
+-- TABLA: rollup_monthly_transactions
+-- ============================================================================
+ALTER TABLE rollup_monthly_transactions ADD COLUMN IF NOT EXISTS category_id SMALLINT;
+
+UPDATE rollup_monthly_transactions r
+SET category_id = d.id
+FROM dim_category d
+WHERE d.name = r.category;
+
+ALTER TABLE rollup_monthly_transactions ALTER COLUMN category_id SET NOT NULL;
+ALTER TABLE rollup_monthly_transactions DROP CONSTRAINT rollup_monthly_transactions_pkey;
+ALTER TABLE rollup_monthly_transactions ADD PRIMARY KEY (bucket, category_id);
+ALTER TABLE rollup_monthly_transactions
+    ADD CONSTRAINT fk_rollup_monthly_category FOREIGN KEY (category_id) REFERENCES dim_category (id);
+DROP INDEX IF EXISTS idx_rollup_monthly_category;
+ALTER TABLE rollup_monthly_transactions DROP COLUMN category;
+
+CREATE INDEX IF NOT EXISTS idx_rollup_monthly_category_id ON rollup_monthly_transactions (category_id, bucket);
+
+COMMENT ON COLUMN rollup_monthly_transactions.category_id IS 'Clave de la categoría en dim_category';
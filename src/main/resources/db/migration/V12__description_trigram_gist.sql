@@ -0,0 +1,15 @@
+-- ============================================================================
+-- MIGRACIÓN V12: Índice GiST de trigramas para ordenar por similitud
+-- ============================================================================
+-- Propósito: /search ordenaba por similitud un subconjunto arbitrario de
+-- coincidencias (LIMIT sin ORDER BY), porque el índice GIN de V8 filtra por
+-- LIKE pero no puede devolver filas por distancia. Un índice GiST con
+-- gist_trgm_ops resuelve igualmente LIKE '%term%' y además el operador de
+-- distancia <->, de modo que la búsqueda recorre las coincidencias de la
+-- más a la menos similar y se detiene en el límite pedido.
+
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_description_trgm_gist
+    ON fact_transactions USING GIST (lower(description) gist_trgm_ops);
+
+-- El índice GIN queda cubierto por el GiST
+DROP INDEX IF EXISTS idx_fact_transactions_description_trgm;
@@ -0,0 +1,27 @@
+-- ============================================================================
+-- MIGRACIÓN V13: El trigger de categorías no consume la secuencia
+-- ============================================================================
+-- Propósito: El trigger de V7 ejecutaba INSERT ... ON CONFLICT DO NOTHING en
+-- cada fila escrita sin category_id. PostgreSQL obtiene nextval antes de
+-- detectar el conflicto, así que cada inserción externa consumía un valor de
+-- dim_category_id_seq (SMALLSERIAL, máximo 32767) aunque la categoría ya
+-- existiera; al agotarse, todas las inserciones externas fallaban. Ahora se
+-- busca primero el id y solo se inserta si la categoría es nueva.
+
+CREATE OR REPLACE FUNCTION fact_transactions_resolve_category() RETURNS TRIGGER AS $$
+DECLARE
+    category_name VARCHAR(100) := COALESCE(NEW.category, 'other');
+BEGIN
+    IF NEW.category_id IS NULL
+       OR (TG_OP = 'UPDATE' AND NEW.category IS DISTINCT FROM OLD.category
+           AND NEW.category_id = OLD.category_id) THEN
+        SELECT id INTO NEW.category_id FROM dim_category WHERE name = category_name;
+        IF NEW.category_id IS NULL THEN
+            INSERT INTO dim_category (name) VALUES (category_name)
+            ON CONFLICT (name) DO NOTHING;
+            SELECT id INTO NEW.category_id FROM dim_category WHERE name = category_name;
+        END IF;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,25 @@
+-- ============================================================================
+-- MIGRACIÓN V3: Índices para paginación por keyset
+-- ============================================================================
+-- Propósito: Permitir que los endpoints de listado paginen con la clave
+-- (transactiondate, amount, id) en orden descendente. Cada página se resuelve
+-- posicionándose en el índice a partir del cursor, sin OFFSET ni ordenación
+-- en memoria, por lo que la página 10.000 cuesta lo mismo que la primera.
+
+-- Listado general y /recent (filtro por fecha sobre la misma clave)
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_keyset
+    ON fact_transactions (transactiondate DESC, amount DESC, id DESC);
+
+-- /category/{category}: igualdad por categoría seguida de la clave de orden
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_category_keyset
+    ON fact_transactions (category, transactiondate DESC, amount DESC, id DESC);
+
+-- /suspicious: índice parcial, solo contiene las filas marcadas
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_suspicious_keyset
+    ON fact_transactions (transactiondate DESC, amount DESC, id DESC)
+    WHERE issuspicious = TRUE;
+
+-- /high-value: índice parcial para montos >= 2000.00
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_high_value_keyset
+    ON fact_transactions (transactiondate DESC, amount DESC, id DESC)
+    WHERE amount >= 2000.00;
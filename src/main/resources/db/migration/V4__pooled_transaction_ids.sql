@@ -0,0 +1,15 @@
+-- ============================================================================
+-- MIGRACIÓN V4: Asignación de IDs por bloques para fact_transactions
+-- ============================================================================
+-- Propósito: La entidad Transaction obtiene su ID de la secuencia asociada a
+-- la columna SERIAL reservando bloques de 50 valores (allocationSize = 50).
+-- Para que los bloques no se solapen, la secuencia debe avanzar de 50 en 50.
+--
+-- Los inserts externos que usan el DEFAULT nextval() siguen funcionando;
+-- simplemente dejan huecos en la numeración, lo cual no afecta a la clave.
+
+ALTER SEQUENCE fact_transactions_id_seq INCREMENT BY 50;
+
+-- Avanzar la secuencia más allá del máximo actual para evitar colisiones
+-- con bloques ya asignados antes del cambio de incremento.
+SELECT setval('fact_transactions_id_seq', COALESCE((SELECT MAX(id) FROM fact_transactions), 0) + 50);
@@ -0,0 +1,29 @@
+-- ============================================================================
+-- MIGRACIÓN V5: Watermark del pipeline raw_transactions -> fact_transactions
+-- ============================================================================
+-- Propósito: Persistir hasta qué id de raw_transactions ha procesado el
+-- pipeline de transformación de la aplicación. Cada lote promovido actualiza
+-- el watermark en la misma transacción que inserta las filas en
+-- fact_transactions, de modo que un reinicio nunca duplica ni pierde filas.
+
+CREATE TABLE IF NOT EXISTS pipeline_watermark (
+    -- Nombre del pipeline (permite varios consumidores independientes)
+    name VARCHAR(100) PRIMARY KEY,
+    
+    -- Último id de raw_transactions procesado (0 = ninguno)
+    last_raw_id BIGINT NOT NULL DEFAULT 0,
+    
+    -- Fecha y hora de la última actualización
+    updatedat TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE pipeline_watermark IS 'Posición de lectura persistida de los pipelines sobre raw_transactions';
+COMMENT ON COLUMN pipeline_watermark.name IS 'Identificador del pipeline';
+COMMENT ON COLUMN pipeline_watermark.last_raw_id IS 'Último id de raw_transactions procesado';
+COMMENT ON COLUMN pipeline_watermark.updatedat IS 'Fecha y hora de la última actualización';
+
+-- Las filas ya existentes en raw_transactions se asumen procesadas por el
+-- job batch (dbt) anterior: el pipeline solo promueve las nuevas.
+INSERT INTO pipeline_watermark (name, last_raw_id)
+SELECT 'raw_to_fact', COALESCE(MAX(id), 0) FROM raw_transactions
+ON CONFLICT (name) DO NOTHING;
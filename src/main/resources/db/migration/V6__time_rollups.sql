@@ -0,0 +1,76 @@
+-- ============================================================================
+-- MIGRACIÓN V6: Rollups temporales de fact_transactions
+-- ============================================================================
+-- Propósito: Servir las series temporales del dashboard sin recorrer la
+-- tabla de hechos. Cada fila resume las transacciones de un bucket (día o
+-- mes) y una categoría, de modo que una serie de varios años lee como mucho
+-- unos miles de filas independientemente del volumen de fact_transactions.
+--
+-- Mantenimiento: la aplicación recalcula los días afectados por cada
+-- escritura confirmada (RollupMaintainer) y, a partir de ellos, los meses
+-- correspondientes. Las transacciones sin categoría se agrupan en 'other'.
+
+-- ============================================================================
+-- TABLA: rollup_daily_transactions
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS rollup_daily_transactions (
+    -- Día del bucket
+    bucket DATE NOT NULL,
+    
+    -- Categoría de las transacciones agregadas
+    category VARCHAR(100) NOT NULL,
+    
+    -- Número de transacciones
+    txn_count BIGINT NOT NULL,
+    
+    -- Suma, mínimo y máximo del monto
+    amount_sum NUMERIC(18, 2) NOT NULL,
+    amount_min NUMERIC(12, 2) NOT NULL,
+    amount_max NUMERIC(12, 2) NOT NULL,
+    
+    -- Número de transacciones sospechosas
+    suspicious_count BIGINT NOT NULL,
+    
+    PRIMARY KEY (bucket, category)
+);
+
+COMMENT ON TABLE rollup_daily_transactions IS 'Agregados diarios por categoría de fact_transactions';
+
+-- ============================================================================
+-- TABLA: rollup_monthly_transactions
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS rollup_monthly_transactions (
+    -- Primer día del mes del bucket
+    bucket DATE NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    txn_count BIGINT NOT NULL,
+    amount_sum NUMERIC(18, 2) NOT NULL,
+    amount_min NUMERIC(12, 2) NOT NULL,
+    amount_max NUMERIC(12, 2) NOT NULL,
+    suspicious_count BIGINT NOT NULL,
+    
+    PRIMARY KEY (bucket, category)
+);
+
+COMMENT ON TABLE rollup_monthly_transactions IS 'Agregados mensuales por categoría de fact_transactions';
+
+-- Índices para series filtradas por categoría
+CREATE INDEX IF NOT EXISTS idx_rollup_daily_category ON rollup_daily_transactions (category, bucket);
+CREATE INDEX IF NOT EXISTS idx_rollup_monthly_category ON rollup_monthly_transactions (category, bucket);
+
+-- ============================================================================
+-- CARGA INICIAL
+-- ============================================================================
+INSERT INTO rollup_daily_transactions
+    (bucket, category, txn_count, amount_sum, amount_min, amount_max, suspicious_count)
+SELECT transactiondate, COALESCE(category, 'other'), COUNT(*), SUM(amount), MIN(amount), MAX(amount),
+       COUNT(*) FILTER (WHERE issuspicious)
+FROM fact_transactions
+GROUP BY transactiondate, COALESCE(category, 'other');
+
+INSERT INTO rollup_monthly_transactions
+    (bucket, category, txn_count, amount_sum, amount_min, amount_max, suspicious_count)
+SELECT CAST(date_trunc('month', bucket) AS DATE), category, SUM(txn_count), SUM(amount_sum),
+       MIN(amount_min), MAX(amount_max), SUM(suspicious_count)
+FROM rollup_daily_transactions
+GROUP BY CAST(date_trunc('month', bucket) AS DATE), category;
@@ -0,0 +1,82 @@
+-- ============================================================================
+-- MIGRACIÓN V7: Dimensión de categorías
+-- ============================================================================
+-- Propósito: Sustituir las comparaciones y agrupaciones por texto sobre
+-- fact_transactions.category por una clave entera de 2 bytes. La aplicación
+-- mantiene en memoria un diccionario inmutable nombre <-> id (CategoryRegistry)
+-- y filtra y agrupa siempre por category_id.
+--
+-- La columna de texto category se conserva para los procesos externos que
+-- escriben directamente en la tabla (dbt); un trigger resuelve category_id
+-- para esas filas.
+
+-- ============================================================================
+-- TABLA: dim_category
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS dim_category (
+    -- Clave entera pequeña usada en fact_transactions.category_id
+    id SMALLSERIAL PRIMARY KEY,
+    
+    -- Nombre único de la categoría
+    name VARCHAR(100) NOT NULL UNIQUE
+);
+
+COMMENT ON TABLE dim_category IS 'Dimensión de categorías de transacciones';
+COMMENT ON COLUMN dim_category.id IS 'Clave entera de la categoría';
+COMMENT ON COLUMN dim_category.name IS 'Nombre único de la categoría';
+
+-- Categorías conocidas con ids estables, seguidas de las existentes en los datos
+INSERT INTO dim_category (name)
+VALUES ('groceries'), ('housing'), ('transport'), ('food'),
+       ('transfer'), ('online'), ('suspicious'), ('other')
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO dim_category (name)
+SELECT DISTINCT category FROM fact_transactions WHERE category IS NOT NULL
+ON CONFLICT (name) DO NOTHING;
+
+-- ============================================================================
+-- COLUMNA: fact_transactions.category_id
+-- ============================================================================
+ALTER TABLE fact_transactions ADD COLUMN IF NOT EXISTS category_id SMALLINT;
+
+UPDATE fact_transactions f
+SET category_id = d.id
+FROM dim_category d
+WHERE d.name = COALESCE(f.category, 'other');
+
+ALTER TABLE fact_transactions ALTER COLUMN category_id SET NOT NULL;
+ALTER TABLE fact_transactions
+    ADD CONSTRAINT fk_fact_transactions_category FOREIGN KEY (category_id) REFERENCES dim_category (id);
+
+COMMENT ON COLUMN fact_transactions.category_id IS 'Clave de la categoría en dim_category';
+
+-- Resuelve category_id para las filas escritas sin él (procesos externos) o
+-- cuyo texto de categoría cambia sin actualizar la clave
+CREATE OR REPLACE FUNCTION fact_transactions_resolve_category() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.category_id IS NULL
+       OR (TG_OP = 'UPDATE' AND NEW.category IS DISTINCT FROM OLD.category
+           AND NEW.category_id = OLD.category_id) THEN
+        INSERT INTO dim_category (name) VALUES (COALESCE(NEW.category, 'other'))
+        ON CONFLICT (name) DO NOTHING;
+        SELECT id INTO NEW.category_id FROM dim_category WHERE name = COALESCE(NEW.category, 'other');
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_fact_transactions_category
+    BEFORE INSERT OR UPDATE ON fact_transactions
+    FOR EACH ROW EXECUTE PROCEDURE fact_transactions_resolve_category();
+
+-- ============================================================================
+-- ÍNDICES
+-- ============================================================================
+
+-- Los índices por texto de categoría se sustituyen por sus equivalentes enteros
+DROP INDEX IF EXISTS idx_fact_transactions_category_keyset;
+DROP INDEX IF EXISTS idx_fact_transactions_category;
+
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_category_id_keyset
+    ON fact_transactions (category_id, transactiondate DESC, amount DESC, id DESC);
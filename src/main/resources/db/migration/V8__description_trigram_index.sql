@@ -0,0 +1,18 @@
+-- ============================================================================
+-- MIGRACIÓN V8: Búsqueda de texto en la descripción
+-- ============================================================================
+-- Propósito: Permitir búsquedas por subcadena en description sin recorrer
+-- la tabla completa. El índice GIN de trigramas sobre lower(description)
+-- resuelve LIKE '%term%' para términos de 3 o más caracteres; los términos
+-- más cortos no tienen trigramas completos y se buscan por prefijo con un
+-- índice B-tree.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Búsqueda por subcadena y ranking por similitud (/search, findByDescriptionContaining)
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_description_trgm
+    ON fact_transactions USING GIN (lower(description) gin_trgm_ops);
+
+-- Búsqueda por prefijo para términos de 1-2 caracteres
+CREATE INDEX IF NOT EXISTS idx_fact_transactions_description_prefix
+    ON fact_transactions (lower(description) text_pattern_ops);
@@ -0,0 +1,10 @@
+-- ============================================================================
+-- MIGRACIÓN V9: Puntuación de riesgo de las transacciones
+-- ============================================================================
+-- Propósito: Guardar la puntuación (0-100) calculada por el motor de reglas
+-- de sospecha en cada escritura desde la aplicación. Las filas existentes
+-- quedan con 0 hasta que se vuelvan a escribir.
+
+ALTER TABLE fact_transactions ADD COLUMN IF NOT EXISTS risk_score SMALLINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN fact_transactions.risk_score IS 'Puntuación de riesgo 0-100 del motor de reglas de sospecha';
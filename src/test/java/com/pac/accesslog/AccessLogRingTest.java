@@ -0,0 +1,141 @@
+package com.pac.accesslog;
+
+import com.pac.metrics.ApiMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para AccessLogRing.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("AccessLogRing Unit Tests")
+class AccessLogRingTest {
+
+    private static void offer(AccessLogRing ring, int status) {
+        long sequence = ring.claim();
+        if (sequence >= 0) {
+            ring.get(sequence).set(0, ApiMetrics.Endpoint.LIST, "/api/transactions", null, status, 0, 0, 0, 0, 1);
+            ring.publish(sequence);
+        }
+    }
+
+    @Test
+    @DisplayName("drain() - Debería entregar las entradas publicadas en orden")
+    void testDrain_ShouldDeliverInOrder() {
+        // Given
+        AccessLogRing ring = new AccessLogRing(8);
+        for (int status = 200; status < 205; status++) {
+            offer(ring, status);
+        }
+
+        // When
+        List<Integer> statuses = new ArrayList<>();
+        int drained = ring.drain(event -> statuses.add(event.status));
+
+        // Then
+        assertEquals(5, drained);
+        assertEquals(List.of(200, 201, 202, 203, 204), statuses);
+        assertEquals(0, ring.getPending());
+    }
+
+    @Test
+    @DisplayName("claim() - Debería descartar entradas con el buffer lleno sin bloquear")
+    void testClaim_ShouldDropWhenFull() {
+        // Given
+        AccessLogRing ring = new AccessLogRing(4);
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            offer(ring, 200 + i);
+        }
+
+        // Then
+        assertEquals(2, ring.getDropped());
+        List<Integer> statuses = new ArrayList<>();
+        ring.drain(event -> statuses.add(event.status));
+        assertEquals(List.of(200, 201, 202, 203), statuses);
+
+        // Y el espacio liberado se reutiliza
+        offer(ring, 500);
+        ring.drain(event -> statuses.add(event.status));
+        assertEquals(500, statuses.get(4));
+    }
+
+    @Test
+    @DisplayName("drain() - Debería detenerse en la primera entrada reservada sin publicar")
+    void testDrain_ShouldStopAtUnpublished() {
+        // Given
+        AccessLogRing ring = new AccessLogRing(8);
+        offer(ring, 200);
+        long reserved = ring.claim();
+        offer(ring, 202);
+
+        // Then
+        List<Integer> statuses = new ArrayList<>();
+        assertEquals(1, ring.drain(event -> statuses.add(event.status)));
+
+        // When
+        ring.get(reserved).set(0, ApiMetrics.Endpoint.LIST, "/", null, 201, 0, 0, 0, 0, 1);
+        ring.publish(reserved);
+
+        // Then
+        assertEquals(2, ring.drain(event -> statuses.add(event.status)));
+        assertEquals(List.of(200, 201, 202), statuses);
+    }
+
+    @Test
+    @DisplayName("drain() - No debería perder ni duplicar entradas con varios productores")
+    void testDrain_ConcurrentProducers() throws InterruptedException {
+        // Given
+        AccessLogRing ring = new AccessLogRing(1024);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    offer(ring, base + i);
+                }
+                done.countDown();
+            });
+        }
+
+        // When
+        Set<Integer> seen = new HashSet<>();
+        int[] duplicates = {0};
+        while (done.getCount() > 0 || ring.getPending() > 0) {
+            ring.drain(event -> {
+                if (!seen.add(event.status)) {
+                    duplicates[0]++;
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(0, duplicates[0]);
+        assertEquals(producers * perProducer, seen.size() + ring.getDropped());
+    }
+
+    @Test
+    @DisplayName("AccessLogRing() - Debería exigir una capacidad potencia de dos")
+    void testConstructor_InvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AccessLogRing(1000));
+    }
+}
@@ -0,0 +1,93 @@
+package com.pac.accesslog;
+
+import com.pac.metrics.ApiMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para AccessLogWriter.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("AccessLogWriter Unit Tests")
+class AccessLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private static AccessLogEvent event(String query, int status) {
+        AccessLogEvent event = new AccessLogEvent();
+        event.set(1_714_558_530_123L, ApiMetrics.Endpoint.SEARCH, "/api/transactions/search", query, status,
+                TimeUnit.MILLISECONDS.toNanos(8), TimeUnit.MICROSECONDS.toNanos(6020), 20, 10422, 0.01);
+        return event;
+    }
+
+    @Test
+    @DisplayName("format() - Debería generar una línea JSON válida con todos los campos")
+    void testFormat_ShouldWriteJson() {
+        // Given
+        StringBuilder line = new StringBuilder();
+
+        // When
+        AccessLogWriter.format(event("q=\"amazon\"\\x\n", 200), line);
+
+        // Then
+        JsonObject json = Json.createReader(new StringReader(line.toString())).readObject();
+        assertEquals("2024-05-01T10:15:30.123Z", json.getString("ts"));
+        assertEquals("GET /api/transactions/search", json.getString("endpoint"));
+        assertEquals("q=\"amazon\"\\x\n", json.getString("query"));
+        assertEquals(200, json.getInt("status"));
+        assertEquals(8000, json.getInt("latencyUs"));
+        assertEquals(6020, json.getInt("dbUs"));
+        assertEquals(20, json.getInt("rows"));
+        assertEquals(10422, json.getInt("bytes"));
+        assertEquals(0.01, json.getJsonNumber("sample").doubleValue());
+        assertFalse(line.toString().contains("\n"));
+    }
+
+    @Test
+    @DisplayName("format() - Debería escribir null si la petición no tiene parámetros")
+    void testFormat_NullQuery() {
+        StringBuilder line = new StringBuilder();
+        AccessLogWriter.format(event(null, 503), line);
+        assertTrue(Json.createReader(new StringReader(line.toString())).readObject().isNull("query"));
+    }
+
+    @Test
+    @DisplayName("write() - Debería rotar el fichero al superar el tamaño máximo")
+    void testWrite_ShouldRotate() throws IOException {
+        // Given
+        Path file = directory.resolve("logs/access.jsonl");
+        try (AccessLogWriter writer = new AccessLogWriter(file, 500, 2)) {
+            // When
+            for (int i = 0; i < 20; i++) {
+                writer.write(event("limit=" + i, 200));
+            }
+        }
+
+        // Then
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(directory.resolve("logs/access.jsonl.1")));
+        assertTrue(Files.exists(directory.resolve("logs/access.jsonl.2")));
+        assertFalse(Files.exists(directory.resolve("logs/access.jsonl.3")));
+        List<String> current = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertTrue(current.get(current.size() - 1).contains("\"limit=19\""));
+        for (String line : current) {
+            Json.createReader(new StringReader(line)).readObject();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.pac.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para TinyLfuCache.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("TinyLfuCache Unit Tests")
+class TinyLfuCacheTest {
+
+    @Test
+    @DisplayName("put() - Debería conservar las entradas frecuentes frente a un recorrido de claves únicas")
+    void testPut_ScanResistance() {
+        // Given
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 1000);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get("hot-" + i) == null) {
+                    cache.put("hot-" + i, "value", 1);
+                }
+            }
+        }
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            cache.get("scan-" + i);
+            cache.put("scan-" + i, "value", 1);
+        }
+
+        // Then
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                retained++;
+            }
+        }
+        assertEquals(50, retained);
+        assertTrue(cache.getWeightedSize() <= 100);
+        assertTrue(cache.getEvictions() >= 950);
+    }
+
+    @Test
+    @DisplayName("put() - Debería respetar el peso máximo y rechazar las entradas que no caben")
+    void testPut_WeightBudget() {
+        // Given
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(1000, 100);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            cache.put("key-" + i, "value", 100);
+        }
+        cache.put("huge", "value", 1001);
+
+        // Then
+        assertTrue(cache.getWeightedSize() <= 1000);
+        assertTrue(cache.size() <= 10);
+        assertNull(cache.get("huge"));
+        assertEquals(1, cache.getRejections());
+    }
+
+    @Test
+    @DisplayName("removeIf() - Debería eliminar solo las entradas que cumplen el predicado")
+    void testRemoveIf() {
+        // Given
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(1000, 100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i % 2 == 0 ? "even" : "odd", 10);
+        }
+
+        // When
+        int removed = cache.removeIf((key, value) -> value.equals("even"));
+
+        // Then
+        assertEquals(5, removed);
+        assertEquals(5, cache.size());
+        assertEquals(50, cache.getWeightedSize());
+        assertNull(cache.get(2));
+        assertEquals("odd", cache.get(3));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("remove() - Debería eliminar la entrada solo si conserva el valor copiado con entries()")
+    void testRemove_ShouldCompareValue() {
+        // Given
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 100);
+        cache.put("a", "old", 1);
+        cache.put("b", "value", 1);
+        String copied = cache.entries().stream()
+                .filter(entry -> entry.getKey().equals("a")).findFirst().orElseThrow().getValue();
+        cache.put("a", new String("new"), 1);
+
+        // When & Then
+        assertEquals(2, cache.entries().size());
+        assertFalse(cache.remove("a", copied));
+        assertTrue(cache.remove("b", "value"));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getWeightedSize());
+    }
+}
@@ -0,0 +1,104 @@
+package com.pac.metrics;
+
+import com.pac.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.interceptor.InvocationContext;
+import javax.persistence.QueryTimeoutException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para QueryMetricsInterceptor.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueryMetricsInterceptor Unit Tests")
+class QueryMetricsInterceptorTest {
+
+    @Mock
+    private ApiMetrics metrics;
+
+    @Mock
+    private InvocationContext context;
+
+    @InjectMocks
+    private QueryMetricsInterceptor interceptor;
+
+    @Test
+    @DisplayName("measure() - Debería registrar la duración y las filas devueltas")
+    void testMeasure_ShouldRecordRows() throws Exception {
+        // Given
+        when(context.getMethod()).thenReturn(TransactionRepository.class.getMethod("findAll"));
+        when(context.proceed()).thenReturn(List.of("a", "b", "c"));
+
+        // When
+        Object result = interceptor.measure(context);
+
+        // Then
+        assertEquals(3, ((List<?>) result).size());
+        verify(metrics).query(eq(ApiMetrics.Query.FIND_ALL), anyLong(), eq(3L));
+    }
+
+    @Test
+    @DisplayName("measure() - Debería contar el fallo y propagar la excepción")
+    void testMeasure_ShouldRecordFailure() throws Exception {
+        // Given
+        when(context.getMethod()).thenReturn(TransactionRepository.class.getMethod("count"));
+        when(context.proceed()).thenThrow(new QueryTimeoutException("timeout"));
+
+        // When / Then
+        assertThrows(QueryTimeoutException.class, () -> interceptor.measure(context));
+        verify(metrics).queryFailed(eq(ApiMetrics.Query.COUNT), anyLong());
+        verify(metrics, never()).query(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("measure() - No debería medir métodos que no son del repositorio")
+    void testMeasure_UnknownMethod() throws Exception {
+        // Given
+        when(context.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(context.proceed()).thenReturn("x");
+
+        // When
+        interceptor.measure(context);
+
+        // Then
+        verifyNoInteractions(metrics);
+    }
+
+    @Test
+    @DisplayName("rows() - Debería deducir las filas del tipo de resultado")
+    void testRows() {
+        assertEquals(0, QueryMetricsInterceptor.rows(ApiMetrics.Query.FIND_BY_ID, Optional.empty()));
+        assertEquals(1, QueryMetricsInterceptor.rows(ApiMetrics.Query.FIND_BY_ID, Optional.of("t")));
+        assertEquals(0, QueryMetricsInterceptor.rows(ApiMetrics.Query.EXISTS, false));
+        assertEquals(500, QueryMetricsInterceptor.rows(ApiMetrics.Query.CREATE_ALL, 500));
+        assertEquals(1, QueryMetricsInterceptor.rows(ApiMetrics.Query.COUNT, 1_000_000L));
+        assertEquals(0, QueryMetricsInterceptor.rows(ApiMetrics.Query.FLUSH, null));
+    }
+
+    @Test
+    @DisplayName("Query - Debería cubrir todos los métodos públicos del repositorio")
+    void testQuery_ShouldCoverRepository() throws Exception {
+        for (Method method : TransactionRepository.class.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers())) {
+                assertNotNull(ApiMetrics.Query.forMethod(method.getName()), method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.pac.metrics;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para WindowedHistogram.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("WindowedHistogram Unit Tests")
+class WindowedHistogramTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final WindowedHistogram histogram = new WindowedHistogram(clock::get);
+
+    @Test
+    @DisplayName("bucketOf() - Cada valor debería caer en una cubeta que lo contiene")
+    void testBucketOf_ShouldContainValue() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, WindowedHistogram.MAX_VALUE}) {
+            int bucket = WindowedHistogram.bucketOf(value);
+            assertTrue(WindowedHistogram.lowerBound(bucket) <= value, "lower bound of " + value);
+            assertTrue(WindowedHistogram.upperBound(bucket) >= value, "upper bound of " + value);
+        }
+        assertEquals(WindowedHistogram.BUCKETS - 1, WindowedHistogram.bucketOf(WindowedHistogram.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("bucketOf() - Las cubetas deberían ser contiguas y con error relativo acotado")
+    void testBucketOf_ShouldBeContiguous() {
+        for (int bucket = 1; bucket < WindowedHistogram.BUCKETS; bucket++) {
+            assertEquals(WindowedHistogram.upperBound(bucket - 1) + 1, WindowedHistogram.lowerBound(bucket));
+            long lower = WindowedHistogram.lowerBound(bucket);
+            long width = WindowedHistogram.upperBound(bucket) - lower + 1;
+            assertTrue(width <= Math.max(1, lower / WindowedHistogram.SUB_BUCKETS));
+        }
+    }
+
+    @Test
+    @DisplayName("getSnapshot() - Debería devolver percentiles aproximados")
+    void testGetSnapshot_ShouldApproximateQuantiles() {
+        // Given
+        for (int value = 1; value <= 1000; value++) {
+            histogram.update(value * 1000L);
+        }
+
+        // When
+        Snapshot snapshot = histogram.getSnapshot();
+
+        // Then
+        assertEquals(1000, snapshot.size());
+        assertEquals(500_500, snapshot.getMean(), 0.001);
+        assertEquals(500_000, snapshot.getMedian(), 500_000 * 0.07);
+        assertEquals(990_000, snapshot.get99thPercentile(), 990_000 * 0.07);
+        assertTrue(snapshot.getMin() <= 1000);
+        assertTrue(snapshot.getMax() >= 1_000_000);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000, histogram.getSum());
+    }
+
+    @Test
+    @DisplayName("update() - Debería acotar los valores negativos y los mayores que el máximo")
+    void testUpdate_ShouldClampValues() {
+        // When
+        histogram.update(-5);
+        histogram.update(Long.MAX_VALUE);
+
+        // Then
+        Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(0, snapshot.getMin());
+        assertEquals(WindowedHistogram.MAX_VALUE, snapshot.getMax());
+        assertEquals(WindowedHistogram.MAX_VALUE, histogram.getSum());
+    }
+
+    @Test
+    @DisplayName("getSnapshot() - Debería olvidar los valores fuera de la ventana sin perder los acumulados")
+    void testGetSnapshot_ShouldSlideWindow() {
+        // Given
+        histogram.update(1_000_000);
+        clock.addAndGet(WindowedHistogram.SLOT_NANOS * (WindowedHistogram.WINDOW_SLOTS - 1));
+        histogram.update(10);
+
+        // Then: ambos valores siguen en la ventana
+        assertEquals(2, histogram.getSnapshot().size());
+
+        // When: el primer minuto sale de la ventana y su franja se reutiliza
+        clock.addAndGet(WindowedHistogram.SLOT_NANOS);
+        histogram.update(20);
+
+        // Then
+        Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.getMax() < 1000);
+        assertEquals(3, histogram.getCount());
+        assertEquals(1_000_030, histogram.getSum());
+    }
+
+    @Test
+    @DisplayName("getSnapshot() - Debería devolver ceros con la ventana vacía")
+    void testGetSnapshot_Empty() {
+        // Given
+        histogram.update(42);
+        clock.addAndGet(WindowedHistogram.SLOT_NANOS * WindowedHistogram.WINDOW_SLOTS);
+
+        // When
+        Snapshot snapshot = histogram.getSnapshot();
+
+        // Then
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.getValue(0.99));
+        assertEquals(0, snapshot.getMean());
+        assertEquals(0, snapshot.getValues().length);
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getValue(1.5));
+    }
+}
@@ -0,0 +1,69 @@
+package com.pac.pipeline;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para RawTransactionParser usando las líneas de ejemplo de
+ * transactions.csv.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("RawTransactionParser Unit Tests")
+class RawTransactionParserTest {
+    
+    @Test
+    @DisplayName("parse() - Debería normalizar una línea válida y categorizarla")
+    void testParse_ValidLine_ShouldNormalize() {
+        // When
+        ParsedRow result = RawTransactionParser.parse("2023/10/04,50.2,Compra Supermercado");
+        
+        // Then
+        assertTrue(result.isAccepted());
+        Transaction transaction = result.getTransaction();
+        assertEquals(LocalDate.of(2023, 10, 4), transaction.getTransactionDate());
+        assertEquals(new BigDecimal("50.20"), transaction.getAmount());
+        assertEquals("Compra Supermercado", transaction.getDescription());
+        assertEquals("groceries", transaction.getCategory());
+        assertFalse(transaction.isSuspicious());
+    }
+    
+    @Test
+    @DisplayName("parse() - Debería marcar como sospechosas las de alto valor o con palabras clave")
+    void testParse_HighValueOrKeyword_ShouldBeSuspicious() {
+        assertTrue(RawTransactionParser.parse("2023-10-02,2500.00,Transferencia").getTransaction().isSuspicious());
+        
+        Transaction fraud = RawTransactionParser.parse("2023-10-08,99.99,Posible Fraude Online").getTransaction();
+        assertTrue(fraud.isSuspicious());
+        assertEquals("online", fraud.getCategory());
+    }
+    
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "date,amount,description|HEADER",
+        "'   '|EMPTY",
+        "2023-10-01;150.50|MALFORMED",
+        ",100.00,Fecha Faltante|INVALID_DATE",
+        "2023-13-01,100.00,Mes inválido|INVALID_DATE",
+        "2023-10-03,,Error Importe Nulo|INVALID_AMOUNT",
+        "2023-10-03,abc,Importe texto|INVALID_AMOUNT",
+        "2023-10-03,0.00,Importe cero|NON_POSITIVE_AMOUNT",
+        "2023-10-03,10.00,   |MISSING_DESCRIPTION"
+    })
+    @DisplayName("parse() - Debería rechazar líneas inválidas con el motivo correcto")
+    void testParse_InvalidLines_ShouldReject(String line, RejectReason expected) {
+        ParsedRow result = RawTransactionParser.parse(line);
+        
+        assertFalse(result.isAccepted());
+        assertEquals(expected, result.getRejectReason());
+    }
+}
@@ -0,0 +1,203 @@
+package com.pac.pipeline;
+
+import com.pac.entity.RawTransaction;
+import com.pac.entity.Transaction;
+import com.pac.repository.PipelineWatermark;
+import com.pac.repository.RawTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para RawTransactionPipeline.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RawTransactionPipeline Unit Tests")
+class RawTransactionPipelineTest {
+
+    private static final String PIPELINE = RawTransactionPipeline.PIPELINE_NAME;
+    private static final long TXID = 900;
+
+    @Mock
+    private RawTransactionRepository rawRepository;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private RawTransactionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(rawRepository.loadWatermark(PIPELINE)).thenReturn(new PipelineWatermark(TXID, 10));
+        lenient().when(rawRepository.findAfter(any(), anyInt())).thenReturn(List.of());
+    }
+
+    private static RawTransaction row(long id, String csvLine) {
+        return new RawTransaction(id, TXID, csvLine);
+    }
+
+    @Test
+    @DisplayName("run() - Debería promover las líneas válidas y avanzar el watermark a la última línea leída")
+    void testRun_ShouldPromoteAndAdvanceWatermark() {
+        // Given
+        when(rawRepository.findAfter(new PipelineWatermark(TXID, 10), 5000)).thenReturn(List.of(
+                row(11, "2023-10-01,50.20,Compra Supermercado"),
+                row(12, "2023-10-02,12.00,Taxi")));
+        when(rawRepository.promote(eq(PIPELINE), anyList(), any())).thenReturn(2);
+
+        // When
+        pipeline.run();
+
+        // Then
+        ArgumentCaptor<List<Transaction>> promoted = ArgumentCaptor.forClass(List.class);
+        verify(rawRepository).promote(eq(PIPELINE), promoted.capture(), eq(new PipelineWatermark(TXID, 12)));
+        assertEquals(2, promoted.getValue().size());
+        assertEquals(12, pipeline.getWatermark());
+        assertEquals(2, pipeline.getMetrics().getRowsRead());
+        assertEquals(2, pipeline.getMetrics().getRowsPromoted());
+        assertFalse(pipeline.isRunning());
+    }
+
+    @Test
+    @DisplayName("run() - Debería seguir leyendo desde el watermark en memoria sin releerlo")
+    void testRun_ShouldReuseWatermarkBetweenRuns() {
+        // Given
+        when(rawRepository.findAfter(new PipelineWatermark(TXID, 10), 5000))
+                .thenReturn(List.of(row(11, "2023-10-01,50.20,Compra Supermercado")));
+        pipeline.run();
+
+        // When
+        pipeline.run();
+
+        // Then
+        verify(rawRepository, times(1)).loadWatermark(PIPELINE);
+        verify(rawRepository).findAfter(new PipelineWatermark(TXID, 11), 5000);
+    }
+
+    @Test
+    @DisplayName("run() - Debería releer el watermark persistido tras un fallo")
+    void testRun_Failure_ShouldReloadWatermark() {
+        // Given
+        when(rawRepository.findAfter(new PipelineWatermark(TXID, 10), 5000))
+                .thenThrow(new PersistenceException("connection lost"))
+                .thenReturn(List.of());
+
+        // When
+        pipeline.run();
+
+        // Then
+        assertEquals(-1, pipeline.getWatermark());
+        assertFalse(pipeline.isRunning());
+
+        // When
+        pipeline.run();
+
+        // Then
+        verify(rawRepository, times(2)).loadWatermark(PIPELINE);
+        assertEquals(10, pipeline.getWatermark());
+    }
+
+    @Test
+    @DisplayName("run() - Debería contabilizar las líneas rechazadas por motivo sin promoverlas")
+    void testRun_ShouldCountRejectedRows() {
+        // Given
+        when(rawRepository.findAfter(any(), anyInt())).thenReturn(List.of(
+                row(11, "date,amount,description"),
+                row(12, "2023-10-01,abc,Compra"),
+                row(13, "2023-10-01,0.00,Compra"),
+                row(14, "2023-10-02,12.00,Taxi")));
+        when(rawRepository.promote(eq(PIPELINE), anyList(), any())).thenReturn(1);
+        pipeline.run();
+
+        // Then
+        ArgumentCaptor<List<Transaction>> promoted = ArgumentCaptor.forClass(List.class);
+        verify(rawRepository).promote(eq(PIPELINE), promoted.capture(), eq(new PipelineWatermark(TXID, 14)));
+        assertEquals("Taxi", promoted.getValue().get(0).getDescription());
+        assertEquals(Map.of(RejectReason.HEADER, 1L, RejectReason.INVALID_AMOUNT, 1L,
+                RejectReason.NON_POSITIVE_AMOUNT, 1L), pipeline.getMetrics().getRejectedByReason());
+        assertEquals(1, pipeline.getMetrics().getRowsPromoted());
+    }
+
+    @Test
+    @DisplayName("run() - Debería reintentar fila a fila si falla la escritura del lote")
+    void testRun_BatchFailure_ShouldFallBackRowByRow() {
+        // Given: el lote falla y, fila a fila, solo falla la línea 12
+        when(rawRepository.findAfter(any(), anyInt())).thenReturn(List.of(
+                row(11, "2023-10-01,50.20,Compra Supermercado"),
+                row(12, "2023-10-02,12.00,Taxi"),
+                row(13, "2023-10-03,8.00,Cine"),
+                row(14, "")));
+        when(rawRepository.promote(eq(PIPELINE), argThat(list -> list.size() > 1), any()))
+                .thenThrow(new PersistenceException("batch failed"));
+        when(rawRepository.promote(eq(PIPELINE), argThat(list -> list.size() == 1), any())).thenReturn(1);
+        when(rawRepository.promote(eq(PIPELINE), argThat(list -> list.size() == 1),
+                eq(new PipelineWatermark(TXID, 12)))).thenThrow(new PersistenceException("row failed"));
+        pipeline.run();
+
+        // When & Then
+        verify(rawRepository).promote(eq(PIPELINE), argThat(list -> list.size() == 1),
+                eq(new PipelineWatermark(TXID, 11)));
+        verify(rawRepository).promote(eq(PIPELINE), argThat(list -> list.size() == 1),
+                eq(new PipelineWatermark(TXID, 13)));
+        verify(rawRepository).promote(PIPELINE, List.of(), new PipelineWatermark(TXID, 14));
+        assertEquals(14, pipeline.getWatermark());
+        assertEquals(2, pipeline.getMetrics().getRowsPromoted());
+        assertEquals(Map.of(RejectReason.EMPTY, 1L, RejectReason.WRITE_FAILED, 1L),
+                pipeline.getMetrics().getRejectedByReason());
+    }
+
+    @Test
+    @DisplayName("run() - Debería conservar el orden de las líneas al transformar por particiones")
+    void testRun_LargeBatch_ShouldParseInParallel() {
+        // Given
+        List<RawTransaction> rows = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            rows.add(row(10 + i, "2023-10-01," + i + ".00,Compra " + i));
+        }
+        when(rawRepository.findAfter(any(), anyInt())).thenReturn(rows);
+        lenient().when(executor.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return CompletableFuture.completedFuture(null);
+        });
+        when(rawRepository.promote(eq(PIPELINE), anyList(), any())).thenReturn(2000);
+        pipeline.run();
+
+        // Then
+        ArgumentCaptor<List<Transaction>> promoted = ArgumentCaptor.forClass(List.class);
+        verify(rawRepository).promote(eq(PIPELINE), promoted.capture(), eq(new PipelineWatermark(TXID, 2010)));
+        assertEquals(2000, promoted.getValue().size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("Compra " + (i + 1), promoted.getValue().get(i).getDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("getLagRows() - Debería restar el watermark persistido al mayor id")
+    void testGetLagRows_ShouldUsePersistedWatermark() {
+        // Given
+        when(rawRepository.maxId()).thenReturn(25L);
+
+        // When & Then
+        assertEquals(15, pipeline.getLagRows());
+    }
+}
@@ -0,0 +1,52 @@
+package com.pac.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para CategoryDictionary.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("CategoryDictionary Unit Tests")
+class CategoryDictionaryTest {
+    
+    @Test
+    @DisplayName("of() - Debería resolver nombres e ids en ambos sentidos")
+    void testOf_ShouldMapBothWays() {
+        // Given
+        CategoryDictionary dictionary = CategoryDictionary.of(Map.of((short) 1, "groceries", (short) 4, "food"));
+        
+        // Then
+        assertEquals(2, dictionary.size());
+        assertEquals(Short.valueOf((short) 4), dictionary.idOf("food"));
+        assertEquals("groceries", dictionary.nameOf((short) 1));
+        assertNull(dictionary.idOf("unknown"));
+        assertNull(dictionary.idOf(null));
+        assertNull(dictionary.nameOf((short) 2));
+        assertNull(dictionary.nameOf((short) 99));
+        assertSame(dictionary.idOf("food"), dictionary.idOf(new String("food")));
+    }
+    
+    @Test
+    @DisplayName("with() - Debería devolver un diccionario nuevo sin modificar el original")
+    void testWith_ShouldNotMutateOriginal() {
+        // Given
+        CategoryDictionary dictionary = CategoryDictionary.of(Map.of((short) 1, "groceries"));
+        
+        // When
+        CategoryDictionary extended = dictionary.with((short) 9, "crypto");
+        
+        // Then
+        assertNull(dictionary.idOf("crypto"));
+        assertEquals(Short.valueOf((short) 9), extended.idOf("crypto"));
+        assertEquals("crypto", extended.nameOf((short) 9));
+        assertEquals("groceries", extended.nameOf((short) 1));
+        assertSame(extended, extended.with((short) 9, "crypto"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.pac.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para CategoryRegistry.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryRegistry Unit Tests")
+class CategoryRegistryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CategoryRegistry registry;
+
+    private static Map<Short, String> categories(int count) {
+        Map<Short, String> categories = new LinkedHashMap<>();
+        categories.put((short) 1, "groceries");
+        categories.put((short) 8, "other");
+        for (int i = categories.size(); i < count; i++) {
+            categories.put((short) (100 + i), "category-" + i);
+        }
+        return categories;
+    }
+
+    @Test
+    @DisplayName("idFor() - Debería resolver las conocidas en memoria y registrar las nuevas una vez")
+    void testIdFor_ShouldRegisterNewCategoryOnce() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(categories(2));
+        when(categoryRepository.register("travel")).thenReturn((short) 9);
+        registry.init();
+
+        // When & Then
+        assertEquals(1, registry.idFor("groceries"));
+        assertEquals(8, registry.idFor(null));
+        assertEquals(9, registry.idFor("travel"));
+        assertEquals(9, registry.idFor("travel"));
+        verify(categoryRepository, times(1)).register("travel");
+    }
+
+    @Test
+    @DisplayName("idFor() - Debería rechazar nombres nuevos vacíos o demasiado largos")
+    void testIdFor_InvalidName_ShouldThrow() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(categories(2));
+        registry.init();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> registry.idFor(" "));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.idFor("x".repeat(CategoryRegistry.MAX_NAME_LENGTH + 1)));
+        verify(categoryRepository, never()).register(anyString());
+    }
+
+    @Test
+    @DisplayName("idFor() - Debería rechazar categorías nuevas al alcanzar el límite")
+    void testIdFor_LimitReached_ShouldRejectNewCategories() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(categories(CategoryRegistry.MAX_CATEGORIES));
+        registry.init();
+
+        // When & Then
+        assertEquals(1, registry.idFor("groceries"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> registry.idFor("travel"));
+        assertTrue(e.getMessage().contains("travel"));
+        verify(categoryRepository, never()).register(anyString());
+        verify(categoryRepository, times(2)).findAll();
+    }
+}
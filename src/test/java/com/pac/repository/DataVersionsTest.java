@@ -0,0 +1,74 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para DataVersions.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("DataVersions Unit Tests")
+class DataVersionsTest {
+
+    private final DataVersions versions = new DataVersions();
+
+    private static Transaction transaction(LocalDate date, String category) {
+        return new Transaction(date, new BigDecimal("10.00"), "Test", category);
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería avanzar la versión global y la de los ámbitos afectados")
+    void testOnChange_ShouldBumpAffectedScopes() {
+        // Given
+        DataVersion initialGlobal = versions.global();
+        DataVersion initialHousing = versions.category("housing");
+
+        // When
+        versions.onChange(TransactionChangeEvent.created(List.of(transaction(LocalDate.of(2024, 3, 10), "food"))));
+
+        // Then
+        assertTrue(versions.global().getVersion() > initialGlobal.getVersion());
+        assertNotEquals(initialGlobal.tag(null), versions.global().tag(null));
+        assertEquals(versions.global().getVersion(), versions.category("food").getVersion());
+        assertEquals(initialHousing.tag(null), versions.category("housing").tag(null));
+        assertEquals(versions.global().getVersion(),
+                versions.dates(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)).getVersion());
+        assertEquals(0, versions.dates(LocalDate.of(2024, 4, 1), null).getVersion());
+        assertEquals(0, versions.dates(null, LocalDate.of(2024, 2, 29)).getVersion());
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería invalidar la categoría y el mes anteriores al actualizar")
+    void testOnChange_Update_ShouldBumpPreviousScopes() {
+        // Given
+        Transaction before = transaction(LocalDate.of(2024, 1, 5), "food");
+        Transaction after = transaction(LocalDate.of(2024, 6, 5), "transport");
+
+        // When
+        versions.onChange(TransactionChangeEvent.updated(before, after));
+
+        // Then
+        long version = versions.global().getVersion();
+        assertEquals(version, versions.category("food").getVersion());
+        assertEquals(version, versions.category("transport").getVersion());
+        assertEquals(version, versions.dates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)).getVersion());
+        assertEquals(version, versions.dates(LocalDate.of(2024, 6, 1), null).getVersion());
+    }
+
+    @Test
+    @DisplayName("tag() - Debería distinguir variantes de la misma versión")
+    void testTag_Variant() {
+        DataVersion version = versions.global();
+        assertNotEquals(version.tag("a"), version.tag("b"));
+        assertTrue(version.tag("a").startsWith(version.tag(null)));
+    }
+}
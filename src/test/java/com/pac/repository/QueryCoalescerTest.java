@@ -0,0 +1,98 @@
+package com.pac.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para QueryCoalescer.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("QueryCoalescer Unit Tests")
+class QueryCoalescerTest {
+    
+    private final QueryCoalescer coalescer = new QueryCoalescer();
+    
+    @Test
+    @DisplayName("execute() - Debería compartir una consulta en curso entre peticiones idénticas")
+    void testExecute_ConcurrentIdentical_ShouldRunOnce() throws Exception {
+        // Given
+        int callers = 8;
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.execute("page", () -> {
+                runs.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "rows";
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            
+            // When
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("page", () -> {
+                    runs.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (coalescer.getCoalesced() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("rows", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, runs.get());
+            assertEquals(1, coalescer.getExecutions());
+            assertEquals(callers - 1, coalescer.getCoalesced());
+            assertEquals(0, coalescer.getInFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("execute() - Debería volver a consultar al terminar y con claves distintas")
+    void testExecute_Sequential_ShouldNotCache() {
+        assertEquals(1, (int) coalescer.execute("a", () -> 1));
+        assertEquals(2, (int) coalescer.execute("a", () -> 2));
+        assertEquals(3, (int) coalescer.execute("b", () -> 3));
+        assertEquals(3, coalescer.getExecutions());
+        assertEquals(0, coalescer.getCoalesced());
+    }
+    
+    @Test
+    @DisplayName("execute() - Debería propagar el error de la consulta y liberar la clave")
+    void testExecute_Failure_ShouldPropagateAndRelease() {
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("a", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals("ok", coalescer.execute("a", () -> "ok"));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pac.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para RawTransactionRepository.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("RawTransactionRepository Unit Tests")
+class RawTransactionRepositoryTest {
+    
+    @Test
+    @DisplayName("escapeForCopyText() - Debería escapar barras y tabuladores y descartar CR")
+    void testEscapeForCopyText_ShouldEscapeSpecialBytes() {
+        // Given
+        byte[] in = "2023-10-01,1.00,a\\b\tc\r\n\\.\n".getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[in.length * 2];
+        
+        // When
+        int length = RawTransactionRepository.escapeForCopyText(in, in.length, out);
+        
+        // Then
+        assertEquals("2023-10-01,1.00,a\\\\b\\tc\n\\\\.\n",
+                new String(out, 0, length, StandardCharsets.UTF_8));
+    }
+}
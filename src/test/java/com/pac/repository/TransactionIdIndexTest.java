@@ -0,0 +1,194 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para TransactionIdIndex usando JUnit 5 y Mockito.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionIdIndex Unit Tests")
+class TransactionIdIndexTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionIdIndex index;
+
+    private static Transaction transaction(long id) {
+        Transaction transaction = new Transaction(LocalDate.of(2024, 3, 10), new BigDecimal("10.00"), "Test", "food");
+        transaction.setId(id);
+        return transaction;
+    }
+
+    private void load(long... ids) {
+        doAnswer(invocation -> {
+            LongConsumer action = invocation.getArgument(0);
+            for (long id : ids) {
+                action.accept(id);
+            }
+            return (long) ids.length;
+        }).when(transactionRepository).forEachId(any());
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("mightContain() - Debería consultar la base de datos mientras no se ha cargado")
+    void testMightContain_NotReady_ShouldAllow() {
+        assertFalse(index.isReady());
+        assertTrue(index.mightContain(42));
+    }
+
+    @Test
+    @DisplayName("mightContain() - Debería descartar los ids ausentes y aceptar los mayores que el máximo conocido")
+    void testMightContain_AfterRebuild() {
+        // Given
+        load(1, 2, 3, 70_000, 70_005);
+
+        // When / Then
+        assertTrue(index.isReady());
+        assertEquals(5, index.getSize());
+        assertTrue(index.mightContain(3));
+        assertTrue(index.mightContain(70_005));
+        assertFalse(index.mightContain(4));
+        assertFalse(index.mightContain(69_999));
+        assertTrue(index.mightContain(70_006));
+        assertEquals(2, index.getRejected());
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería añadir las altas y quitar las bajas sin reconstruir")
+    void testOnChange_ShouldApplyCreatesAndDeletes() {
+        // Given
+        load(1, 2, 3);
+
+        // When
+        index.onChange(TransactionChangeEvent.created(List.of(transaction(10))));
+        index.onChange(TransactionChangeEvent.deleted(transaction(2)));
+        index.onChange(TransactionChangeEvent.updated(transaction(3), transaction(3)));
+
+        // Then
+        assertTrue(index.mightContain(10));
+        assertFalse(index.mightContain(2));
+        assertTrue(index.mightContain(3));
+        assertFalse(index.mightContain(9));
+        verify(transactionRepository, times(1)).forEachId(any());
+    }
+
+    @Test
+    @DisplayName("checkExternalInserts() - Debería dejar de descartar ids si hay inserciones externas")
+    void testCheckExternalInserts_ShouldBypassUntilRebuild() {
+        // Given: 100 inserciones en PostgreSQL al cargar el índice
+        when(transactionRepository.countInsertedRows()).thenReturn(100L);
+        load(1, 2, 3, 70_000);
+        index.onChange(TransactionChangeEvent.created(List.of(transaction(70_001))));
+
+        // When: solo la inserción local
+        when(transactionRepository.countInsertedRows()).thenReturn(101L);
+        index.checkExternalInserts();
+
+        // Then
+        assertFalse(index.isStale());
+        assertFalse(index.mightContain(500));
+
+        // When: otra instancia inserta el id 500
+        when(transactionRepository.countInsertedRows()).thenReturn(102L);
+        when(transactionRepository.count()).thenReturn(6L);
+        index.checkExternalInserts();
+
+        // Then
+        assertTrue(index.isStale());
+        assertTrue(index.mightContain(500));
+
+        // When: ya marcado, no vuelve a contar las filas
+        when(transactionRepository.countInsertedRows()).thenReturn(103L);
+        index.checkExternalInserts();
+
+        // Then
+        assertTrue(index.isStale());
+        verify(transactionRepository, times(1)).count();
+
+        // When
+        load(1, 2, 3, 500, 70_000, 70_001);
+
+        // Then
+        assertFalse(index.isStale());
+        assertTrue(index.mightContain(500));
+        assertFalse(index.mightContain(501));
+    }
+
+    @Test
+    @DisplayName("checkExternalInserts() - No debería tomar por externas las inserciones de escrituras locales deshechas")
+    void testCheckExternalInserts_LocalRollback_ShouldKeepIndex() {
+        // Given: 100 inserciones al cargar y un lote local de 50 filas deshecho
+        when(transactionRepository.countInsertedRows()).thenReturn(100L);
+        load(1, 2, 3, 70_000);
+        when(transactionRepository.countInsertedRows()).thenReturn(150L);
+        when(transactionRepository.count()).thenReturn(4L);
+
+        // When
+        index.checkExternalInserts();
+
+        // Then
+        assertFalse(index.isStale());
+        assertFalse(index.mightContain(500));
+
+        // When: la referencia ya incluye el lote deshecho y otra instancia inserta una fila
+        index.checkExternalInserts();
+        when(transactionRepository.countInsertedRows()).thenReturn(151L);
+        when(transactionRepository.count()).thenReturn(5L);
+        index.checkExternalInserts();
+
+        // Then
+        assertTrue(index.isStale());
+        assertTrue(index.mightContain(500));
+        verify(transactionRepository, times(2)).count();
+    }
+
+    @Test
+    @DisplayName("checkExternalInserts() - No debería descartar ids sin estadísticas de PostgreSQL")
+    void testCheckExternalInserts_NoStatistics() {
+        // Given
+        when(transactionRepository.countInsertedRows()).thenReturn(-1L);
+        load(1, 2, 3);
+
+        // When
+        index.checkExternalInserts();
+
+        // Then
+        assertTrue(index.isStale());
+        assertTrue(index.mightContain(2));
+        assertTrue(index.mightContain(1_000));
+    }
+
+    @Test
+    @DisplayName("getFalsePositiveRate() - Debería relacionar falsos positivos y descartes")
+    void testFalsePositiveRate() {
+        // Given
+        load(1, 2, 3, 10);
+        index.mightContain(5);
+        index.mightContain(1);
+        index.recordFalsePositive();
+
+        // Then
+        assertEquals(0.5, index.getFalsePositiveRate(), 1e-9);
+    }
+}
@@ -0,0 +1,104 @@
+package com.pac.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para TransactionPivotRepository usando JUnit 5 y Mockito.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionPivotRepository Unit Tests")
+class TransactionPivotRepositoryTest {
+    
+    @Mock
+    private EntityManager entityManager;
+    
+    @Mock
+    private Query query;
+    
+    @Mock
+    private CategoryRegistry categories;
+    
+    @InjectMocks
+    private TransactionPivotRepository repository;
+    
+    @Test
+    @DisplayName("buildSql() - Debería calcular todos los niveles en una sola consulta con GROUPING SETS")
+    void testBuildSql_ShouldUseGroupingSets() {
+        // Given
+        PivotQuery pivot = PivotQuery.parse("category", "month", "count,sum",
+                LocalDate.of(2024, 1, 1), null);
+        
+        // When
+        String sql = TransactionPivotRepository.buildSql(pivot);
+        
+        // Then
+        String row = PivotDimension.CATEGORY.getExpression();
+        String col = PivotDimension.MONTH.getExpression();
+        assertTrue(sql.contains("WHERE transactiondate >= ?1 GROUP BY"));
+        assertTrue(sql.endsWith("GROUP BY GROUPING SETS ((" + row + ", " + col + "), ("
+                + row + "), (" + col + "), ())"));
+        assertTrue(sql.contains("COUNT(*), SUM(amount) FROM fact_transactions"));
+        assertTrue(sql.startsWith("SELECT category_id, "));
+    }
+    
+    @Test
+    @DisplayName("pivot() - Debería repartir el resultado en celdas, subtotales y total general")
+    void testPivot_ShouldBuildMatrix() {
+        // Given
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{(short) 4, "2024-01", 0, 0, 2L, new BigDecimal("30.00")},
+                new Object[]{(short) 4, "2024-02", 0, 0, 1L, new BigDecimal("5.00")},
+                new Object[]{(short) 5, "2024-02", 0, 0, 1L, new BigDecimal("2500.00")},
+                new Object[]{(short) 4, null, 0, 1, 3L, new BigDecimal("35.00")},
+                new Object[]{(short) 5, null, 0, 1, 1L, new BigDecimal("2500.00")},
+                new Object[]{null, "2024-01", 1, 0, 2L, new BigDecimal("30.00")},
+                new Object[]{null, "2024-02", 1, 0, 2L, new BigDecimal("2505.00")},
+                new Object[]{null, null, 1, 1, 4L, new BigDecimal("2535.00")});
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getResultList()).thenReturn(rows);
+        when(categories.nameOf((short) 4)).thenReturn("food");
+        when(categories.nameOf((short) 5)).thenReturn("transfer");
+        
+        // When
+        PivotTable table = repository.pivot(PivotQuery.parse("category", "month", "count,sum", null, null));
+        
+        // Then
+        assertEquals(List.of("food", "transfer"), table.getRows());
+        assertEquals(List.of("2024-01", "2024-02"), table.getCols());
+        assertEquals(List.of("count", "sum"), table.getMeasures());
+        assertArrayEquals(new Number[]{2L, new BigDecimal("30.00")}, table.getCells()[0][0]);
+        assertNull(table.getCells()[1][0]);
+        assertArrayEquals(new Number[]{1L, new BigDecimal("2500.00")}, table.getRowTotals()[1]);
+        assertArrayEquals(new Number[]{2L, new BigDecimal("2505.00")}, table.getColTotals()[1]);
+        assertArrayEquals(new Number[]{4L, new BigDecimal("2535.00")}, table.getGrandTotal());
+        verify(query, never()).setParameter(anyInt(), any());
+    }
+    
+    @Test
+    @DisplayName("PivotQuery.parse() - Debería rechazar dimensiones o medidas no válidas")
+    void testParse_InvalidParameters_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> PivotQuery.parse("merchant", null, "count", null, null));
+        assertThrows(IllegalArgumentException.class, () -> PivotQuery.parse("category", "category", "count", null, null));
+        assertThrows(IllegalArgumentException.class, () -> PivotQuery.parse("category", null, "median", null, null));
+        assertThrows(IllegalArgumentException.class, () -> PivotQuery.parse("category", null, "", null, null));
+    }
+}
@@ -0,0 +1,161 @@
+package com.pac.repository;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para TransactionQueryCache usando JUnit 5 y Mockito.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionQueryCache Unit Tests")
+class TransactionQueryCacheTest {
+
+    @Spy
+    private QueryCoalescer coalescer = new QueryCoalescer();
+
+    @InjectMocks
+    private TransactionQueryCache cache;
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private static Transaction transaction(long id, LocalDate date, String amount, String category) {
+        Transaction transaction = new Transaction(date, new BigDecimal(amount), "Supermercado " + id, category, false);
+        transaction.setId(id);
+        return transaction;
+    }
+
+    private Supplier<List<Transaction>> query(List<Transaction> rows) {
+        return () -> {
+            queries.incrementAndGet();
+            return rows;
+        };
+    }
+
+    @Test
+    @DisplayName("page() - Debería servir desde la caché las consultas repetidas")
+    void testPage_ShouldHitCache() {
+        // Given
+        TransactionFilter filter = TransactionFilter.category("food");
+        List<Transaction> rows = List.of(transaction(1, LocalDate.of(2024, 3, 10), "10.00", "food"));
+
+        // When
+        cache.page(filter, null, 21, query(rows));
+        List<Transaction> second = cache.page(filter, null, 21, query(rows));
+
+        // Then
+        assertEquals(rows, second);
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería invalidar solo las páginas cuyo filtro y tramo incluyen la fila")
+    void testOnChange_ShouldInvalidateMatchingPages() {
+        // Given
+        TransactionFilter food = TransactionFilter.category("food");
+        TransactionFilter housing = TransactionFilter.category("housing");
+        PageCursor afterMay = PageCursor.after(transaction(50, LocalDate.of(2024, 5, 1), "10.00", "food"));
+        cache.page(food, null, 2, query(List.of(
+                transaction(10, LocalDate.of(2024, 6, 20), "10.00", "food"),
+                transaction(11, LocalDate.of(2024, 6, 10), "10.00", "food"))));
+        cache.page(food, afterMay, 2, query(List.of(
+                transaction(12, LocalDate.of(2024, 4, 20), "10.00", "food"),
+                transaction(13, LocalDate.of(2024, 4, 10), "10.00", "food"))));
+        cache.page(housing, null, 20, query(List.of(
+                transaction(14, LocalDate.of(2024, 6, 1), "900.00", "housing"))));
+
+        // When: una compra en marzo queda después de ambas páginas de "food"
+        cache.onChange(TransactionChangeEvent.created(List.of(
+                transaction(20, LocalDate.of(2024, 3, 5), "10.00", "food"))));
+
+        // Then
+        assertEquals(3, cache.getEntries());
+        assertEquals(0, cache.getInvalidations());
+
+        // When: una compra del 15 de abril cae dentro de la segunda página
+        cache.onChange(TransactionChangeEvent.created(List.of(
+                transaction(21, LocalDate.of(2024, 4, 15), "10.00", "food"))));
+
+        // Then
+        assertEquals(2, cache.getEntries());
+        assertEquals(1, cache.getInvalidations());
+        queries.set(0);
+        cache.page(food, null, 2, query(List.of()));
+        cache.page(housing, null, 20, query(List.of()));
+        assertEquals(0, queries.get());
+        cache.page(food, afterMay, 2, query(List.of()));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería invalidar las búsquedas cuyo patrón cumple la descripción")
+    void testOnChange_ShouldInvalidateMatchingSearches() {
+        // Given
+        cache.search("super", 10, query(List.of()));
+        cache.search("gasolina", 10, query(List.of()));
+
+        // When
+        cache.onChange(TransactionChangeEvent.created(List.of(
+                transaction(30, LocalDate.of(2024, 3, 5), "10.00", "food"))));
+
+        // Then
+        assertEquals(1, cache.getEntries());
+        queries.set(0);
+        cache.search("gasolina", 10, query(List.of()));
+        assertEquals(0, queries.get());
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería vaciar la caché con escrituras de más filas que el límite")
+    void testOnChange_LargeChange_ShouldInvalidateAll() {
+        // Given
+        cache.search("gasolina", 10, query(List.of()));
+        cache.page(TransactionFilter.category("housing"), null, 20, query(List.of()));
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i <= TransactionQueryCache.MAX_ROWS_PER_CHANGE; i++) {
+            rows.add(transaction(100 + i, LocalDate.of(2024, 3, 5), "10.00", "food"));
+        }
+
+        // When
+        cache.onChange(TransactionChangeEvent.created(rows));
+
+        // Then: ninguna de las dos consultas cumple las filas, pero se descartan
+        assertEquals(0, cache.getEntries());
+        assertEquals(2, cache.getInvalidations());
+    }
+
+    @Test
+    @DisplayName("page() - No debería guardar un resultado leído durante una escritura")
+    void testPage_ConcurrentWrite_ShouldNotStore() {
+        // Given
+        TransactionFilter filter = TransactionFilter.all();
+        Transaction row = transaction(40, LocalDate.of(2024, 3, 5), "10.00", "food");
+
+        // When
+        cache.page(filter, null, 21, () -> {
+            cache.onChange(TransactionChangeEvent.created(List.of(row)));
+            return List.of();
+        });
+
+        // Then
+        assertEquals(0, cache.getEntries());
+    }
+}
@@ -1,6 +1,11 @@
 package com.pac.repository;
 
 import com.pac.entity.Transaction;
+import com.pac.rules.RuleEngine;
+import com.pac.rules.SuspicionRules;
+import com.pac.rules.VelocityDetector;
+import com.pac.rules.VelocityKey;
+import com.pac.rules.VelocityRule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,9 +14,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.enterprise.event.Event;
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +63,33 @@ class TransactionRepositoryTest {
     @Mock
     private TypedQuery<Object[]> objectArrayQuery;
     
+    @Mock
+    private Event<TransactionChangeEvent> changeEvents;
+    
+    @Mock
+    private CategoryRegistry categories;
+    
+    @Mock
+    private Query nativeQuery;
+    
+    @Mock
+    private SuspicionRules suspicionRules;
+    
+    @Mock
+    private TransactionIdIndex ids;
+    
+    @Mock
+    private DataSource dataSource;
+    
+    @Mock
+    private Connection connection;
+    
+    @Mock
+    private PreparedStatement statement;
+    
+    @Mock
+    private ResultSet resultSet;
+    
     @InjectMocks
     private TransactionRepository repository;
     
@@ -72,6 +113,10 @@ class TransactionRepositoryTest {
         
         testTransactionList = new ArrayList<>();
         testTransactionList.add(testTransaction);
+        
+        lenient().when(suspicionRules.engine()).thenReturn(SuspicionRules.loadDefault());
+        lenient().when(suspicionRules.velocity()).thenReturn(VelocityDetector.NONE);
+        lenient().when(ids.mightContain(anyLong())).thenReturn(true);
     }
     
     // ========================================================================
@@ -95,9 +140,30 @@ class TransactionRepositoryTest {
         // Then
         verify(entityManager).persist(newTransaction);
         verify(entityManager).flush();
+        verify(changeEvents).fire(any(TransactionChangeEvent.class));
         assertEquals(newTransaction, result);
     }
     
+    @Test
+    @DisplayName("create() - Debería evaluar las reglas de sospecha antes de persistir")
+    void testCreate_ShouldApplySuspicionRules() {
+        // Given: transferencia de 1500 en sábado (large-transfer 30 + large-weekend-payment 25)
+        Transaction transfer = new Transaction(
+            LocalDate.of(2024, 1, 20),
+            new BigDecimal("1500.00"),
+            "Transferencia",
+            "transfer"
+        );
+        
+        // When
+        Transaction result = repository.create(transfer);
+        
+        // Then
+        assertEquals(55, result.getRiskScore());
+        assertTrue(result.isSuspicious());
+        verify(entityManager).persist(transfer);
+    }
+    
     @Test
     @DisplayName("create() - Debería lanzar excepción con transacción null")
     void testCreate_NullTransaction_ShouldThrowException() {
@@ -124,6 +190,84 @@ class TransactionRepositoryTest {
         verify(entityManager, never()).persist(any());
     }
     
+    @Test
+    @DisplayName("createAll() - Debería persistir el bloque con un único flush")
+    void testCreateAll_ValidTransactions_ShouldPersistAndFlushOnce() {
+        // Given
+        Transaction other = new Transaction(
+            LocalDate.of(2024, 1, 21),
+            new BigDecimal("80.00"),
+            "Another transaction",
+            "food"
+        );
+        
+        // When
+        int result = repository.createAll(List.of(testTransaction, other));
+        
+        // Then
+        assertEquals(2, result);
+        verify(entityManager).persist(testTransaction);
+        verify(entityManager).persist(other);
+        verify(entityManager, times(1)).flush();
+        verify(entityManager).clear();
+    }
+    
+    @Test
+    @DisplayName("createAll() - No debería pasar las cargas en bloque por el detector de frecuencia")
+    void testCreateAll_ShouldSkipVelocity() {
+        // Given: más de una transacción de la misma categoría en 10 minutos puntuaría 40
+        VelocityDetector velocity = new VelocityDetector(List.of(new VelocityRule(
+            "burst", 40, VelocityKey.CATEGORY, Duration.ofMinutes(10), 10, 1, 0, 64)));
+        lenient().when(suspicionRules.velocity()).thenReturn(velocity);
+        Transaction other = new Transaction(
+            LocalDate.of(2024, 1, 21),
+            new BigDecimal("100.00"),
+            "Test transaction",
+            "groceries"
+        );
+        
+        // When
+        repository.createAll(List.of(testTransaction, other));
+        
+        // Then
+        assertEquals(testTransaction.getRiskScore(), other.getRiskScore());
+        assertEquals(0, velocity.score(other));
+        verify(changeEvents).fire(argThat(TransactionChangeEvent::isBulk));
+    }
+    
+    @Test
+    @DisplayName("create() - Debería puntuar la frecuencia sin registrar la transacción antes de confirmarla")
+    void testCreate_ShouldScoreVelocityWithoutRecording() {
+        // Given: una transacción de la categoría ya confirmada; la segunda supera el límite
+        VelocityDetector velocity = new VelocityDetector(List.of(new VelocityRule(
+            "burst", 40, VelocityKey.CATEGORY, Duration.ofMinutes(10), 10, 1, 0, 64)));
+        when(suspicionRules.velocity()).thenReturn(velocity);
+        Transaction first = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("10.00"), "Cafe", "food");
+        Transaction second = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("10.00"), "Cafe", "food");
+        
+        // When
+        repository.create(first);
+        velocity.record(first);
+        repository.create(second);
+        repository.create(second.copy());
+        
+        // Then
+        assertEquals(0, first.getRiskScore());
+        assertEquals(40, second.getRiskScore());
+        verify(changeEvents, times(3)).fire(argThat(event -> !event.isBulk()));
+    }
+    
+    @Test
+    @DisplayName("createAll() - Debería rechazar el bloque si contiene una transacción inválida")
+    void testCreateAll_InvalidTransaction_ShouldNotPersistAnything() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> {
+            repository.createAll(List.of(testTransaction, new Transaction()));
+        });
+        
+        verify(entityManager, never()).persist(any());
+    }
+    
     @Test
     @DisplayName("findById() - Debería retornar transacción cuando existe")
     void testFindById_ExistingId_ShouldReturnTransaction() {
@@ -153,6 +297,22 @@ class TransactionRepositoryTest {
         // Then
         assertFalse(result.isPresent());
         verify(entityManager).find(Transaction.class, id);
+        verify(ids).recordFalsePositive();
+    }
+    
+    @Test
+    @DisplayName("findById() - No debería consultar la base de datos si el índice descarta el ID")
+    void testFindById_RejectedByIndex_ShouldNotQuery() {
+        // Given
+        Long id = 999L;
+        when(ids.mightContain(id)).thenReturn(false);
+        
+        // When
+        Optional<Transaction> result = repository.findById(id);
+        
+        // Then
+        assertFalse(result.isPresent());
+        verify(entityManager, never()).find(any(), any());
     }
     
     @Test
@@ -200,6 +360,45 @@ class TransactionRepositoryTest {
         verify(entityManager).merge(testTransaction);
     }
     
+    @Test
+    @DisplayName("update() - Debería emitir el estado anterior y el nuevo")
+    void testUpdate_ExistingTransaction_ShouldFireUpdatedEvent() {
+        // Given
+        Transaction changed = testTransaction.copy();
+        changed.setAmount(new BigDecimal("300.00"));
+        when(entityManager.find(Transaction.class, 1L)).thenReturn(testTransaction);
+        when(entityManager.merge(changed)).thenReturn(changed);
+        
+        // When
+        repository.update(changed);
+        
+        // Then
+        verify(changeEvents).fire(argThat(event ->
+                event.getType() == TransactionChangeEvent.Type.UPDATED
+                && new BigDecimal("100.00").equals(event.getPrevious().get(0).getAmount())
+                && new BigDecimal("300.00").equals(event.getCurrent().get(0).getAmount())));
+    }
+    
+    @Test
+    @DisplayName("update() - Debería retirar la marca de sospecha de las reglas si deja de cumplirlas")
+    void testUpdate_NoLongerMatchingRules_ShouldClearSuspicious() {
+        // Given: almacenada como sospechosa por las reglas (3000.00 en "other")
+        Transaction stored = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("3000.00"), "Coche", "other", true);
+        stored.setId(1L);
+        stored.setRiskScore(60);
+        Transaction changed = stored.copy();
+        changed.setAmount(new BigDecimal("30.00"));
+        when(entityManager.find(Transaction.class, 1L)).thenReturn(stored);
+        when(entityManager.merge(changed)).thenReturn(changed);
+        
+        // When
+        Transaction result = repository.update(changed);
+        
+        // Then
+        assertFalse(result.isSuspicious());
+        assertEquals(0, result.getRiskScore());
+    }
+    
     @Test
     @DisplayName("update() - Debería lanzar excepción con transacción null")
     void testUpdate_NullTransaction_ShouldThrowException() {
@@ -225,6 +424,7 @@ class TransactionRepositoryTest {
         assertTrue(result);
         verify(entityManager).find(Transaction.class, id);
         verify(entityManager).remove(testTransaction);
+        verify(changeEvents).fire(argThat(event -> event.getType() == TransactionChangeEvent.Type.DELETED));
     }
     
     @Test
@@ -307,11 +507,12 @@ class TransactionRepositoryTest {
     void testFindByCategory_ValidCategory_ShouldReturnTransactions() {
         // Given
         String category = "groceries";
-        String expectedJpql = "SELECT t FROM Transaction t WHERE t.category = :category " +
+        String expectedJpql = "SELECT t FROM Transaction t WHERE t.categoryId = :categoryId " +
                              "ORDER BY t.transactionDate DESC";
         
+        when(categories.idOf(category)).thenReturn((short) 1);
         when(entityManager.createQuery(expectedJpql, Transaction.class)).thenReturn(typedQuery);
-        when(typedQuery.setParameter("category", category)).thenReturn(typedQuery);
+        when(typedQuery.setParameter("categoryId", (short) 1)).thenReturn(typedQuery);
         when(typedQuery.getResultList()).thenReturn(testTransactionList);
         
         // When
@@ -321,10 +522,66 @@ class TransactionRepositoryTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(entityManager).createQuery(expectedJpql, Transaction.class);
-        verify(typedQuery).setParameter("category", category);
+        verify(typedQuery).setParameter("categoryId", (short) 1);
         verify(typedQuery).getResultList();
     }
     
+    @Test
+    @DisplayName("findByCategory() - Debería retornar lista vacía sin consultar con categoría desconocida")
+    void testFindByCategory_UnknownCategory_ShouldReturnEmptyList() {
+        // Given
+        when(categories.idOf("unknown")).thenReturn(null);
+        
+        // When
+        List<Transaction> result = repository.findByCategory("unknown");
+        
+        // Then
+        assertTrue(result.isEmpty());
+        verify(entityManager, never()).createQuery(anyString(), eq(Transaction.class));
+    }
+    
+    @Test
+    @DisplayName("search() - Debería buscar por subcadena con el término escapado y ordenar por distancia")
+    void testSearch_LongTerm_ShouldUseSubstringPattern() {
+        // Given
+        when(entityManager.createNativeQuery(anyString(), eq(Transaction.class))).thenReturn(nativeQuery);
+        when(nativeQuery.getResultList()).thenReturn(testTransactionList);
+        
+        // When
+        List<Transaction> result = repository.search("  Amazon_50% ", 20);
+        
+        // Then
+        assertEquals(1, result.size());
+        verify(nativeQuery).setParameter(1, "%amazon\\_50\\%%");
+        verify(nativeQuery).setParameter(2, "amazon_50%");
+        verify(nativeQuery).setParameter(3, 20);
+        verify(entityManager).createNativeQuery(argThat((String sql) ->
+                sql.contains("ORDER BY lower(description) <-> ?2") && sql.indexOf("LIMIT") == sql.lastIndexOf("LIMIT")),
+                eq(Transaction.class));
+    }
+    
+    @Test
+    @DisplayName("search() - Debería buscar por prefijo con términos cortos")
+    void testSearch_ShortTerm_ShouldUsePrefixPattern() {
+        // Given
+        when(entityManager.createNativeQuery(anyString(), eq(Transaction.class))).thenReturn(nativeQuery);
+        when(nativeQuery.getResultList()).thenReturn(List.of());
+        
+        // When
+        repository.search("Ab", 5);
+        
+        // Then
+        verify(nativeQuery).setParameter(1, "ab%");
+    }
+    
+    @Test
+    @DisplayName("search() - Debería retornar lista vacía con término vacío")
+    void testSearch_EmptyTerm_ShouldReturnEmptyList() {
+        assertTrue(repository.search("  ", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repository.search("food", 0));
+        verify(entityManager, never()).createNativeQuery(anyString(), eq(Transaction.class));
+    }
+    
     @Test
     @DisplayName("findByCategory() - Debería retornar lista vacía con categoría null")
     void testFindByCategory_NullCategory_ShouldReturnEmptyList() {
@@ -456,6 +713,173 @@ class TransactionRepositoryTest {
         verify(typedQuery).setParameter("minAmount", highValueThreshold);
     }
     
+    // ========================================================================
+    // TESTS: PAGINACIÓN POR KEYSET
+    // ========================================================================
+    
+    @Test
+    @DisplayName("findPage() - Primera página sin cursor debería limitar y ordenar por la clave")
+    void testFindPage_WithoutCursor_ShouldLimitAndOrder() {
+        // Given
+        String expectedJpql = "SELECT t FROM Transaction t WHERE 1 = 1" +
+                             " ORDER BY t.transactionDate DESC, t.amount DESC, t.id DESC";
+        
+        when(entityManager.createQuery(expectedJpql, Transaction.class)).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(testTransactionList);
+        
+        // When
+        List<Transaction> result = repository.findPage(TransactionFilter.all(), null, 50);
+        
+        // Then
+        assertEquals(1, result.size());
+        verify(typedQuery).setMaxResults(50);
+        verify(typedQuery, never()).setParameter(eq("cursorId"), any());
+    }
+    
+    @Test
+    @DisplayName("findPage() - Con cursor y categoría debería continuar tras la clave")
+    void testFindPage_WithCursorAndCategory_ShouldSeekAfterKey() {
+        // Given
+        PageCursor cursor = PageCursor.after(testTransaction);
+        String expectedJpql = "SELECT t FROM Transaction t WHERE 1 = 1" +
+                             " AND t.categoryId = :categoryId" +
+                             " AND t.transactionDate <= :cursorDate" +
+                             " AND (t.transactionDate < :cursorDate" +
+                             " OR t.amount < :cursorAmount" +
+                             " OR (t.amount = :cursorAmount AND t.id < :cursorId))" +
+                             " ORDER BY t.transactionDate DESC, t.amount DESC, t.id DESC";
+        
+        when(categories.idOf("groceries")).thenReturn((short) 1);
+        when(entityManager.createQuery(expectedJpql, Transaction.class)).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of());
+        
+        // When
+        List<Transaction> result = repository.findPage(TransactionFilter.category("groceries"), cursor, 10);
+        
+        // Then
+        assertTrue(result.isEmpty());
+        verify(typedQuery).setParameter("categoryId", (short) 1);
+        verify(typedQuery).setParameter("cursorDate", testTransaction.getTransactionDate());
+        verify(typedQuery).setParameter("cursorAmount", testTransaction.getAmount());
+        verify(typedQuery).setParameter("cursorId", testTransaction.getId());
+        verify(typedQuery).setMaxResults(10);
+    }
+    
+    @Test
+    @DisplayName("findPage() - Debería lanzar excepción con límite no positivo")
+    void testFindPage_InvalidLimit_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            repository.findPage(TransactionFilter.all(), null, 0);
+        });
+        
+        verify(entityManager, never()).createQuery(anyString(), eq(Transaction.class));
+    }
+    
+    @Test
+    @DisplayName("PageCursor - Debería codificar y decodificar la misma clave")
+    void testPageCursor_EncodeDecode_ShouldRoundTrip() {
+        PageCursor cursor = PageCursor.after(testTransaction);
+        
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+        
+        assertEquals(cursor, decoded);
+        assertNull(PageCursor.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor"));
+    }
+    
+    @Test
+    @DisplayName("forEachMatching() - Debería recorrer un cursor de servidor sin pasar por JPA")
+    void testForEachMatching_ShouldScanWithServerCursor() throws SQLException {
+        // Given
+        String expectedSql = "SELECT id, transactiondate, amount, description, category, category_id, " +
+                             "issuspicious, risk_score, createdat FROM fact_transactions WHERE 1 = 1" +
+                             " AND transactiondate >= ?" +
+                             " ORDER BY transactiondate DESC, amount DESC, id DESC";
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        List<Transaction> visited = new ArrayList<>();
+        
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(expectedSql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getLong(1)).thenReturn(1L);
+        when(resultSet.getObject(2, LocalDate.class)).thenReturn(LocalDate.of(2024, 1, 15));
+        when(resultSet.getBigDecimal(3)).thenReturn(new BigDecimal("100.00"));
+        when(resultSet.getString(4)).thenReturn("Test transaction");
+        when(resultSet.getString(5)).thenReturn("groceries");
+        when(resultSet.getShort(6)).thenReturn((short) 1);
+        
+        // When
+        long count = repository.forEachMatching(TransactionFilter.since(from), visited::add);
+        
+        // Then
+        assertEquals(1, count);
+        assertEquals(1, visited.size());
+        assertEquals(1L, visited.get(0).getId());
+        assertEquals("Test transaction", visited.get(0).getDescription());
+        assertEquals(new BigDecimal("100.00"), visited.get(0).getAmount());
+        assertEquals((short) 1, visited.get(0).getCategoryId());
+        verify(statement).setFetchSize(TransactionRepository.STREAM_FETCH_SIZE);
+        verify(statement).setObject(1, from);
+        verify(resultSet).close();
+        verify(connection).close();
+        verify(connection, never()).setAutoCommit(anyBoolean());
+        verifyNoInteractions(entityManager);
+    }
+    
+    @Test
+    @DisplayName("forEachMatching() - Debería desactivar el autocommit para que PostgreSQL use el cursor")
+    void testForEachMatching_AutoCommitConnection_ShouldDisableIt() throws SQLException {
+        // Given
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        
+        // When
+        long count = repository.forEachMatching(TransactionFilter.all(), t -> fail("No rows expected"));
+        
+        // Then
+        assertEquals(0, count);
+        verify(connection).setAutoCommit(false);
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+    }
+    
+    @Test
+    @DisplayName("forEachMatching() - Debería traducir los errores de JDBC y cerrar la conexión")
+    void testForEachMatching_SqlError_ShouldThrowPersistenceException() throws SQLException {
+        // Given
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("boom"));
+        
+        // When / Then
+        assertThrows(PersistenceException.class,
+                () -> repository.forEachMatching(TransactionFilter.all(), t -> { }));
+        verify(connection).close();
+    }
+    
+    @Test
+    @DisplayName("forEachId() - Debería recorrer los ids con un cursor de servidor")
+    void testForEachId_ShouldScanWithServerCursor() throws SQLException {
+        // Given
+        List<Long> visited = new ArrayList<>();
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT id FROM fact_transactions")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(1)).thenReturn(7L, 9L);
+        
+        // When
+        long count = repository.forEachId(visited::add);
+        
+        // Then
+        assertEquals(2, count);
+        assertEquals(List.of(7L, 9L), visited);
+        verify(statement).setFetchSize(TransactionRepository.STREAM_FETCH_SIZE);
+        verifyNoInteractions(entityManager);
+    }
+    
     // ========================================================================
     // TESTS: AGREGACIONES Y ESTADÍSTICAS
     // ========================================================================
@@ -540,14 +964,16 @@ class TransactionRepositoryTest {
     @DisplayName("countByCategory() - Debería retornar conteo agrupado")
     void testCountByCategory_ShouldReturnGroupedCount() {
         // Given
-        String expectedJpql = "SELECT t.category, COUNT(t) FROM Transaction t " +
-                             "GROUP BY t.category " +
+        String expectedJpql = "SELECT t.categoryId, COUNT(t) FROM Transaction t " +
+                             "GROUP BY t.categoryId " +
                              "ORDER BY COUNT(t) DESC";
         List<Object[]> expectedResult = List.of(
-            new Object[]{"groceries", 5L},
-            new Object[]{"transport", 3L}
+            new Object[]{(short) 1, 5L},
+            new Object[]{(short) 3, 3L}
         );
         
+        when(categories.nameOf((short) 1)).thenReturn("groceries");
+        when(categories.nameOf((short) 3)).thenReturn("transport");
         when(entityManager.createQuery(expectedJpql, Object[].class)).thenReturn(objectArrayQuery);
         when(objectArrayQuery.getResultList()).thenReturn(expectedResult);
         
@@ -557,6 +983,8 @@ class TransactionRepositoryTest {
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
+        assertArrayEquals(new Object[]{"groceries", 5L}, result.get(0));
+        assertArrayEquals(new Object[]{"transport", 3L}, result.get(1));
         verify(entityManager).createQuery(expectedJpql, Object[].class);
         verify(objectArrayQuery).getResultList();
     }
@@ -0,0 +1,114 @@
+package com.pac.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para TransactionRollupRepository usando JUnit 5 y Mockito.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionRollupRepository Unit Tests")
+class TransactionRollupRepositoryTest {
+    
+    @Mock
+    private EntityManager entityManager;
+    
+    @Mock
+    private Query query;
+    
+    @Mock
+    private CategoryRegistry categories;
+    
+    @InjectMocks
+    private TransactionRollupRepository repository;
+    
+    @Test
+    @DisplayName("findSeries() - Debería filtrar los rollups por category_id")
+    void testFindSeries_ShouldFilterByCategoryId() {
+        // Given
+        when(categories.idOf("food")).thenReturn((short) 4);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.<Object[]>of(new Object[]{
+            Date.valueOf("2024-03-01"), 3L, new BigDecimal("45.00"), new BigDecimal("5.00"),
+            new BigDecimal("20.00"), 1L}));
+        
+        // When
+        List<TimeseriesPoint> series = repository.findSeries(Granularity.MONTH,
+                LocalDate.of(2024, 3, 15), LocalDate.of(2024, 4, 2), "food");
+        
+        // Then
+        verify(entityManager).createNativeQuery(contains("FROM rollup_monthly_transactions "
+                + "WHERE bucket BETWEEN ?1 AND ?2 AND category_id = ?3"));
+        verify(query).setParameter(1, Date.valueOf("2024-03-01"));
+        verify(query).setParameter(3, (short) 4);
+        assertEquals(1, series.size());
+        assertEquals(LocalDate.of(2024, 3, 1), series.get(0).getBucket());
+    }
+    
+    @Test
+    @DisplayName("findSeries() - Debería ampliar el rango semanal a semanas ISO completas")
+    void testFindSeries_Week_ShouldWidenToWholeWeeks() {
+        // Given: del miércoles 2024-03-13 al martes 2024-04-02
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+        
+        // When
+        repository.findSeries(Granularity.WEEK, LocalDate.of(2024, 3, 13), LocalDate.of(2024, 4, 2), null);
+        
+        // Then: del lunes 2024-03-11 al domingo 2024-04-07
+        verify(entityManager).createNativeQuery(contains("FROM rollup_daily_transactions WHERE bucket BETWEEN ?1 AND ?2"));
+        verify(query).setParameter(1, Date.valueOf("2024-03-11"));
+        verify(query).setParameter(2, Date.valueOf("2024-04-07"));
+    }
+    
+    @Test
+    @DisplayName("findSeries() - Debería devolver una serie vacía para una categoría inexistente")
+    void testFindSeries_UnknownCategory_ShouldReturnEmpty() {
+        // Given
+        when(categories.idOf("merchant")).thenReturn(null);
+        
+        // When
+        List<TimeseriesPoint> series = repository.findSeries(Granularity.DAY,
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), "merchant");
+        
+        // Then
+        assertTrue(series.isEmpty());
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+    
+    @Test
+    @DisplayName("refresh() - Debería recalcular los rollups agrupando por category_id")
+    void testRefresh_ShouldGroupByCategoryId() {
+        // Given
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyInt(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(7);
+        
+        // When
+        int written = repository.refresh(LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 6));
+        
+        // Then
+        assertEquals(7, written);
+        verify(entityManager).createNativeQuery(contains("GROUP BY transactiondate, category_id"));
+        verify(entityManager).createNativeQuery(contains("GROUP BY CAST(date_trunc('month', bucket) AS DATE), category_id"));
+        verify(entityManager, never()).createNativeQuery(contains("COALESCE(category"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.pac.rest.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para Bulkhead.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("Bulkhead Unit Tests")
+class BulkheadTest {
+    
+    private final Bulkhead bulkhead = new Bulkhead("scan", 2, 1, Executors.defaultThreadFactory());
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+    
+    private Runnable blocking(CountDownLatch started) {
+        return () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+    
+    @Test
+    @DisplayName("submit() - Debería rechazar de inmediato cuando ejecución y cola están llenas")
+    void testSubmit_Full_ShouldReject() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(2);
+        assertTrue(bulkhead.submit(blocking(started)));
+        assertTrue(bulkhead.submit(blocking(started)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(bulkhead.submit(() -> { }));
+        
+        // When
+        boolean accepted = bulkhead.submit(() -> { });
+        
+        // Then
+        assertFalse(accepted);
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(1, bulkhead.getQueued());
+    }
+    
+    @Test
+    @DisplayName("submit() - Debería ejecutar la tarea en cola cuando se libera un hilo")
+    void testSubmit_Queued_ShouldRunAfterRelease() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(2);
+        bulkhead.submit(blocking(started));
+        bulkhead.submit(blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CountDownLatch done = new CountDownLatch(1);
+        assertTrue(bulkhead.submit(done::countDown));
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        
+        // When
+        release.countDown();
+        
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getRejected());
+    }
+}
@@ -0,0 +1,116 @@
+package com.pac.rest.cbor;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para el codificador, el decodificador y el mapeo CBOR.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("CborMapper Unit Tests")
+class CborMapperTest {
+
+    private static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborEncoder encoder = new CborEncoder(out);
+        CborMapper.write(encoder, value);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    private static Object decode(byte[] bytes) throws IOException {
+        return new CborDecoder(new ByteArrayInputStream(bytes)).readValue();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("write() - Debería codificar como los ejemplos del RFC 8949")
+    void testWrite_RfcVectors() throws IOException {
+        assertArrayEquals(bytes(0x18, 0x64), encode(100L));
+        assertArrayEquals(bytes(0x38, 0x63), encode(-100));
+        assertArrayEquals(bytes(0x1B, 0x00, 0x00, 0x00, 0xE8, 0xD4, 0xA5, 0x10, 0x00), encode(1_000_000_000_000L));
+        assertArrayEquals(bytes(0x64, 0x49, 0x45, 0x54, 0x46), encode("IETF"));
+        assertArrayEquals(bytes(0x62, 0xC3, 0xBC), encode("ü"));
+        assertArrayEquals(bytes(0xC4, 0x82, 0x21, 0x19, 0x6A, 0xB3), encode(new BigDecimal("273.15")));
+        assertArrayEquals(bytes(0xD8, 0x64, 0x19, 0x4D, 0x19), encode(LocalDate.of(2024, 1, 15)));
+    }
+
+    @Test
+    @DisplayName("readValue() - Debería recuperar importes, fechas y enteros grandes")
+    void testRoundTrip_Values() throws IOException {
+        BigDecimal huge = new BigDecimal("-123456789012345678901234567890.12");
+        assertEquals(huge, decode(encode(huge)));
+        assertEquals(new BigDecimal("150.50"), decode(encode(new BigDecimal("150.50"))));
+        assertEquals(LocalDate.of(1969, 12, 31), decode(encode(LocalDate.of(1969, 12, 31))));
+        assertEquals(List.of(1L, "a", true), decode(encode(List.of(1, "a", true))));
+        assertEquals(1.5, decode(bytes(0xF9, 0x3E, 0x00)));
+        assertEquals(LocalDate.of(2024, 1, 15), decode(bytes(0xD9, 0x03, 0xEC,
+                0x6A, '2', '0', '2', '4', '-', '0', '1', '-', '1', '5')));
+    }
+
+    @Test
+    @DisplayName("writeTransaction() - Debería producir los campos de JSON y leerse de vuelta")
+    void testRoundTrip_Transaction() throws IOException {
+        // Given
+        Transaction transaction = new Transaction(LocalDate.of(2024, 1, 15), new BigDecimal("150.50"),
+                "Compra Supermercado", "groceries");
+        transaction.setId(7L);
+        transaction.setSuspicious(true);
+
+        // When
+        Object decoded = decode(encode(List.of(transaction)));
+
+        // Then
+        Map<?, ?> row = (Map<?, ?>) ((List<?>) decoded).get(0);
+        assertEquals(7L, row.get("id"));
+        assertEquals(Boolean.TRUE, row.get("suspicious"));
+        Transaction read = CborMapper.readTransaction(row);
+        assertEquals(transaction.getTransactionDate(), read.getTransactionDate());
+        assertEquals(transaction.getAmount(), read.getAmount());
+        assertEquals(transaction.getDescription(), read.getDescription());
+        assertEquals(transaction.getCategory(), read.getCategory());
+        assertTrue(read.isSuspicious());
+    }
+
+    @Test
+    @DisplayName("readTransaction() - Debería rechazar campos ausentes o con tipo incorrecto")
+    void testReadTransaction_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> CborMapper.readTransaction(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> CborMapper.readTransaction(Map.of("transactionDate", LocalDate.of(2024, 1, 15))));
+        assertThrows(IllegalArgumentException.class, () -> CborMapper.readTransaction(Map.of(
+                "transactionDate", "2024-01-15", "amount", 10L, "description", 5L, "category", "x")));
+    }
+
+    @Test
+    @DisplayName("readValue() - Debería rechazar entradas truncadas, anidadas en exceso o demasiado largas")
+    void testReadValue_Malformed() {
+        assertThrows(IOException.class, () -> decode(bytes(0x82, 0x01)));
+        assertThrows(IOException.class, () -> decode(bytes(0x7B, 0x7F, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF)));
+        assertThrows(IOException.class, () -> decode(bytes(0xFF)));
+        byte[] deep = new byte[CborDecoder.MAX_DEPTH + 2];
+        Arrays.fill(deep, (byte) 0x81);
+        assertThrows(IOException.class, () -> decode(deep));
+    }
+}
@@ -0,0 +1,107 @@
+package com.pac.rest.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para CompressionInterceptor y ContentEncoding.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CompressionInterceptor Unit Tests")
+class CompressionInterceptorTest {
+    
+    private static final String BODY = "[{\"category\":\"groceries\"},{\"category\":\"groceries\"}]";
+    
+    @Mock
+    private HttpHeaders requestHeaders;
+    
+    @Mock
+    private WriterInterceptorContext context;
+    
+    @InjectMocks
+    private CompressionInterceptor interceptor;
+    
+    private final MultivaluedMap<String, Object> responseHeaders = new MultivaluedHashMap<>();
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    private OutputStream entityStream = sent;
+    
+    private void givenResponse(MediaType type, String acceptEncoding) throws IOException {
+        lenient().when(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING)).thenReturn(acceptEncoding);
+        when(context.getMediaType()).thenReturn(type);
+        lenient().when(context.getHeaders()).thenReturn(responseHeaders);
+        lenient().when(context.getOutputStream()).thenAnswer(invocation -> entityStream);
+        lenient().doAnswer(invocation -> entityStream = invocation.getArgument(0))
+                .when(context).setOutputStream(any());
+        doAnswer(invocation -> {
+            entityStream.write(BODY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(context).proceed();
+    }
+    
+    @Test
+    @DisplayName("aroundWriteTo() - Debería comprimir JSON con gzip si el cliente lo acepta")
+    void testAroundWriteTo_Gzip() throws IOException {
+        // Given
+        givenResponse(MediaType.APPLICATION_JSON_TYPE, "gzip, deflate, br");
+        
+        // When
+        interceptor.aroundWriteTo(context);
+        
+        // Then
+        assertEquals("gzip", responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, responseHeaders.getFirst(HttpHeaders.VARY));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent.toByteArray()))) {
+            assertEquals(BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+    
+    @Test
+    @DisplayName("aroundWriteTo() - No debería comprimir los eventos SSE")
+    void testAroundWriteTo_NotCompressed() throws IOException {
+        // Given
+        givenResponse(MediaType.SERVER_SENT_EVENTS_TYPE, "gzip");
+        
+        // When
+        interceptor.aroundWriteTo(context);
+        
+        // Then
+        assertFalse(responseHeaders.containsKey(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, sent.toString(StandardCharsets.UTF_8));
+        verify(context, never()).setOutputStream(any());
+    }
+    
+    @Test
+    @DisplayName("negotiate() - Debería respetar las preferencias q de Accept-Encoding")
+    void testNegotiate() {
+        assertNull(ContentEncoding.negotiate(null));
+        assertNull(ContentEncoding.negotiate("identity"));
+        assertNull(ContentEncoding.negotiate("gzip;q=0"));
+        assertEquals("gzip", ContentEncoding.negotiate("*"));
+        assertEquals("gzip", ContentEncoding.negotiate("deflate, gzip"));
+        assertEquals("deflate", ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", ContentEncoding.negotiate("deflate, *;q=0"));
+    }
+}
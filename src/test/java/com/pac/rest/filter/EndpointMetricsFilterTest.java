@@ -0,0 +1,223 @@
+package com.pac.rest.filter;
+
+import com.pac.accesslog.AccessLog;
+import com.pac.metrics.ApiMetrics;
+import com.pac.rest.MetricsResource;
+import com.pac.rest.TransactionResource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para EndpointMetricsFilter.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EndpointMetricsFilter Unit Tests")
+class EndpointMetricsFilterTest {
+
+    @Mock
+    private ResourceInfo resourceInfo;
+
+    @Mock
+    private ApiMetrics metrics;
+
+    @Mock
+    private AccessLog accessLog;
+
+    @Mock
+    private ContainerRequestContext request;
+
+    @Mock
+    private ContainerResponseContext response;
+
+    @Mock
+    private WriterInterceptorContext writer;
+
+    @InjectMocks
+    private EndpointMetricsFilter filter;
+
+    private static Method resourceMethod(String name) {
+        for (Method method : TransactionResource.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @Test
+    @DisplayName("filter() - Debería registrar latencia, código y filas de la respuesta")
+    void testFilter_ShouldRecordResponse() {
+        // Given
+        when(resourceInfo.getResourceMethod()).thenReturn(resourceMethod("getSuspiciousTransactions"));
+        doReturn(TransactionResource.class).when(resourceInfo).getResourceClass();
+        filter.filter(request);
+        verify(request).setProperty(EndpointMetricsFilter.ENDPOINT_PROPERTY, ApiMetrics.Endpoint.SUSPICIOUS);
+        when(request.getProperty(EndpointMetricsFilter.ENDPOINT_PROPERTY)).thenReturn(ApiMetrics.Endpoint.SUSPICIOUS);
+        when(request.getProperty(EndpointMetricsFilter.START_PROPERTY)).thenReturn(System.nanoTime());
+        when(response.getStatus()).thenReturn(200);
+        doReturn(List.of(1, 2, 3)).when(response).getEntity();
+
+        // When
+        filter.filter(request, response);
+
+        // Then
+        verify(metrics).endpoint(eq(ApiMetrics.Endpoint.SUSPICIOUS), anyLong(), eq(200), eq(3));
+    }
+
+    @Test
+    @DisplayName("filter() - Debería registrar en el access log las peticiones elegidas al escribir el cuerpo")
+    void testFilter_ShouldDeferAccessLogUntilBytesAreKnown() throws IOException {
+        // Given
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(request.getProperty(EndpointMetricsFilter.ENDPOINT_PROPERTY)).thenReturn(ApiMetrics.Endpoint.SEARCH);
+        when(request.getProperty(EndpointMetricsFilter.START_PROPERTY)).thenReturn(System.nanoTime());
+        when(request.getUriInfo()).thenReturn(uriInfo);
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost:8080/api/transactions/search?q=amazon%20eu"));
+        when(response.getStatus()).thenReturn(200);
+        doReturn(List.of("a", "b")).when(response).getEntity();
+        when(response.hasEntity()).thenReturn(true);
+        when(response.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+        when(accessLog.sample(eq(200), anyLong())).thenReturn(0.01);
+        Object[] entry = {null};
+        doAnswer(invocation -> entry[0] = invocation.getArgument(1))
+                .when(request).setProperty(eq(EndpointMetricsFilter.ACCESS_LOG_PROPERTY), any());
+
+        // When
+        filter.filter(request, response);
+
+        // Then
+        assertNotNull(entry[0]);
+        verify(accessLog, never()).record(any(), any(), any(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), anyDouble());
+
+        // When
+        OutputStream[] current = {new ByteArrayOutputStream()};
+        when(writer.getProperty(EndpointMetricsFilter.ENDPOINT_PROPERTY)).thenReturn(ApiMetrics.Endpoint.SEARCH);
+        when(writer.getProperty(EndpointMetricsFilter.ACCESS_LOG_PROPERTY)).thenReturn(entry[0]);
+        when(writer.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+        when(writer.getOutputStream()).thenAnswer(invocation -> current[0]);
+        doAnswer(invocation -> current[0] = invocation.getArgument(0)).when(writer).setOutputStream(any());
+        doAnswer(invocation -> {
+            current[0].write(new byte[42], 0, 42);
+            return null;
+        }).when(writer).proceed();
+        filter.aroundWriteTo(writer);
+
+        // Then
+        verify(accessLog).record(eq(ApiMetrics.Endpoint.SEARCH), eq("/api/transactions/search"), eq("q=amazon%20eu"),
+                eq(200), anyLong(), anyLong(), eq(2), eq(42L), eq(0.01));
+    }
+
+    @Test
+    @DisplayName("filter() - Debería registrar los errores sin cuerpo inmediatamente")
+    void testFilter_ShouldRecordErrorWithoutBody() {
+        // Given
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(request.getProperty(EndpointMetricsFilter.ENDPOINT_PROPERTY)).thenReturn(ApiMetrics.Endpoint.BY_ID);
+        when(request.getProperty(EndpointMetricsFilter.START_PROPERTY)).thenReturn(System.nanoTime());
+        when(request.getUriInfo()).thenReturn(uriInfo);
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost:8080/api/transactions/TX-404"));
+        when(response.getStatus()).thenReturn(404);
+        when(response.hasEntity()).thenReturn(false);
+        when(accessLog.sample(eq(404), anyLong())).thenReturn(1.0);
+
+        // When
+        filter.filter(request, response);
+
+        // Then
+        verify(accessLog).record(eq(ApiMetrics.Endpoint.BY_ID), eq("/api/transactions/TX-404"), isNull(),
+                eq(404), anyLong(), anyLong(), eq(0), eq(0L), eq(1.0));
+        verify(request, never()).setProperty(eq(EndpointMetricsFilter.ACCESS_LOG_PROPERTY), any());
+    }
+
+    @Test
+    @DisplayName("filter() - No debería medir otros recursos")
+    void testFilter_OtherResource() throws NoSuchMethodException {
+        // Given
+        when(resourceInfo.getResourceMethod()).thenReturn(MetricsResource.class.getMethod("getMetrics"));
+        doReturn(MetricsResource.class).when(resourceInfo).getResourceClass();
+
+        // When
+        filter.filter(request);
+        filter.filter(request, response);
+
+        // Then
+        verify(request, never()).setProperty(any(), any());
+        verifyNoInteractions(metrics);
+    }
+
+    @Test
+    @DisplayName("aroundWriteTo() - Debería contar los bytes enviados y devolver el stream original")
+    void testAroundWriteTo_ShouldCountBytes() throws IOException {
+        // Given
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        OutputStream[] current = {sent};
+        when(writer.getProperty(EndpointMetricsFilter.ENDPOINT_PROPERTY)).thenReturn(ApiMetrics.Endpoint.LIST);
+        when(writer.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+        when(writer.getOutputStream()).thenAnswer(invocation -> current[0]);
+        doAnswer(invocation -> current[0] = invocation.getArgument(0)).when(writer).setOutputStream(any());
+        doAnswer(invocation -> {
+            current[0].write(new byte[1500], 0, 1500);
+            current[0].write('\n');
+            return null;
+        }).when(writer).proceed();
+
+        // When
+        filter.aroundWriteTo(writer);
+
+        // Then
+        assertEquals(1501, sent.size());
+        assertSame(sent, current[0]);
+        verify(metrics).responseBytes(ApiMetrics.Endpoint.LIST, 1501);
+    }
+
+    @Test
+    @DisplayName("rows() - Debería contar filas solo en listas y páginas")
+    void testRows() {
+        assertEquals(0, EndpointMetricsFilter.rows(null));
+        assertEquals(2, EndpointMetricsFilter.rows(List.of("a", "b")));
+        assertEquals(1, EndpointMetricsFilter.rows("stats"));
+    }
+
+    @Test
+    @DisplayName("Endpoint - Debería cubrir todos los endpoints del recurso")
+    void testEndpoint_ShouldCoverResource() {
+        for (Method method : TransactionResource.class.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(GET.class) || method.isAnnotationPresent(POST.class)
+                    || method.isAnnotationPresent(Path.class)) {
+                assertNotNull(ApiMetrics.Endpoint.forResourceMethod(method.getName()), method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.pac.rest.ingest;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionRepository;
+import com.pac.rest.cbor.CborEncoder;
+import com.pac.rest.cbor.CborMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para BatchIngestor usando JUnit 5 y Mockito.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchIngestor Unit Tests")
+class BatchIngestorTest {
+    
+    private static final String VALID_ROW =
+            "{\"transactionDate\":\"2024-01-15\",\"amount\":150.50," +
+            "\"description\":\"Compra Supermercado\",\"category\":\"groceries\"}";
+    
+    @Mock
+    private TransactionRepository repository;
+    
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    @DisplayName("ingestJsonArray() - Debería escribir en bloques y reportar filas inválidas")
+    void testIngestJsonArray_ShouldWriteChunksAndReportInvalidRows() {
+        // Given
+        when(repository.createAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        String json = "[" + VALID_ROW + "," + VALID_ROW + "," +
+                      "{\"transactionDate\":\"2024/01/15\",\"amount\":10,\"description\":\"x\",\"category\":\"y\"}," +
+                      "42," + VALID_ROW + "]";
+        
+        // When
+        BatchIngestResult result = new BatchIngestor(repository, 2).ingestJsonArray(body(json));
+        
+        // Then
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals(4, result.getErrors().get(1).getRow());
+        assertNull(result.getError());
+        verify(repository, times(2)).createAll(anyList());
+    }
+    
+    @Test
+    @DisplayName("ingestNdjson() - Debería rechazar las filas que fallan también una a una")
+    void testIngestNdjson_FailedChunk_ShouldRejectItsRows() {
+        // Given
+        when(repository.createAll(anyList())).thenThrow(new IllegalStateException("duplicate key"));
+        String ndjson = VALID_ROW + "\n\n" + VALID_ROW + "\n{broken\n";
+        
+        // When
+        BatchIngestResult result = new BatchIngestor(repository, 10).ingestNdjson(body(ndjson));
+        
+        // Then
+        assertEquals(3, result.getReceived());
+        assertEquals(0, result.getInserted());
+        assertEquals(3, result.getRejected());
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.getMessage().contains("duplicate key")));
+    }
+    
+    @Test
+    @DisplayName("ingestNdjson() - Debería reintentar fila a fila un bloque fallido y rechazar solo la fila culpable")
+    void testIngestNdjson_FailedChunk_ShouldRetryRowByRow() {
+        // Given: el bloque falla por la fila con categoría desconocida
+        String badRow = VALID_ROW.replace("groceries", "unknown");
+        when(repository.createAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(t -> "unknown".equals(t.getCategory()))) {
+                throw new IllegalArgumentException("Unknown category 'unknown'");
+            }
+            return rows.size();
+        });
+        String ndjson = VALID_ROW + "\n" + badRow + "\n" + VALID_ROW + "\n";
+        
+        // When
+        BatchIngestResult result = new BatchIngestor(repository, 10).ingestNdjson(body(ndjson));
+        
+        // Then
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Insert failed: Unknown category 'unknown'", result.getErrors().get(0).getMessage());
+        verify(repository, times(4)).createAll(anyList());
+    }
+    
+    @Test
+    @DisplayName("ingestJsonArray() - Debería informar del cuerpo mal formado")
+    void testIngestJsonArray_MalformedBody_ShouldReportError() {
+        // When
+        BatchIngestResult result = new BatchIngestor(repository, 10).ingestJsonArray(body("{\"not\":\"array\"}"));
+        
+        // Then
+        assertNotNull(result.getError());
+        verify(repository, never()).createAll(anyList());
+    }
+    
+    @Test
+    @DisplayName("ingestCbor() - Debería leer un array indefinido y rechazar filas que no son mapas")
+    void testIngestCbor_IndefiniteArray() throws IOException {
+        // Given
+        when(repository.createAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborEncoder encoder = new CborEncoder(out);
+        encoder.writeStartArray();
+        CborMapper.write(encoder, new Transaction(LocalDate.of(2024, 1, 15), new BigDecimal("150.50"),
+                "Compra Supermercado", "groceries"));
+        CborMapper.write(encoder, "not a row");
+        CborMapper.write(encoder, Map.of("transactionDate", "2024-01-16", "amount", "20.00",
+                "description", "Taxi", "category", "transport"));
+        encoder.writeBreak().flush();
+        
+        // When
+        BatchIngestResult result = new BatchIngestor(repository, 10)
+                .ingestCbor(new ByteArrayInputStream(out.toByteArray()));
+        
+        // Then
+        assertNull(result.getError());
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getErrors().get(0).getRow());
+    }
+    
+    @Test
+    @DisplayName("TransactionRowParser - Debería aceptar amount como texto y el flag suspicious")
+    void testRowParser_StringAmountAndSuspicious() {
+        // Given
+        javax.json.JsonObject row = javax.json.Json.createObjectBuilder()
+                .add("transactionDate", "2024-02-01")
+                .add("amount", "2500.00")
+                .add("description", "Transferencia")
+                .add("category", "transfer")
+                .add("suspicious", true)
+                .build();
+        
+        // When
+        Transaction transaction = TransactionRowParser.parse(row);
+        
+        // Then
+        assertEquals(new java.math.BigDecimal("2500.00"), transaction.getAmount());
+        assertTrue(transaction.isSuspicious());
+    }
+}
@@ -0,0 +1,190 @@
+package com.pac.rest.sse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para TransactionEventBroker usando JUnit 5 y Mockito.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionEventBroker Unit Tests")
+class TransactionEventBrokerTest {
+
+    private static final Executor DIRECT = Runnable::run;
+    private static final long TIMEOUT = 1_000L;
+
+    /**
+     * Instante de arranque fijo: los ids son "epoch36-id36".
+     */
+    private static final long EPOCH = 1_700_000_000_000L;
+    private static final String PREFIX = Long.toString(EPOCH, 36) + "-";
+
+    @Mock
+    private Sse sse;
+
+    @Mock
+    private OutboundSseEvent outbound;
+
+    private OutboundSseEvent.Builder builder;
+
+    @BeforeEach
+    void setUp() {
+        builder = mock(OutboundSseEvent.Builder.class, RETURNS_SELF);
+        lenient().when(builder.build()).thenReturn(outbound);
+        lenient().when(sse.newEventBuilder()).thenReturn(builder);
+    }
+
+    private SseEventSink sink() {
+        SseEventSink sink = mock(SseEventSink.class);
+        lenient().when(sink.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+        return sink;
+    }
+
+    private List<String> sentIds() {
+        ArgumentCaptor<String> ids = ArgumentCaptor.forClass(String.class);
+        verify(builder, atLeast(0)).id(ids.capture());
+        return ids.getAllValues();
+    }
+
+    private List<String> sentNames() {
+        ArgumentCaptor<String> names = ArgumentCaptor.forClass(String.class);
+        verify(builder, atLeast(0)).name(names.capture());
+        return names.getAllValues();
+    }
+
+    @Test
+    @DisplayName("publish() - Debería enviar los eventos en orden con ids crecientes")
+    void testPublish_ShouldDeliverInOrder() {
+        // Given
+        TransactionEventBroker broker = new TransactionEventBroker(16, 8, TIMEOUT, DIRECT, EPOCH);
+        SseEventSink sink = sink();
+        broker.subscribe(sink, sse, null);
+
+        // When
+        broker.publish("transaction", "{\"id\":1}");
+        broker.publish("suspicious", "{\"id\":1}");
+
+        // Then
+        verify(sink, times(2)).send(outbound);
+        assertEquals(List.of(PREFIX + "1", PREFIX + "2"), sentIds());
+        assertEquals(List.of("transaction", "suspicious"), sentNames());
+    }
+
+    @Test
+    @DisplayName("subscribe() - Debería reenviar los eventos posteriores a Last-Event-ID")
+    void testSubscribe_LastEventId_ShouldReplayMissedEvents() {
+        // Given
+        TransactionEventBroker broker = new TransactionEventBroker(16, 8, TIMEOUT, DIRECT, EPOCH);
+        for (int i = 0; i < 5; i++) {
+            broker.publish("transaction", "{}");
+        }
+
+        // When
+        broker.subscribe(sink(), sse, PREFIX + "3");
+
+        // Then
+        assertEquals(List.of(PREFIX + "4", PREFIX + "5"), sentIds());
+    }
+
+    @Test
+    @DisplayName("subscribe() - Debería pedir resync si los eventos perdidos ya no están disponibles")
+    void testSubscribe_ExpiredLastEventId_ShouldResync() {
+        // Given: solo se conservan los 4 últimos eventos
+        TransactionEventBroker broker = new TransactionEventBroker(4, 8, TIMEOUT, DIRECT, EPOCH);
+        for (int i = 0; i < 10; i++) {
+            broker.publish("transaction", "{}");
+        }
+
+        // When
+        broker.subscribe(sink(), sse, PREFIX + "2");
+        broker.subscribe(sink(), sse, PREFIX + "2r");
+
+        // Then
+        assertEquals(List.of(PREFIX + "a", PREFIX + "a"), sentIds());
+        assertEquals(List.of(TransactionEventBroker.RESYNC, TransactionEventBroker.RESYNC), sentNames());
+    }
+
+    @Test
+    @DisplayName("subscribe() - Debería pedir resync si Last-Event-ID es de otro despliegue")
+    void testSubscribe_OtherEpoch_ShouldResync() {
+        // Given: el despliegue anterior llegó al evento 3 y el nuevo ya ha emitido 5
+        TransactionEventBroker previous = new TransactionEventBroker(16, 8, TIMEOUT, DIRECT, EPOCH - 60_000);
+        for (int i = 0; i < 3; i++) {
+            previous.publish("transaction", "{}");
+        }
+        TransactionEventBroker broker = new TransactionEventBroker(16, 8, TIMEOUT, DIRECT, EPOCH);
+        for (int i = 0; i < 5; i++) {
+            broker.publish("transaction", "{}");
+        }
+
+        // When
+        broker.subscribe(sink(), sse, previous.getLastEventId());
+        broker.subscribe(sink(), sse, "3");
+        broker.subscribe(sink(), sse, " ");
+
+        // Then
+        assertEquals(List.of(PREFIX + "5", PREFIX + "5"), sentIds());
+        assertEquals(List.of(TransactionEventBroker.RESYNC, TransactionEventBroker.RESYNC), sentNames());
+        assertEquals(3, broker.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("publish() - Debería desconectar al cliente que llena su buffer")
+    void testPublish_SlowConsumer_ShouldBeDropped() {
+        // Given: el executor del cliente lento nunca ejecuta los envíos
+        List<Runnable> stalled = new ArrayList<>();
+        TransactionEventBroker slowBroker = new TransactionEventBroker(16, 2, TIMEOUT, stalled::add);
+        SseEventSink slow = sink();
+        slowBroker.subscribe(slow, sse, null);
+
+        // When
+        slowBroker.publish("transaction", "{}");
+        slowBroker.publish("transaction", "{}");
+        assertEquals(1, slowBroker.getSubscriberCount());
+        slowBroker.publish("transaction", "{}");
+
+        // Then
+        assertEquals(0, slowBroker.getSubscriberCount());
+        assertEquals(1, slowBroker.getDroppedSubscribers());
+        verify(slow).close();
+        assertEquals(1, stalled.size());
+    }
+
+    @Test
+    @DisplayName("publish() - Debería desconectar al cliente cuyo envío no termina a tiempo")
+    void testPublish_SendTimeout_ShouldCloseSubscriber() {
+        // Given: el envío al cliente nunca se completa
+        TransactionEventBroker broker = new TransactionEventBroker(16, 8, 10L, DIRECT, EPOCH);
+        SseEventSink stuck = mock(SseEventSink.class);
+        when(stuck.send(any())).thenReturn(new CompletableFuture<>());
+        broker.subscribe(stuck, sse, null);
+
+        // When
+        broker.publish("transaction", "{}");
+        broker.publish("transaction", "{}");
+
+        // Then
+        verify(stuck, atLeastOnce()).close();
+        verify(stuck, times(1)).send(any());
+        assertEquals(0, broker.getSubscriberCount());
+    }
+}
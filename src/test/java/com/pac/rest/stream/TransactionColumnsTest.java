@@ -0,0 +1,63 @@
+package com.pac.rest.stream;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.stream.JsonGenerator;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para TransactionColumns y su escritor JSON.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("TransactionColumns Unit Tests")
+class TransactionColumnsTest {
+    
+    private static Transaction transaction(long id, String amount) {
+        Transaction transaction = new Transaction(LocalDate.of(2024, 1, 15), new BigDecimal(amount),
+                "Compra", "groceries");
+        transaction.setId(id);
+        return transaction;
+    }
+    
+    @Test
+    @DisplayName("write() - Debería escribir un array por columna solicitada")
+    void testWrite_RequestedColumns() {
+        // Given
+        TransactionColumns columns = new TransactionColumns(
+                List.of(transaction(1, "150.50"), transaction(2, "20.00")),
+                TransactionColumns.parseColumns("amount, transactionDate"));
+        StringWriter out = new StringWriter();
+        
+        // When
+        try (JsonGenerator generator = Json.createGenerator(out)) {
+            TransactionColumnsWriter.write(generator, columns);
+        }
+        
+        // Then
+        JsonObject json = Json.createReader(new StringReader(out.toString())).readObject();
+        assertEquals(Set.of("transactionDate", "amount"), json.keySet());
+        assertEquals(new BigDecimal("150.50"), json.getJsonArray("amount").getJsonNumber(0).bigDecimalValue());
+        assertEquals("2024-01-15", json.getJsonArray("transactionDate").getString(1));
+    }
+    
+    @Test
+    @DisplayName("parseColumns() - Debería aceptar todas por defecto y rechazar columnas desconocidas")
+    void testParseColumns() {
+        assertEquals(TransactionColumns.Column.values().length, TransactionColumns.parseColumns(null).size());
+        assertThrows(IllegalArgumentException.class, () -> TransactionColumns.parseColumns("amount,balance"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionColumns.parseColumns(" , "));
+    }
+}
@@ -0,0 +1,129 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para RuleEngine con las reglas por defecto.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("RuleEngine Unit Tests")
+class RuleEngineTest {
+    
+    private final RuleEngine engine = SuspicionRules.loadDefault();
+    
+    private static RuleEngine parse(String json) {
+        return RuleEngine.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    @ParameterizedTest(name = "{0} {1} {2} ''{3}'' -> {4}")
+    @CsvSource({
+        // Fecha (2024-01-20 es sábado), monto, categoría, descripción, puntuación esperada
+        "2024-01-17, 100.00, groceries, Supermercado, 0",
+        "2024-01-17, 2000.00, housing, Alquiler, 60",
+        "2024-01-17, 50.00, other, Cargo por ERROR, 60",
+        "2024-01-17, 1500.00, transfer, Transferencia, 30",
+        "2024-01-20, 1500.00, transfer, Transferencia, 55",
+        "2024-01-20, 2500.00, transfer, Fraude detectado, 100"
+    })
+    @DisplayName("score() - Debería sumar las puntuaciones de las reglas cumplidas")
+    void testScore_DefaultRules(String date, String amount, String category, String description, int expected) {
+        Transaction transaction = new Transaction(LocalDate.parse(date), new BigDecimal(amount), description, category);
+        assertEquals(expected, engine.score(transaction));
+    }
+    
+    @Test
+    @DisplayName("apply() - Debería marcar como sospechosa al alcanzar el umbral sin retirar marcas previas")
+    void testApply_ShouldSetSuspiciousAtThreshold() {
+        // Given
+        Transaction low = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("10.00"), "Cafe", "food", false);
+        Transaction flagged = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("10.00"), "Cafe", "food", true);
+        Transaction high = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("3000.00"), "Coche", "other", false);
+        
+        // When
+        engine.apply(low);
+        engine.apply(flagged);
+        engine.apply(high);
+        
+        // Then
+        assertFalse(low.isSuspicious());
+        assertEquals(0, low.getRiskScore());
+        assertTrue(flagged.isSuspicious());
+        assertTrue(high.isSuspicious());
+        assertEquals(60, high.getRiskScore());
+    }
+    
+    @Test
+    @DisplayName("reapply() - Debería retirar la marca de las reglas y conservar la manual al actualizar")
+    void testReapply_ShouldRecomputeRuleFlag() {
+        // Given: versiones almacenadas marcadas por las reglas y a mano
+        Transaction byRules = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("3000.00"), "Coche", "other", false);
+        engine.apply(byRules);
+        Transaction manual = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("10.00"), "Cafe", "food", true);
+        engine.apply(manual);
+        Transaction clean = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("10.00"), "Cafe", "food", false);
+        engine.apply(clean);
+        
+        // When: las tres bajan a 10.00 y la petición devuelve la marca que tenían o la añade
+        Transaction lowered = byRules.copy();
+        lowered.setAmount(new BigDecimal("10.00"));
+        engine.reapply(lowered, byRules);
+        Transaction stillManual = manual.copy();
+        engine.reapply(stillManual, manual);
+        Transaction unflagged = manual.copy();
+        unflagged.setSuspicious(false);
+        engine.reapply(unflagged, manual);
+        Transaction newlyFlagged = clean.copy();
+        newlyFlagged.setSuspicious(true);
+        engine.reapply(newlyFlagged, clean);
+        Transaction raised = clean.copy();
+        raised.setAmount(new BigDecimal("3000.00"));
+        engine.reapply(raised, clean);
+        
+        // Then
+        assertFalse(lowered.isSuspicious());
+        assertEquals(0, lowered.getRiskScore());
+        assertTrue(stillManual.isSuspicious());
+        assertFalse(unflagged.isSuspicious());
+        assertTrue(newlyFlagged.isSuspicious());
+        assertTrue(raised.isSuspicious());
+        assertEquals(60, raised.getRiskScore());
+    }
+    
+    @Test
+    @DisplayName("parse() - Debería aplicar rangos de fechas y montos máximos")
+    void testParse_DateAndMaxAmountConditions() {
+        // Given
+        RuleEngine custom = parse("{\"threshold\": 10, \"rules\": [{\"name\": \"q1-small\", \"score\": 10,"
+                + " \"maxAmount\": 5, \"fromDate\": \"2024-01-01\", \"toDate\": \"2024-03-31\"}]}");
+        
+        // Then
+        assertEquals(10, custom.score(new Transaction(LocalDate.of(2024, 2, 1), new BigDecimal("4.99"), "x", "other")));
+        assertEquals(0, custom.score(new Transaction(LocalDate.of(2024, 4, 1), new BigDecimal("4.99"), "x", "other")));
+        assertEquals(0, custom.score(new Transaction(LocalDate.of(2024, 2, 1), new BigDecimal("5.01"), "x", "other")));
+    }
+    
+    @Test
+    @DisplayName("parse() - Debería rechazar configuraciones no válidas")
+    void testParse_InvalidConfiguration_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"rules\": []}"));
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"threshold\": 50}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> parse("{\"threshold\": 50, \"rules\": [{\"name\": \"r\", \"score\": 0}]}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> parse("{\"threshold\": 50, \"rules\": [{\"name\": \"r\", \"score\": 5, \"daysOfWeek\": [\"FUNDAY\"]}]}"));
+        assertThrows(IllegalArgumentException.class, () -> parse("not json"));
+    }
+}
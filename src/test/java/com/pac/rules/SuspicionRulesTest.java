@@ -0,0 +1,66 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para SuspicionRules con las reglas por defecto
+ * (category-burst: más de 20 transacciones por categoría en 10 minutos).
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("SuspicionRules Unit Tests")
+class SuspicionRulesTest {
+
+    private SuspicionRules rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = new SuspicionRules();
+        rules.init();
+    }
+
+    private static List<Transaction> transactions(String category, int count) {
+        List<Transaction> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("5.00"), "Compra " + i, category));
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería registrar las creaciones confirmadas una a una")
+    void testOnChange_SingleCreates_ShouldRecord() {
+        // Given: descripción distinta para que no cuente repeated-description
+        Transaction next = new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal("5.00"), "Supermercado", "food");
+
+        // When
+        for (Transaction transaction : transactions("food", 20)) {
+            rules.onChange(TransactionChangeEvent.created(List.of(transaction)));
+        }
+
+        // Then
+        assertEquals(50, rules.velocity().score(next));
+    }
+
+    @Test
+    @DisplayName("onChange() - No debería registrar las cargas en bloque")
+    void testOnChange_Bulk_ShouldNotRecord() {
+        // When
+        rules.onChange(TransactionChangeEvent.createdInBulk(transactions("food", 500)));
+
+        // Then
+        assertEquals(0, rules.velocity().score(transactions("food", 1).get(0)));
+    }
+}
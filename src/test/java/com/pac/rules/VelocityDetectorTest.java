@@ -0,0 +1,165 @@
+package com.pac.rules;
+
+import com.pac.entity.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para VelocityDetector y sus ventanas deslizantes.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("VelocityDetector Unit Tests")
+class VelocityDetectorTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private static Transaction transaction(String amount, String description, String category) {
+        return new Transaction(LocalDate.of(2024, 1, 17), new BigDecimal(amount), description, category);
+    }
+
+    private static VelocityDetector detector(VelocityKey key, long maxCount, long maxCents, int maxKeys) {
+        return new VelocityDetector(List.of(
+                new VelocityRule("burst", 50, key, Duration.ofMinutes(10), 10, maxCount, maxCents, maxKeys)));
+    }
+
+    @Test
+    @DisplayName("record() - Debería puntuar al superar el número de eventos en la ventana")
+    void testRecord_CountThreshold() {
+        // Given: más de 3 transacciones de la misma categoría en 10 minutos
+        VelocityDetector detector = detector(VelocityKey.CATEGORY, 3, 0, 64);
+
+        // Then
+        assertEquals(0, detector.record(transaction("5.00", "a", "food"), T0));
+        assertEquals(0, detector.record(transaction("5.00", "b", "food"), T0 + MINUTE));
+        assertEquals(0, detector.record(transaction("5.00", "c", "food"), T0 + 2 * MINUTE));
+        assertEquals(0, detector.record(transaction("5.00", "d", "transport"), T0 + 2 * MINUTE));
+        assertEquals(50, detector.record(transaction("5.00", "e", "food"), T0 + 3 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("score() - Debería anticipar la puntuación sin registrar el evento")
+    void testScore_ShouldNotRecord() {
+        // Given
+        VelocityDetector detector = detector(VelocityKey.CATEGORY, 1, 0, 64);
+        Transaction food = transaction("5.00", "a", "food");
+
+        // Then: sin registrar, la ventana sigue vacía
+        assertEquals(0, detector.score(food, T0));
+        assertEquals(0, detector.score(food, T0));
+
+        // When
+        detector.record(food, T0);
+
+        // Then
+        assertEquals(50, detector.score(food, T0 + MINUTE));
+        assertEquals(0, detector.score(transaction("5.00", "b", "transport"), T0 + MINUTE));
+    }
+
+    @Test
+    @DisplayName("record() - Debería olvidar los eventos que salen de la ventana")
+    void testRecord_WindowSlides() {
+        // Given
+        VelocityDetector detector = detector(VelocityKey.CATEGORY, 2, 0, 64);
+        detector.record(transaction("5.00", "a", "food"), T0);
+        detector.record(transaction("5.00", "b", "food"), T0 + MINUTE);
+
+        // Then: a los 10 minutos el primer evento ya no cuenta
+        assertEquals(0, detector.record(transaction("5.00", "c", "food"), T0 + 10 * MINUTE));
+        assertEquals(50, detector.record(transaction("5.00", "d", "food"), T0 + 10 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("record() - Debería puntuar al superar la suma de montos y agrupar descripciones normalizadas")
+    void testRecord_SumThresholdByDescription() {
+        // Given: límite de 100.00 por descripción
+        VelocityDetector detector = detector(VelocityKey.DESCRIPTION, 0, 10_000, 64);
+
+        // Then
+        assertEquals(0, detector.record(transaction("60.00", "Uber 12/03 ref 8812", "transport"), T0));
+        assertEquals(0, detector.record(transaction("60.00", "Taxi", "transport"), T0));
+        assertEquals(50, detector.record(transaction("40.01", "UBER ref-9120", "transport"), T0));
+    }
+
+    @Test
+    @DisplayName("record() - Un evento atrasado no debería sobrescribir un bucket posterior")
+    void testRecord_OutOfOrderEvent() {
+        // Given: dos eventos en el minuto 10, que ocupa la posición del minuto 0
+        VelocityDetector detector = detector(VelocityKey.CATEGORY, 2, 0, 64);
+        detector.record(transaction("5.00", "a", "food"), T0 + 10 * MINUTE);
+        detector.record(transaction("5.00", "b", "food"), T0 + 10 * MINUTE);
+
+        // When: llega tarde un evento del minuto 0
+        detector.record(transaction("5.00", "c", "food"), T0);
+
+        // Then: los eventos del minuto 10 siguen contando
+        assertEquals(50, detector.record(transaction("5.00", "d", "food"), T0 + 10 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("record() - Debería acotar las claves seguidas desalojando las más antiguas")
+    void testRecord_BoundedKeys() {
+        // Given: tabla de 4 posiciones y miles de claves distintas
+        VelocityDetector detector = detector(VelocityKey.CATEGORY, 1, 0, 4);
+        for (int i = 0; i < 10_000; i++) {
+            detector.record(transaction("1.00", "x", "category-" + i), T0 + i);
+        }
+
+        // Then: la clave activa se sigue detectando
+        assertEquals(0, detector.record(transaction("1.00", "x", "hot"), T0 + 20_000));
+        assertEquals(50, detector.record(transaction("1.00", "x", "hot"), T0 + 20_001));
+    }
+
+    @Test
+    @DisplayName("record() - No debería perder eventos con escritores concurrentes")
+    void testRecord_ConcurrentWriters() throws InterruptedException {
+        // Given: el límite es exactamente el número de eventos concurrentes
+        int threads = 8;
+        int perThread = 10_000;
+        VelocityRule rule = new VelocityRule("burst", 50, VelocityKey.CATEGORY, Duration.ofMinutes(10), 10,
+                threads * perThread, 0, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    assertEquals(0, rule.record("food", 100, T0 + (i % 10) * MINUTE / 2));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then: el siguiente evento supera el límite solo si no se perdió ninguno
+        assertEquals(50, rule.record("food", 100, T0 + 5 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("compile() - Debería leer la sección velocity de las reglas por defecto")
+    void testCompile_DefaultRules() {
+        assertEquals(2, SuspicionRules.loadDefaultVelocity().size());
+        assertEquals(0, VelocityDetector.NONE.record(transaction("1.00", "x", "food")));
+    }
+}
@@ -0,0 +1,212 @@
+package com.pac.search;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para DescriptionSuggester.
+ *
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DescriptionSuggester Unit Tests")
+class DescriptionSuggesterTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private DescriptionSuggester suggester;
+
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(executor.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            submitted.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+        lenient().when(transactionRepository.countDescriptionTokens()).thenReturn(List.of(
+                new Object[]{"amazon", 50L},
+                new Object[]{"amex", 10L},
+                new Object[]{"prime", 20L}));
+    }
+
+    private void load() {
+        suggester.init();
+        submitted.forEach(Runnable::run);
+    }
+
+    private static Transaction transaction(String description) {
+        return new Transaction(LocalDate.of(2024, 1, 15), new BigDecimal("10.00"), description, "shopping", false);
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        List<String> result = new ArrayList<>();
+        for (Suggestion suggestion : suggestions) {
+            result.add(suggestion.getText() + "=" + suggestion.getCount());
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("init() - Debería construir el índice en segundo plano y no sugerir nada hasta terminar")
+    void testInit_ShouldBuildInBackground() {
+        // When
+        suggester.init();
+
+        // Then
+        verify(transactionRepository, never()).countDescriptionTokens();
+        assertFalse(suggester.isReady());
+        assertTrue(suggester.suggest("am", 5).isEmpty());
+
+        // When
+        submitted.forEach(Runnable::run);
+
+        // Then
+        assertTrue(suggester.isReady());
+        assertEquals(List.of("amazon=50", "amex=10"), texts(suggester.suggest("am", 5)));
+    }
+
+    @Test
+    @DisplayName("suggest() - Debería conservar las palabras anteriores al último token")
+    void testSuggest_ShouldKeepHead() {
+        // Given
+        load();
+
+        // When & Then
+        assertEquals(List.of("Amazon prime=20"), texts(suggester.suggest("Amazon PR", 5)));
+        assertTrue(suggester.suggest("amazon ", 5).isEmpty());
+        assertTrue(suggester.suggest(null, 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> suggester.suggest("am", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> suggester.suggest("am", PrefixIndex.MAX_SUGGESTIONS + 1));
+    }
+
+    @Test
+    @DisplayName("onChange() - Debería ajustar frecuencias y servir los tokens nuevos antes de incorporarlos")
+    void testOnChange_ShouldApplyDeltasAndPending() {
+        // Given
+        load();
+
+        // When
+        suggester.onChange(TransactionChangeEvent.created(List.of(transaction("Amazon Prime"), transaction("Amazonia"))));
+        suggester.onChange(TransactionChangeEvent.deleted(transaction("Amex")));
+
+        // Then
+        assertEquals(List.of("amazon=51", "amex=9", "amazonia=1"), texts(suggester.suggest("am", 5)));
+
+        // When
+        suggester.mergePending();
+
+        // Then
+        assertEquals(List.of("amazon=51", "amex=9", "amazonia=1"), texts(suggester.suggest("am", 5)));
+        assertEquals(List.of("amazon=51"), texts(suggester.suggest("am", 1)));
+    }
+
+    @Test
+    @DisplayName("mergePending() - Debería recalcular el top-k de los prefijos cortos tras cambios en sitio")
+    void testMergePending_ShouldRecomputePrecomputedTopK() {
+        // Given: 51 tokens con prefijo "z"; "zz00" queda fuera del top-50 precalculado
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i <= PrefixIndex.MAX_SUGGESTIONS; i++) {
+            rows.add(new Object[]{String.format("zz%02d", i), (long) i + 1});
+        }
+        when(transactionRepository.countDescriptionTokens()).thenReturn(rows);
+        load();
+        List<Transaction> created = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            created.add(transaction("zz00"));
+        }
+        suggester.onChange(TransactionChangeEvent.created(created));
+        assertEquals(List.of("zz50=51"), texts(suggester.suggest("z", 1)));
+
+        // When
+        suggester.mergePending();
+
+        // Then
+        assertEquals(List.of("zz00=101"), texts(suggester.suggest("z", 1)));
+        assertEquals(List.of("zz00=101"), texts(suggester.suggest("zz0", 1)));
+    }
+
+    @Test
+    @DisplayName("mergePending() - No debería incorporar nada antes de la carga inicial")
+    void testMergePending_BeforeLoad_ShouldDoNothing() {
+        // Given
+        suggester.init();
+        suggester.onChange(TransactionChangeEvent.created(List.of(transaction("Netflix"))));
+
+        // When
+        suggester.mergePending();
+
+        // Then
+        assertTrue(suggester.suggest("ne", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("rebuild() - Debería conservar los cambios recibidos mientras se ejecuta la consulta")
+    void testRebuild_ShouldKeepChangesDuringQuery() {
+        // Given
+        load();
+        when(transactionRepository.countDescriptionTokens()).thenAnswer(invocation -> {
+            suggester.onChange(TransactionChangeEvent.created(List.of(transaction("Amazon"), transaction("Amstel"))));
+            return List.of(new Object[]{"amazon", 50L}, new Object[]{"amex", 10L});
+        });
+
+        // When
+        suggester.rebuild();
+
+        // Then
+        assertEquals(List.of("amazon=51", "amex=10", "amstel=1"), texts(suggester.suggest("am", 5)));
+    }
+
+    @Test
+    @DisplayName("suggest() - Debería servir solo los tokens pendientes del prefijo pedido")
+    void testSuggest_ShouldMatchPendingByPrefix() {
+        // Given
+        load();
+        suggester.onChange(TransactionChangeEvent.created(List.of(
+                transaction("Ampere"), transaction("Alba"), transaction("Ana"))));
+
+        // When & Then
+        assertEquals(List.of("amazon=50", "amex=10", "ampere=1"), texts(suggester.suggest("am", 5)));
+        assertEquals(List.of("ana=1"), texts(suggester.suggest("an", 5)));
+    }
+
+    @Test
+    @DisplayName("rebuild() - Debería mantener el índice anterior si falla la consulta")
+    void testRebuild_Failure_ShouldKeepIndex() {
+        // Given
+        load();
+        when(transactionRepository.countDescriptionTokens()).thenThrow(new IllegalStateException("db down"));
+
+        // When
+        suggester.rebuild();
+
+        // Then
+        assertEquals(List.of("amazon=50", "amex=10"), texts(suggester.suggest("am", 5)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.pac.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitarios para PrefixIndex.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@DisplayName("PrefixIndex Unit Tests")
+class PrefixIndexTest {
+    
+    private static List<String> complete(PrefixIndex index, String prefix, int k) {
+        PrefixIndex.TopK topK = new PrefixIndex.TopK(k);
+        index.collect(prefix, topK);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < topK.size(); i++) {
+            result.add(index.tokenAt(topK.indexAt(i)) + "=" + topK.valueAt(i));
+        }
+        return result;
+    }
+    
+    @Test
+    @DisplayName("tokenize() - Debería normalizar y descartar tokens demasiado cortos")
+    void testTokenize_ShouldNormalize() {
+        assertEquals(List.of("amazon", "prime", "12", "mes"), PrefixIndex.tokenize("AMAZON*Prime 12/mes x"));
+        assertTrue(PrefixIndex.tokenize(null).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("collect() - Debería devolver las completaciones más frecuentes")
+    void testCollect_ShouldReturnTopK() {
+        // Given
+        Map<String, Integer> frequencies = new HashMap<>();
+        frequencies.put("amazon", 50);
+        frequencies.put("amex", 10);
+        frequencies.put("ampm", 30);
+        frequencies.put("apple", 99);
+        frequencies.put("bank", 5);
+        PrefixIndex index = PrefixIndex.build(frequencies);
+        
+        // Then
+        assertEquals(List.of("amazon=50", "ampm=30"), complete(index, "am", 2));
+        assertEquals(List.of("amazon=50", "ampm=30", "amex=10"), complete(index, "am", 10));
+        assertEquals(List.of("amazon=50"), complete(index, "ama", 10));
+        assertEquals(List.of("apple=99", "amazon=50"), complete(index, "a", 2));
+        assertTrue(complete(index, "zz", 5).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("add() - Debería actualizar solo tokens existentes")
+    void testAdd_ShouldUpdateExistingTokens() {
+        // Given
+        PrefixIndex index = PrefixIndex.build(Map.of("amazon", 5, "amex", 10));
+        
+        // When
+        boolean existing = index.add("amazon", 20);
+        boolean unknown = index.add("ampm", 1);
+        
+        // Then
+        assertTrue(existing);
+        assertFalse(unknown);
+        assertEquals(25, index.count("amazon"));
+        assertEquals(List.of("amazon=25", "amex=10"), complete(index, "am", 5));
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.pac.stats;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para RollupMaintainer usando JUnit 5 y Mockito.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RollupMaintainer Unit Tests")
+class RollupMaintainerTest {
+    
+    @Mock
+    private TransactionRollupRepository rollupRepository;
+    
+    @InjectMocks
+    private RollupMaintainer maintainer;
+    
+    private static Transaction transaction(LocalDate date) {
+        return new Transaction(date, new BigDecimal("10.00"), "Test", "food", false);
+    }
+    
+    @Test
+    @DisplayName("flush() - Debería recalcular los días afectados agrupados en rangos contiguos")
+    void testFlush_ShouldRefreshContiguousRanges() {
+        // Given
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        maintainer.onChange(TransactionChangeEvent.created(List.of(
+                transaction(day), transaction(day.plusDays(1)), transaction(day.plusDays(30)))));
+        maintainer.onChange(TransactionChangeEvent.updated(transaction(day.minusDays(1)), transaction(day)));
+        
+        // When
+        maintainer.flush();
+        maintainer.flush();
+        
+        // Then
+        verify(rollupRepository).refresh(day.minusDays(1), day.plusDays(1));
+        verify(rollupRepository).refresh(day.plusDays(30), day.plusDays(30));
+        verifyNoMoreInteractions(rollupRepository);
+    }
+    
+    @Test
+    @DisplayName("flush() - Debería reintentar los días cuyo recálculo falla")
+    void testFlush_FailedRefresh_ShouldRetry() {
+        // Given
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        maintainer.onChange(TransactionChangeEvent.deleted(transaction(day)));
+        when(rollupRepository.refresh(any(), any()))
+                .thenThrow(new RuntimeException("Database error"))
+                .thenReturn(1);
+        
+        // When
+        maintainer.flush();
+        maintainer.flush();
+        
+        // Then
+        verify(rollupRepository, times(2)).refresh(day, day);
+    }
+}
@@ -0,0 +1,106 @@
+package com.pac.stats;
+
+import com.pac.entity.Transaction;
+import com.pac.repository.TransactionChangeEvent;
+import com.pac.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitarios para TransactionStatistics usando JUnit 5 y Mockito.
+ * 
+ * @author Sistema PAC
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionStatistics Unit Tests")
+class TransactionStatisticsTest {
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @InjectMocks
+    private TransactionStatistics statistics;
+    
+    /**
+     * Estado inicial en base de datos: 2 transacciones de groceries por 300.00,
+     * una de ellas sospechosa.
+     */
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.count()).thenReturn(2L);
+        when(transactionRepository.countSuspicious()).thenReturn(1L);
+        when(transactionRepository.sumTotal()).thenReturn(new BigDecimal("300.00"));
+        when(transactionRepository.countByCategory()).thenReturn(List.<Object[]>of(new Object[]{"groceries", 2L}));
+        when(transactionRepository.sumByCategory())
+                .thenReturn(List.<Object[]>of(new Object[]{"groceries", new BigDecimal("300.00")}));
+        statistics.init();
+    }
+    
+    private static Transaction transaction(long id, String amount, String category, boolean suspicious) {
+        Transaction transaction = new Transaction(LocalDate.of(2024, 1, 15), new BigDecimal(amount),
+                "Test", category, suspicious);
+        transaction.setId(id);
+        return transaction;
+    }
+    
+    @Test
+    @DisplayName("init() - Debería cargar los totales desde el repositorio")
+    void testInit_ShouldLoadTotals() {
+        assertEquals(2L, statistics.getCount());
+        assertEquals(1L, statistics.getSuspiciousCount());
+        assertEquals(new BigDecimal("300.00"), statistics.getTotalAmount());
+        assertEquals(new BigDecimal("150.00"), statistics.getAverageAmount());
+    }
+    
+    @Test
+    @DisplayName("onChange() - Debería aplicar creaciones, actualizaciones y borrados sin consultar la BD")
+    void testOnChange_ShouldApplyDeltas() {
+        // Given
+        Transaction created = transaction(3L, "2500.00", "transfer", true);
+        Transaction updatedBefore = transaction(1L, "100.00", "groceries", false);
+        Transaction updatedAfter = transaction(1L, "120.50", "food", false);
+        
+        // When
+        statistics.onChange(TransactionChangeEvent.created(List.of(created)));
+        statistics.onChange(TransactionChangeEvent.updated(updatedBefore, updatedAfter));
+        statistics.onChange(TransactionChangeEvent.deleted(created));
+        
+        // Then
+        assertEquals(2L, statistics.getCount());
+        assertEquals(1L, statistics.getSuspiciousCount());
+        assertEquals(new BigDecimal("320.50"), statistics.getTotalAmount());
+        List<TransactionStatistics.CategoryTotal> byCategory = statistics.getByCategory();
+        assertEquals(2, byCategory.size());
+        assertEquals("groceries", byCategory.get(0).getCategory());
+        assertEquals(new BigDecimal("200.00"), byCategory.get(0).getTotalAmount());
+        assertEquals("food", byCategory.get(1).getCategory());
+        verify(transactionRepository, times(1)).count();
+    }
+    
+    @Test
+    @DisplayName("reconcile() - Debería corregir la deriva con los valores de la BD")
+    void testReconcile_ShouldReplaceTotals() {
+        // Given
+        statistics.onChange(TransactionChangeEvent.created(List.of(transaction(9L, "10.00", "other", false))));
+        
+        // When
+        statistics.reconcile();
+        
+        // Then
+        assertEquals(2L, statistics.getCount());
+        assertEquals(1, statistics.getByCategory().size());
+    }
+}